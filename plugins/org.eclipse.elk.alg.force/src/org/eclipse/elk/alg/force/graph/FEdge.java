@@ -16,7 +16,7 @@ import java.util.List;
 import org.eclipse.elk.core.math.ElkMath;
 import org.eclipse.elk.core.math.KVector;
 import org.eclipse.elk.core.math.KVectorChain;
-import org.eclipse.elk.graph.properties.MapPropertyHolder;
+import org.eclipse.elk.graph.properties.ArrayPropertyHolder;
 
 /**
  * A physico-virtual representation of an edge, including a list of associated bend points.
@@ -25,7 +25,7 @@ import org.eclipse.elk.graph.properties.MapPropertyHolder;
  * @kieler.design proposed by msp
  * @kieler.rating proposed yellow by msp
  */
-public final class FEdge extends MapPropertyHolder {
+public final class FEdge extends ArrayPropertyHolder {
 
     /** the serial version UID. */
     private static final long serialVersionUID = 4387555754824186467L;
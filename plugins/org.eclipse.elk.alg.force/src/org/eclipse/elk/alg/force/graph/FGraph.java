@@ -12,11 +12,13 @@ package org.eclipse.elk.alg.force.graph;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.elk.alg.force.options.ForceOptions;
 import org.eclipse.elk.graph.properties.MapPropertyHolder;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 
 /**
  * A graph for the force layouter.
@@ -39,8 +41,10 @@ public final class FGraph extends MapPropertyHolder {
     private List<FLabel> labels = new ArrayList<>();
     /** All bend points of this graph. */
     private List<FBendpoint> bendPoints = new ArrayList<>();
-    /** adjacency matrix of the graph. */
+    /** adjacency matrix of the graph, or {@code null} if the sparse adjacency is used. */
     private int[][] adjacency;
+    /** amount of connection between pairs of nodes, keyed by {@link #pairKey(FNode, FNode)}. */
+    private Map<Long, Integer> sparseAdjacency;
 
     /**
      * Returns the list of edges for this graph.
@@ -98,6 +102,10 @@ public final class FGraph extends MapPropertyHolder {
     public int getConnection(final FParticle particle1, final FParticle particle2) {
         if (particle1 instanceof FNode && particle2 instanceof FNode) {
             FNode node1 = (FNode) particle1, node2 = (FNode) particle2;
+            if (adjacency == null) {
+                Integer connection = sparseAdjacency.get(pairKey(node1, node2));
+                return connection == null ? 0 : connection;
+            }
             return adjacency[node1.id][node2.id] + adjacency[node2.id][node1.id];
         } else if (particle1 instanceof FBendpoint && particle2 instanceof FBendpoint) {
             FBendpoint bpoint1 = (FBendpoint) particle1, bpoint2 = (FBendpoint) particle2;
@@ -114,9 +122,40 @@ public final class FGraph extends MapPropertyHolder {
     public void calcAdjacency() {
         int n = nodes.size();
         adjacency = new int[n][n];
+        sparseAdjacency = null;
         for (FEdge edge : edges) {
             adjacency[edge.getSource().id][edge.getTarget().id] += edge.getProperty(ForceOptions.PRIORITY);
         }
     }
+    
+    /**
+     * Calculate the adjacency of the graph, storing only pairs of nodes that are connected. This
+     * takes memory linear in the number of edges instead of quadratic in the number of nodes, and
+     * {@link #getConnection(FParticle, FParticle)} yields the same values as with
+     * {@link #calcAdjacency()}.
+     */
+    public void calcSparseAdjacency() {
+        adjacency = null;
+        sparseAdjacency = Maps.newHashMapWithExpectedSize(edges.size());
+        for (FEdge edge : edges) {
+            int priority = edge.getProperty(ForceOptions.PRIORITY);
+            FNode source = edge.getSource(), target = edge.getTarget();
+            // a self loop is counted in both directions, just like in the adjacency matrix
+            sparseAdjacency.merge(pairKey(source, target), source == target ? 2 * priority : priority,
+                    Integer::sum);
+        }
+    }
+    
+    /**
+     * Returns a key for the given pair of nodes that does not depend on their order.
+     * 
+     * @param node1 first node
+     * @param node2 second node
+     * @return the key of the pair
+     */
+    private static long pairKey(final FNode node1, final FNode node2) {
+        int min = Math.min(node1.id, node2.id), max = Math.max(node1.id, node2.id);
+        return ((long) min << Integer.SIZE) | max;
+    }
 
 }
@@ -11,7 +11,7 @@
 package org.eclipse.elk.alg.force.graph;
 
 import org.eclipse.elk.core.math.KVector;
-import org.eclipse.elk.graph.properties.MapPropertyHolder;
+import org.eclipse.elk.graph.properties.ArrayPropertyHolder;
 
 /**
  * A particle in the force graph, that is an object that can attract or repulse other particles.
@@ -21,7 +21,7 @@ import org.eclipse.elk.graph.properties.MapPropertyHolder;
  * @kieler.design proposed by msp
  * @kieler.rating proposed yellow by msp
  */
-public abstract class FParticle extends MapPropertyHolder {
+public abstract class FParticle extends ArrayPropertyHolder {
     
     /** the serial version UID. */
     private static final long serialVersionUID = -6264474302326798066L;
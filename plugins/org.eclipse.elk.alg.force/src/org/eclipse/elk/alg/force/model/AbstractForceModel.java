@@ -10,8 +10,13 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.force.model;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.elk.alg.force.graph.FBendpoint;
 import org.eclipse.elk.alg.force.graph.FEdge;
@@ -24,6 +29,9 @@ import org.eclipse.elk.alg.force.options.InternalProperties;
 import org.eclipse.elk.core.math.KVector;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
 /**
  * Superclass for force models.
  *
@@ -39,9 +47,19 @@ public abstract class AbstractForceModel {
     private FGraph graph;
     /** upper bound for particle coordinates. */
     private double dispBound;
+    /** the quadtree used to approximate repulsive forces, or {@code null} if they are computed exactly. */
+    private ParticleQuadtree quadtree;
+    /** the accuracy parameter of the Barnes-Hut approximation. */
+    private double barnesHutTheta;
+    /** for each node, the other nodes it is connected to; only used with the Barnes-Hut approximation. */
+    private List<List<FNode>> neighbors = Collections.emptyList();
+    /** whether the displacements of each iteration are calculated in parallel. */
+    private boolean parallel;
     
     /** factor by which nodes influence the displacement bound. */
     private static final double DISP_BOUND_FACTOR = 16;
+    /** the number of nodes for which a parallel task calculates displacements, at least. */
+    private static final int NODES_PER_TASK = 64;
     
     /**
      * Initialize the force model with the given graph. Subclasses that override this
@@ -53,8 +71,13 @@ public abstract class AbstractForceModel {
         this.graph = fgraph;
         this.random = fgraph.getProperty(InternalProperties.RANDOM);
         
-        // calculate the adjacency matrix for the graph
-        fgraph.calcAdjacency();
+        // calculate the adjacency of the graph; with the Barnes-Hut approximation, connections are only
+        // looked up between neighbors, so the quadratic adjacency matrix is not needed
+        if (fgraph.getProperty(ForceOptions.BARNES_HUT)) {
+            fgraph.calcSparseAdjacency();
+        } else {
+            fgraph.calcAdjacency();
+        }
         
         // calculate an upper bound for particle displacement
         dispBound = Math.max(fgraph.getNodes().size() * DISP_BOUND_FACTOR + fgraph.getEdges().size(),
@@ -81,6 +104,19 @@ public abstract class AbstractForceModel {
                 edge.distributeBendpoints();
             }
         }
+        
+        // prepare the Barnes-Hut approximation of repulsive forces
+        if (fgraph.getProperty(ForceOptions.BARNES_HUT)) {
+            if (quadtree == null) {
+                quadtree = new ParticleQuadtree();
+            }
+            barnesHutTheta = fgraph.getProperty(ForceOptions.BARNES_HUT_THETA);
+            neighbors = calcNeighbors(fgraph);
+        } else {
+            quadtree = null;
+            neighbors = Collections.emptyList();
+        }
+        parallel = fgraph.getProperty(ForceOptions.PARALLEL_FORCES);
     }
     
     /**
@@ -115,14 +151,16 @@ public abstract class AbstractForceModel {
         while (moreIterations(iterations) && !monitor.isCanceled()) {
             
             // calculate attractive and repulsive forces
-            for (FNode v : fgraph.getNodes()) {
-                for (FParticle u : fgraph.getParticles()) {
-                    if (u != v) {
-                        KVector displacement = calcDisplacement(u, v);
-                        if (displacement != null) {
-                            v.getDisplacement().add(displacement);
-                        }
-                    }
+            if (parallel) {
+                calcDisplacementsInParallel();
+            } else if (quadtree != null) {
+                quadtree.build(fgraph.getParticles());
+                for (FNode v : fgraph.getNodes()) {
+                    calcApproximateDisplacement(v);
+                }
+            } else {
+                for (FNode v : fgraph.getNodes()) {
+                    calcExactDisplacement(v);
                 }
             }
             
@@ -140,6 +178,211 @@ public abstract class AbstractForceModel {
         monitor.done();
     }
     
+    /**
+     * Add the displacement of the given node caused by all other particles.
+     * 
+     * @param v a node
+     */
+    private void calcExactDisplacement(final FNode v) {
+        for (FParticle u : graph.getParticles()) {
+            if (u != v) {
+                KVector displacement = calcDisplacement(u, v);
+                if (displacement != null) {
+                    v.getDisplacement().add(displacement);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Add the displacement of the given node caused by all other particles, approximating the
+     * repulsive forces of distant particles with the quadtree. Particles the node is connected to are
+     * first treated like all other particles; the difference between their actual force and their
+     * repulsive force is added afterwards.
+     * 
+     * @param v a node
+     */
+    private void calcApproximateDisplacement(final FNode v) {
+        final KVector vdisp = v.getDisplacement();
+        quadtree.visit(v, barnesHutTheta, new ParticleQuadtree.Visitor() {
+            @Override
+            public void visitParticle(final FParticle u) {
+                avoidSamePosition(random, u, v);
+                addIfPresent(vdisp, calcRepulsion(u.getPosition(), u.getRadius(),
+                        u.getProperty(ForceOptions.PRIORITY), v));
+            }
+            
+            @Override
+            public void visitGroup(final KVector center, final double radius, final double priority) {
+                addIfPresent(vdisp, calcRepulsion(center, radius, priority, v));
+            }
+        });
+        
+        for (FNode u : neighbors.get(v.id)) {
+            avoidSamePosition(random, u, v);
+            addIfPresent(vdisp, calcDisplacement(u, v));
+            KVector repulsion = calcRepulsion(u.getPosition(), u.getRadius(),
+                    u.getProperty(ForceOptions.PRIORITY), v);
+            if (repulsion != null) {
+                vdisp.sub(repulsion);
+            }
+        }
+    }
+    
+    /**
+     * Calculate the displacements of all nodes with parallel tasks. Positions are not modified while
+     * the tasks run, and each node's displacement is only written by the task that the node belongs
+     * to, summing up the forces in the same order as a sequential calculation. The result thus does
+     * not depend on the number of threads or on how the nodes are split into tasks.
+     */
+    private void calcDisplacementsInParallel() {
+        // moving particles that share a position apart uses the random number generator, which must
+        // not happen in the tasks; once all positions are distinct, avoidSamePosition does nothing
+        separateCoincidentParticles();
+        if (quadtree != null) {
+            quadtree.build(graph.getParticles());
+        }
+        ForkJoinTask.invokeAll(createDisplacementTasks());
+    }
+    
+    /**
+     * Move particles that share a position apart, in the same way as
+     * {@link #avoidSamePosition(Random, FParticle, FParticle)} does when their force is calculated.
+     * The particles are checked in a fixed order until all their positions are distinct.
+     */
+    private void separateCoincidentParticles() {
+        Map<KVector, FParticle> occupied = Maps.newHashMap();
+        boolean moved;
+        do {
+            moved = false;
+            occupied.clear();
+            for (FParticle u : graph.getParticles()) {
+                KVector pos = u.getPosition();
+                // adding zero turns -0.0 into 0.0, which is equal but has a different hash code
+                FParticle v = occupied.put(new KVector(pos.x + 0.0, pos.y + 0.0), u);
+                // a particle may be listed more than once, just like it is skipped as its own forcer
+                if (v != null && v != u) {
+                    avoidSamePosition(random, v, u);
+                    moved = true;
+                }
+            }
+        } while (moved);
+    }
+    
+    /**
+     * Split the nodes into tasks by their position. The bounding box of the nodes is divided into a
+     * grid with {@link #NODES_PER_TASK} nodes per cell on average, and consecutive cells are put into
+     * the same task until it has at least that many nodes. Nodes that are close to each other thus
+     * tend to end up in the same task, which then mostly visits the same parts of the quadtree.
+     * 
+     * @return the tasks, which cover every node exactly once
+     */
+    private List<DisplacementTask> createDisplacementTasks() {
+        List<FNode> nodes = graph.getNodes();
+        int nodeCount = nodes.size();
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (FNode v : nodes) {
+            KVector pos = v.getPosition();
+            minX = Math.min(minX, pos.x);
+            minY = Math.min(minY, pos.y);
+            maxX = Math.max(maxX, pos.x);
+            maxY = Math.max(maxY, pos.y);
+        }
+        int gridSize = Math.max(1, (int) Math.ceil(Math.sqrt((double) nodeCount / NODES_PER_TASK)));
+        double cellWidth = (maxX - minX) / gridSize, cellHeight = (maxY - minY) / gridSize;
+        
+        // sort the nodes by the cell they lie in, row by row
+        int[] cell = new int[nodeCount];
+        int[] cellStart = new int[gridSize * gridSize + 1];
+        for (int i = 0; i < nodeCount; i++) {
+            KVector pos = nodes.get(i).getPosition();
+            int column = gridIndex(pos.x - minX, cellWidth, gridSize);
+            int row = gridIndex(pos.y - minY, cellHeight, gridSize);
+            cell[i] = row * gridSize + column;
+            cellStart[cell[i] + 1]++;
+        }
+        for (int c = 0; c < gridSize * gridSize; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] order = new int[nodeCount];
+        int[] next = Arrays.copyOf(cellStart, cellStart.length);
+        for (int i = 0; i < nodeCount; i++) {
+            order[next[cell[i]]++] = i;
+        }
+        
+        List<DisplacementTask> tasks = Lists.newArrayList();
+        int taskStart = 0;
+        for (int c = 1; c < cellStart.length; c++) {
+            if (cellStart[c] - taskStart >= NODES_PER_TASK
+                    || c == cellStart.length - 1 && cellStart[c] > taskStart) {
+                tasks.add(new DisplacementTask(order, taskStart, cellStart[c]));
+                taskStart = cellStart[c];
+            }
+        }
+        return tasks;
+    }
+    
+    /**
+     * Determine the grid cell a coordinate falls into.
+     * 
+     * @param offset the coordinate's distance to the grid origin
+     * @param cellSize the size of a grid cell
+     * @param gridSize the number of cells
+     * @return the index of the cell
+     */
+    private static int gridIndex(final double offset, final double cellSize, final int gridSize) {
+        if (cellSize > 0) {
+            return Math.max(0, Math.min((int) (offset / cellSize), gridSize - 1));
+        }
+        return 0;
+    }
+    
+    /**
+     * Calculates the displacements of a range of nodes.
+     */
+    private final class DisplacementTask extends RecursiveAction {
+        
+        /** the serial version UID. */
+        private static final long serialVersionUID = 4829318475603197218L;
+        
+        /** the node indices, sorted by grid cell. */
+        private final int[] order;
+        /** the first index in the order that belongs to this task. */
+        private final int start;
+        /** the index in the order following the last one that belongs to this task. */
+        private final int end;
+        
+        /**
+         * Create a task for the given range of nodes.
+         * 
+         * @param order the node indices, sorted by grid cell
+         * @param start the first index in the order that belongs to this task
+         * @param end the index in the order following the last one that belongs to this task
+         */
+        DisplacementTask(final int[] order, final int start, final int end) {
+            this.order = order;
+            this.start = start;
+            this.end = end;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            List<FNode> nodes = graph.getNodes();
+            for (int i = start; i < end; i++) {
+                FNode v = nodes.get(order[i]);
+                if (quadtree != null) {
+                    calcApproximateDisplacement(v);
+                } else {
+                    calcExactDisplacement(v);
+                }
+            }
+        }
+    }
+    
     /**
      * Perform all necessary calculations after a full iteration. Subclasses must call
      * the superclass method first.
@@ -173,6 +416,53 @@ public abstract class AbstractForceModel {
      */
     protected abstract KVector calcDisplacement(FParticle forcer, FParticle forcee);
     
+    /**
+     * Calculate the displacement caused by the repulsive force of a particle, or of a group of
+     * particles treated as one, disregarding any connection to the forcee. This is used when
+     * repulsive forces are approximated with a {@link ParticleQuadtree}.
+     * 
+     * @param position the position of the particle that is causing the force
+     * @param radius the radius of the particle that is causing the force
+     * @param priority the priority of the particle that is causing the force
+     * @param forcee the particle that is affected by the force
+     * @return a displacement vector for the forcee, or {@code null} if no force is applied
+     */
+    protected abstract KVector calcRepulsion(KVector position, double radius, double priority,
+            FParticle forcee);
+    
+    /**
+     * Determine for each node of the given graph the distinct other nodes it is connected to.
+     * 
+     * @param fgraph a force graph
+     * @return a list of neighbor lists, indexed by node identifier
+     */
+    private static List<List<FNode>> calcNeighbors(final FGraph fgraph) {
+        List<List<FNode>> result = Lists.newArrayListWithCapacity(fgraph.getNodes().size());
+        for (int i = 0; i < fgraph.getNodes().size(); i++) {
+            result.add(Lists.<FNode>newArrayList());
+        }
+        for (FEdge edge : fgraph.getEdges()) {
+            FNode source = edge.getSource(), target = edge.getTarget();
+            if (source != target && !result.get(source.id).contains(target)) {
+                result.get(source.id).add(target);
+                result.get(target.id).add(source);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Add a displacement to the given vector unless it is {@code null}.
+     * 
+     * @param vector the vector to add to
+     * @param displacement a displacement, or {@code null}
+     */
+    private static void addIfPresent(final KVector vector, final KVector displacement) {
+        if (displacement != null) {
+            vector.add(displacement);
+        }
+    }
+    
     /**
      * Avoid having nodes on the same position by moving them a little.
      * 
@@ -80,6 +80,20 @@ public final class EadesModel extends AbstractForceModel {
         return displacement;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected KVector calcRepulsion(final KVector position, final double radius, final double priority,
+            final FParticle forcee) {
+        
+        KVector displacement = forcee.getPosition().clone().sub(position);
+        double length = displacement.length();
+        double d = Math.max(0, length - radius - forcee.getRadius());
+        displacement.scale(repulsive(d, repulsionFactor) * priority / length);
+        return displacement;
+    }
+    
     /**
      * Compute repulsion force between the forcee and the forcer.
      *
@@ -96,6 +96,20 @@ public final class FruchtermanReingoldModel extends AbstractForceModel {
         return displacement;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected KVector calcRepulsion(final KVector position, final double radius, final double priority,
+            final FParticle forcee) {
+        
+        KVector displacement = forcee.getPosition().clone().sub(position);
+        double length = displacement.length();
+        double d = Math.max(0, length - radius - forcee.getRadius());
+        displacement.scale(repulsive(d, k) * priority * temperature / length);
+        return displacement;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.force.model;
+
+import java.util.Arrays;
+
+import org.eclipse.elk.alg.force.graph.FParticle;
+import org.eclipse.elk.alg.force.options.ForceOptions;
+import org.eclipse.elk.core.math.KVector;
+
+/**
+ * A quadtree over the positions of a set of particles, used to approximate the forces the particles
+ * exert on a given particle after the method of Barnes and Hut. Each cell of the tree knows the
+ * total priority of the particles it contains, their priority-weighted center, and their
+ * priority-weighted average radius. A cell that is far enough away from the particle a force is
+ * computed for can thus be treated as a single particle.
+ *
+ * <p>The tree is meant to be rebuilt after every iteration of a force model through
+ * {@link #build(Iterable)}. Its arrays are kept between builds, so rebuilding does not allocate
+ * memory unless the tree grows.</p>
+ *
+ * <ul>
+ *   <li>J. Barnes, P. Hut. A hierarchical O(N log N) force-calculation algorithm. <em>Nature</em>
+ *     324(4), pp. 446-449, 1986.</li>
+ * </ul>
+ */
+public final class ParticleQuadtree {
+
+    /**
+     * Receives the particles and particle groups that exert a force on a particle.
+     */
+    public interface Visitor {
+
+        /**
+         * Called for a single particle.
+         *
+         * @param particle the particle.
+         */
+        void visitParticle(FParticle particle);
+
+        /**
+         * Called for a group of particles that is treated as a single particle.
+         *
+         * @param center the priority-weighted center of the particles; must not be modified.
+         * @param radius the priority-weighted average radius of the particles.
+         * @param priority the total priority of the particles.
+         */
+        void visitGroup(KVector center, double radius, double priority);
+    }
+
+    /** cells are not split any further beyond this depth, so coinciding particles share a cell. */
+    private static final int MAX_DEPTH = 24;
+    /** the initial number of cells and particles the arrays are sized for. */
+    private static final int INITIAL_CAPACITY = 64;
+    /** marks the absence of a child cell or particle. */
+    private static final int NONE = -1;
+
+    /** the number of cells in use. */
+    private int cellCount;
+    /** the left border of each cell. */
+    private double[] cellX = new double[INITIAL_CAPACITY];
+    /** the top border of each cell. */
+    private double[] cellY = new double[INITIAL_CAPACITY];
+    /** the width and height of each cell. */
+    private double[] cellSize = new double[INITIAL_CAPACITY];
+    /** the depth of each cell, the root having depth zero. */
+    private int[] cellDepth = new int[INITIAL_CAPACITY];
+    /** the index of the first of the four child cells of each cell, or {@link #NONE} for leaves. */
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    /** the first particle of each leaf cell, or {@link #NONE}. */
+    private int[] firstParticle = new int[INITIAL_CAPACITY];
+    /** the total priority of the particles in each cell. */
+    private double[] cellPriority = new double[INITIAL_CAPACITY];
+    /** the priority-weighted sum of the particle x coordinates in each cell. */
+    private double[] cellWeightedX = new double[INITIAL_CAPACITY];
+    /** the priority-weighted sum of the particle y coordinates in each cell. */
+    private double[] cellWeightedY = new double[INITIAL_CAPACITY];
+    /** the priority-weighted sum of the particle radii in each cell. */
+    private double[] cellWeightedRadius = new double[INITIAL_CAPACITY];
+
+    /** the number of particles in the tree. */
+    private int particleCount;
+    /** the particles in the tree. */
+    private FParticle[] particles = new FParticle[INITIAL_CAPACITY];
+    /** the next particle in the same leaf cell, or {@link #NONE}. */
+    private int[] nextParticle = new int[INITIAL_CAPACITY];
+
+    /**
+     * Rebuilds the tree for the current positions of the given particles.
+     *
+     * @param allParticles the particles to put into the tree.
+     */
+    public void build(final Iterable<FParticle> allParticles) {
+        particleCount = 0;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (FParticle particle : allParticles) {
+            if (particleCount == particles.length) {
+                particles = Arrays.copyOf(particles, 2 * particleCount);
+                nextParticle = Arrays.copyOf(nextParticle, 2 * particleCount);
+            }
+            particles[particleCount++] = particle;
+            KVector pos = particle.getPosition();
+            minX = Math.min(minX, pos.x);
+            minY = Math.min(minY, pos.y);
+            maxX = Math.max(maxX, pos.x);
+            maxY = Math.max(maxY, pos.y);
+        }
+
+        cellCount = 0;
+        if (particleCount == 0) {
+            return;
+        }
+
+        // The root is a square enclosing all particles; it is enlarged a bit so no particle lies
+        // on its lower or right border
+        double size = Math.max(maxX - minX, maxY - minY);
+        size = size > 0 ? size * (1 + 1e-9) + Double.MIN_NORMAL : 1;
+        addCell(minX, minY, size, 0);
+        for (int p = 0; p < particleCount; p++) {
+            insert(p);
+        }
+    }
+
+    /**
+     * Visits the particles and particle groups that exert a force on the given particle. Groups are
+     * formed from cells whose width is smaller than {@code theta} times their distance to the particle
+     * and that do not contain the particle. The particle itself is not visited. Since the tree is not
+     * modified by visits, several particles may be visited concurrently.
+     *
+     * @param forcee the particle that is affected by the forces.
+     * @param theta the accuracy parameter; zero visits all other particles individually.
+     * @param visitor the visitor to call.
+     */
+    public void visit(final FParticle forcee, final double theta, final Visitor visitor) {
+        if (cellCount > 0) {
+            // the center handed to the visitor is reused for all groups of this visit
+            visit(0, forcee, theta * theta, visitor, new KVector());
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////
+    // Utilities
+
+    /**
+     * Visits the given cell.
+     */
+    private void visit(final int cell, final FParticle forcee, final double thetaSquared,
+            final Visitor visitor, final KVector groupCenter) {
+
+        if (firstChild[cell] == NONE) {
+            for (int p = firstParticle[cell]; p != NONE; p = nextParticle[p]) {
+                if (particles[p] != forcee) {
+                    visitor.visitParticle(particles[p]);
+                }
+            }
+            return;
+        }
+
+        KVector pos = forcee.getPosition();
+        double priority = cellPriority[cell];
+        if (priority > 0 && !contains(cell, pos)) {
+            double cx = cellWeightedX[cell] / priority;
+            double cy = cellWeightedY[cell] / priority;
+            double dx = pos.x - cx, dy = pos.y - cy;
+            double size = cellSize[cell];
+            if (size * size < thetaSquared * (dx * dx + dy * dy)) {
+                groupCenter.x = cx;
+                groupCenter.y = cy;
+                visitor.visitGroup(groupCenter, cellWeightedRadius[cell] / priority, priority);
+                return;
+            }
+        }
+
+        int child = firstChild[cell];
+        for (int i = 0; i < 4; i++) {
+            visit(child + i, forcee, thetaSquared, visitor, groupCenter);
+        }
+    }
+
+    /**
+     * Inserts the particle with the given index, starting at the root.
+     */
+    private void insert(final int p) {
+        FParticle particle = particles[p];
+        KVector pos = particle.getPosition();
+        double priority = particle.getProperty(ForceOptions.PRIORITY);
+        double radius = particle.getRadius();
+
+        int cell = 0;
+        while (true) {
+            cellPriority[cell] += priority;
+            cellWeightedX[cell] += priority * pos.x;
+            cellWeightedY[cell] += priority * pos.y;
+            cellWeightedRadius[cell] += priority * radius;
+
+            if (firstChild[cell] != NONE) {
+                cell = childContaining(cell, pos);
+            } else if (firstParticle[cell] == NONE || cellDepth[cell] >= MAX_DEPTH) {
+                nextParticle[p] = firstParticle[cell];
+                firstParticle[cell] = p;
+                return;
+            } else {
+                split(cell);
+                cell = childContaining(cell, pos);
+            }
+        }
+    }
+
+    /**
+     * Turns the given leaf into an inner cell by moving its particles into four new child cells.
+     */
+    private void split(final int cell) {
+        double half = cellSize[cell] / 2;
+        int depth = cellDepth[cell] + 1;
+        int child = cellCount;
+        addCell(cellX[cell], cellY[cell], half, depth);
+        addCell(cellX[cell] + half, cellY[cell], half, depth);
+        addCell(cellX[cell], cellY[cell] + half, half, depth);
+        addCell(cellX[cell] + half, cellY[cell] + half, half, depth);
+        firstChild[cell] = child;
+
+        int p = firstParticle[cell];
+        firstParticle[cell] = NONE;
+        while (p != NONE) {
+            int next = nextParticle[p];
+            FParticle particle = particles[p];
+            KVector pos = particle.getPosition();
+            double priority = particle.getProperty(ForceOptions.PRIORITY);
+
+            int target = childContaining(cell, pos);
+            cellPriority[target] += priority;
+            cellWeightedX[target] += priority * pos.x;
+            cellWeightedY[target] += priority * pos.y;
+            cellWeightedRadius[target] += priority * particle.getRadius();
+            nextParticle[p] = firstParticle[target];
+            firstParticle[target] = p;
+            p = next;
+        }
+    }
+
+    /**
+     * Returns the child of the given inner cell the given position belongs to.
+     */
+    private int childContaining(final int cell, final KVector pos) {
+        double half = cellSize[cell] / 2;
+        int index = firstChild[cell];
+        if (pos.x >= cellX[cell] + half) {
+            index += 1;
+        }
+        if (pos.y >= cellY[cell] + half) {
+            index += 2;
+        }
+        return index;
+    }
+
+    /**
+     * Whether the given position lies inside the given cell.
+     */
+    private boolean contains(final int cell, final KVector pos) {
+        return pos.x >= cellX[cell] && pos.x <= cellX[cell] + cellSize[cell]
+                && pos.y >= cellY[cell] && pos.y <= cellY[cell] + cellSize[cell];
+    }
+
+    /**
+     * Appends an empty leaf cell.
+     */
+    private void addCell(final double x, final double y, final double size, final int depth) {
+        if (cellCount == cellX.length) {
+            int capacity = 2 * cellCount;
+            cellX = Arrays.copyOf(cellX, capacity);
+            cellY = Arrays.copyOf(cellY, capacity);
+            cellSize = Arrays.copyOf(cellSize, capacity);
+            cellDepth = Arrays.copyOf(cellDepth, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            firstParticle = Arrays.copyOf(firstParticle, capacity);
+            cellPriority = Arrays.copyOf(cellPriority, capacity);
+            cellWeightedX = Arrays.copyOf(cellWeightedX, capacity);
+            cellWeightedY = Arrays.copyOf(cellWeightedY, capacity);
+            cellWeightedRadius = Arrays.copyOf(cellWeightedRadius, capacity);
+        }
+        cellX[cellCount] = x;
+        cellY[cellCount] = y;
+        cellSize[cellCount] = size;
+        cellDepth[cellCount] = depth;
+        firstChild[cellCount] = NONE;
+        firstParticle[cellCount] = NONE;
+        cellPriority[cellCount] = 0;
+        cellWeightedX[cellCount] = 0;
+        cellWeightedY[cellCount] = 0;
+        cellWeightedRadius[cellCount] = 0;
+        cellCount++;
+    }
+
+}
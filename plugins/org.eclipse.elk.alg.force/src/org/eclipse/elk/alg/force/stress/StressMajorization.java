@@ -13,7 +13,6 @@ package org.eclipse.elk.alg.force.stress;
 import java.util.Arrays;
 import java.util.List;
 import java.util.PriorityQueue;
-import java.util.Queue;
 
 import org.eclipse.elk.alg.force.graph.FEdge;
 import org.eclipse.elk.alg.force.graph.FGraph;
@@ -21,9 +20,6 @@ import org.eclipse.elk.alg.force.graph.FNode;
 import org.eclipse.elk.alg.force.options.StressOptions;
 import org.eclipse.elk.core.math.KVector;
 
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.Multimap;
-
 /**
  * Implementation of stress minimizing layout as described by Gansner, Koren, and North.
  * <ul><li>
@@ -33,17 +29,47 @@ import com.google.common.collect.Multimap;
  * The implementation supports performing a layout in one dimension only, preserving the coordinates of other
  * dimension. For this, set {@link StressOptions#DIMENSION} to either {@link Dimension#X} or {@link Dimension#Y}.
  * Furthermore, nodes can be fixed using the {@link StressOptions#FIXED} option.
+ * 
+ * <p>By default, the stress between all pairs of nodes is minimized, which requires quadratic memory for the
+ * distance and weight matrices. If {@link StressOptions#PIVOTS} is set to a positive value that is smaller than
+ * the number of nodes, the sparse stress model by Ortmann, Klimenta, and Brandes is used instead. Each node then
+ * only considers its neighbors and a set of pivot nodes, which represent the nodes closest to them.</p>
+ * <ul><li>
+ * Mark Ortmann, Mirza Klimenta, and Ulrik Brandes. A sparse stress model. <em>Graph Drawing</em>, 2016.
+ * </li></ul>
  */
 public class StressMajorization {
 
     /** The graph do be laid out, should be connected. */
     private FGraph graph;
 
-    /** All pairs shortest path matrix. */
+    /** The nodes of the graph, indexed by their id. */
+    private FNode[] nodesById;
+    /** Index of the first entry of each node in the adjacency arrays, plus the total number of entries. */
+    private int[] adjacencyStart;
+    /** The ids of the adjacent nodes of each node. */
+    private int[] adjacencyNode;
+    /** The desired lengths of the edges to the adjacent nodes of each node. */
+    private double[] adjacencyLength;
+
+    /** All pairs shortest path matrix; {@code null} if the sparse model is used. */
     private double[][] apsp;
-    /** Weights for each pair of nodes. */
+    /** Weights for each pair of nodes; {@code null} if the sparse model is used. */
     private double[][] w;
 
+    /** Whether the sparse stress model is used. */
+    private boolean sparse;
+    /** The ids of the pivots in the order they were chosen; empty if the full model is used. */
+    private int[] pivot = new int[0];
+    /** Index of the first stress term of each node in the term arrays, plus the total number of terms. */
+    private int[] termStart;
+    /** The id of the other node of each stress term. */
+    private int[] termNode;
+    /** The desired distance of each stress term. */
+    private double[] termDistance;
+    /** The weight of each stress term. */
+    private double[] termWeight;
+
     /** Common desired edge length, can be overridden by individual edges. */
     private double desiredEdgeLength;
     /** Dimensions to consider during layout. */
@@ -53,9 +79,6 @@ public class StressMajorization {
     /** Maximum number of iterations (overrides the {@link #epsilon}). */
     private int iterationLimit;
 
-    private Multimap<FNode, FEdge> connectedEdges = LinkedListMultimap.create();
-
-
     /**
      * Initialize all internal structures that are required for the subsequent iterative procedure.. 
      * 
@@ -69,17 +92,31 @@ public class StressMajorization {
         this.epsilon = graph.getProperty(StressOptions.EPSILON);
         this.desiredEdgeLength = graph.getProperty(StressOptions.DESIRED_EDGE_LENGTH);
         
-        connectedEdges.clear();
-        for (FEdge edge : graph.getEdges()) {
-            connectedEdges.put(edge.getSource(), edge);
-            connectedEdges.put(edge.getTarget(), edge);
+        int n = graph.getNodes().size();
+        nodesById = new FNode[n];
+        for (FNode node : graph.getNodes()) {
+            nodesById[node.id] = node;
+        }
+        initAdjacency();
+
+        int pivots = graph.getProperty(StressOptions.PIVOTS);
+        sparse = pivots > 0 && pivots < n;
+        if (sparse) {
+            apsp = null;
+            w = null;
+            initSparseTerms(pivots);
+            return;
         }
+        pivot = new int[0];
+        termStart = null;
+        termNode = null;
+        termDistance = null;
+        termWeight = null;
 
         // all pairs shortest path
-        int n = graph.getNodes().size();
         apsp = new double[n][n];
         for (FNode source : graph.getNodes()) {
-            dijkstra(source, apsp[source.id]);
+            dijkstra(source.id, apsp[source.id]);
         }
 
         // init weight matrix
@@ -92,6 +129,168 @@ public class StressMajorization {
         }
     }
 
+    /**
+     * Returns the pivots of the sparse stress model in the order they were chosen, each pivot being the node
+     * farthest away from the ones before it.
+     * 
+     * @return the ids of the pivots, or an empty array if the full stress model is used.
+     */
+    public int[] getPivots() {
+        return pivot.clone();
+    }
+
+    /**
+     * Collects the adjacent nodes of each node along with the desired lengths of the connecting edges.
+     */
+    private void initAdjacency() {
+        int n = nodesById.length;
+        adjacencyStart = new int[n + 1];
+        for (FEdge edge : graph.getEdges()) {
+            adjacencyStart[edge.getSource().id + 1]++;
+            adjacencyStart[edge.getTarget().id + 1]++;
+        }
+        for (int i = 0; i < n; ++i) {
+            adjacencyStart[i + 1] += adjacencyStart[i];
+        }
+
+        int[] next = Arrays.copyOf(adjacencyStart, n);
+        adjacencyNode = new int[adjacencyStart[n]];
+        adjacencyLength = new double[adjacencyStart[n]];
+        for (FEdge edge : graph.getEdges()) {
+            // get e's desired length
+            double el;
+            if (edge.hasProperty(StressOptions.DESIRED_EDGE_LENGTH)) {
+                el = edge.getProperty(StressOptions.DESIRED_EDGE_LENGTH);
+            } else {
+                el = desiredEdgeLength;
+            }
+            int source = edge.getSource().id;
+            int target = edge.getTarget().id;
+            adjacencyNode[next[source]] = target;
+            adjacencyLength[next[source]++] = el;
+            adjacencyNode[next[target]] = source;
+            adjacencyLength[next[target]++] = el;
+        }
+    }
+
+    /**
+     * Sets up the stress terms of the sparse model. Pivots are chosen by max-min sampling: starting with an
+     * arbitrary node, the node farthest away from all pivots chosen so far becomes the next pivot. Every node is
+     * then assigned to the region of its closest pivot. A node's terms comprise its neighbors, weighted as in the
+     * full model, and all pivots, weighted by the number of nodes in the pivot's region that are at most half as
+     * far away from the pivot as the node itself.
+     */
+    private void initSparseTerms(final int pivots) {
+        int n = nodesById.length;
+
+        // choose pivots by max-min sampling, computing their distances to all nodes on the way
+        pivot = new int[pivots];
+        double[][] pivotDist = new double[pivots][n];
+        double[] minDist = new double[n];
+        Arrays.fill(minDist, Double.POSITIVE_INFINITY);
+        boolean[] isPivot = new boolean[n];
+        int next = 0;
+        for (int p = 0; p < pivots; ++p) {
+            pivot[p] = next;
+            isPivot[next] = true;
+            dijkstra(next, pivotDist[p]);
+            for (int i = 0; i < n; ++i) {
+                minDist[i] = Math.min(minDist[i], pivotDist[p][i]);
+            }
+            // the next pivot is the node farthest away from all pivots, which needs all distances updated
+            next = -1;
+            for (int i = 0; i < n; ++i) {
+                if (!isPivot[i] && (next < 0 || minDist[i] > minDist[next])) {
+                    next = i;
+                }
+            }
+        }
+
+        // assign each node to the region of its closest pivot and sort the distances within each region
+        int[] region = new int[n];
+        int[] regionStart = new int[pivots + 1];
+        for (int i = 0; i < n; ++i) {
+            for (int p = 1; p < pivots; ++p) {
+                if (pivotDist[p][i] < pivotDist[region[i]][i]) {
+                    region[i] = p;
+                }
+            }
+            regionStart[region[i] + 1]++;
+        }
+        for (int p = 0; p < pivots; ++p) {
+            regionStart[p + 1] += regionStart[p];
+        }
+        double[] regionDist = new double[n];
+        int[] regionNext = Arrays.copyOf(regionStart, pivots);
+        for (int i = 0; i < n; ++i) {
+            regionDist[regionNext[region[i]]++] = pivotDist[region[i]][i];
+        }
+        for (int p = 0; p < pivots; ++p) {
+            Arrays.sort(regionDist, regionStart[p], regionStart[p + 1]);
+        }
+
+        // collect the terms of each node: distinct neighbors first, then all pivots that are not neighbors
+        termStart = new int[n + 1];
+        termNode = new int[adjacencyStart[n] + n * pivots];
+        termDistance = new double[termNode.length];
+        termWeight = new double[termNode.length];
+        int[] termOf = new int[n];
+        Arrays.fill(termOf, -1);
+        int t = 0;
+        for (int u = 0; u < n; ++u) {
+            termStart[u] = t;
+            for (int a = adjacencyStart[u]; a < adjacencyStart[u + 1]; ++a) {
+                int v = adjacencyNode[a];
+                if (v == u) {
+                    continue;
+                } else if (termOf[v] >= 0) {
+                    termDistance[termOf[v]] = Math.min(termDistance[termOf[v]], adjacencyLength[a]);
+                } else {
+                    termOf[v] = t;
+                    termNode[t] = v;
+                    termDistance[t++] = adjacencyLength[a];
+                }
+            }
+            for (int i = termStart[u]; i < t; ++i) {
+                termWeight[i] = 1 / (termDistance[i] * termDistance[i]);
+            }
+
+            for (int p = 0; p < pivots; ++p) {
+                int v = pivot[p];
+                if (v == u || termOf[v] >= 0) {
+                    continue;
+                }
+                double d = pivotDist[p][u];
+                int from = regionStart[p], to = regionStart[p + 1];
+                int weight = Math.max(1, upperBound(regionDist, from, to, d / 2) - from);
+                termNode[t] = v;
+                termDistance[t] = d;
+                termWeight[t++] = weight / (d * d);
+            }
+
+            for (int i = termStart[u]; i < t; ++i) {
+                termOf[termNode[i]] = -1;
+            }
+        }
+        termStart[n] = t;
+    }
+
+    /**
+     * Returns the index of the first value in the given sorted range that is larger than the given key.
+     */
+    private static int upperBound(final double[] values, final int from, final int to, final double key) {
+        int low = from, high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Execute the stress-minimizing iteration until a termination criterion is reached. 
      */
@@ -124,44 +323,35 @@ public class StressMajorization {
     }
 
     /**
-     * Performs Dijkstra's all pairs shortest path algorithm.
+     * Performs Dijkstra's single source shortest path algorithm. Instead of updating the priority of a queued
+     * node, the node is queued again; outdated queue entries are skipped when they are polled.
      */
-    private void dijkstra(final FNode source, final double[] dist) {
-        Queue<FNode> nodes = new PriorityQueue<FNode>((n1, n2) -> Double.compare(dist[n1.id], dist[n2.id]));
-        boolean[] mark = new boolean[graph.getNodes().size()];
+    private void dijkstra(final int source, final double[] dist) {
+        PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+        boolean[] mark = new boolean[dist.length];
         
         // init
-        Arrays.fill(mark, false);
-        dist[source.id] = 0;
-        for (FNode n : graph.getNodes()) {
-            if (n.id != source.id) {
-                dist[n.id] = Integer.MAX_VALUE;
-            }
-            nodes.add(n);
-        }
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[source] = 0;
+        queue.add(new QueueEntry(source, 0));
 
         // find shortest paths
-        while (!nodes.isEmpty()) {
-            FNode u = nodes.poll();
-            mark[u.id] = true;
+        while (!queue.isEmpty()) {
+            int u = queue.poll().node;
+            if (mark[u]) {
+                continue;
+            }
+            mark[u] = true;
 
-            for (FEdge e : connectedEdges.get(u)) {
-                FNode v = getOther(e, u);
-                if (mark[v.id]) {
+            for (int a = adjacencyStart[u]; a < adjacencyStart[u + 1]; ++a) {
+                int v = adjacencyNode[a];
+                if (mark[v]) {
                     continue;
                 }
-                // get e's desired length
-                double el;
-                if (e.getAllProperties().containsKey(StressOptions.DESIRED_EDGE_LENGTH)) {
-                    el = e.getProperty(StressOptions.DESIRED_EDGE_LENGTH);
-                } else { 
-                    el = desiredEdgeLength;
-                }
-                double d = dist[u.id] + el;
-                if (d < dist[v.id]) {
-                    dist[v.id] = d;
-                    nodes.remove(v);
-                    nodes.add(v);
+                double d = dist[u] + adjacencyLength[a];
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    queue.add(new QueueEntry(v, d));
                 }
             }
         }
@@ -182,6 +372,17 @@ public class StressMajorization {
      */
     private double computeStress() {
         double stress = 0;
+        if (sparse) {
+            for (int u = 0; u < nodesById.length; ++u) {
+                KVector pos = nodesById[u].getPosition();
+                for (int t = termStart[u]; t < termStart[u + 1]; ++t) {
+                    double eucDist = pos.distance(nodesById[termNode[t]].getPosition());
+                    stress += termWeight[t] * Math.pow(eucDist - termDistance[t], 2);
+                }
+            }
+            return stress;
+        }
+        
         List<FNode> nodes = graph.getNodes();
         // we know 'nodes' is an arraylist
         for (int i = 0; i < nodes.size(); ++i) {
@@ -204,24 +405,35 @@ public class StressMajorization {
         double xDisp = 0;
         double yDisp = 0;
 
-        for (FNode v : graph.getNodes()) {
-            if (u == v) {
-                continue;
+        List<FNode> nodes = graph.getNodes();
+        int count = sparse ? termStart[u.id + 1] - termStart[u.id] : nodes.size();
+        for (int i = 0; i < count; ++i) {
+            FNode v;
+            double wij;
+            double dij;
+            if (sparse) {
+                int t = termStart[u.id] + i;
+                v = nodesById[termNode[t]];
+                wij = termWeight[t];
+                dij = termDistance[t];
+            } else {
+                v = nodes.get(i);
+                if (u == v) {
+                    continue;
+                }
+                wij = w[u.id][v.id];
+                dij = apsp[u.id][v.id];
             }
-
-            double wij = w[u.id][v.id];
             weightSum += wij;
 
             double eucDist = u.getPosition().distance(v.getPosition());
 
             if (eucDist > 0 && dim != Dimension.Y) {
-                xDisp += wij
-                        * (v.getPosition().x + apsp[u.id][v.id] * (u.getPosition().x - v.getPosition().x) / eucDist);
+                xDisp += wij * (v.getPosition().x + dij * (u.getPosition().x - v.getPosition().x) / eucDist);
             }
 
             if (eucDist > 0 && dim != Dimension.X) {
-                yDisp += wij
-                        * (v.getPosition().y + apsp[u.id][v.id] * (u.getPosition().y - v.getPosition().y) / eucDist);
+                yDisp += wij * (v.getPosition().y + dij * (u.getPosition().y - v.getPosition().y) / eucDist);
             }
         }
 
@@ -235,13 +447,23 @@ public class StressMajorization {
         }
     }
 
-    private FNode getOther(final FEdge edge, final FNode one) {
-        if (edge.getSource() == one) {
-            return edge.getTarget();
-        } else if (edge.getTarget() == one) {
-            return edge.getSource();
-        } else {
-            throw new IllegalArgumentException("Node 'one' must be either source or target of edge 'edge'.");
+    /**
+     * A node queued in Dijkstra's algorithm, along with its distance at the time it was queued.
+     */
+    private static final class QueueEntry implements Comparable<QueueEntry> {
+        /** the node's id. */
+        private final int node;
+        /** the node's tentative distance. */
+        private final double dist;
+
+        QueueEntry(final int node, final double dist) {
+            this.node = node;
+            this.dist = dist;
+        }
+
+        @Override
+        public int compareTo(final QueueEntry other) {
+            return Double.compare(dist, other.dist);
         }
     }
     
@@ -0,0 +1,497 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.graphviz.dot.transform;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+import org.eclipse.elk.alg.graphviz.dot.dot.Attribute;
+import org.eclipse.elk.alg.graphviz.dot.dot.AttributeStatement;
+import org.eclipse.elk.alg.graphviz.dot.dot.AttributeType;
+import org.eclipse.elk.alg.graphviz.dot.dot.DotFactory;
+import org.eclipse.elk.alg.graphviz.dot.dot.EdgeOperator;
+import org.eclipse.elk.alg.graphviz.dot.dot.EdgeStatement;
+import org.eclipse.elk.alg.graphviz.dot.dot.EdgeTarget;
+import org.eclipse.elk.alg.graphviz.dot.dot.Graph;
+import org.eclipse.elk.alg.graphviz.dot.dot.GraphType;
+import org.eclipse.elk.alg.graphviz.dot.dot.GraphvizModel;
+import org.eclipse.elk.alg.graphviz.dot.dot.Node;
+import org.eclipse.elk.alg.graphviz.dot.dot.NodeStatement;
+import org.eclipse.elk.alg.graphviz.dot.dot.Port;
+import org.eclipse.elk.alg.graphviz.dot.dot.Statement;
+import org.eclipse.elk.alg.graphviz.dot.dot.Subgraph;
+
+/**
+ * A hand-written parser for Dot text that creates a Graphviz model without going through an Xtext
+ * resource. It accepts the language described by the Xtext grammar, which covers everything Graphviz
+ * writes in its Dot output. Identifiers and attribute values are stored in raw form, that is, quoted
+ * strings keep their quotes, just like with the Xtext parser. Escaped line breaks inside quoted strings
+ * are removed.
+ *
+ * @see DotWriter
+ */
+public final class DotReader {
+
+    /** marker for the end of the input. */
+    private static final int EOF = -1;
+
+    /** the input to read from. */
+    private final Reader in;
+    /** the next character of the input, or {@link #EOF}. */
+    private int next;
+    /** the current line number, used for error messages. */
+    private int line = 1;
+    /** the text of the current token, or {@code null} at the end of the input. */
+    private String token;
+    /** whether the current token is an identifier, numeral, or string rather than a symbol. */
+    private boolean tokenIsId;
+    /** buffer for assembling tokens. */
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Creates a reader for the given input.
+     *
+     * @param in the input to read from
+     */
+    private DotReader(final Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Parses all graphs of the given input.
+     *
+     * @param input the Dot text to parse
+     * @return a Graphviz model containing the parsed graphs
+     * @throws IOException if reading the input fails
+     * @throws IllegalArgumentException if the input is not valid Dot text; the message starts with the
+     *             number of the line where the error was detected
+     */
+    public static GraphvizModel read(final Reader input) throws IOException {
+        Reader in = input instanceof BufferedReader ? input : new BufferedReader(input);
+        DotReader reader = new DotReader(in);
+        reader.next = in.read();
+        reader.nextToken();
+
+        GraphvizModel model = DotFactory.eINSTANCE.createGraphvizModel();
+        while (reader.token != null) {
+            model.getGraphs().add(reader.parseGraph());
+        }
+        return model;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////
+    // Parser
+
+    /**
+     * Parses a graph.
+     *
+     * @return the parsed graph
+     * @throws IOException if reading fails
+     */
+    private Graph parseGraph() throws IOException {
+        Graph graph = DotFactory.eINSTANCE.createGraph();
+        if (isKeyword("strict")) {
+            graph.setStrict(true);
+            nextToken();
+        }
+        if (isKeyword("digraph")) {
+            graph.setType(GraphType.DIGRAPH);
+        } else if (isKeyword("graph")) {
+            graph.setType(GraphType.GRAPH);
+        } else {
+            throw error("'graph' or 'digraph'");
+        }
+        nextToken();
+        if (tokenIsId) {
+            graph.setName(token);
+            nextToken();
+        }
+        expect("{");
+        parseStatements(graph.getStatements());
+        expect("}");
+        return graph;
+    }
+
+    /**
+     * Parses statements up to the closing brace of the enclosing graph or subgraph.
+     *
+     * @param statements the list to which parsed statements are added
+     * @throws IOException if reading fails
+     */
+    private void parseStatements(final List<Statement> statements) throws IOException {
+        while (token != null && !is("}")) {
+            statements.add(parseStatement());
+            if (is(";")) {
+                nextToken();
+            }
+        }
+    }
+
+    /**
+     * Parses a single statement.
+     *
+     * @return the parsed statement
+     * @throws IOException if reading fails
+     */
+    private Statement parseStatement() throws IOException {
+        AttributeType attributeType = null;
+        if (isKeyword("graph")) {
+            attributeType = AttributeType.GRAPH;
+        } else if (isKeyword("node")) {
+            attributeType = AttributeType.NODE;
+        } else if (isKeyword("edge")) {
+            attributeType = AttributeType.EDGE;
+        }
+        if (attributeType != null) {
+            AttributeStatement statement = DotFactory.eINSTANCE.createAttributeStatement();
+            statement.setType(attributeType);
+            nextToken();
+            if (!is("[")) {
+                throw error("'['");
+            }
+            parseAttributeLists(statement.getAttributes());
+            return statement;
+        }
+
+        if (isKeyword("subgraph") || is("{")) {
+            return parseSubgraph();
+        }
+
+        String id = expectId();
+        if (is("=")) {
+            nextToken();
+            Attribute attribute = DotFactory.eINSTANCE.createAttribute();
+            attribute.setName(id);
+            attribute.setValue(expectId());
+            return attribute;
+        }
+
+        Node node = parseNode(id);
+        if (is("->") || is("--")) {
+            EdgeStatement statement = DotFactory.eINSTANCE.createEdgeStatement();
+            statement.setSourceNode(node);
+            while (is("->") || is("--")) {
+                EdgeTarget target = DotFactory.eINSTANCE.createEdgeTarget();
+                target.setOperator(is("->") ? EdgeOperator.DIRECTED : EdgeOperator.UNDIRECTED);
+                nextToken();
+                if (isKeyword("subgraph") || is("{")) {
+                    target.setTargetSubgraph(parseSubgraph());
+                } else {
+                    target.setTargetnode(parseNode(expectId()));
+                }
+                statement.getEdgeTargets().add(target);
+            }
+            parseAttributeLists(statement.getAttributes());
+            return statement;
+        }
+
+        NodeStatement statement = DotFactory.eINSTANCE.createNodeStatement();
+        statement.setNode(node);
+        parseAttributeLists(statement.getAttributes());
+        return statement;
+    }
+
+    /**
+     * Parses a subgraph, starting with the {@code subgraph} keyword or the opening brace.
+     *
+     * @return the parsed subgraph
+     * @throws IOException if reading fails
+     */
+    private Subgraph parseSubgraph() throws IOException {
+        Subgraph subgraph = DotFactory.eINSTANCE.createSubgraph();
+        if (isKeyword("subgraph")) {
+            nextToken();
+            if (tokenIsId) {
+                subgraph.setName(token);
+                nextToken();
+            }
+        }
+        expect("{");
+        parseStatements(subgraph.getStatements());
+        expect("}");
+        return subgraph;
+    }
+
+    /**
+     * Parses the port part of a node reference.
+     *
+     * @param name the already parsed node name
+     * @return the node reference
+     * @throws IOException if reading fails
+     */
+    private Node parseNode(final String name) throws IOException {
+        Node node = DotFactory.eINSTANCE.createNode();
+        node.setName(name);
+        if (is(":")) {
+            nextToken();
+            Port port = DotFactory.eINSTANCE.createPort();
+            port.setName(expectId());
+            if (is(":")) {
+                nextToken();
+                port.setCompass_pt(expectId());
+            }
+            node.setPort(port);
+        }
+        return node;
+    }
+
+    /**
+     * Parses any number of consecutive bracketed attribute lists.
+     *
+     * @param attributes the list to which parsed attributes are added
+     * @throws IOException if reading fails
+     */
+    private void parseAttributeLists(final List<Attribute> attributes) throws IOException {
+        while (is("[")) {
+            nextToken();
+            while (!is("]")) {
+                Attribute attribute = DotFactory.eINSTANCE.createAttribute();
+                attribute.setName(expectId());
+                if (is("=")) {
+                    nextToken();
+                    attribute.setValue(expectId());
+                }
+                attributes.add(attribute);
+                if (is(",") || is(";")) {
+                    nextToken();
+                }
+            }
+            nextToken();
+        }
+    }
+
+    /**
+     * Checks whether the current token is the given symbol.
+     *
+     * @param symbol a symbol
+     * @return whether the current token is that symbol
+     */
+    private boolean is(final String symbol) {
+        return !tokenIsId && symbol.equals(token);
+    }
+
+    /**
+     * Checks whether the current token is the given keyword.
+     *
+     * @param keyword a keyword
+     * @return whether the current token is that keyword
+     */
+    private boolean isKeyword(final String keyword) {
+        return tokenIsId && keyword.equals(token);
+    }
+
+    /**
+     * Consumes the given symbol, failing if the current token is something else.
+     *
+     * @param symbol the expected symbol
+     * @throws IOException if reading fails
+     */
+    private void expect(final String symbol) throws IOException {
+        if (!is(symbol)) {
+            throw error("'" + symbol + "'");
+        }
+        nextToken();
+    }
+
+    /**
+     * Consumes an identifier, failing if the current token is something else.
+     *
+     * @return the identifier in raw form
+     * @throws IOException if reading fails
+     */
+    private String expectId() throws IOException {
+        if (!tokenIsId) {
+            throw error("an identifier");
+        }
+        String id = token;
+        nextToken();
+        return id;
+    }
+
+    /**
+     * Creates an exception for a syntax error at the current token.
+     *
+     * @param expected description of what was expected instead
+     * @return an exception to be thrown
+     */
+    private IllegalArgumentException error(final String expected) {
+        return new IllegalArgumentException(line + ": Expected " + expected + " but found "
+                + (token == null ? "end of input" : "'" + token + "'") + ".");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////
+    // Lexer
+
+    /**
+     * Advances to the next character of the input.
+     *
+     * @return the character that was current before advancing
+     * @throws IOException if reading fails
+     */
+    private int advance() throws IOException {
+        int c = next;
+        if (c == '\n') {
+            line++;
+        }
+        next = in.read();
+        return c;
+    }
+
+    /**
+     * Reads the next token, skipping white space and comments.
+     *
+     * @throws IOException if reading fails
+     */
+    private void nextToken() throws IOException {
+        skipWhiteSpace();
+        tokenIsId = false;
+        if (next == EOF) {
+            token = null;
+            return;
+        }
+
+        buffer.setLength(0);
+        int c = advance();
+        buffer.append((char) c);
+        if (c == '"') {
+            readString();
+            tokenIsId = true;
+        } else if (c == '<') {
+            readHtmlString();
+            tokenIsId = true;
+        } else if (c == '-' && (next == '>' || next == '-')) {
+            buffer.append((char) advance());
+        } else if (c == '-' || c == '.' || isDigit(c)) {
+            while (isDigit(next) || next == '.') {
+                buffer.append((char) advance());
+            }
+            tokenIsId = true;
+        } else if (isIdStart(c)) {
+            while (isIdStart(next) || isDigit(next)) {
+                buffer.append((char) advance());
+            }
+            tokenIsId = true;
+        }
+        token = buffer.toString();
+    }
+
+    /**
+     * Skips white space and comments.
+     *
+     * @throws IOException if reading fails
+     */
+    private void skipWhiteSpace() throws IOException {
+        while (true) {
+            if (Character.isWhitespace(next)) {
+                advance();
+            } else if (next == '#') {
+                skipLine();
+            } else if (next == '/') {
+                advance();
+                if (next == '/') {
+                    skipLine();
+                } else if (next == '*') {
+                    advance();
+                    int previous = EOF;
+                    while (next != EOF && !(previous == '*' && next == '/')) {
+                        previous = advance();
+                    }
+                    advance();
+                } else {
+                    throw new IllegalArgumentException(line + ": Unexpected character '/'.");
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of the current line.
+     *
+     * @throws IOException if reading fails
+     */
+    private void skipLine() throws IOException {
+        while (next != EOF && next != '\n') {
+            advance();
+        }
+    }
+
+    /**
+     * Reads the rest of a quoted string into the buffer, including the closing quote.
+     *
+     * @throws IOException if reading fails
+     */
+    private void readString() throws IOException {
+        while (next != '"') {
+            if (next == EOF) {
+                throw new IllegalArgumentException(line + ": Unterminated string.");
+            }
+            int c = advance();
+            if (c == '\\' && (next == '\n' || next == '\r')) {
+                // discard line breaks that have been escaped
+                if (advance() == '\r' && next == '\n') {
+                    advance();
+                }
+            } else {
+                buffer.append((char) c);
+                if (c == '\\' && next != EOF) {
+                    buffer.append((char) advance());
+                }
+            }
+        }
+        buffer.append((char) advance());
+    }
+
+    /**
+     * Reads the rest of an HTML string into the buffer, including the closing angle bracket.
+     *
+     * @throws IOException if reading fails
+     */
+    private void readHtmlString() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            if (next == EOF) {
+                throw new IllegalArgumentException(line + ": Unterminated HTML string.");
+            }
+            int c = advance();
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            }
+            buffer.append((char) c);
+        }
+    }
+
+    /**
+     * Checks whether the given character is a decimal digit.
+     *
+     * @param c a character
+     * @return whether it is a digit
+     */
+    private static boolean isDigit(final int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Checks whether the given character may start an alphanumeric identifier.
+     *
+     * @param c a character
+     * @return whether it is a letter, an underscore, or a non-ASCII character
+     */
+    private static boolean isIdStart(final int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c >= 0x80;
+    }
+
+}
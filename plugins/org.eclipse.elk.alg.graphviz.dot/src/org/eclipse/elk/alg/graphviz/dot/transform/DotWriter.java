@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.graphviz.dot.transform;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.eclipse.elk.alg.graphviz.dot.dot.Attribute;
+import org.eclipse.elk.alg.graphviz.dot.dot.AttributeStatement;
+import org.eclipse.elk.alg.graphviz.dot.dot.EdgeStatement;
+import org.eclipse.elk.alg.graphviz.dot.dot.EdgeTarget;
+import org.eclipse.elk.alg.graphviz.dot.dot.Graph;
+import org.eclipse.elk.alg.graphviz.dot.dot.GraphvizModel;
+import org.eclipse.elk.alg.graphviz.dot.dot.Node;
+import org.eclipse.elk.alg.graphviz.dot.dot.NodeStatement;
+import org.eclipse.elk.alg.graphviz.dot.dot.Port;
+import org.eclipse.elk.alg.graphviz.dot.dot.Statement;
+import org.eclipse.elk.alg.graphviz.dot.dot.Subgraph;
+
+/**
+ * Writes a Graphviz model as Dot text without going through an Xtext resource. Identifiers and
+ * attribute values are written as they are stored in the model, that is, in the same raw form the
+ * Xtext parser produces and the {@link DotExporter} creates. Values that would not form a valid Dot
+ * identifier are quoted.
+ *
+ * @see DotReader
+ */
+public final class DotWriter {
+
+    /** pattern for alphanumeric identifiers and numerals, which need no quotes. */
+    private static final Pattern PLAIN_ID = Pattern.compile(
+            "[a-zA-Z_\\u0080-\\uffff][a-zA-Z_0-9\\u0080-\\uffff]*|-?(\\.[0-9]+|[0-9]+(\\.[0-9]*)?)");
+    /** the string used for one level of indentation. */
+    private static final String INDENT = "    ";
+
+    /** the output to write to. */
+    private final Appendable out;
+
+    /**
+     * Creates a writer for the given output.
+     *
+     * @param out the output to write to
+     */
+    private DotWriter(final Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes all graphs of the given model to the given output.
+     *
+     * @param model a Graphviz model
+     * @param out the output to write to
+     * @throws IOException if writing to the output fails
+     */
+    public static void write(final GraphvizModel model, final Appendable out) throws IOException {
+        DotWriter writer = new DotWriter(out);
+        for (Graph graph : model.getGraphs()) {
+            writer.writeGraph(graph);
+        }
+    }
+
+    /**
+     * Writes a graph.
+     *
+     * @param graph a graph
+     * @throws IOException if writing fails
+     */
+    private void writeGraph(final Graph graph) throws IOException {
+        if (graph.isStrict()) {
+            out.append("strict ");
+        }
+        out.append(graph.getType().getLiteral());
+        if (graph.getName() != null) {
+            out.append(' ');
+            writeId(graph.getName());
+        }
+        out.append(" {\n");
+        writeStatements(graph.getStatements(), 1);
+        out.append("}\n");
+    }
+
+    /**
+     * Writes a list of statements, each on its own line.
+     *
+     * @param statements the statements to write
+     * @param depth the indentation depth
+     * @throws IOException if writing fails
+     */
+    private void writeStatements(final List<Statement> statements, final int depth) throws IOException {
+        for (Statement statement : statements) {
+            indent(depth);
+            if (statement instanceof NodeStatement) {
+                NodeStatement nodeStatement = (NodeStatement) statement;
+                writeNode(nodeStatement.getNode());
+                writeAttributeList(nodeStatement.getAttributes());
+
+            } else if (statement instanceof EdgeStatement) {
+                EdgeStatement edgeStatement = (EdgeStatement) statement;
+                writeNode(edgeStatement.getSourceNode());
+                for (EdgeTarget target : edgeStatement.getEdgeTargets()) {
+                    out.append(' ').append(target.getOperator().getLiteral()).append(' ');
+                    if (target.getTargetSubgraph() != null) {
+                        writeSubgraph(target.getTargetSubgraph(), depth);
+                    } else {
+                        writeNode(target.getTargetnode());
+                    }
+                }
+                writeAttributeList(edgeStatement.getAttributes());
+
+            } else if (statement instanceof AttributeStatement) {
+                AttributeStatement attributeStatement = (AttributeStatement) statement;
+                out.append(attributeStatement.getType().getLiteral());
+                writeAttributeList(attributeStatement.getAttributes());
+
+            } else if (statement instanceof Attribute) {
+                writeAttribute((Attribute) statement);
+
+            } else if (statement instanceof Subgraph) {
+                writeSubgraph((Subgraph) statement, depth);
+            }
+            out.append(";\n");
+        }
+    }
+
+    /**
+     * Writes a subgraph, starting at the current position.
+     *
+     * @param subgraph a subgraph
+     * @param depth the indentation depth of the line where the subgraph starts
+     * @throws IOException if writing fails
+     */
+    private void writeSubgraph(final Subgraph subgraph, final int depth) throws IOException {
+        if (subgraph.getName() != null) {
+            out.append("subgraph ");
+            writeId(subgraph.getName());
+            out.append(' ');
+        }
+        out.append("{\n");
+        writeStatements(subgraph.getStatements(), depth + 1);
+        indent(depth);
+        out.append('}');
+    }
+
+    /**
+     * Writes a node reference, including its port.
+     *
+     * @param node a node reference
+     * @throws IOException if writing fails
+     */
+    private void writeNode(final Node node) throws IOException {
+        writeId(node.getName());
+        Port port = node.getPort();
+        if (port != null) {
+            out.append(':');
+            writeId(port.getName());
+            if (port.getCompass_pt() != null) {
+                out.append(':').append(port.getCompass_pt());
+            }
+        }
+    }
+
+    /**
+     * Writes a bracketed attribute list, unless the list is empty.
+     *
+     * @param attributes a list of attributes
+     * @throws IOException if writing fails
+     */
+    private void writeAttributeList(final List<Attribute> attributes) throws IOException {
+        if (attributes.isEmpty()) {
+            return;
+        }
+        out.append(" [");
+        boolean first = true;
+        for (Attribute attribute : attributes) {
+            if (!first) {
+                out.append(", ");
+            }
+            writeAttribute(attribute);
+            first = false;
+        }
+        out.append(']');
+    }
+
+    /**
+     * Writes a single attribute assignment.
+     *
+     * @param attribute an attribute
+     * @throws IOException if writing fails
+     */
+    private void writeAttribute(final Attribute attribute) throws IOException {
+        writeId(attribute.getName());
+        if (attribute.getValue() != null) {
+            out.append('=');
+            writeId(attribute.getValue());
+        }
+    }
+
+    /**
+     * Writes an identifier, adding quotes if it would not be a valid Dot identifier otherwise.
+     *
+     * @param id an identifier in raw form
+     * @throws IOException if writing fails
+     */
+    private void writeId(final String id) throws IOException {
+        int length = id.length();
+        if (length >= 2 && (id.charAt(0) == '"' && id.charAt(length - 1) == '"'
+                || id.charAt(0) == '<' && id.charAt(length - 1) == '>')
+                || PLAIN_ID.matcher(id).matches()) {
+            out.append(id);
+        } else {
+            out.append('"');
+            for (int i = 0; i < length; i++) {
+                char c = id.charAt(i);
+                if (c == '"') {
+                    out.append('\\');
+                }
+                out.append(c);
+            }
+            out.append('"');
+        }
+    }
+
+    /**
+     * Writes indentation for the given depth.
+     *
+     * @param depth the indentation depth
+     * @throws IOException if writing fails
+     */
+    private void indent(final int depth) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            out.append(INDENT);
+        }
+    }
+
+}
@@ -14,15 +14,19 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.util.Map;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.eclipse.elk.alg.graphviz.dot.GraphvizDotStandaloneSetup;
 import org.eclipse.elk.alg.graphviz.dot.dot.GraphvizModel;
 import org.eclipse.elk.alg.graphviz.dot.transform.Command;
 import org.eclipse.elk.alg.graphviz.dot.transform.DotExporter;
-import org.eclipse.elk.alg.graphviz.dot.transform.DotResourceSetProvider;
+import org.eclipse.elk.alg.graphviz.dot.transform.DotReader;
 import org.eclipse.elk.alg.graphviz.dot.transform.DotTransformationData;
+import org.eclipse.elk.alg.graphviz.dot.transform.DotWriter;
 import org.eclipse.elk.alg.graphviz.dot.transform.IDotTransformationData;
 import org.eclipse.elk.alg.graphviz.layouter.GraphvizTool.Cleanup;
 import org.eclipse.elk.alg.graphviz.layouter.preferences.GraphvizLayouterPreferenceStoreAccess;
@@ -33,19 +37,17 @@ import org.eclipse.elk.core.options.CoreOptions;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
 import org.eclipse.elk.core.util.WrappedException;
 import org.eclipse.elk.graph.ElkNode;
-import org.eclipse.emf.common.util.URI;
-import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
-import org.eclipse.xtext.resource.SaveOptions;
-import org.eclipse.xtext.resource.XtextResource;
-import org.eclipse.xtext.resource.XtextResourceSet;
-
-import com.google.inject.Injector;
 
 /**
  * Layout provider for the Graphviz layout tool.
  * The actual Graphviz layout that is applied is determined by the parameter
  * passed in the {@link #initialize(String)} method.
  * 
+ * <p>Each layout run checks out a Graphviz process of its own from a {@link GraphvizToolPool}, so
+ * concurrent runs do not block each other. Graphs are sent to Graphviz and read back with
+ * {@link DotWriter} and {@link DotReader} instead of Xtext resources, which are much more expensive
+ * than the Graphviz layout itself for most graphs.</p>
+ * 
  * @author msp
  * @kieler.design proposed by msp
  * @kieler.rating proposed yellow by msp
@@ -58,18 +60,12 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
     public static final boolean REUSE_PROCESS_DEFAULT = true;
 
     /** the serial call number for usage in debug mode. */
-    private static int serialCallNo = 0;
+    private static final AtomicInteger SERIAL_CALL_NO = new AtomicInteger();
     
     /** command passed to the layouter. */
     private Command command = Command.INVALID;
     /** the Graphviz process pool. */
-    private GraphvizTool graphvizTool;
-    /** the Graphviz Dot format handler. */
-    private DotResourceSetProvider dotResourceSetProvider;
-    /** the call number for the current execution. */
-    private int myCallNo;
-    /** lazily created injector for creating required resource set creators. */
-    private Injector injector;
+    private GraphvizToolPool graphvizToolPool;
 
     /**
      * {@inheritDoc}
@@ -77,12 +73,7 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
     @Override
     public void initialize(final String parameter) {
         command = Command.valueOf(parameter);
-        graphvizTool = new GraphvizTool(command);
-        
-        // the dot format handler is indirectly fetched in order to ensure proper injection (if we're
-        // inside Eclipse, use the GraphFormatsService to retrieve the handler; otherwise, use an
-        // injector to retrieve an instance)
-        dotResourceSetProvider = getInjector().getInstance(DotResourceSetProvider.class);
+        graphvizToolPool = new GraphvizToolPool(command);
     }
 
     /**
@@ -90,20 +81,7 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
      */
     @Override
     public void dispose() {
-        graphvizTool.cleanup(Cleanup.STOP);
-    }
-    
-    /**
-     * Returns the injector, creating a new instance if none was created yet.
-     * 
-     * @return the injector.
-     */
-    private Injector getInjector() {
-        if (injector == null) {
-            injector = new GraphvizDotStandaloneSetup().createInjectorAndDoEMFRegistration();
-        }
-        
-        return injector;
+        graphvizToolPool.dispose();
     }
 
     /**
@@ -121,55 +99,53 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
             return;
         }
         boolean debugMode = parentNode.getProperty(CoreOptions.DEBUG_MODE);
-        myCallNo = ++serialCallNo;
-
-        // start the graphviz process, or retrieve the previously used process
-        graphvizTool.initialize();
+        int callNo = SERIAL_CALL_NO.incrementAndGet();
 
-        // create an Xtext resource set for parsing and serialization
-        XtextResourceSet resourceSet = (XtextResourceSet) dotResourceSetProvider.createResourceSet();
-        
-        // create the dot exporter we'll be using
-        DotExporter dotExporter = new LayoutDotExporter();
+        // start a graphviz process, or retrieve a previously used one that is idle
+        GraphvizTool graphvizTool = graphvizToolPool.acquire();
+        try {
+            // create the dot exporter we'll be using
+            DotExporter dotExporter = new LayoutDotExporter();
 
-        // translate the KGraph to Graphviz and write to the process
-        IDotTransformationData<ElkNode, GraphvizModel> transData = new DotTransformationData<ElkNode, GraphvizModel>();
-        transData.setSourceGraph(parentNode);
-        transData.setProperty(DotExporter.COMMAND, command);
-        
-        dotExporter.transform(transData);
-        GraphvizModel graphvizInput = transData.getTargetGraphs().get(0);
-        writeDotGraph(graphvizInput, progressMonitor.subTask(1), debugMode, resourceSet);
+            // translate the KGraph to Graphviz and write to the process
+            IDotTransformationData<ElkNode, GraphvizModel> transData =
+                    new DotTransformationData<ElkNode, GraphvizModel>();
+            transData.setSourceGraph(parentNode);
+            transData.setProperty(DotExporter.COMMAND, command);
+            
+            dotExporter.transform(transData);
+            GraphvizModel graphvizInput = transData.getTargetGraphs().get(0);
+            writeDotGraph(graphvizTool, graphvizInput, progressMonitor.subTask(1), debugMode, callNo);
 
-        try {
             // read Graphviz output and apply layout information to the KGraph
-            GraphvizModel graphvizOutput = readDotGraph(progressMonitor.subTask(1),
-                    debugMode, resourceSet);
+            GraphvizModel graphvizOutput = readDotGraph(graphvizTool, progressMonitor.subTask(1),
+                    debugMode, callNo);
             transData.getTargetGraphs().set(0, graphvizOutput);
             dotExporter.transferLayout(transData);
         } finally {
             boolean reuseProcess = GraphvizLayouterPreferenceStoreAccess.getUISaveBoolean(
                     PREF_GRAPHVIZ_REUSE_PROCESS, REUSE_PROCESS_DEFAULT);
-            graphvizTool.cleanup(reuseProcess ? Cleanup.NORMAL : Cleanup.STOP);
+            graphvizToolPool.release(graphvizTool, reuseProcess);
             progressMonitor.done();
         }
     }
 
     /**
-     * Writes a serialized version of the Graphviz model to the given output stream.
+     * Writes a serialized version of the Graphviz model to the given Graphviz process.
      * 
+     * @param graphvizTool
+     *            the Graphviz process to write to
      * @param graphvizModel
      *            Graphviz model to serialize
      * @param monitor
      *            a monitor to which progress is reported
      * @param debugMode
      *            whether debug mode is active
-     * @param resourceSet
-     *            the resource set for serialization
+     * @param callNo
+     *            the call number, used to name debug files
      */
-    private void writeDotGraph(final GraphvizModel graphvizModel,
-            final IElkProgressMonitor monitor, final boolean debugMode,
-            final XtextResourceSet resourceSet) {
+    private void writeDotGraph(final GraphvizTool graphvizTool, final GraphvizModel graphvizModel,
+            final IElkProgressMonitor monitor, final boolean debugMode, final int callNo) {
         monitor.begin("Serialize model", 1);
         OutputStream outputStream = graphvizTool.input();
         // enable debug output if needed
@@ -184,7 +160,7 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
                 }
                 new File(path).mkdirs();
                 debugStream = new FileOutputStream(new File(path + File.separator
-                        + debugFileBase() + "-in.dot"));
+                        + debugFileBase(callNo) + "-in.dot"));
                 outputStream = new ForkedOutputStream(outputStream, debugStream);
             } catch (Exception exception) {
                 System.out.println("GraphvizLayouter: Could not initialize debug output: "
@@ -193,20 +169,10 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
         }
 
         try {
-            XtextResource resource = (XtextResource) resourceSet.createResource(
-                    URI.createURI("output.graphviz_dot"));
-            resource.getContents().add(graphvizModel);
-            
-            /* KIPRA-1498
-             * We disable formatting and validation when saving the resource. Enabling it lead to
-             * possible ConcurrentModificationExceptions in Xtext.
-             */
-            Map<Object, Object> saveOptions =
-                    SaveOptions.newBuilder().noValidation().getOptions().toOptionsMap();
-            resource.save(outputStream, saveOptions);
-            
-            outputStream.write('\n');
-            outputStream.flush();
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            DotWriter.write(graphvizModel, writer);
+            writer.write('\n');
+            writer.flush();
         } catch (IOException exception) {
             graphvizTool.cleanup(Cleanup.ERROR);
             throw new WrappedException("Failed to send the graph to Graphviz.", exception);
@@ -225,16 +191,18 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
     /**
      * Reads and parses a serialized Graphviz model.
      * 
+     * @param graphvizTool
+     *            the Graphviz process to read from
      * @param monitor
      *            a monitor to which progress is reported
      * @param debugMode
      *            whether debug mode is active
-     * @param resourceSet
-     *            the resoure set for parsing
+     * @param callNo
+     *            the call number, used to name debug files
      * @return an instance of the parsed graphviz model
      */
-    private GraphvizModel readDotGraph(final IElkProgressMonitor monitor,
-            final boolean debugMode, final XtextResourceSet resourceSet) {
+    private GraphvizModel readDotGraph(final GraphvizTool graphvizTool, final IElkProgressMonitor monitor,
+            final boolean debugMode, final int callNo) {
         monitor.begin("Parse output", 1);
         InputStream inputStream = graphvizTool.output();
         // enable debug output if needed
@@ -249,7 +217,7 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
                 }
                 new File(path).mkdirs();
                 debugStream = new FileOutputStream(new File(path + File.separator
-                        + debugFileBase() + "-out.dot"));
+                        + debugFileBase(callNo) + "-out.dot"));
                 inputStream = new ForwardingInputStream(inputStream, debugStream);
             } catch (Exception exception) {
                 System.out.println("GraphvizLayouter: Could not initialize debug output: "
@@ -258,13 +226,15 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
         }
 
         // parse the output stream of the dot process
-        XtextResource resource = (XtextResource) resourceSet.createResource(
-                URI.createURI("input.graphviz_dot"));
+        GraphvizModel graphvizModel;
         try {
-            resource.load(inputStream, null);
+            graphvizModel = DotReader.read(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
         } catch (IOException exception) {
             graphvizTool.cleanup(Cleanup.ERROR);
             throw new WrappedException("Failed to read Graphviz output.", exception);
+        } catch (IllegalArgumentException exception) {
+            graphvizTool.cleanup(Cleanup.ERROR);
+            throw new GraphvizException("Errors in Graphviz output:\n" + exception.getMessage());
         } finally {
             if (debugStream != null) {
                 try {
@@ -275,17 +245,7 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
             }
         }
 
-        // analyze errors and retrieve parse result
-        if (!resource.getErrors().isEmpty()) {
-            StringBuilder errorString = new StringBuilder("Errors in Graphviz output:");
-            for (Diagnostic diagnostic : resource.getErrors()) {
-                errorString.append("\n" + diagnostic.getLine() + ": " + diagnostic.getMessage());
-            }
-            graphvizTool.cleanup(Cleanup.ERROR);
-            throw new GraphvizException(errorString.toString());
-        }
-        GraphvizModel graphvizModel = (GraphvizModel) resource.getParseResult().getRootASTElement();
-        if (graphvizModel == null || graphvizModel.getGraphs().isEmpty()) {
+        if (graphvizModel.getGraphs().isEmpty()) {
             graphvizTool.cleanup(Cleanup.ERROR);
             throw new GraphvizException("No output from the Graphviz process."
                     + " Try increasing the timeout value in the Eclipse Diagram Layout preferences.");
@@ -298,10 +258,11 @@ public class GraphvizLayoutProvider extends AbstractLayoutProvider {
     /**
      * Return the base name for debug files.
      * 
+     * @param callNo the call number
      * @return the base name for debug files
      */
-    private String debugFileBase() {
-        String no = Integer.toString(myCallNo);
+    private static String debugFileBase(final int callNo) {
+        String no = Integer.toString(callNo);
         switch (no.length()) {
         case 1:
             return "debug00" + no;
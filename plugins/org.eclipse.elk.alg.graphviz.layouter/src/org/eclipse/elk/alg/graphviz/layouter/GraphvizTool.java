@@ -18,6 +18,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.elk.alg.graphviz.dot.transform.Command;
 import org.eclipse.elk.alg.graphviz.layouter.preferences.GraphvizLayouterPreferenceStoreAccess;
@@ -48,7 +51,7 @@ public class GraphvizTool {
         NORMAL,
         /** read error output and stop the Graphviz process. */
         ERROR,
-        /** stop the Graphviz process and the watcher thread. */
+        /** stop the Graphviz process. */
         STOP;
     }
 
@@ -78,17 +81,30 @@ public class GraphvizTool {
     /** argument to invert the Y axis to conform with SWT. */
     private static final String ARG_INVERTYAXIS = "-y";
 
+    /**
+     * Timer shared by all tool instances, used to kill processes that do not answer in time. A single
+     * daemon thread sleeps until the next deadline, so idle or pooled tools cost no threads at all.
+     */
+    private static final ScheduledThreadPoolExecutor WATCHDOG = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "Graphviz Watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /** the process instance that is used for multiple layout runs. */
     private Process process;
     /** the command that is used to create the process. */
     private Command command;
-    /** the watcher thread used to cancel a blocked read operation. */
-    private Watchdog watchdog;
+    /** the pending timeout of the current read operation, if any. */
+    private ScheduledFuture<?> timeoutTask;
     /** the input stream given by the Graphviz process. */
     private InputStream graphvizStream;
     
     
     static {
+        // cancelled timeouts are the common case, so don't let them pile up in the timer's queue
+        WATCHDOG.setRemoveOnCancelPolicy(true);
+        
         // Add all paths from the system PATH variable to the list of paths we will look for dot in
         // to our list of default locations
         String envPath = System.getenv("PATH");
@@ -161,29 +177,20 @@ public class GraphvizTool {
     }
 
     /**
-     * Initialize the Graphviz tool instance by starting the dot process and the
-     * watcher thread as necessary.
+     * Initialize the Graphviz tool instance by starting the dot process as necessary.
      */
     public void initialize() {
         initialize(null);
     }
     
     /**
-     * Initialize the Graphviz tool instance by starting the dot process and the watcher
-     * thread as necessary. The given command line arguments are appended to the default
-     * arguments.
+     * Initialize the Graphviz tool instance by starting the dot process as necessary. The given
+     * command line arguments are appended to the default arguments.
      * 
      * @param arguments command line arguments to be added to the default list of arguments.
      *                  May be {@code null} or empty.
      */
     public synchronized void initialize(final List<String> arguments) {
-        if (watchdog == null) {
-            // start the watcher thread for timeout checking
-            watchdog = new Watchdog();
-            watchdog.setName("Graphviz Watchdog");
-            watchdog.start();
-        }
-
         if (process == null) {
             String dotExecutable = getDotExecutable();
             
@@ -326,19 +333,46 @@ public class GraphvizTool {
      * 
      * @return an input stream for reading from the tool
      */
-    public InputStream output() {
+    public synchronized InputStream output() {
         if (process != null) {
-            synchronized (nextJob) {
-                // create an input stream and make it visible to the watcher thread
-                graphvizStream = new GraphvizStream(process.getInputStream());
-                // wake the watcher, which will then sleep until a timeout occurs
-                nextJob.notify();
-            }
+            graphvizStream = new GraphvizStream(process.getInputStream());
+            // kill the process if it does not answer in time, which unblocks the reading thread
+            final Process myProcess = process;
+            timeoutTask = WATCHDOG.schedule(() -> timeout(myProcess), getTimeout(), TimeUnit.MILLISECONDS);
             return graphvizStream;
         }
         throw new IllegalStateException("Graphviz tool has not been initialized.");
     }
     
+    /**
+     * Returns the time to wait for Graphviz output, in milliseconds.
+     * 
+     * @return the configured timeout
+     */
+    private static int getTimeout() {
+        int timeout = PROCESS_DEF_TIMEOUT;
+        if (EclipseRuntimeDetector.isEclipseRunning()) {
+            int timeoutPreference = GraphvizLayouterPreferenceStoreAccess.getUISaveInt(PREF_TIMEOUT);
+            if (timeoutPreference >= PROCESS_MIN_TIMEOUT) {
+                timeout = timeoutPreference;
+            }
+        }
+        return timeout;
+    }
+    
+    /**
+     * Called by the watchdog when a read operation has timed out. Kills the given process if it is
+     * still the one being read from.
+     * 
+     * @param timedOutProcess the process that was read from when the timeout was scheduled
+     */
+    private synchronized void timeout(final Process timedOutProcess) {
+        if (process == timedOutProcess && graphvizStream != null) {
+            graphvizStream = null;
+            timedOutProcess.destroy();
+        }
+    }
+    
     /** maximal number of characters to read from error stream. */
     private static final int MAX_ERROR_OUTPUT = 512;
     /** time to wait before checking process errors. */
@@ -394,20 +428,14 @@ public class GraphvizTool {
             }
         }
         
-        if (error == null) {
-            synchronized (nextJob) {
-                // reset the stream to indicate that the job is done
-                graphvizStream = null;
-                if (watchdog != null) {
-                    // wake the watcher if it is still waiting for timeout
-                    watchdog.interrupt();
-                    // if requested, reset the watcher to indicate that it should terminate
-                    if (c == Cleanup.STOP) {
-                        watchdog = null;
-                    }
-                }
-            }
-        } else if (error.length() > 0) {
+        // the job is done, so the timeout no longer applies
+        graphvizStream = null;
+        if (timeoutTask != null) {
+            timeoutTask.cancel(false);
+            timeoutTask = null;
+        }
+        
+        if (error != null && error.length() > 0) {
             // an error output could be read from Graphviz, so display that to the user
             throw new GraphvizException("Graphviz error: " + error.toString());
         }
@@ -527,67 +555,5 @@ public class GraphvizTool {
         }
             
     }
-    
-    /** synchronization object between the main thread and the watcher thread. */
-    private Object nextJob = new Object();
-    
-    /**
-     * A watcher thread that takes action when a timeout occurs.
-     */
-    private class Watchdog extends Thread {
-        
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void run() {
-            do {
-                synchronized (nextJob) {
-                    // the watcher starts working as soon as a stream is made visible
-                    while (graphvizStream == null) {
-                        try {
-                            // wait for notification by the main thread
-                            nextJob.wait();
-                        } catch (InterruptedException ex) {
-                            // an interrupt can happen when a shutdown is requested
-                            if (watchdog == null) {
-                                return;
-                            }
-                        }
-                    }
-                }
-                
-                // retrieve the current timeout value
-                int timeout = PROCESS_DEF_TIMEOUT;
-                if (EclipseRuntimeDetector.isEclipseRunning()) {
-                    int timeoutPreference =
-                            GraphvizLayouterPreferenceStoreAccess.getUISaveInt(PREF_TIMEOUT);
-                    if (timeoutPreference >= PROCESS_MIN_TIMEOUT) {
-                        timeout = timeoutPreference;
-                    }
-                }
-                
-                boolean interrupted = false;
-                try {
-                    Thread.sleep(timeout);
-                }  catch (InterruptedException ex) {
-                    // this means the main thread has done a cleanup before the timeout occurred
-                    interrupted = true;
-                }
-                
-                if (!interrupted) {
-                    synchronized (nextJob) {
-                        // timeout has occurred! kill the process so the main thread will wake
-                        Process myProcess = process;
-                        if (myProcess != null) {
-                            graphvizStream = null;
-                            myProcess.destroy();
-                        }
-                    }
-                }
-                
-            } while (watchdog != null);
-        }
-    }
 
 }
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.graphviz.layouter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.elk.alg.graphviz.dot.transform.Command;
+import org.eclipse.elk.alg.graphviz.layouter.GraphvizTool.Cleanup;
+
+/**
+ * A pool of long-lived Graphviz processes for one command. Each caller checks out a tool of its own,
+ * so concurrent layout runs talk to separate processes instead of waiting for each other. Tools that
+ * are handed back are kept running for the next caller, up to a maximum number of idle tools; the
+ * most recently used tool is handed out first.
+ */
+public class GraphvizToolPool {
+
+    /** the command passed to all Graphviz processes of this pool. */
+    private final Command command;
+    /** the maximal number of idle tools kept running. */
+    private final int maxIdleTools;
+    /** the idle tools, most recently used first. */
+    private final Deque<GraphvizTool> idleTools = new ArrayDeque<GraphvizTool>();
+    /** whether the pool has been disposed. */
+    private boolean disposed = false;
+
+    /**
+     * Creates a pool that keeps up to one idle tool per available processor.
+     *
+     * @param command the Graphviz command
+     */
+    public GraphvizToolPool(final Command command) {
+        this(command, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a pool that keeps up to the given number of idle tools.
+     *
+     * @param command the Graphviz command
+     * @param maxIdleTools the maximal number of idle tools kept running
+     */
+    public GraphvizToolPool(final Command command, final int maxIdleTools) {
+        if (command == Command.INVALID) {
+            throw new IllegalArgumentException("Invalid Graphviz command.");
+        }
+        if (maxIdleTools < 0) {
+            throw new IllegalArgumentException("The maximal number of idle tools must not be negative.");
+        }
+        this.command = command;
+        this.maxIdleTools = maxIdleTools;
+    }
+
+    /**
+     * Checks out a tool with a running Graphviz process. The tool must be handed back with
+     * {@link #release(GraphvizTool, boolean)} once the caller is done with it.
+     *
+     * @return a tool that is used exclusively by the caller
+     */
+    public GraphvizTool acquire() {
+        GraphvizTool tool;
+        synchronized (idleTools) {
+            if (disposed) {
+                throw new IllegalStateException("The Graphviz tool pool has been disposed.");
+            }
+            tool = idleTools.pollFirst();
+        }
+        if (tool == null) {
+            tool = createTool(command);
+        }
+        // starts a new process if the tool is new or its previous process was stopped after an error
+        tool.initialize();
+        return tool;
+    }
+
+    /**
+     * Creates a new tool for the pool. The tool's process is only started once the tool is checked out.
+     *
+     * @param toolCommand the Graphviz command of the pool
+     * @return a new tool
+     */
+    protected GraphvizTool createTool(final Command toolCommand) {
+        return new GraphvizTool(toolCommand);
+    }
+
+    /**
+     * Hands back a tool that was checked out with {@link #acquire()}.
+     *
+     * @param tool the tool
+     * @param reuse whether the tool's process may be kept running for later callers; if {@code false},
+     *              or if enough idle tools are running already, the process is stopped
+     */
+    public void release(final GraphvizTool tool, final boolean reuse) {
+        if (reuse) {
+            tool.cleanup(Cleanup.NORMAL);
+            synchronized (idleTools) {
+                if (!disposed && idleTools.size() < maxIdleTools) {
+                    idleTools.addFirst(tool);
+                    return;
+                }
+            }
+        }
+        tool.cleanup(Cleanup.STOP);
+    }
+
+    /**
+     * Stops the processes of all idle tools. Tools that are still checked out are stopped when they
+     * are handed back, and no more tools can be checked out.
+     */
+    public void dispose() {
+        List<GraphvizTool> tools;
+        synchronized (idleTools) {
+            disposed = true;
+            tools = new ArrayList<GraphvizTool>(idleTools);
+            idleTools.clear();
+        }
+        for (GraphvizTool tool : tools) {
+            tool.cleanup(Cleanup.STOP);
+        }
+    }
+
+}
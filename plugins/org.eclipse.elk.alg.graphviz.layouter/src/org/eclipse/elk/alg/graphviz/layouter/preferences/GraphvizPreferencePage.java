@@ -68,7 +68,7 @@ public class GraphvizPreferencePage extends FieldEditorPreferencePage implements
 
         BooleanFieldEditor restartGraphvizProcessCheckbox = new BooleanFieldEditor(
                 GraphvizLayoutProvider.PREF_GRAPHVIZ_REUSE_PROCESS,
-                "Reuse single graphviz process for better performance", getFieldEditorParent());
+                "Reuse graphviz processes for better performance", getFieldEditorParent());
         addField(restartGraphvizProcessCheckbox);
     }
 
@@ -87,7 +87,7 @@ public class GraphvizPreferencePage extends FieldEditorPreferencePage implements
         // dispose all cached Graphviz instances to ensure creation of new processes
         for (LayoutAlgorithmData data : LayoutMetaDataService.getInstance().getAlgorithmData()) {
             if ("Graphviz".equals(data.getBundleName())) {
-                data.getInstancePool().clear();
+                data.getProviderPool().clear();
             }
         }
         return super.performOk();
@@ -14,10 +14,20 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.elk.alg.layered.components.ComponentsProcessor;
 import org.eclipse.elk.alg.layered.compound.CompoundGraphPostprocessor;
@@ -33,6 +43,7 @@ import org.eclipse.elk.alg.layered.options.InternalProperties;
 import org.eclipse.elk.alg.layered.options.LayeredOptions;
 import org.eclipse.elk.core.alg.ILayoutProcessor;
 import org.eclipse.elk.core.math.KVector;
+import org.eclipse.elk.core.metrics.ProcessorMeter;
 import org.eclipse.elk.core.options.PortSide;
 import org.eclipse.elk.core.options.SizeConstraint;
 import org.eclipse.elk.core.options.SizeOptions;
@@ -40,6 +51,9 @@ import org.eclipse.elk.core.util.BasicProgressMonitor;
 import org.eclipse.elk.core.util.ElkUtil;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
 import org.eclipse.elk.core.util.Pair;
+import org.eclipse.elk.core.util.WrappedException;
+
+import com.google.common.collect.Iterables;
 
 /**
  * The main entry point into KLay Layered. KLay Layered is a layout algorithm after the layered
@@ -137,15 +151,30 @@ public final class ElkLayered {
         List<LGraph> components = componentsProcessor.split(lgraph);
         if (components.size() == 1) {
             // Execute layout on the sole component using the top-level progress monitor
-            layout(components.get(0), theMonitor);
+            layout(components.get(0), 0, theMonitor);
         } else {
-            // Execute layout on each component using a progress monitor subtask
-            float compWork = 1.0f / components.size();
+            // Each component gets its own random number generator, seeded in component order, so
+            // parallel and sequential component layout yield the same result
+            Random random = lgraph.getProperty(InternalProperties.RANDOM);
             for (LGraph comp : components) {
-                if (monitor.isCanceled()) {
+                comp.setProperty(InternalProperties.RANDOM, new Random(random.nextLong()));
+            }
+            
+            if (lgraph.getProperty(LayeredOptions.PARALLEL_COMPONENTS)) {
+                layoutInParallel(lgraph, components, theMonitor);
+                if (theMonitor.isCanceled()) {
                     return;
                 }
-                layout(comp, theMonitor.subTask(compWork));
+            } else {
+                // Execute layout on each component using a progress monitor subtask
+                float compWork = 1.0f / components.size();
+                int compIndex = 0;
+                for (LGraph comp : components) {
+                    if (monitor.isCanceled()) {
+                        return;
+                    }
+                    layout(comp, compIndex++, theMonitor.subTask(compWork));
+                }
             }
         }
         componentsProcessor.combine(components, lgraph);
@@ -157,6 +186,135 @@ public final class ElkLayered {
     }
     
 
+    /**
+     * Lays out the given components concurrently. If layout already runs on a fork/join pool, the
+     * components are forked onto that pool, since blocking one of its workers while waiting for them
+     * could starve it. Otherwise they run on the executor configured for the graph, or on the common
+     * fork/join pool if there is none. Once a component fails, the components that have not started yet
+     * are cancelled, and the running ones see their progress monitor cancelled.
+     * 
+     * <p>Processors keep state while they run, so each concurrently running layout uses a processor list
+     * of its own; the lists are reused by later components. Each component must already have a random
+     * number generator of its own, which makes the result independent of the order in which the
+     * components are processed.</p>
+     * 
+     * @param lgraph the graph the components were split from, configured for layout
+     * @param components the components to layout
+     * @param monitor the progress monitor, which only receives progress once all components are done
+     */
+    private void layoutInParallel(final LGraph lgraph, final List<LGraph> components,
+            final IElkProgressMonitor monitor) {
+        
+        Queue<List<ILayoutProcessor<LGraph>>> algorithms = new ConcurrentLinkedQueue<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Runnable> jobs = new ArrayList<>(components.size());
+        for (int i = 0; i < components.size(); i++) {
+            LGraph comp = components.get(i);
+            int compIndex = i;
+            jobs.add(() -> {
+                if (monitor.isCanceled() || failed.get()) {
+                    return;
+                }
+                try {
+                    List<ILayoutProcessor<LGraph>> algorithm = algorithms.poll();
+                    if (algorithm == null) {
+                        algorithm = buildProcessors(lgraph);
+                    }
+                    comp.setProperty(InternalProperties.PROCESSORS, algorithm);
+                    
+                    // Progress monitors are not thread-safe, so the component gets one of its own
+                    layout(comp, compIndex, new BasicProgressMonitor(0) {
+                        @Override
+                        public boolean isCanceled() {
+                            return failed.get() || monitor.isCanceled();
+                        }
+                    });
+                    algorithms.add(algorithm);
+                } catch (RuntimeException | Error e) {
+                    failed.set(true);
+                    throw e;
+                }
+            });
+        }
+        
+        Executor executor = lgraph.getProperty(LayeredOptions.PARALLEL_COMPONENTS_EXECUTOR);
+        if (executor == null || ForkJoinTask.inForkJoinPool()) {
+            // invokeAll cancels the tasks that have not started yet once one of them fails
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(jobs.size());
+            for (Runnable job : jobs) {
+                tasks.add(ForkJoinTask.adapt(job));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            runOnExecutor(jobs, executor);
+        }
+        
+        float compWork = 1.0f / components.size();
+        for (int i = 0; i < components.size(); i++) {
+            IElkProgressMonitor compMonitor = monitor.subTask(compWork);
+            compMonitor.begin("Component Layout", 1);
+            compMonitor.done();
+        }
+    }
+    
+    /**
+     * Runs the given jobs on the given executor and waits for them to finish. If a job fails, the jobs
+     * that have not started yet are cancelled and the job's exception is rethrown.
+     * 
+     * @param jobs the jobs to run
+     * @param executor the executor to run them on
+     */
+    private static void runOnExecutor(final List<Runnable> jobs, final Executor executor) {
+        List<FutureTask<Void>> tasks = new ArrayList<>(jobs.size());
+        for (Runnable job : jobs) {
+            FutureTask<Void> task = new FutureTask<>(job, null);
+            tasks.add(task);
+            executor.execute(task);
+        }
+        
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException exception) {
+                cancelAll(tasks);
+                Thread.currentThread().interrupt();
+                throw new WrappedException(exception);
+            } catch (ExecutionException exception) {
+                cancelAll(tasks);
+                Throwable cause = exception.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new WrappedException(cause);
+            }
+        }
+    }
+    
+    /**
+     * Cancels the given tasks that have not started yet.
+     * 
+     * @param tasks the tasks
+     */
+    private static void cancelAll(final List<FutureTask<Void>> tasks) {
+        for (FutureTask<Void> task : tasks) {
+            task.cancel(false);
+        }
+    }
+    
+    /**
+     * Builds a new list of processors for the given graph. The graph is only read, but reading
+     * properties may memoize their default values, so lists are built one at a time.
+     * 
+     * @param lgraph a graph configured for layout
+     * @return a new list of processors that shares no instances with other lists
+     */
+    private synchronized List<ILayoutProcessor<LGraph>> buildProcessors(final LGraph lgraph) {
+        return new GraphConfigurator().buildProcessors(lgraph);
+    }
+    
+
     ////////////////////////////////////////////////////////////////////////////////
     // Compound Graph Layout
 
@@ -206,12 +364,14 @@ public final class ElkLayered {
         // Iterators are used, so that processing of a graph can be paused and continued easily.
         int work = 0;
         List<Pair<LGraph, Iterator<ILayoutProcessor<LGraph>>>> graphsAndAlgorithms = new ArrayList<>();
+        Map<LGraph, ProcessorMeter<LGraph>> meters = new HashMap<>();
         for (LGraph g : graphs) {
             graphConfigurator.prepareGraphForLayout(g);
             List<ILayoutProcessor<LGraph>> processors = g.getProperty(InternalProperties.PROCESSORS);
             work += processors.size();
             Iterator<ILayoutProcessor<LGraph>> algorithm = processors.iterator();
             graphsAndAlgorithms.add(Pair.of(g, algorithm));
+            meters.put(g, createMeter(g, meters.size()));
         }
 
         monitor.begin("Recursive Hierarchical layout", work);
@@ -223,15 +383,16 @@ public final class ElkLayered {
             for (Pair<LGraph, Iterator<ILayoutProcessor<LGraph>>> graphAndAlgorithm : graphsAndAlgorithms) {
                 Iterator<ILayoutProcessor<LGraph>> processors = graphAndAlgorithm.getSecond();
                 LGraph graph = graphAndAlgorithm.getFirst();
+                ProcessorMeter<LGraph> meter = meters.get(graph);
 
                 while (processors.hasNext()) {
                     ILayoutProcessor<LGraph> processor = processors.next();
                     if (!(processor instanceof IHierarchyAwareLayoutProcessor)) {
-                        processor.process(graph, monitor.subTask(1));
+                        meter.process(processor, graph, monitor.subTask(1));
                     } else if (isRoot(graph)) {
                         // If processor operates on the full hierarchy, it must be executed on the
                         // root.
-                        processor.process(graph, monitor.subTask(1));
+                        meter.process(processor, graph, monitor.subTask(1));
                         // Continue operation with the graph at the bottom of the hierarchy
                         break;
                     } else { // operates on full hierarchy and is not root graph
@@ -462,15 +623,17 @@ public final class ElkLayered {
      * Perform the five phases of the layered layouter.
      * 
      * @param lgraph the graph that is to be laid out
+     * @param componentIndex index of the graph among the connected components of the input graph
      * @param monitor a progress monitor
      */
-    private void layout(final LGraph lgraph, final IElkProgressMonitor monitor) {
+    private void layout(final LGraph lgraph, final int componentIndex, final IElkProgressMonitor monitor) {
         boolean monitorStarted = monitor.isRunning();
         if (!monitorStarted) {
             monitor.begin("Component Layout", 1);
         }
         List<ILayoutProcessor<LGraph>> algorithm = lgraph.getProperty(InternalProperties.PROCESSORS);
         float monitorProgress = 1.0f / algorithm.size();
+        ProcessorMeter<LGraph> meter = createMeter(lgraph, componentIndex);
 
         if (lgraph.getProperty(LayeredOptions.DEBUG_MODE)) {
             // Debug Mode!
@@ -493,7 +656,7 @@ public final class ElkLayered {
                 // Graph debug output
                 DebugUtil.writeDebugGraph(lgraph, slotIndex++, processor.getClass().getSimpleName());
 
-                processor.process(lgraph, monitor.subTask(monitorProgress));
+                meter.process(processor, lgraph, monitor.subTask(monitorProgress));
             }
 
             // Graph debug output
@@ -504,7 +667,7 @@ public final class ElkLayered {
                 if (monitor.isCanceled()) {
                     return;
                 }
-                processor.process(lgraph, monitor.subTask(monitorProgress));
+                meter.process(processor, lgraph, monitor.subTask(monitorProgress));
             }
         }
         
@@ -524,6 +687,44 @@ public final class ElkLayered {
         }
     }
 
+    /**
+     * Creates a meter for running the processors of the given graph, which measures them if a metrics
+     * listener is set on the graph.
+     * 
+     * @param lgraph the graph the processors will run on
+     * @param graphIndex index of the graph, reported along with the metrics
+     * @return the meter
+     */
+    private ProcessorMeter<LGraph> createMeter(final LGraph lgraph, final int graphIndex) {
+        return new ProcessorMeter<>(lgraph.getProperty(LayeredOptions.METRICS_LISTENER),
+                LayeredOptions.ALGORITHM_ID, graphIndex, ElkLayered::countGraphElements);
+    }
+
+    /**
+     * Counts the nodes, dummy nodes, layers, and edges of the given graph, no matter whether the
+     * nodes have been layered yet.
+     * 
+     * @param lgraph the graph
+     * @param counters the map to add the counters to
+     */
+    private static void countGraphElements(final LGraph lgraph, final Map<String, Long> counters) {
+        long nodes = 0;
+        long dummyNodes = 0;
+        long edges = 0;
+        Iterable<LNode> allNodes = Iterables.concat(lgraph.getLayerlessNodes(), Iterables.concat(lgraph));
+        for (LNode node : allNodes) {
+            nodes++;
+            if (node.getType() != NodeType.NORMAL) {
+                dummyNodes++;
+            }
+            edges += Iterables.size(node.getOutgoingEdges());
+        }
+        counters.put("nodes", nodes);
+        counters.put("dummyNodes", dummyNodes);
+        counters.put("layers", (long) lgraph.getLayers().size());
+        counters.put("edges", edges);
+    }
+
     /**
      * Executes the given layout processor on the given list of graphs.
      * 
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.layered;
 
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
@@ -26,6 +27,7 @@ import org.eclipse.elk.alg.layered.options.NodePromotionStrategy;
 import org.eclipse.elk.alg.layered.options.Spacings;
 import org.eclipse.elk.alg.layered.p5edges.EdgeRouterFactory;
 import org.eclipse.elk.core.alg.AlgorithmAssembler;
+import org.eclipse.elk.core.alg.ILayoutProcessor;
 import org.eclipse.elk.core.alg.LayoutProcessorConfiguration;
 import org.eclipse.elk.core.labels.LabelManagementOptions;
 import org.eclipse.elk.core.options.Direction;
@@ -130,6 +132,18 @@ final class GraphConfigurator {
         // Make sure the graph properties are sensible
         configureGraphProperties(lgraph);
         
+        lgraph.setProperty(InternalProperties.PROCESSORS, buildProcessors(lgraph));
+    }
+    
+    /**
+     * Assembles the processors required to layout the given graph, whose properties must already have
+     * been configured by {@link #prepareGraphForLayout(LGraph)}. Processors are cached by this
+     * configurator, so lists built by different configurators never share processor instances.
+     * 
+     * @param lgraph the graph to layout.
+     * @return the list of processors.
+     */
+    public List<ILayoutProcessor<LGraph>> buildProcessors(final LGraph lgraph) {
         // Setup the algorithm assembler
         algorithmAssembler.reset();
         
@@ -146,7 +160,7 @@ final class GraphConfigurator {
         
         algorithmAssembler.addProcessorConfiguration(getPhaseIndependentLayoutProcessorConfiguration(lgraph));
         
-        lgraph.setProperty(InternalProperties.PROCESSORS, algorithmAssembler.build(lgraph));
+        return algorithmAssembler.build(lgraph);
     }
     
     /**
@@ -239,14 +253,16 @@ final class GraphConfigurator {
         }
 
         // Configure greedy switch, activate it if the following holds true
-        //  a) no interactive crossing minimization is performed
+        //  a) no interactive or incremental crossing minimization is performed
         //  b) the greedy switch type is set to something different than OFF
         //  c) the activationThreshold is larger than or equal to the graph's number of nodes (or '0')
         GreedySwitchType greedySwitchType = lgraph.getProperty(LayeredOptions.CROSSING_MINIMIZATION_GREEDY_SWITCH_TYPE);
+        CrossingMinimizationStrategy crossMinStrategy = lgraph.getProperty(
+                LayeredOptions.CROSSING_MINIMIZATION_STRATEGY);
         boolean interactiveCrossMin =
                 lgraph.getProperty(LayeredOptions.CROSSING_MINIMIZATION_SEMI_INTERACTIVE) 
-                || lgraph.getProperty(
-                        LayeredOptions.CROSSING_MINIMIZATION_STRATEGY) == CrossingMinimizationStrategy.INTERACTIVE;
+                || crossMinStrategy == CrossingMinimizationStrategy.INTERACTIVE
+                || crossMinStrategy == CrossingMinimizationStrategy.INCREMENTAL;
         int activationThreshold =
                 lgraph.getProperty(LayeredOptions.CROSSING_MINIMIZATION_GREEDY_SWITCH_ACTIVATION_THRESHOLD);
         int graphSize = lgraph.getLayerlessNodes().size();
@@ -259,6 +275,12 @@ final class GraphConfigurator {
             configuration.addBefore(LayeredPhases.P4_NODE_PLACEMENT, internalGreedyType);
         }
 
+        // Remember the layering and node order for later incremental layouts
+        if (lgraph.getProperty(LayeredOptions.GENERATE_POSITION_AND_LAYER_IDS)) {
+            configuration.addAfter(LayeredPhases.P5_EDGE_ROUTING,
+                    IntermediateProcessorStrategy.POSITION_AND_LAYER_ID_GENERATOR);
+        }
+
         // Wrapping of graphs
         switch (lgraph.getProperty(LayeredOptions.WRAPPING_STRATEGY)) {
         case PATH_LIKE:
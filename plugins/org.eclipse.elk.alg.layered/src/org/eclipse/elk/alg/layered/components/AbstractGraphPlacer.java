@@ -78,7 +78,7 @@ abstract class AbstractGraphPlacer {
             node.getPosition().add(graphOffset);
             for (LPort port : node.getPorts()) {
                 for (LEdge edge : port.getOutgoingEdges()) {
-                    edge.getBendPoints().offset(graphOffset);
+                    edge.offsetBendPoints(graphOffset);
                     KVectorChain junctionPoints = edge.getProperty(LayeredOptions.JUNCTION_POINTS);
                     if (junctionPoints != null) {
                         junctionPoints.offset(graphOffset);
@@ -126,7 +126,7 @@ abstract class AbstractGraphPlacer {
             node.getPosition().add(graphOffset);
             for (LPort port : node.getPorts()) {
                 for (LEdge edge : port.getOutgoingEdges()) {
-                    edge.getBendPoints().offset(graphOffset);
+                    edge.offsetBendPoints(graphOffset);
                     KVectorChain junctionPoints = edge.getProperty(LayeredOptions.JUNCTION_POINTS);
                     if (junctionPoints != null) {
                         junctionPoints.offset(graphOffset);
@@ -784,8 +784,8 @@ public class CompoundGraphPreprocessor implements ILayoutProcessor<LGraph> {
             externalPort.origEdges.add(origEdge);
             
             // merge the properties of the original edges
-            double thickness = Math.max(externalPort.newEdge.getProperty(LayeredOptions.EDGE_THICKNESS),
-                    origEdge.getProperty(LayeredOptions.EDGE_THICKNESS));
+            double thickness = Math.max(externalPort.newEdge.getDoubleProperty(LayeredOptions.EDGE_THICKNESS),
+                    origEdge.getDoubleProperty(LayeredOptions.EDGE_THICKNESS));
             externalPort.newEdge.setProperty(LayeredOptions.EDGE_THICKNESS, thickness);
         }
 
@@ -858,7 +858,7 @@ public class CompoundGraphPreprocessor implements ILayoutProcessor<LGraph> {
         } else {
             // we create a new dummy node in any case, and since there is no port yet we have to
             // create one as well
-            double thickness = edge.getProperty(LayeredOptions.EDGE_THICKNESS);
+            double thickness = edge.getDoubleProperty(LayeredOptions.EDGE_THICKNESS);
             dummyNode = LGraphUtil.createExternalPortDummy(
                     createExternalPortProperties(graph),
                     parentNode.getProperty(LayeredOptions.PORT_CONSTRAINTS),
@@ -927,7 +927,8 @@ public class CompoundGraphPreprocessor implements ILayoutProcessor<LGraph> {
             port.setSide(PortSide.fromDirection(layoutDirection));
             break;
         }
-        port.setProperty(LayeredOptions.PORT_BORDER_OFFSET, dummyNode.getProperty(LayeredOptions.PORT_BORDER_OFFSET));
+        port.setProperty(LayeredOptions.PORT_BORDER_OFFSET,
+                dummyNode.getDoubleProperty(LayeredOptions.PORT_BORDER_OFFSET));
         dummyNode.setProperty(InternalProperties.ORIGIN, port);
         dummyNodeMap.put(port, dummyNode);
         return port;
@@ -15,7 +15,9 @@ import java.util.List;
 import org.eclipse.elk.alg.layered.options.InternalProperties;
 import org.eclipse.elk.alg.layered.options.PortType;
 import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.core.math.KVector;
 import org.eclipse.elk.core.math.KVectorChain;
+import org.eclipse.elk.core.math.PackedVectorChain;
 import org.eclipse.elk.core.options.EdgeLabelPlacement;
 import org.eclipse.elk.core.options.PortSide;
 
@@ -34,8 +36,10 @@ public final class LEdge extends LGraphElement {
     /** the serial version UID. */
     private static final long serialVersionUID = 1429497419118554817L;
     
-    /** the bend points. */
-    private KVectorChain bendPoints = new KVectorChain();
+    /** the bend points, or {@code null} as long as they are only kept in packed form. */
+    private KVectorChain bendPoints;
+    /** bend points added in packed form before {@link #getBendPoints()} was first called. */
+    private PackedVectorChain packedBendPoints;
     /** the source port. */
     private LPort source;
     /** the target port. */
@@ -99,7 +103,11 @@ public final class LEdge extends LGraphElement {
         boolean reversed = getProperty(InternalProperties.REVERSED);
         setProperty(InternalProperties.REVERSED, !reversed);
         
-        bendPoints = KVectorChain.reverse(bendPoints);
+        if (bendPoints != null) {
+            bendPoints = KVectorChain.reverse(bendPoints);
+        } else if (packedBendPoints != null) {
+            packedBendPoints.reverse();
+        }
     }
 
     /**
@@ -216,13 +224,107 @@ public final class LEdge extends LGraphElement {
 
     /**
      * Returns the list of bend points, with coordinates relative to the {@code LayeredGraph}'s
-     * origin. The list is initially empty.
+     * origin. The list is initially empty. Bend points added in packed form are converted into the
+     * list the first time this method is called, and are added to the list from then on.
      * 
      * @return the bend points
      */
     public KVectorChain getBendPoints() {
+        if (bendPoints == null) {
+            bendPoints = packedBendPoints == null ? new KVectorChain() : packedBendPoints.toVectorChain();
+            packedBendPoints = null;
+        }
         return bendPoints;
     }
+    
+    /**
+     * Appends the bend point (x,y) without creating a vector for it, unless {@link #getBendPoints()}
+     * has already been called. This is what edge routers should use, since most edges are never
+     * looked at again before their bend points are transferred to the input graph.
+     * 
+     * @param x x coordinate relative to the {@code LayeredGraph}'s origin
+     * @param y y coordinate relative to the {@code LayeredGraph}'s origin
+     */
+    public void addBendPoint(final double x, final double y) {
+        if (bendPoints != null) {
+            bendPoints.add(x, y);
+        } else {
+            if (packedBendPoints == null) {
+                packedBendPoints = new PackedVectorChain();
+            }
+            packedBendPoints.add(x, y);
+        }
+    }
+    
+    /**
+     * Inserts the bend point (x,y) before all other bend points, in the same way as
+     * {@link #addBendPoint(double, double)} appends it.
+     * 
+     * @param x x coordinate relative to the {@code LayeredGraph}'s origin
+     * @param y y coordinate relative to the {@code LayeredGraph}'s origin
+     */
+    public void addFirstBendPoint(final double x, final double y) {
+        if (bendPoints != null) {
+            bendPoints.addFirst(x, y);
+        } else {
+            if (packedBendPoints == null) {
+                packedBendPoints = new PackedVectorChain();
+            }
+            packedBendPoints.addFirst(x, y);
+        }
+    }
+    
+    /**
+     * Appends copies of the bend points of the given edge to the bend points of this edge, keeping
+     * them packed if neither edge has had its bend points converted yet.
+     * 
+     * @param edge the edge whose bend points to append
+     */
+    public void addBendPoints(final LEdge edge) {
+        if (bendPoints != null) {
+            if (edge.bendPoints != null) {
+                bendPoints.addAllAsCopies(bendPoints.size(), edge.bendPoints);
+            } else if (edge.packedBendPoints != null) {
+                for (int i = 0; i < edge.packedBendPoints.size(); i++) {
+                    bendPoints.add(edge.packedBendPoints.getX(i), edge.packedBendPoints.getY(i));
+                }
+            }
+        } else if (edge.bendPoints != null || edge.packedBendPoints != null) {
+            if (packedBendPoints == null) {
+                packedBendPoints = new PackedVectorChain();
+            }
+            edge.appendBendPointsTo(packedBendPoints, 0, 0);
+        }
+    }
+    
+    /**
+     * Moves all bend points by the given offset.
+     * 
+     * @param offset the offset to add to every bend point
+     */
+    public void offsetBendPoints(final KVector offset) {
+        if (bendPoints != null) {
+            bendPoints.offset(offset);
+        } else if (packedBendPoints != null) {
+            packedBendPoints.offset(offset.x, offset.y);
+        }
+    }
+    
+    /**
+     * Appends the bend points of this edge, moved by the given offset, to the given chain without
+     * converting packed bend points into vectors. This is how layout transferrers should read them.
+     * 
+     * @param chain the chain to append the bend points to
+     * @param dx offset added to the x coordinates
+     * @param dy offset added to the y coordinates
+     */
+    public void appendBendPointsTo(final PackedVectorChain chain, final double dx, final double dy) {
+        if (bendPoints != null) {
+            chain.addAll(bendPoints, dx, dy);
+        } else if (packedBendPoints != null) {
+            chain.addAll(packedBendPoints, dx, dy);
+        }
+    }
 
     /**
      * Returns the list of edge labels.
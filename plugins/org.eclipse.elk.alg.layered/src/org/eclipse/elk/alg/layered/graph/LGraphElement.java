@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.layered.graph;
 
-import org.eclipse.elk.graph.properties.MapPropertyHolder;
+import org.eclipse.elk.graph.properties.ArrayPropertyHolder;
 
 /**
  * Abstract superclass for the layers, nodes, ports, and edges of a layered graph
@@ -30,7 +30,7 @@ import org.eclipse.elk.graph.properties.MapPropertyHolder;
  * @kieler.design proposed by msp
  * @kieler.rating yellow 2013-03-22 review KI-35 by chsch, grh
  */
-public abstract class LGraphElement extends MapPropertyHolder {
+public abstract class LGraphElement extends ArrayPropertyHolder {
 
     /** the serial version UID. */
     private static final long serialVersionUID = 5480383439314459124L;
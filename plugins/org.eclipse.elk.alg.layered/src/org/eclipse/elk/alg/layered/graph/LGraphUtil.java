@@ -161,7 +161,7 @@ public final class LGraphUtil {
             node.getPosition().add(graphOffset);
             for (LPort port : node.getPorts()) {
                 for (LEdge edge : port.getOutgoingEdges()) {
-                    edge.getBendPoints().offset(graphOffset);
+                    edge.offsetBendPoints(graphOffset);
                     KVectorChain junctionPoints = edge.getProperty(LayeredOptions.JUNCTION_POINTS);
                     if (junctionPoints != null) {
                         junctionPoints.offset(graphOffset);
@@ -631,7 +631,7 @@ public final class LGraphUtil {
             
             // if port coordinates are (0,0), we default to port offset 0 to make the common case
             // frustration-free
-            if (!port.getAllProperties().containsKey(LayeredOptions.PORT_BORDER_OFFSET)
+            if (!port.hasProperty(LayeredOptions.PORT_BORDER_OFFSET)
                     && portSide != PortSide.UNDEFINED
                     && (port.getPosition().x != 0 || port.getPosition().y != 0)) {
                 
@@ -887,7 +887,7 @@ public final class LGraphUtil {
         KVector portPosition = new KVector(portDummy.getPosition());
         portPosition.x += portDummy.getSize().x / 2.0;
         portPosition.y += portDummy.getSize().y / 2.0;
-        double portOffset = portDummy.getProperty(LayeredOptions.PORT_BORDER_OFFSET);
+        double portOffset = portDummy.getDoubleProperty(LayeredOptions.PORT_BORDER_OFFSET);
         
         // Get some properties of the graph
         KVector graphSize = graph.getSize();
@@ -195,6 +195,28 @@ public final class LPort extends LShape {
         return KVector.sum(owner.getPosition(), this.getPosition(), anchor);
     }
     
+    /**
+     * Returns the x coordinate of the absolute anchor position of the port. Unlike
+     * {@link #getAbsoluteAnchor()}, this method does not create a new vector, which matters in the
+     * inner loops of edge routers.
+     * 
+     * @return the x coordinate of the absolute anchor position
+     */
+    public double getAbsoluteAnchorX() {
+        return owner.getPosition().x + this.getPosition().x + anchor.x;
+    }
+    
+    /**
+     * Returns the y coordinate of the absolute anchor position of the port. Unlike
+     * {@link #getAbsoluteAnchor()}, this method does not create a new vector, which matters in the
+     * inner loops of edge routers.
+     * 
+     * @return the y coordinate of the absolute anchor position
+     */
+    public double getAbsoluteAnchorY() {
+        return owner.getPosition().y + this.getPosition().y + anchor.y;
+    }
+    
     /**
      * Returns the margin around this port. The margin is typically used to reserve space for the
      * port's labels.
@@ -29,6 +29,7 @@ import org.eclipse.elk.alg.layered.options.NodePlacementStrategy;
 import org.eclipse.elk.core.math.ElkPadding;
 import org.eclipse.elk.core.math.KVector;
 import org.eclipse.elk.core.math.KVectorChain;
+import org.eclipse.elk.core.math.PackedVectorChain;
 import org.eclipse.elk.core.options.EdgeRouting;
 import org.eclipse.elk.core.options.PortConstraints;
 import org.eclipse.elk.core.options.PortLabelPlacement;
@@ -50,6 +51,9 @@ import com.google.common.collect.Lists;
  * @author cds
  */
 class ElkGraphLayoutTransferrer {
+    
+    /** the points of the edge currently being applied, reused for all edges. */
+    private final PackedVectorChain edgePoints = new PackedVectorChain();
 
     /**
      * Applies the layout information contained in the given LGraph to the ElkGraph elements it was
@@ -168,6 +172,14 @@ class ElkGraphLayoutTransferrer {
             elknode.setHeight(lnode.getSize().y);
         }
 
+        // Pass on the memento for incremental layout, if it was requested
+        if (lnode.getGraph().getProperty(LayeredOptions.GENERATE_POSITION_AND_LAYER_IDS)) {
+            elknode.setProperty(LayeredOptions.LAYERING_LAYER_ID,
+                    lnode.getProperty(LayeredOptions.LAYERING_LAYER_ID));
+            elknode.setProperty(LayeredOptions.CROSSING_MINIMIZATION_POSITION_ID,
+                    lnode.getProperty(LayeredOptions.CROSSING_MINIMIZATION_POSITION_ID));
+        }
+
         // Set port positions
         for (LPort lport : lnode.getPorts()) {
             Object origin = lport.getProperty(InternalProperties.ORIGIN);
@@ -229,13 +241,17 @@ class ElkGraphLayoutTransferrer {
             return;
         }
         
-        KVectorChain bendPoints = ledge.getBendPoints();
-        
         // The standard offset may need to be modified if the edge needs to end up in a coordinate system of
         // a graph in a higher hierarchy level
         KVector edgeOffset = new KVector(offset);
         edgeOffset.add(calculateHierarchicalOffset(ledge));
 
+        // Pass on the memento for incremental layout, if it was requested
+        if (ledge.getSource().getNode().getGraph().getProperty(LayeredOptions.GENERATE_POSITION_AND_LAYER_IDS)) {
+            elkedge.setProperty(LayeredOptions.CROSSING_MINIMIZATION_DUMMY_POSITION_IDS,
+                    ledge.getProperty(LayeredOptions.CROSSING_MINIMIZATION_DUMMY_POSITION_IDS));
+        }
+
         // Adapt the offset value and add the source port position to the vector chain
         KVector sourcePoint;
         if (LGraphUtil.isDescendant(ledge.getTarget().getNode(), ledge.getSource().getNode())) {
@@ -251,21 +267,23 @@ class ElkGraphLayoutTransferrer {
         } else {
             sourcePoint = ledge.getSource().getAbsoluteAnchor();
         }
-        bendPoints.addFirst(sourcePoint);
         
         // Add the target port position to the vector chain, including additional offset
         KVector targetPoint = ledge.getTarget().getAbsoluteAnchor();
         if (ledge.getProperty(InternalProperties.TARGET_OFFSET) != null) {
             targetPoint.add(ledge.getProperty(InternalProperties.TARGET_OFFSET));
         }
-        bendPoints.addLast(targetPoint);
-
-        // Translate the bend points by the offset and apply the bend points
-        bendPoints.offset(edgeOffset);
+        
+        // Collect the source point, bend points, and target point, translated by the offset, without
+        // modifying the edge's bend points
+        edgePoints.clear();
+        edgePoints.add(sourcePoint.x + edgeOffset.x, sourcePoint.y + edgeOffset.y);
+        ledge.appendBendPointsTo(edgePoints, edgeOffset.x, edgeOffset.y);
+        edgePoints.add(targetPoint.x + edgeOffset.x, targetPoint.y + edgeOffset.y);
         
         // Give the edge a proper edge section to store routing information
         ElkEdgeSection elkedgeSection = ElkGraphUtil.firstEdgeSection(elkedge, true, true);
-        ElkUtil.applyVectorChain(bendPoints, elkedgeSection);
+        ElkUtil.applyVectorChain(edgePoints, elkedgeSection);
 
         // Apply layout to labels
         for (LLabel llabel : ledge.getLabels()) {
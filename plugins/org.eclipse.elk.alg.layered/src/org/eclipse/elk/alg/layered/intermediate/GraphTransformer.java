@@ -158,7 +158,7 @@ public final class GraphTransformer implements ILayoutProcessor<LGraph> {
             mirrorNodeLabelPlacementX(node);
 
             // mirror position
-            if (node.getAllProperties().containsKey(LayeredOptions.POSITION)) {
+            if (node.hasProperty(LayeredOptions.POSITION)) {
                 mirrorX(node.getProperty(LayeredOptions.POSITION), offset - node.getSize().x);
             }
             
@@ -357,7 +357,7 @@ public final class GraphTransformer implements ILayoutProcessor<LGraph> {
             mirrorNodeLabelPlacementY(node);
             
             // mirror position
-            if (node.getAllProperties().containsKey(LayeredOptions.POSITION)) {
+            if (node.hasProperty(LayeredOptions.POSITION)) {
                 mirrorY(node.getProperty(LayeredOptions.POSITION), offset - node.getSize().y);
             }
             
@@ -780,7 +780,7 @@ public final class GraphTransformer implements ILayoutProcessor<LGraph> {
         }
         
         // POSITION
-        if (node.getAllProperties().containsKey(LayeredOptions.POSITION)) {
+        if (node.hasProperty(LayeredOptions.POSITION)) {
             KVector pos = node.getProperty(LayeredOptions.POSITION);
             double tmp = pos.x;
             pos.x = pos.y;
@@ -138,6 +138,8 @@ public enum IntermediateProcessorStrategy implements ILayoutProcessorFactory<LGr
 
     // After Phase 5
 
+    /** Writes the layer and in-layer position of each node as a memento for incremental layout. */
+    POSITION_AND_LAYER_ID_GENERATOR,
     /** Reinserts and places comment boxes that have been removed before. */
     COMMENT_POSTPROCESSOR,
     /** Moves hypernodes horizontally for better placement. */
@@ -309,6 +311,9 @@ public enum IntermediateProcessorStrategy implements ILayoutProcessorFactory<LGr
         case PARTITION_PREPROCESSOR:
             return new PartitionPreprocessor();
 
+        case POSITION_AND_LAYER_ID_GENERATOR:
+            return new PositionAndLayerIdGenerator();
+
         case PORT_LIST_SORTER:
             return new PortListSorter();
 
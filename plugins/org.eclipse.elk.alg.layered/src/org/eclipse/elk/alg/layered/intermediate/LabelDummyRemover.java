@@ -73,7 +73,7 @@ public final class LabelDummyRemover implements ILayoutProcessor<LGraph> {
                 if (node.getType() == NodeType.LABEL) {
                     // First, place labels on position of dummy node 
                     LEdge originEdge = (LEdge) node.getProperty(InternalProperties.ORIGIN);
-                    double thickness = originEdge.getProperty(LayeredOptions.EDGE_THICKNESS).doubleValue();
+                    double thickness = originEdge.getDoubleProperty(LayeredOptions.EDGE_THICKNESS);
                     
                     KVector currLabelPos = new KVector(node.getPosition());
                     
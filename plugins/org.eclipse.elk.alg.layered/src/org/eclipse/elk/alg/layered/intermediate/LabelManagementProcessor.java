@@ -122,7 +122,7 @@ public final class LabelManagementProcessor implements ILayoutProcessor<LGraph>
 
             case LABEL:
                 LEdge edge = layerNode.getConnectedEdges().iterator().next();
-                double edgeThickness = edge.getProperty(LayeredOptions.EDGE_THICKNESS).doubleValue();
+                double edgeThickness = edge.getDoubleProperty(LayeredOptions.EDGE_THICKNESS);
 
                 KVector newDummySize = new KVector(0.0, edgeThickness);
 
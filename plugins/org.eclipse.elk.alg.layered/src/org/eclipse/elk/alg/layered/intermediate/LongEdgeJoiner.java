@@ -140,15 +140,11 @@ public final class LongEdgeJoiner implements ILayoutProcessor<LGraph> {
             droppedEdge.setTarget(null);
             
             // Join their bend points and add possibly an unnecessary one
-            KVectorChain survivingBendPoints = survivingEdge.getBendPoints();
-            
             if (addUnnecessaryBendpoints) {
-                survivingBendPoints.add(new KVector(unnecessaryBendpoint));
+                survivingEdge.addBendPoint(unnecessaryBendpoint.x, unnecessaryBendpoint.y);
             }
             
-            for (KVector bendPoint : droppedEdge.getBendPoints()) {
-                survivingBendPoints.add(new KVector(bendPoint));
-            }
+            survivingEdge.addBendPoints(droppedEdge);
             
             // Join their labels
             List<LLabel> survivingLabels = survivingEdge.getLabels();
@@ -141,7 +141,7 @@ public final class LongEdgeSplitter implements ILayoutProcessor<LGraph> {
         LPort oldEdgeTarget = edge.getTarget();
         
         // Set thickness of the edge
-        double thickness = edge.getProperty(LayeredOptions.EDGE_THICKNESS);
+        double thickness = edge.getDoubleProperty(LayeredOptions.EDGE_THICKNESS);
         if (thickness < 0) {
             thickness = 0;
             edge.setProperty(LayeredOptions.EDGE_THICKNESS, thickness);
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.intermediate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.elk.alg.layered.graph.LEdge;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.graph.LNode;
+import org.eclipse.elk.alg.layered.graph.LNode.NodeType;
+import org.eclipse.elk.alg.layered.graph.Layer;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Records the layer and the in-layer position of each regular node in its
+ * {@link LayeredOptions#LAYERING_LAYER_ID} and {@link LayeredOptions#CROSSING_MINIMIZATION_POSITION_ID}
+ * properties. The positions of the long edge and label dummy nodes of each edge are recorded in the
+ * {@link LayeredOptions#CROSSING_MINIMIZATION_DUMMY_POSITION_IDS} property of the edge's first
+ * segment, which is the one that survives when the edge is joined again. Together, these form the
+ * memento that the incremental layout phases read when the graph is laid out again. Positions count
+ * all nodes of a layer, so regular and dummy nodes of a layer can be compared by them.
+ *
+ * <dl>
+ *   <dt>Precondition:</dt>
+ *     <dd>a layered graph.</dd>
+ *   <dt>Postcondition:</dt>
+ *     <dd>all regular nodes have their layer and position IDs set, and all edges their dummy position
+ *       IDs.</dd>
+ *   <dt>Slots:</dt>
+ *     <dd>After phase 5.</dd>
+ *   <dt>Same-slot dependencies:</dt>
+ *     <dd>Before {@link LongEdgeJoiner}, so that layers still contain their dummy nodes.</dd>
+ * </dl>
+ */
+public final class PositionAndLayerIdGenerator implements ILayoutProcessor<LGraph> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void process(final LGraph layeredGraph, final IElkProgressMonitor monitor) {
+        monitor.begin("Generate position and layer IDs", 1);
+
+        // start a fresh memento for each edge, replacing the one the edge was imported with
+        for (Layer layer : layeredGraph) {
+            for (LNode node : layer) {
+                if (!isEdgeDummy(node)) {
+                    for (LEdge edge : node.getOutgoingEdges()) {
+                        List<Integer> dummyPositions = Lists.newArrayList();
+                        edge.setProperty(LayeredOptions.CROSSING_MINIMIZATION_DUMMY_POSITION_IDS,
+                                dummyPositions);
+                    }
+                }
+            }
+        }
+        
+        // maps the segments of split edges to the first segment, which carries the dummy positions
+        Map<LEdge, LEdge> firstSegments = Maps.newHashMap();
+        int layerIndex = 0;
+        for (Layer layer : layeredGraph) {
+            int position = 0;
+            for (LNode node : layer) {
+                if (node.getType() == NodeType.NORMAL) {
+                    node.setProperty(LayeredOptions.LAYERING_LAYER_ID, layerIndex);
+                    node.setProperty(LayeredOptions.CROSSING_MINIMIZATION_POSITION_ID, position);
+                }
+                
+                if (isEdgeDummy(node)) {
+                    // incoming and outgoing edges with the same index belong to the same edge, as
+                    // LongEdgeJoiner assumes as well
+                    Iterator<LEdge> outgoingEdges = node.getOutgoingEdges().iterator();
+                    for (LEdge incomingEdge : node.getIncomingEdges()) {
+                        LEdge firstSegment = firstSegments.remove(incomingEdge);
+                        if (firstSegment == null) {
+                            firstSegment = incomingEdge;
+                        }
+                        List<Integer> dummyPositions =
+                                firstSegment.getProperty(LayeredOptions.CROSSING_MINIMIZATION_DUMMY_POSITION_IDS);
+                        if (dummyPositions != null) {
+                            dummyPositions.add(position);
+                        }
+                        if (outgoingEdges.hasNext()) {
+                            firstSegments.put(outgoingEdges.next(), firstSegment);
+                        }
+                    }
+                }
+                position++;
+            }
+            layerIndex++;
+        }
+
+        monitor.done();
+    }
+
+    /**
+     * Checks whether the given node is one of the dummy nodes an edge is split into.
+     *
+     * @param node a node
+     * @return {@code true} if the node is a long edge or label dummy node
+     */
+    private static boolean isEdgeDummy(final LNode node) {
+        return node.getType() == NodeType.LONG_EDGE || node.getType() == NodeType.LABEL;
+    }
+
+}
@@ -57,7 +57,7 @@ public class SemiInteractiveCrossMinProcessor implements ILayoutProcessor<LGraph
             // #3 introduce pair-wise in-layer constraints
             l.getNodes().stream()
                 .filter(n -> n.getType() == NodeType.NORMAL)
-                .filter(n -> n.getAllProperties().containsKey(LayeredOptions.POSITION))
+                .filter(n -> n.hasProperty(LayeredOptions.POSITION))
                 .sorted((n1, n2) -> {
                     KVector origPos1 = n1.getProperty(LayeredOptions.POSITION);
                     KVector origPos2 = n2.getProperty(LayeredOptions.POSITION);
@@ -10,21 +10,49 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.layered.intermediate.greedyswitch;
 
+import java.util.Arrays;
+
 import org.eclipse.elk.alg.layered.graph.LNode;
 import org.eclipse.elk.alg.layered.intermediate.greedyswitch.SwitchDecider.CrossingCountSide;
 import org.eclipse.elk.alg.layered.p3order.LayerSweepCrossingMinimizer.CrossMinType;
 
 /**
  * This class manages the crossing matrix and fills it on demand. It needs to be reinitialized for
- * each free layer. For each layer the node.id fields MUST be set from 0 to layer.getSize() - 1!
+ * each free layer, either by creating a new instance or by calling
+ * {@link #reset(LNode[][], int, CrossingCountSide)}. For each layer the node.id fields MUST be set
+ * from 0 to layer.getSize() - 1!
+ *
+ * <p>Greedy switch only ever asks for the entries of nodes that are currently neighbors in the free
+ * layer, so only a small part of the full matrix is ever filled. Instead of allocating the matrix,
+ * entries of nodes whose ids differ by one are kept in a band of two entries per node along with a
+ * bitset marking the filled ones, and all other entries are kept in a hash table. Both are kept
+ * when the filler is reset, so a filler reused across free layers and sweeps only allocates memory
+ * when a layer needs more space than any layer before.</p>
  */
 public final class CrossingMatrixFiller {
-    private final boolean[][] isCrossingMatrixFilled;
-    private final int[][] crossingMatrix;
-    private final BetweenLayerEdgeTwoNodeCrossingsCounter inBetweenLayerCrossingCounter;
-    private final CrossingCountSide direction;
+    /** the initial number of entries of the hash table; must be a power of two. */
+    private static final int INITIAL_TABLE_CAPACITY = 16;
+    /** marks an empty slot of the hash table; no pair of node ids maps to this key. */
+    private static final long EMPTY = -1L;
+    /** the number of bits in a word of the bitset. */
+    private static final int WORD_SHIFT = 6;
+
+    private BetweenLayerEdgeTwoNodeCrossingsCounter inBetweenLayerCrossingCounter;
+    private CrossingCountSide direction;
     private final boolean oneSided;
 
+    /** the crossings of the pairs (i, i + 1) at 2i with i above i + 1, and at 2i + 1 otherwise. */
+    private int[] bandCrossings = new int[0];
+    /** bit i is set if the entries of the pair (i, i + 1) are filled. */
+    private long[] bandFilled = new long[0];
+
+    /** the keys of the other filled pairs, see {@link #key(int, int)}, or {@link #EMPTY}. */
+    private long[] tableKeys = newTableKeys(INITIAL_TABLE_CAPACITY);
+    /** the crossings of each pair at twice its slot if the smaller id is above, at the next index otherwise. */
+    private int[] tableCrossings = new int[2 * INITIAL_TABLE_CAPACITY];
+    /** the number of pairs in the hash table. */
+    private int tableSize;
+
     // SUPPRESS CHECKSTYLE NEXT 30 Javadoc
     /**
      * Constructs class which manages the crossing matrix.
@@ -32,12 +60,35 @@ public final class CrossingMatrixFiller {
     public CrossingMatrixFiller(final CrossMinType greedySwitchType, final LNode[][] graph,
             final int freeLayerIndex, final CrossingCountSide direction) {
         
-        this.direction = direction;
         oneSided = greedySwitchType == CrossMinType.ONE_SIDED_GREEDY_SWITCH;
+        reset(graph, freeLayerIndex, direction);
+    }
 
-        LNode[] freeLayer = graph[freeLayerIndex];
-        isCrossingMatrixFilled = new boolean[freeLayer.length][freeLayer.length];
-        crossingMatrix = new int[freeLayer.length][freeLayer.length];
+    /**
+     * Discards all entries and prepares the filler for the given free layer, reusing the memory
+     * allocated so far.
+     * 
+     * @param graph
+     *            the current node order.
+     * @param freeLayerIndex
+     *            the index of the free layer.
+     * @param countSide
+     *            the side crossings are counted on if greedy switch is one-sided.
+     */
+    public void reset(final LNode[][] graph, final int freeLayerIndex, final CrossingCountSide countSide) {
+        this.direction = countSide;
+
+        int layerSize = graph[freeLayerIndex].length;
+        if (bandCrossings.length < 2 * layerSize) {
+            bandCrossings = new int[2 * layerSize];
+            bandFilled = new long[(layerSize >> WORD_SHIFT) + 1];
+        } else {
+            Arrays.fill(bandFilled, 0L);
+        }
+        if (tableSize > 0) {
+            Arrays.fill(tableKeys, EMPTY);
+            tableSize = 0;
+        }
 
         inBetweenLayerCrossingCounter = new BetweenLayerEdgeTwoNodeCrossingsCounter(graph, freeLayerIndex);
     }
@@ -47,15 +98,41 @@ public final class CrossingMatrixFiller {
      * lowerNode in the layer.
      */
     public int getCrossingMatrixEntry(final LNode upperNode, final LNode lowerNode) {
-        if (!isCrossingMatrixFilled[upperNode.id][lowerNode.id]) {
-            fillCrossingMatrix(upperNode, lowerNode);
-            isCrossingMatrixFilled[upperNode.id][lowerNode.id] = true;
-            isCrossingMatrixFilled[lowerNode.id][upperNode.id] = true;
+        int upper = upperNode.id;
+        int lower = lowerNode.id;
+        int min = Math.min(upper, lower);
+        // entries of the pair are stored at index and index + 1, the first with the smaller id above
+        int index;
+        int[] crossings;
+        if (Math.abs(upper - lower) == 1) {
+            crossings = bandCrossings;
+            index = 2 * min;
+            long bit = 1L << min;
+            if ((bandFilled[min >> WORD_SHIFT] & bit) == 0) {
+                fillCrossingMatrix(upperNode, lowerNode, crossings, index);
+                bandFilled[min >> WORD_SHIFT] |= bit;
+            }
+        } else {
+            long key = key(min, Math.max(upper, lower));
+            int slot = slot(key);
+            if (tableKeys[slot] == EMPTY) {
+                if (2 * (tableSize + 1) > tableKeys.length) {
+                    growTable();
+                    slot = slot(key);
+                }
+                tableKeys[slot] = key;
+                tableSize++;
+                fillCrossingMatrix(upperNode, lowerNode, tableCrossings, 2 * slot);
+            }
+            crossings = tableCrossings;
+            index = 2 * slot;
         }
-        return crossingMatrix[upperNode.id][lowerNode.id];
+        return upper < lower ? crossings[index] : crossings[index + 1];
     }
 
-    private void fillCrossingMatrix(final LNode upperNode, final LNode lowerNode) {
+    private void fillCrossingMatrix(final LNode upperNode, final LNode lowerNode, final int[] crossings,
+            final int index) {
+        
         if (oneSided) {
             switch (direction) {
             case EAST:
@@ -67,9 +144,58 @@ public final class CrossingMatrixFiller {
         } else {
             inBetweenLayerCrossingCounter.countBothSideCrossings(upperNode, lowerNode);
         }
-        crossingMatrix[upperNode.id][lowerNode.id] =
+        boolean upperHasSmallerId = upperNode.id < lowerNode.id;
+        crossings[upperHasSmallerId ? index : index + 1] =
                 inBetweenLayerCrossingCounter.getUpperLowerCrossings();
-        crossingMatrix[lowerNode.id][upperNode.id] =
+        crossings[upperHasSmallerId ? index + 1 : index] =
                 inBetweenLayerCrossingCounter.getLowerUpperCrossings();
     }
+
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // Hash Table
+
+    /**
+     * Returns the key of the pair of node ids, the first being the smaller one.
+     */
+    private static long key(final int min, final int max) {
+        return ((long) min << Integer.SIZE) | max;
+    }
+
+    /**
+     * Returns the slot that holds the given key or the empty slot it is to be put into.
+     */
+    private int slot(final long key) {
+        int mask = tableKeys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash >>> (Long.SIZE - Integer.SIZE)) & mask;
+        while (tableKeys[slot] != EMPTY && tableKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity of the hash table, moving all entries to their new slots.
+     */
+    private void growTable() {
+        long[] oldKeys = tableKeys;
+        int[] oldCrossings = tableCrossings;
+        tableKeys = newTableKeys(2 * oldKeys.length);
+        tableCrossings = new int[2 * tableKeys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                tableKeys[slot] = oldKeys[i];
+                tableCrossings[2 * slot] = oldCrossings[2 * i];
+                tableCrossings[2 * slot + 1] = oldCrossings[2 * i + 1];
+            }
+        }
+    }
+
+    private static long[] newTableKeys(final int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
 }
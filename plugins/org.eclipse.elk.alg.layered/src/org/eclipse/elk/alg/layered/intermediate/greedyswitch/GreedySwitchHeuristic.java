@@ -38,6 +38,8 @@ public class GreedySwitchHeuristic implements ICrossingMinimizationHeuristic {
     private final CrossMinType greedySwitchType;
     private LNode[][] currentNodeOrder;
     private SwitchDecider switchDecider;
+    /** kept across free layers and sweeps so its memory is reused. */
+    private CrossingMatrixFiller crossingMatrixFiller;
     private int[] portPositions;
     private GraphInfoHolder graphData;
     private int nPorts;
@@ -83,8 +85,11 @@ public class GreedySwitchHeuristic implements ICrossingMinimizationHeuristic {
     }
 
     private SwitchDecider getNewSwitchDecider(final int freeLayerIndex, final CrossingCountSide side) {
-        CrossingMatrixFiller crossingMatrixFiller =
-                new CrossingMatrixFiller(greedySwitchType, currentNodeOrder, freeLayerIndex, side);
+        if (crossingMatrixFiller == null) {
+            crossingMatrixFiller = new CrossingMatrixFiller(greedySwitchType, currentNodeOrder, freeLayerIndex, side);
+        } else {
+            crossingMatrixFiller.reset(currentNodeOrder, freeLayerIndex, side);
+        }
         return new SwitchDecider(freeLayerIndex, currentNodeOrder, crossingMatrixFiller, portPositions,
                 graphData, greedySwitchType == CrossMinType.ONE_SIDED_GREEDY_SWITCH);
     }
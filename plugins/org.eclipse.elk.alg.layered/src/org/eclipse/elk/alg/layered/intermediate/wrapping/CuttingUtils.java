@@ -96,7 +96,7 @@ public final class CuttingUtils {
             }
 
             // Set thickness of the edge
-            double thickness = edge.getProperty(LayeredOptions.EDGE_THICKNESS);
+            double thickness = edge.getDoubleProperty(LayeredOptions.EDGE_THICKNESS);
             if (thickness < 0) {
                 thickness = 0;
                 edge.setProperty(LayeredOptions.EDGE_THICKNESS, thickness);
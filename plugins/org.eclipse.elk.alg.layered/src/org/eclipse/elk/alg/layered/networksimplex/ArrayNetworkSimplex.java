@@ -0,0 +1,583 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.networksimplex;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+
+/**
+ * The iterative part of the {@link NetworkSimplex} algorithm, executed on a compact array
+ * representation of an {@link NGraph}. Nodes and edges are identified by their index, edge
+ * attributes and per-node state are kept in primitive arrays, and the edges incident to each node
+ * are stored in compressed sparse row format: the edges of node {@code i} are
+ * {@code adjacency[adjacencyStart[i]]} to {@code adjacency[adjacencyStart[i + 1] - 1]}, incoming
+ * edges first, followed by the outgoing edges starting at {@code outgoingStart[i]}. Compared to the
+ * object graph, this avoids most of the pointer chasing and all of the garbage the algorithm would
+ * otherwise produce per iteration.
+ *
+ * <p>The depth-first traversals are implemented iteratively, so deep spanning trees cannot overflow
+ * the call stack.</p>
+ *
+ * <p>Only the computation of a feasible tree and the subsequent pivoting is executed here. Removing
+ * and re-attaching subtrees, normalization, and balancing are left to {@link NetworkSimplex}.</p>
+ */
+final class ArrayNetworkSimplex {
+
+    /** The graph the arrays were built from. */
+    private final NGraph graph;
+    /** The maximum number of pivot iterations. */
+    private final int iterationLimit;
+
+    /** Number of nodes. */
+    private final int nodeCount;
+    /** Number of edges. */
+    private final int edgeCount;
+
+    // Edge attributes
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final int[] edgeDelta;
+    private final double[] edgeWeight;
+
+    // Incident edges
+    private final int[] adjacencyStart;
+    private final int[] outgoingStart;
+    private final int[] adjacency;
+
+    /** The layer each node is currently assigned to. */
+    private final int[] layer;
+    /** Whether a node is part of the spanning tree. */
+    private final boolean[] treeNode;
+    /** Whether an edge is part of the spanning tree. */
+    private final boolean[] treeEdge;
+    /** Whether an edge has been visited during the current depth-first traversal. */
+    private final boolean[] edgeVisited;
+
+    /**
+     * The tree edges in the order they were added to the tree, as a doubly linked list. The order
+     * determines which edge leaves the tree if several have a negative cut value.
+     */
+    private final int[] nextTreeEdge;
+    private final int[] previousTreeEdge;
+    private int firstTreeEdge = -1;
+    private int lastTreeEdge = -1;
+
+    // Postorder numbering of the spanning tree, see #postorderTraversal(int)
+    private int postOrder = 1;
+    private final int[] poID;
+    private final int[] lowestPoID;
+    /** The tree edge connecting each node to its parent in the spanning tree, or {@code -1} for the root. */
+    private final int[] treeParent;
+
+    /** Cut value of each tree edge, see {@link #cutvalues()}. */
+    private final double[] cutvalue;
+    /** Number of incident tree edges whose cut value is still unknown, per node. */
+    private final int[] unknownCutvalues;
+    /** Whether the cut value of an edge has already been determined. */
+    private final boolean[] cutvalueKnown;
+
+    // Stacks for the depth-first traversals
+    private final int[] stackNode;
+    private final int[] stackCursor;
+    private final int[] stackLowest;
+
+    /**
+     * Builds the array representation of the given graph. The nodes and edges of the graph are
+     * re-indexed.
+     *
+     * @param graph
+     *            the graph to execute the network simplex algorithm on.
+     * @param iterationLimit
+     *            the maximum number of pivot iterations.
+     */
+    ArrayNetworkSimplex(final NGraph graph, final int iterationLimit) {
+        this.graph = graph;
+        this.iterationLimit = iterationLimit;
+
+        List<NNode> nodes = graph.nodes;
+        nodeCount = nodes.size();
+
+        // Index nodes and edges; edges are numbered by source node, in the order of outgoing edges
+        int index = 0;
+        int edgeIndex = 0;
+        for (NNode node : nodes) {
+            node.id = index++;
+            for (NEdge edge : node.getOutgoingEdges()) {
+                edge.id = edgeIndex++;
+            }
+        }
+        edgeCount = edgeIndex;
+
+        edgeSource = new int[edgeCount];
+        edgeTarget = new int[edgeCount];
+        edgeDelta = new int[edgeCount];
+        edgeWeight = new double[edgeCount];
+        adjacencyStart = new int[nodeCount + 1];
+        outgoingStart = new int[nodeCount];
+        adjacency = new int[2 * edgeCount];
+
+        int adjacencyIndex = 0;
+        for (NNode node : nodes) {
+            adjacencyStart[node.id] = adjacencyIndex;
+            for (NEdge edge : node.getIncomingEdges()) {
+                adjacency[adjacencyIndex++] = edge.id;
+            }
+            outgoingStart[node.id] = adjacencyIndex;
+            for (NEdge edge : node.getOutgoingEdges()) {
+                adjacency[adjacencyIndex++] = edge.id;
+                edgeSource[edge.id] = node.id;
+                edgeTarget[edge.id] = edge.target.id;
+                edgeDelta[edge.id] = edge.delta;
+                edgeWeight[edge.id] = edge.weight;
+            }
+        }
+        adjacencyStart[nodeCount] = adjacencyIndex;
+
+        layer = new int[nodeCount];
+        treeNode = new boolean[nodeCount];
+        treeEdge = new boolean[edgeCount];
+        edgeVisited = new boolean[edgeCount];
+        nextTreeEdge = new int[edgeCount];
+        previousTreeEdge = new int[edgeCount];
+        poID = new int[nodeCount];
+        lowestPoID = new int[nodeCount];
+        treeParent = new int[nodeCount];
+        cutvalue = new double[edgeCount];
+        unknownCutvalues = new int[nodeCount];
+        cutvalueKnown = new boolean[edgeCount];
+        stackNode = new int[nodeCount];
+        stackCursor = new int[nodeCount];
+        stackLowest = new int[nodeCount];
+    }
+
+    /**
+     * Determines a feasible spanning tree and pivots until the layering is optimal or the
+     * iteration limit is reached. The resulting layers are stored in the {@link NNode#layer} fields
+     * of the graph's nodes. Layers are not normalized.
+     *
+     * @param pivotMonitor
+     *            a progress monitor that is begun with the iteration limit as total work and to
+     *            which each pivot is reported as one unit of work.
+     * @return the number of pivots performed.
+     */
+    int execute(final IElkProgressMonitor pivotMonitor) {
+        feasibleTree();
+
+        pivotMonitor.begin("Pivots", iterationLimit);
+        int leave = leaveEdge();
+        int pivots = 0;
+        while (leave >= 0 && pivots < iterationLimit) {
+            exchange(leave, enterEdge(leave));
+            leave = leaveEdge();
+            pivots++;
+            pivotMonitor.worked(1);
+        }
+        pivotMonitor.done();
+
+        for (NNode node : graph.nodes) {
+            node.layer = layer[node.id];
+        }
+        return pivots;
+    }
+
+    /**
+     * Computes an initial layering and a tight spanning tree. As long as the tree of tight edges
+     * does not span the graph, the tree nodes are shifted such that the non-tree edge incident on
+     * the tree with minimal slack becomes tight. Finally, the cut values of the tree edges are
+     * computed.
+     */
+    private void feasibleTree() {
+        layeringTopologicalNumbering();
+
+        if (edgeCount > 0) {
+            Arrays.fill(edgeVisited, false);
+            while (tightTreeDFS(0) < nodeCount) {
+                // some nodes are still not part of the tree
+                int e = minimalSlack();
+                int slack = layer[edgeTarget[e]] - layer[edgeSource[e]] - edgeDelta[e];
+                if (treeNode[edgeTarget[e]]) {
+                    slack = -slack;
+                }
+
+                // update tree
+                for (int node = 0; node < nodeCount; node++) {
+                    if (treeNode[node]) {
+                        layer[node] += slack;
+                    }
+                }
+                Arrays.fill(edgeVisited, false);
+            }
+            // update tree-related attributes
+            treeParent[0] = -1;
+            postorderTraversal(0);
+            cutvalues();
+        }
+    }
+
+    /**
+     * Assigns each node the lowest layer that respects the minimal lengths of its incoming edges.
+     */
+    private void layeringTopologicalNumbering() {
+        int[] incident = new int[nodeCount];
+        int[] roots = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            incident[node] = outgoingStart[node] - adjacencyStart[node];
+            if (incident[node] == 0) {
+                roots[tail++] = node;
+            }
+        }
+
+        while (head < tail) {
+            int node = roots[head++];
+            for (int i = outgoingStart[node]; i < adjacencyStart[node + 1]; i++) {
+                int edge = adjacency[i];
+                int target = edgeTarget[edge];
+                layer[target] = Math.max(layer[target], layer[node] + edgeDelta[edge]);
+                incident[target]--;
+                if (incident[target] == 0) {
+                    roots[tail++] = target;
+                }
+            }
+        }
+    }
+
+    /**
+     * Extends the spanning tree from the given root along tree edges and tight edges.
+     *
+     * @return the number of nodes in the tight tree.
+     */
+    private int tightTreeDFS(final int root) {
+        int nodes = 1;
+        int top = 0;
+        treeNode[root] = true;
+        stackNode[0] = root;
+        stackCursor[0] = adjacencyStart[root];
+
+        while (top >= 0) {
+            int node = stackNode[top];
+            if (stackCursor[top] == adjacencyStart[node + 1]) {
+                top--;
+                continue;
+            }
+
+            int edge = adjacency[stackCursor[top]++];
+            if (!edgeVisited[edge]) {
+                edgeVisited[edge] = true;
+                int opposite = opposite(edge, node);
+                boolean descend = treeEdge[edge];
+                if (!descend && !treeNode[opposite]
+                        && edgeDelta[edge] == layer[edgeTarget[edge]] - layer[edgeSource[edge]]) {
+                    // edge is a tight non-tree edge
+                    treeEdge[edge] = true;
+                    addTreeEdge(edge);
+                    descend = true;
+                }
+
+                if (descend) {
+                    nodes++;
+                    treeNode[opposite] = true;
+                    top++;
+                    stackNode[top] = opposite;
+                    stackCursor[top] = adjacencyStart[opposite];
+                }
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the non-tree edge incident on the tree with minimal slack, or {@code -1}.
+     */
+    private int minimalSlack() {
+        int minSlack = Integer.MAX_VALUE;
+        int minSlackEdge = -1;
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (treeNode[edgeSource[edge]] ^ treeNode[edgeTarget[edge]]) {
+                int curSlack = layer[edgeTarget[edge]] - layer[edgeSource[edge]] - edgeDelta[edge];
+                if (curSlack < minSlack) {
+                    minSlack = curSlack;
+                    minSlackEdge = edge;
+                }
+            }
+        }
+        return minSlackEdge;
+    }
+
+    /**
+     * Assigns postorder numbers, starting with the current value of {@code postOrder}, to the nodes
+     * of the subtree of the spanning tree rooted at the given node, whose parent must already be
+     * set. Also determines the parents of all other nodes of the subtree and the lowest postorder
+     * number in the subtree of each node, which is stored in {@code lowestPoID}.
+     */
+    private void postorderTraversal(final int root) {
+        int top = 0;
+        stackNode[0] = root;
+        stackCursor[0] = adjacencyStart[root];
+        stackLowest[0] = Integer.MAX_VALUE;
+
+        while (top >= 0) {
+            int node = stackNode[top];
+            if (stackCursor[top] < adjacencyStart[node + 1]) {
+                int edge = adjacency[stackCursor[top]++];
+                if (treeEdge[edge] && edge != treeParent[node]) {
+                    int child = opposite(edge, node);
+                    treeParent[child] = edge;
+                    top++;
+                    stackNode[top] = child;
+                    stackCursor[top] = adjacencyStart[child];
+                    stackLowest[top] = Integer.MAX_VALUE;
+                }
+            } else {
+                poID[node] = postOrder;
+                lowestPoID[node] = Math.min(stackLowest[top], postOrder++);
+                top--;
+                if (top >= 0) {
+                    stackLowest[top] = Math.min(stackLowest[top], lowestPoID[node]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removing a tree edge splits the spanning tree into the head component, which contains the
+     * edge's target, and the tail component, which contains its source.
+     *
+     * @return whether the given node belongs to the head component of the given tree edge.
+     */
+    private boolean isInHead(final int node, final int edge) {
+        int source = edgeSource[edge];
+        int target = edgeTarget[edge];
+
+        if (lowestPoID[source] <= poID[node] && poID[node] <= poID[source]
+                && lowestPoID[target] <= poID[node] && poID[node] <= poID[target]) {
+            // node is in a descending path in the DFS-Tree
+            return poID[source] >= poID[target];
+        }
+        return poID[source] < poID[target];
+    }
+
+    /**
+     * Computes the cut values of all tree edges, starting at the leaves of the spanning tree. The cut
+     * value of a tree edge is the sum of the weights of all edges going from its tail to its head
+     * component, including the edge itself, minus the sum of the weights of all edges going the
+     * other way.
+     */
+    private void cutvalues() {
+        // determine incident tree edges for each node
+        int[] leafs = new int[nodeCount];
+        int leafCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            int treeEdgeCount = 0;
+            for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+                if (treeEdge[adjacency[i]]) {
+                    treeEdgeCount++;
+                }
+            }
+            unknownCutvalues[node] = treeEdgeCount;
+            if (treeEdgeCount == 1) {
+                leafs[leafCount++] = node;
+            }
+        }
+        Arrays.fill(cutvalueKnown, false);
+
+        // determine cut values
+        for (int l = 0; l < leafCount; l++) {
+            int node = leafs[l];
+            while (unknownCutvalues[node] == 1) {
+                // one tree edge with undetermined cut value is incident
+                int toDetermine = unknownTreeEdge(node);
+                int source = edgeSource[toDetermine];
+                int target = edgeTarget[toDetermine];
+                double value = edgeWeight[toDetermine];
+
+                for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+                    int edge = adjacency[i];
+                    if (edge == toDetermine) {
+                        continue;
+                    }
+
+                    if (treeEdge[edge]) {
+                        if (source == edgeSource[edge] || target == edgeTarget[edge]) {
+                            // edge has not the same direction as toDetermine
+                            value -= cutvalue[edge] - edgeWeight[edge];
+                        } else {
+                            value += cutvalue[edge] - edgeWeight[edge];
+                        }
+                    } else if ((node == source) == (edgeSource[edge] == node)) {
+                        value += edgeWeight[edge];
+                    } else {
+                        value -= edgeWeight[edge];
+                    }
+                }
+                cutvalue[toDetermine] = value;
+
+                cutvalueKnown[toDetermine] = true;
+                unknownCutvalues[source]--;
+                unknownCutvalues[target]--;
+
+                // proceed with next node
+                node = source == node ? target : source;
+            }
+        }
+    }
+
+    /**
+     * @return the first incident tree edge of the given node whose cut value is still unknown.
+     */
+    private int unknownTreeEdge(final int node) {
+        for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+            int edge = adjacency[i];
+            if (treeEdge[edge] && !cutvalueKnown[edge]) {
+                return edge;
+            }
+        }
+        throw new IllegalStateException("No tree edge with unknown cut value at node " + node + ".");
+    }
+
+    /**
+     * @return the first tree edge with negative cut value, or {@code -1} if there is none.
+     */
+    private int leaveEdge() {
+        for (int edge = firstTreeEdge; edge >= 0; edge = nextTreeEdge[edge]) {
+            if (cutvalue[edge] < 0) {
+                return edge;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the edge from the head to the tail component of the given edge with minimal slack.
+     */
+    private int enterEdge(final int leave) {
+        int replace = -1;
+        int repSlack = Integer.MAX_VALUE;
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int source = edgeSource[edge];
+            int target = edgeTarget[edge];
+            if (isInHead(source, leave) && !isInHead(target, leave)) {
+                // edge is to consider
+                int slack = layer[target] - layer[source] - edgeDelta[edge];
+                if (slack < repSlack) {
+                    repSlack = slack;
+                    replace = edge;
+                }
+            }
+        }
+        return replace;
+    }
+
+    /**
+     * Replaces a tree edge by a non-tree edge and updates the layering and the tree's attributes
+     * incrementally: the layers of the subtree below the leaving edge, the cut values on the cycle
+     * closed by the entering edge, and the postorder numbers of the subtree rooted at the cycle's
+     * topmost node. Shifting the subtree instead of the tail component changes the layering only by
+     * a constant, which normalization removes.
+     */
+    private void exchange(final int leave, final int enter) {
+        // make the entering edge tight by moving the subtree below the leaving edge
+        int slack = layer[edgeTarget[enter]] - layer[edgeSource[enter]] - edgeDelta[enter];
+        int lower = poID[edgeSource[leave]] < poID[edgeTarget[leave]] ? edgeSource[leave] : edgeTarget[leave];
+        rerank(lower, lower == edgeSource[leave] ? -slack : slack);
+
+        // update the cut values on the cycle closed by the entering edge
+        double leaveCutvalue = cutvalue[leave];
+        int lca = treeUpdate(edgeSource[enter], edgeTarget[enter], leaveCutvalue, true);
+        treeUpdate(edgeTarget[enter], edgeSource[enter], leaveCutvalue, false);
+        cutvalue[enter] = -leaveCutvalue;
+        cutvalue[leave] = 0;
+
+        // update tree
+        treeEdge[leave] = false;
+        removeTreeEdge(leave);
+        treeEdge[enter] = true;
+        addTreeEdge(enter);
+
+        // renumber the subtree containing the cycle, which keeps its range of postorder IDs
+        postOrder = lowestPoID[lca];
+        postorderTraversal(lca);
+    }
+
+    /**
+     * Shifts the layers of all nodes in the subtree of the spanning tree rooted at the given node.
+     */
+    private void rerank(final int root, final int delta) {
+        int top = 0;
+        stackNode[0] = root;
+        while (top >= 0) {
+            int node = stackNode[top--];
+            layer[node] += delta;
+            for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+                int edge = adjacency[i];
+                if (treeEdge[edge] && edge != treeParent[node]) {
+                    stackNode[++top] = opposite(edge, node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks up the spanning tree from {@code v} to the lowest common ancestor of {@code v} and
+     * {@code w}, updating the cut values of the tree edges on the way.
+     *
+     * @return the lowest common ancestor.
+     */
+    private int treeUpdate(final int v, final int w, final double value, final boolean dir) {
+        int node = v;
+        while (!(lowestPoID[node] <= poID[w] && poID[w] <= poID[node])) {
+            int edge = treeParent[node];
+            if ((node == edgeSource[edge]) == dir) {
+                cutvalue[edge] += value;
+            } else {
+                cutvalue[edge] -= value;
+            }
+            node = opposite(edge, node);
+        }
+        return node;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////
+    // Utilities
+
+    private int opposite(final int edge, final int node) {
+        return edgeSource[edge] == node ? edgeTarget[edge] : edgeSource[edge];
+    }
+
+    private void addTreeEdge(final int edge) {
+        previousTreeEdge[edge] = lastTreeEdge;
+        nextTreeEdge[edge] = -1;
+        if (lastTreeEdge >= 0) {
+            nextTreeEdge[lastTreeEdge] = edge;
+        } else {
+            firstTreeEdge = edge;
+        }
+        lastTreeEdge = edge;
+    }
+
+    private void removeTreeEdge(final int edge) {
+        if (previousTreeEdge[edge] >= 0) {
+            nextTreeEdge[previousTreeEdge[edge]] = nextTreeEdge[edge];
+        } else {
+            firstTreeEdge = nextTreeEdge[edge];
+        }
+        if (nextTreeEdge[edge] >= 0) {
+            previousTreeEdge[nextTreeEdge[edge]] = previousTreeEdge[edge];
+        } else {
+            lastTreeEdge = previousTreeEdge[edge];
+        }
+    }
+
+}
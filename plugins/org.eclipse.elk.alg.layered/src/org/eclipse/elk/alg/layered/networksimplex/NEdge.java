@@ -30,14 +30,6 @@ public class NEdge {
     /** The minimum length of this edge. */
     public int delta = 1;
 
-    /**
-     * A flag indicating whether a specified edge is part of the spanning tree determined by
-     * {@code tightTree()}.
-     * 
-     * @see NetworkSimplex#tightTreeDFS(NNode)
-     */
-    protected boolean treeEdge = false;
-
     /**
      * @return an {@link NEdgeBuilder} to create a new edge.
      */
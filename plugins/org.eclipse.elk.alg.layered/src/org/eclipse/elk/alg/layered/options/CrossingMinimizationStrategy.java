@@ -12,6 +12,7 @@ package org.eclipse.elk.alg.layered.options;
 
 import org.eclipse.elk.alg.layered.LayeredPhases;
 import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.p3order.IncrementalCrossingMinimizer;
 import org.eclipse.elk.alg.layered.p3order.InteractiveCrossingMinimizer;
 import org.eclipse.elk.alg.layered.p3order.LayerSweepCrossingMinimizer;
 import org.eclipse.elk.alg.layered.p3order.LayerSweepCrossingMinimizer.CrossMinType;
@@ -43,7 +44,15 @@ public enum CrossingMinimizationStrategy implements ILayoutPhaseFactory<LayeredP
      * a node, that movement is reflected in the ordering of nodes.
      */
     @AdvancedPropertyValue
-    INTERACTIVE;
+    INTERACTIVE,
+
+    /**
+     * Keeps the relative order of nodes within each layer as given by their
+     * {@link LayeredOptions#CROSSING_MINIMIZATION_POSITION_ID} from a previous layout, and only inserts
+     * nodes without such an ID (including dummy nodes) where they cause the fewest crossings.
+     */
+    @AdvancedPropertyValue
+    INCREMENTAL;
     
 
     /**
@@ -57,6 +66,9 @@ public enum CrossingMinimizationStrategy implements ILayoutPhaseFactory<LayeredP
         case INTERACTIVE:
             return new InteractiveCrossingMinimizer();
             
+        case INCREMENTAL:
+            return new IncrementalCrossingMinimizer();
+            
         default:
             throw new IllegalArgumentException(
                     "No implementation is available for the crossing minimizer " + this.toString());
@@ -13,6 +13,7 @@ package org.eclipse.elk.alg.layered.options;
 import org.eclipse.elk.alg.layered.LayeredPhases;
 import org.eclipse.elk.alg.layered.graph.LGraph;
 import org.eclipse.elk.alg.layered.p1cycles.GreedyCycleBreaker;
+import org.eclipse.elk.alg.layered.p1cycles.IncrementalCycleBreaker;
 import org.eclipse.elk.alg.layered.p1cycles.InteractiveCycleBreaker;
 import org.eclipse.elk.core.alg.ILayoutPhase;
 import org.eclipse.elk.core.alg.ILayoutPhaseFactory;
@@ -38,7 +39,14 @@ public enum CycleBreakingStrategy implements ILayoutPhaseFactory<LayeredPhases,
      * a node, that movement is reflected in the decision which edges to reverse.
      */
     @AdvancedPropertyValue
-    INTERACTIVE;
+    INTERACTIVE,
+    /**
+     * Respects the layers of a previous layout, given by the
+     * {@link LayeredOptions#LAYERING_LAYER_ID} of the nodes. Only edges incident to nodes without
+     * such an ID are subject to a greedy decision.
+     */
+    @AdvancedPropertyValue
+    INCREMENTAL;
     
 
     /**
@@ -52,6 +60,9 @@ public enum CycleBreakingStrategy implements ILayoutPhaseFactory<LayeredPhases,
         case INTERACTIVE:
             return new InteractiveCycleBreaker();
             
+        case INCREMENTAL:
+            return new IncrementalCycleBreaker();
+            
         default:
             throw new IllegalArgumentException(
                     "No implementation is available for the cycle breaker " + this.toString());
@@ -13,6 +13,7 @@ package org.eclipse.elk.alg.layered.options;
 import org.eclipse.elk.alg.layered.LayeredPhases;
 import org.eclipse.elk.alg.layered.graph.LGraph;
 import org.eclipse.elk.alg.layered.p2layers.CoffmanGrahamLayerer;
+import org.eclipse.elk.alg.layered.p2layers.IncrementalLayerer;
 import org.eclipse.elk.alg.layered.p2layers.InteractiveLayerer;
 import org.eclipse.elk.alg.layered.p2layers.LongestPathLayerer;
 import org.eclipse.elk.alg.layered.p2layers.MinWidthLayerer;
@@ -61,7 +62,14 @@ public enum LayeringStrategy implements ILayoutPhaseFactory<LayeredPhases, LGrap
      * problem with consideration of dummy nodes.
      */
     @ExperimentalPropertyValue
-    MIN_WIDTH;
+    MIN_WIDTH,
+    /**
+     * Nodes keep the layers of a previous layout, given by their {@link LayeredOptions#LAYERING_LAYER_ID},
+     * unless edges force them further right. Nodes without such an ID are placed right of their
+     * predecessors.
+     */
+    @AdvancedPropertyValue
+    INCREMENTAL;
     
     /**
      * {@inheritDoc}
@@ -85,6 +93,9 @@ public enum LayeringStrategy implements ILayoutPhaseFactory<LayeredPhases, LGrap
           
         case MIN_WIDTH:
             return new MinWidthLayerer();
+            
+        case INCREMENTAL:
+            return new IncrementalLayerer();
 
         default:
             throw new IllegalArgumentException(
@@ -10,8 +10,9 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.layered.p1cycles;
 
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 import org.eclipse.elk.alg.layered.LayeredPhases;
@@ -24,10 +25,9 @@ import org.eclipse.elk.alg.layered.options.InternalProperties;
 import org.eclipse.elk.alg.layered.options.LayeredOptions;
 import org.eclipse.elk.core.alg.ILayoutPhase;
 import org.eclipse.elk.core.alg.LayoutProcessorConfiguration;
+import org.eclipse.elk.core.metrics.IMetricsContributor;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
 
-import com.google.common.collect.Lists;
-
 /**
  * Cycle breaker implementation that uses a greedy algorithm. Inspired by
  * <ul>
@@ -39,6 +39,11 @@ import com.google.common.collect.Lists;
  *     Prentice Hall, New Jersey, 1999 (Section 9.4).</li>
  * </ul>
  * 
+ * <p>As proposed by Eades et al., nodes that are neither sources nor sinks are kept in buckets
+ * indexed by their outflow, so a node with maximal outflow is found without scanning all nodes
+ * and the algorithm runs in time linear in the size of the graph (and the sum of edge
+ * priorities). Among the nodes with maximal outflow, one is chosen randomly.</p>
+ * 
  * <p>This cycle breaker doesn't support layer constraints out of the box. If layer
  * constraints should be observed,
  * {@link org.eclipse.elk.alg.layered.intermediate.EdgeAndLayerConstraintEdgeReverser} and
@@ -57,7 +62,7 @@ import com.google.common.collect.Lists;
  * @kieler.design 2012-08-10 chsch grh
  * @kieler.rating yellow 2012-11-13 review KI-33 by grh, akoc
  */
-public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGraph> {
+public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGraph>, IMetricsContributor {
     
     /** intermediate processing configuration. */
     private static final LayoutProcessorConfiguration<LayeredPhases, LGraph> INTERMEDIATE_PROCESSING_CONFIGURATION =
@@ -70,10 +75,33 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
     private int[] outdeg;
     /** mark for the nodes, inducing an ordering of the nodes. */
     private int[] mark;
-    /** list of source nodes. */
-    private final LinkedList<LNode> sources = Lists.newLinkedList();
-    /** list of sink nodes. */
-    private final LinkedList<LNode> sinks = Lists.newLinkedList();
+    /** the nodes, indexed by their id. */
+    private LNode[] nodeArray;
+
+    /** queue of source nodes, read from {@link #sourcesHead} and written at {@link #sourcesTail}. */
+    private int[] sources;
+    private int sourcesHead;
+    private int sourcesTail;
+    /** queue of sink nodes, read from {@link #sinksHead} and written at {@link #sinksTail}. */
+    private int[] sinks;
+    private int sinksHead;
+    private int sinksTail;
+
+    /** the nodes that are neither sources nor sinks, bucketed by outflow plus {@link #outflowOffset}. */
+    private int[][] buckets;
+    /** the number of nodes in each bucket. */
+    private int[] bucketSizes;
+    /** the position of each node in its bucket, or -1 if it is not in a bucket. */
+    private int[] bucketPositions;
+    /** added to a node's outflow to obtain its bucket index, so indices are non-negative. */
+    private int outflowOffset;
+    /** no bucket above this index contains any nodes. */
+    private int maxBucket;
+    /**
+     * the number of edges reversed by the most recent run, reported as work of the "Reversed edges" sub task of the
+     * progress monitor and as the {@code reversedEdges} counter.
+     */
+    private int reversedEdges;
     
     /**
      * {@inheritDoc}
@@ -87,6 +115,7 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
      */
     public void process(final LGraph layeredGraph, final IElkProgressMonitor monitor) {
         monitor.begin("Greedy cycle removal", 1);
+        reversedEdges = 0;
         
         List<LNode> nodes = layeredGraph.getLayerlessNodes();
 
@@ -96,11 +125,17 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
         indeg = new int[unprocessedNodeCount];
         outdeg = new int[unprocessedNodeCount];
         mark = new int[unprocessedNodeCount];
+        nodeArray = new LNode[unprocessedNodeCount];
+        sources = new int[unprocessedNodeCount];
+        sinks = new int[unprocessedNodeCount];
+        sourcesHead = sourcesTail = sinksHead = sinksTail = 0;
         
         int index = 0;
+        int maxIndeg = 0, maxOutdeg = 0, edgeCount = 0;
         for (LNode node : nodes) {
             // the node id is used as index for the indeg, outdeg, and mark arrays
             node.id = index;
+            nodeArray[index] = node;
             
             for (LPort port : node.getPorts()) {
                 // calculate the sum of edge priorities
@@ -110,7 +145,7 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
                         continue;
                     }
                     
-                    int priority = edge.getProperty(LayeredOptions.PRIORITY_DIRECTION);
+                    int priority = edge.getIntProperty(LayeredOptions.PRIORITY_DIRECTION);
                     indeg[index] += priority > 0 ? priority + 1 : 1;
                 }
                 
@@ -120,39 +155,52 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
                         continue;
                     }
                     
-                    int priority = edge.getProperty(LayeredOptions.PRIORITY_DIRECTION);
+                    int priority = edge.getIntProperty(LayeredOptions.PRIORITY_DIRECTION);
                     outdeg[index] += priority > 0 ? priority + 1 : 1;
+                    edgeCount++;
                 }
             }
-            
-            // collect sources and sinks
+            maxIndeg = Math.max(maxIndeg, indeg[index]);
+            maxOutdeg = Math.max(maxOutdeg, outdeg[index]);
+            index++;
+        }
+        
+        // collect sources and sinks and put all other nodes into the bucket of their outflow, which
+        // can only range between the negated maximal indegree and the maximal outdegree
+        outflowOffset = maxIndeg;
+        buckets = new int[maxIndeg + maxOutdeg + 1][];
+        bucketSizes = new int[buckets.length];
+        bucketPositions = new int[unprocessedNodeCount];
+        maxBucket = 0;
+        for (index = 0; index < unprocessedNodeCount; index++) {
+            bucketPositions[index] = -1;
             if (outdeg[index] == 0) {
-                sinks.add(node);
+                sinks[sinksTail++] = index;
             } else if (indeg[index] == 0) {
-                sources.add(node);
+                sources[sourcesTail++] = index;
+            } else {
+                addToBucket(index);
             }
-            index++;
         }
         
         // next rank values used for sinks and sources (from right and from left)
         int nextRight = -1, nextLeft = 1;
 
         // assign marks to all nodes
-        List<LNode> maxNodes = Lists.newArrayList();
         Random random = layeredGraph.getProperty(InternalProperties.RANDOM);
         
         while (unprocessedNodeCount > 0) {
             // sinks are put to the right --> assign negative rank, which is later shifted to positive
-            while (!sinks.isEmpty()) {
-                LNode sink = sinks.removeFirst();
+            while (sinksHead < sinksTail) {
+                LNode sink = nodeArray[sinks[sinksHead++]];
                 mark[sink.id] = nextRight--;
                 updateNeighbors(sink);
                 unprocessedNodeCount--;
             }
             
             // sources are put to the left --> assign positive rank
-            while (!sources.isEmpty()) {
-                LNode source = sources.removeFirst();
+            while (sourcesHead < sourcesTail) {
+                LNode source = nodeArray[sources[sourcesHead++]];
                 mark[source.id] = nextLeft++;
                 updateNeighbors(source);
                 unprocessedNodeCount--;
@@ -160,25 +208,15 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
             
             // while there are unprocessed nodes left that are neither sinks nor sources...
             if (unprocessedNodeCount > 0) {
-                int maxOutflow = Integer.MIN_VALUE;
-                
-                // find the set of unprocessed node (=> mark == 0), with the largest out flow
-                for (LNode node : nodes) {
-                    if (mark[node.id] == 0) {
-                        int outflow = outdeg[node.id] - indeg[node.id];
-                        if (outflow >= maxOutflow) {
-                            if (outflow > maxOutflow) {
-                                maxNodes.clear();
-                                maxOutflow = outflow;
-                            }
-                            maxNodes.add(node);
-                        }
-                    }
+                // find the non-empty bucket of unprocessed nodes with the largest out flow
+                while (bucketSizes[maxBucket] == 0) {
+                    maxBucket--;
                 }
-                assert maxOutflow > Integer.MIN_VALUE;
                 
                 // randomly select a node from the ones with maximal outflow and put it left
-                LNode maxNode = maxNodes.get(random.nextInt(maxNodes.size()));
+                int maxIndex = buckets[maxBucket][random.nextInt(bucketSizes[maxBucket])];
+                removeFromBucket(maxIndex);
+                LNode maxNode = nodeArray[maxIndex];
                 mark[maxNode.id] = nextLeft++;
                 updateNeighbors(maxNode);
                 unprocessedNodeCount--;
@@ -193,7 +231,9 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
             }
         }
 
-        // reverse edges that point left
+        // reverse edges that point left; they are reported as work of a sub task
+        IElkProgressMonitor reversedEdgesMonitor = monitor.subTask(1);
+        reversedEdgesMonitor.begin("Reversed edges", edgeCount);
         for (LNode node : nodes) {
             LPort[] ports = node.getPorts().toArray(new LPort[node.getPorts().size()]);
             for (LPort port : ports) {
@@ -206,15 +246,26 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
                     if (mark[node.id] > mark[targetIx]) {
                         edge.reverse(layeredGraph, true);
                         layeredGraph.setProperty(InternalProperties.CYCLIC, true);
+                        reversedEdgesMonitor.worked(1);
+                        reversedEdges++;
                     }
                 }                
             }
         }
 
+        reversedEdgesMonitor.done();
+
         dispose();
         monitor.done();
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    public void contributeMetrics(final Map<String, Long> counters) {
+        counters.put("reversedEdges", (long) reversedEdges);
+    }
+    
     /**
      * Release all created resources so the GC can reap them.
      */
@@ -222,14 +273,18 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
         this.indeg = null;
         this.outdeg = null;
         this.mark = null;
-        sources.clear();
-        sinks.clear();
+        this.nodeArray = null;
+        this.sources = null;
+        this.sinks = null;
+        this.buckets = null;
+        this.bucketSizes = null;
+        this.bucketPositions = null;
     }
 
     /**
      * Updates indegree and outdegree values of the neighbors of the given node,
-     * simulating its removal from the graph. the sources and sinks lists are
-     * also updated.
+     * simulating its removal from the graph. the sources and sinks queues and
+     * the outflow buckets are also updated.
      * 
      * @param node node for which neighbors are updated
      */
@@ -244,26 +299,71 @@ public final class GreedyCycleBreaker implements ILayoutPhase<LayeredPhases, LGr
                     continue;
                 }
                 
-                int priority = edge.getProperty(LayeredOptions.PRIORITY_DIRECTION);
+                int priority = edge.getIntProperty(LayeredOptions.PRIORITY_DIRECTION);
                 if (priority < 0) {
                     priority = 0;
                 }
                 int index = endpoint.id;
                 if (mark[index] == 0) {
+                    boolean inBucket = bucketPositions[index] >= 0;
+                    if (inBucket) {
+                        removeFromBucket(index);
+                    }
+                    
                     if (edge.getTarget() == connectedPort) {
                         indeg[index] -= priority + 1;
                         if (indeg[index] <= 0 && outdeg[index] > 0) {
-                            sources.add(endpoint);
+                            sources[sourcesTail++] = index;
+                            inBucket = false;
                         }
                     } else {
                         outdeg[index] -= priority + 1;
                         if (outdeg[index] <= 0 && indeg[index] > 0) {
-                            sinks.add(endpoint);
+                            sinks[sinksTail++] = index;
+                            inBucket = false;
                         }
                     }
+                    
+                    // move the node to the bucket of its new outflow
+                    if (inBucket) {
+                        addToBucket(index);
+                    }
                 }
             }
         }
     }
+
+    /**
+     * Adds the node with the given index to the bucket of its current outflow.
+     * 
+     * @param index index of the node to add
+     */
+    private void addToBucket(final int index) {
+        int bucket = outdeg[index] - indeg[index] + outflowOffset;
+        int size = bucketSizes[bucket];
+        if (buckets[bucket] == null) {
+            buckets[bucket] = new int[2];
+        } else if (size == buckets[bucket].length) {
+            buckets[bucket] = Arrays.copyOf(buckets[bucket], 2 * size);
+        }
+        buckets[bucket][size] = index;
+        bucketPositions[index] = size;
+        bucketSizes[bucket] = size + 1;
+        maxBucket = Math.max(maxBucket, bucket);
+    }
+
+    /**
+     * Removes the node with the given index from the bucket of its current outflow by moving the
+     * bucket's last node into its place.
+     * 
+     * @param index index of the node to remove
+     */
+    private void removeFromBucket(final int index) {
+        int bucket = outdeg[index] - indeg[index] + outflowOffset;
+        int last = buckets[bucket][--bucketSizes[bucket]];
+        buckets[bucket][bucketPositions[index]] = last;
+        bucketPositions[last] = bucketPositions[index];
+        bucketPositions[index] = -1;
+    }
     
 }
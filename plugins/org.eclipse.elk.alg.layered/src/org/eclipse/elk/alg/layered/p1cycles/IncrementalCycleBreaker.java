@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.p1cycles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.elk.alg.layered.LayeredPhases;
+import org.eclipse.elk.alg.layered.graph.LEdge;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.graph.LNode;
+import org.eclipse.elk.alg.layered.intermediate.IntermediateProcessorStrategy;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.core.alg.ILayoutPhase;
+import org.eclipse.elk.core.alg.LayoutProcessorConfiguration;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+
+import com.google.common.collect.Lists;
+
+/**
+ * A cycle breaker that respects the layering of a previous layout. Nodes that carry a
+ * {@link LayeredOptions#LAYERING_LAYER_ID} are ranked by that layer, and ties are broken by their
+ * {@link LayeredOptions#CROSSING_MINIMIZATION_POSITION_ID}. The remaining nodes are the ones that were
+ * added or changed since the previous layout. They are ranked one by one, starting next to the ranked
+ * part of the graph. Each is put in the gap between its ranked neighbors that makes the fewest
+ * of its edges point backwards. Finally, all edges that point against the ranking are reversed.
+ *
+ * <p>Since the ranking is a total order, the result is always acyclic. Edges between nodes of the
+ * previous layout keep the direction they had there, and the running time only depends on the number
+ * of edges, plus the degrees of new nodes for sorting their neighbors.</p>
+ *
+ * <dl>
+ *   <dt>Precondition:</dt><dd>none</dd>
+ *   <dt>Postcondition:</dt><dd>the graph has no cycles</dd>
+ * </dl>
+ */
+public final class IncrementalCycleBreaker implements ILayoutPhase<LayeredPhases, LGraph> {
+
+    /** intermediate processing configuration. */
+    private static final LayoutProcessorConfiguration<LayeredPhases, LGraph> INTERMEDIATE_PROCESSING_CONFIGURATION =
+        LayoutProcessorConfiguration.<LayeredPhases, LGraph>create()
+            .addAfter(LayeredPhases.P5_EDGE_ROUTING, IntermediateProcessorStrategy.REVERSED_EDGE_RESTORER);
+
+    /** rank of the nodes, indexed by node id. */
+    private double[] ranks;
+    /** whether a node has been ranked yet, indexed by node id. */
+    private boolean[] ranked;
+    /** whether a node is pinned to the first or last layer and thus ignored when ranking others. */
+    private boolean[] pinned;
+    /** secondary ranks used to break ties between nodes of the same previous layer. */
+    private int[] positions;
+
+    /**
+     * {@inheritDoc}
+     */
+    public LayoutProcessorConfiguration<LayeredPhases, LGraph> getLayoutProcessorConfiguration(final LGraph graph) {
+        return INTERMEDIATE_PROCESSING_CONFIGURATION;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void process(final LGraph layeredGraph, final IElkProgressMonitor monitor) {
+        monitor.begin("Incremental cycle breaking", 1);
+
+        List<LNode> nodes = layeredGraph.getLayerlessNodes();
+        int nodeCount = nodes.size();
+        ranks = new double[nodeCount];
+        ranked = new boolean[nodeCount];
+        pinned = new boolean[nodeCount];
+        positions = new int[nodeCount];
+
+        // rank the nodes of the previous layout by their layer
+        int index = 0;
+        int maxLayerId = 0;
+        for (LNode node : nodes) {
+            node.id = index++;
+            int layerId = node.getIntProperty(LayeredOptions.LAYERING_LAYER_ID);
+            if (layerId >= 0) {
+                ranks[node.id] = layerId;
+                ranked[node.id] = true;
+                positions[node.id] =
+                        Math.max(0, node.getIntProperty(LayeredOptions.CROSSING_MINIMIZATION_POSITION_ID));
+                maxLayerId = Math.max(maxLayerId, layerId);
+            }
+        }
+
+        // nodes constrained to the outermost layers come before or after everything else
+        for (LNode node : nodes) {
+            switch (node.getProperty(LayeredOptions.LAYERING_LAYER_CONSTRAINT)) {
+            case FIRST:
+            case FIRST_SEPARATE:
+                ranks[node.id] = Double.NEGATIVE_INFINITY;
+                ranked[node.id] = true;
+                pinned[node.id] = true;
+                break;
+            case LAST:
+            case LAST_SEPARATE:
+                ranks[node.id] = Double.POSITIVE_INFINITY;
+                ranked[node.id] = true;
+                pinned[node.id] = true;
+                break;
+            default:
+            }
+        }
+
+        // rank the new nodes, starting with those adjacent to ranked nodes
+        int[] queue = new int[nodeCount];
+        boolean[] queued = new boolean[nodeCount];
+        int queueHead = 0;
+        int queueTail = 0;
+        for (LNode node : nodes) {
+            queued[node.id] = ranked[node.id];
+        }
+        for (LNode node : nodes) {
+            if (ranked[node.id]) {
+                queueTail = enqueueNeighbors(node, queue, queueTail, queued);
+            }
+        }
+
+        int nextSeed = 0;
+        while (true) {
+            if (queueHead == queueTail) {
+                // the remaining new nodes are not connected to ranked ones, so continue with the next of them
+                while (nextSeed < nodeCount && queued[nextSeed]) {
+                    nextSeed++;
+                }
+                if (nextSeed == nodeCount) {
+                    break;
+                }
+                queued[nextSeed] = true;
+                queue[queueTail++] = nextSeed;
+            }
+
+            LNode node = nodes.get(queue[queueHead++]);
+            rankNode(node, maxLayerId);
+            queueTail = enqueueNeighbors(node, queue, queueTail, queued);
+        }
+
+        // reverse the edges that point against the ranking
+        List<LEdge> revEdges = Lists.newArrayList();
+        for (LNode source : nodes) {
+            for (LEdge edge : source.getOutgoingEdges()) {
+                LNode target = edge.getTarget().getNode();
+                if (source != target && compare(source, target) > 0) {
+                    revEdges.add(edge);
+                }
+            }
+        }
+        for (LEdge edge : revEdges) {
+            edge.reverse(layeredGraph, true);
+        }
+
+        ranks = null;
+        ranked = null;
+        pinned = null;
+        positions = null;
+        monitor.done();
+    }
+
+    /**
+     * Adds the unranked neighbors of the given node to the queue, if they have not been added yet.
+     *
+     * @param node a node
+     * @param queue the queue of node ids
+     * @param queueTail the current end of the queue
+     * @param queued whether a node has already been added to the queue, indexed by node id
+     * @return the new end of the queue
+     */
+    private int enqueueNeighbors(final LNode node, final int[] queue, final int queueTail,
+            final boolean[] queued) {
+
+        int tail = queueTail;
+        for (LEdge edge : node.getConnectedEdges()) {
+            LNode other = edge.getOther(node);
+            if (!queued[other.id]) {
+                queued[other.id] = true;
+                queue[tail++] = other.id;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Ranks a new node. The ranks of its ranked neighbors divide the candidate ranks into intervals;
+     * the node is put into the one in which the fewest of its edges point backwards.
+     *
+     * @param node the node to rank
+     * @param maxLayerId the largest layer id of the previous layout
+     */
+    private void rankNode(final LNode node, final int maxLayerId) {
+        // collect the ranks of ranked neighbors; below all of them, every incoming edge points backwards
+        int edgeCount = countEdges(node);
+        double[] neighborRanks = new double[edgeCount];
+        boolean[] incoming = new boolean[edgeCount];
+        int count = 0;
+        int backwardCost = 0;
+        for (LEdge edge : node.getConnectedEdges()) {
+            LNode other = edge.getOther(node);
+            if (other != node && ranked[other.id] && !pinned[other.id]) {
+                neighborRanks[count] = ranks[other.id];
+                incoming[count] = edge.getTarget().getNode() == node;
+                if (incoming[count]) {
+                    backwardCost++;
+                }
+                count++;
+            }
+        }
+
+        if (count == 0) {
+            // nothing to relate to; start a new group right of the previous layout
+            ranks[node.id] = maxLayerId + 1;
+            ranked[node.id] = true;
+            return;
+        }
+
+        Integer[] sorted = new Integer[count];
+        for (int k = 0; k < count; k++) {
+            sorted[k] = k;
+        }
+        Arrays.sort(sorted, (i1, i2) -> Double.compare(neighborRanks[i1], neighborRanks[i2]));
+
+        // sweep over the intervals between neighbor ranks, from left to right
+        int bestCost = backwardCost;
+        int bestInterval = 0;
+        int i = 0;
+        while (i < count) {
+            double current = neighborRanks[sorted[i]];
+            while (i < count && neighborRanks[sorted[i]] == current) {
+                backwardCost += incoming[sorted[i]] ? -1 : 1;
+                i++;
+            }
+            if (backwardCost < bestCost) {
+                bestCost = backwardCost;
+                bestInterval = i;
+            }
+        }
+
+        double rank;
+        if (bestInterval == 0) {
+            rank = neighborRanks[sorted[0]] - 1;
+        } else if (bestInterval == count) {
+            rank = neighborRanks[sorted[count - 1]] + 1;
+        } else {
+            rank = (neighborRanks[sorted[bestInterval - 1]] + neighborRanks[sorted[bestInterval]]) / 2;
+        }
+        ranks[node.id] = rank;
+        ranked[node.id] = true;
+    }
+
+    /**
+     * Counts the edges connected to the given node.
+     *
+     * @param node a node
+     * @return the number of connected edges
+     */
+    private int countEdges(final LNode node) {
+        int count = 0;
+        for (@SuppressWarnings("unused") LEdge edge : node.getConnectedEdges()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Compares two nodes by their rank, breaking ties by previous positions and finally by node id.
+     *
+     * @param node1 the first node
+     * @param node2 the second node
+     * @return a negative value if the first node comes first, a positive value otherwise
+     */
+    private int compare(final LNode node1, final LNode node2) {
+        int result = Double.compare(ranks[node1.id], ranks[node2.id]);
+        if (result == 0) {
+            result = Integer.compare(positions[node1.id], positions[node2.id]);
+        }
+        if (result == 0) {
+            result = Integer.compare(node1.id, node2.id);
+        }
+        return result;
+    }
+
+}
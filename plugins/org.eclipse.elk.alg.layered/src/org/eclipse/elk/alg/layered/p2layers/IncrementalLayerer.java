@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.p2layers;
+
+import java.util.List;
+
+import org.eclipse.elk.alg.layered.LayeredPhases;
+import org.eclipse.elk.alg.layered.graph.LEdge;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.graph.LNode;
+import org.eclipse.elk.alg.layered.graph.Layer;
+import org.eclipse.elk.alg.layered.intermediate.IntermediateProcessorStrategy;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.core.alg.ILayoutPhase;
+import org.eclipse.elk.core.alg.LayoutProcessorConfiguration;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+
+/**
+ * A node layerer that reuses the layering of a previous layout. Nodes with a
+ * {@link LayeredOptions#LAYERING_LAYER_ID} stay in that layer unless one of their predecessors ends up
+ * in the same or a later layer, in which case they are pushed right just as far as necessary. Nodes
+ * without a layer ID, which are the ones added or changed since the previous layout, are placed
+ * directly right of their rightmost predecessor; if they have no predecessors, directly left of their
+ * leftmost successor. Layers that end up empty are removed.
+ *
+ * <p>The layering is computed in a single pass over the nodes in topological order, so it takes time
+ * linear in the size of the graph.</p>
+ *
+ * <dl>
+ *   <dt>Precondition:</dt><dd>the graph has no cycles</dd>
+ *   <dt>Postcondition:</dt><dd>all nodes have been assigned a layer such that
+ *     edges connect only nodes from layers with increasing indices</dd>
+ * </dl>
+ */
+public final class IncrementalLayerer implements ILayoutPhase<LayeredPhases, LGraph> {
+
+    /** intermediate processing configuration. */
+    private static final LayoutProcessorConfiguration<LayeredPhases, LGraph> BASELINE_PROCESSING_CONFIGURATION =
+        LayoutProcessorConfiguration.<LayeredPhases, LGraph>create()
+            .addBefore(LayeredPhases.P1_CYCLE_BREAKING,
+                    IntermediateProcessorStrategy.EDGE_AND_LAYER_CONSTRAINT_EDGE_REVERSER)
+            .addBefore(LayeredPhases.P3_NODE_ORDERING, IntermediateProcessorStrategy.LAYER_CONSTRAINT_PROCESSOR);
+
+    /**
+     * {@inheritDoc}
+     */
+    public LayoutProcessorConfiguration<LayeredPhases, LGraph> getLayoutProcessorConfiguration(final LGraph graph) {
+        return BASELINE_PROCESSING_CONFIGURATION;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void process(final LGraph layeredGraph, final IElkProgressMonitor monitor) {
+        monitor.begin("Incremental node layering", 1);
+
+        List<LNode> nodes = layeredGraph.getLayerlessNodes();
+        int nodeCount = nodes.size();
+        int[] layerIndex = new int[nodeCount];
+        int[] incomingCount = new int[nodeCount];
+        boolean[] hasPredecessors = new boolean[nodeCount];
+
+        // start with the previous layers and count incoming edges for the topological order
+        int index = 0;
+        for (LNode node : nodes) {
+            node.id = index++;
+        }
+        int[] topologicalOrder = new int[nodeCount];
+        int queueTail = 0;
+        for (LNode node : nodes) {
+            layerIndex[node.id] = Math.max(0, node.getIntProperty(LayeredOptions.LAYERING_LAYER_ID));
+            for (LEdge edge : node.getIncomingEdges()) {
+                if (!edge.isSelfLoop()) {
+                    incomingCount[node.id]++;
+                }
+            }
+            hasPredecessors[node.id] = incomingCount[node.id] > 0;
+            if (!hasPredecessors[node.id]) {
+                topologicalOrder[queueTail++] = node.id;
+            }
+        }
+
+        // push nodes right of their predecessors
+        int queueHead = 0;
+        while (queueHead < queueTail) {
+            LNode node = nodes.get(topologicalOrder[queueHead++]);
+            for (LEdge edge : node.getOutgoingEdges()) {
+                LNode target = edge.getTarget().getNode();
+                if (target != node) {
+                    layerIndex[target.id] = Math.max(layerIndex[target.id], layerIndex[node.id] + 1);
+                    if (--incomingCount[target.id] == 0) {
+                        topologicalOrder[queueTail++] = target.id;
+                    }
+                }
+            }
+        }
+        assert queueTail == nodeCount : "The graph contains cycles.";
+
+        // pull new nodes without predecessors towards their successors, visiting successors first
+        for (int i = nodeCount - 1; i >= 0; i--) {
+            LNode node = nodes.get(topologicalOrder[i]);
+            if (!hasPredecessors[node.id] && node.getIntProperty(LayeredOptions.LAYERING_LAYER_ID) < 0) {
+                int minSuccessorLayer = Integer.MAX_VALUE;
+                for (LEdge edge : node.getOutgoingEdges()) {
+                    LNode target = edge.getTarget().getNode();
+                    if (target != node) {
+                        minSuccessorLayer = Math.min(minSuccessorLayer, layerIndex[target.id]);
+                    }
+                }
+                if (minSuccessorLayer != Integer.MAX_VALUE) {
+                    layerIndex[node.id] = minSuccessorLayer - 1;
+                }
+            }
+        }
+
+        // create the layers that are actually used
+        int maxLayer = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            maxLayer = Math.max(maxLayer, layerIndex[i]);
+        }
+        Layer[] layers = new Layer[maxLayer + 1];
+        for (int i = 0; i < nodeCount; i++) {
+            if (layers[layerIndex[i]] == null) {
+                layers[layerIndex[i]] = new Layer(layeredGraph);
+            }
+        }
+        for (Layer layer : layers) {
+            if (layer != null) {
+                layeredGraph.getLayers().add(layer);
+            }
+        }
+        for (LNode node : nodes) {
+            node.setLayer(layers[layerIndex[node.id]]);
+        }
+
+        // clear the list of nodes that have no layer, since now they all have one
+        layeredGraph.getLayerlessNodes().clear();
+        monitor.done();
+    }
+
+}
@@ -0,0 +1,503 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.p3order;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.elk.alg.layered.LayeredPhases;
+import org.eclipse.elk.alg.layered.graph.LEdge;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.graph.LNode;
+import org.eclipse.elk.alg.layered.graph.LNode.NodeType;
+import org.eclipse.elk.alg.layered.graph.LPort;
+import org.eclipse.elk.alg.layered.graph.Layer;
+import org.eclipse.elk.alg.layered.intermediate.IntermediateProcessorStrategy;
+import org.eclipse.elk.alg.layered.options.GraphProperties;
+import org.eclipse.elk.alg.layered.options.InternalProperties;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.alg.layered.p3order.counting.IInitializable;
+import org.eclipse.elk.core.alg.ILayoutPhase;
+import org.eclipse.elk.core.alg.LayoutProcessorConfiguration;
+import org.eclipse.elk.core.options.PortSide;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * A crossing minimizer that reuses the node order of a previous layout. Within each layer, nodes with
+ * a {@link LayeredOptions#CROSSING_MINIMIZATION_POSITION_ID} keep their relative order, and so do the
+ * dummy nodes of edges that still connect two such nodes across as many layers as before, using the
+ * edge's {@link LayeredOptions#CROSSING_MINIMIZATION_DUMMY_POSITION_IDS}. All other nodes, that is new
+ * or changed nodes and the remaining dummy nodes, are inserted into that order one layer after the
+ * other. Each goes to the gap that causes the fewest crossings with the edges coming from the previous
+ * layer, approximating edges by the barycenter of their source positions. Nodes without incoming edges
+ * are appended to the layer, and northern and southern port dummies are kept next to the node they
+ * were created for. Layers without such nodes simply keep their previous order.
+ *
+ * <dl>
+ *   <dt>Preconditions:</dt>
+ *     <dd>The graph has a proper layering</dd>
+ *     <dd>All nodes have at least fixed port sides.</dd>
+ *   <dt>Postconditions:</dt>
+ *     <dd>The order of nodes in each layer is rearranged such that nodes of the previous layout keep
+ *       their relative order.</dd>
+ * </dl>
+ */
+public final class IncrementalCrossingMinimizer implements ILayoutPhase<LayeredPhases, LGraph> {
+
+    /** intermediate processing configuration. */
+    private static final LayoutProcessorConfiguration<LayeredPhases, LGraph> INTERMEDIATE_PROCESSING_CONFIGURATION =
+        LayoutProcessorConfiguration.<LayeredPhases, LGraph>create()
+            .addBefore(LayeredPhases.P3_NODE_ORDERING, IntermediateProcessorStrategy.LONG_EDGE_SPLITTER)
+            .addBefore(LayeredPhases.P4_NODE_PLACEMENT, IntermediateProcessorStrategy.IN_LAYER_CONSTRAINT_PROCESSOR)
+            .addAfter(LayeredPhases.P5_EDGE_ROUTING, IntermediateProcessorStrategy.LONG_EDGE_JOINER);
+
+    /** previous positions of the dummy nodes of unchanged edges. */
+    private Map<LNode, Integer> dummyPositions;
+    /** primary sort keys of the nodes of the current layer, indexed by node id. */
+    private double[] slots;
+    /** barycenters of the nodes of the current layer, indexed by node id; {@code NaN} if undefined. */
+    private double[] barycenters;
+    /** tie breakers that put northern port dummies before and southern ones after their node. */
+    private int[] sides;
+
+    /**
+     * {@inheritDoc}
+     */
+    public LayoutProcessorConfiguration<LayeredPhases, LGraph> getLayoutProcessorConfiguration(final LGraph graph) {
+        LayoutProcessorConfiguration<LayeredPhases, LGraph> configuration =
+                LayoutProcessorConfiguration.createFrom(INTERMEDIATE_PROCESSING_CONFIGURATION);
+
+        if (graph.getProperty(InternalProperties.GRAPH_PROPERTIES).contains(GraphProperties.NON_FREE_PORTS)) {
+            configuration.addBefore(LayeredPhases.P3_NODE_ORDERING, IntermediateProcessorStrategy.PORT_LIST_SORTER);
+        }
+
+        return configuration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void process(final LGraph layeredGraph, final IElkProgressMonitor monitor) {
+        monitor.begin("Incremental crossing minimization", 1);
+
+        // Set ID's for each layer since they will be used by the port distribution code to index into arrays
+        int layerIndex = 0;
+        for (Layer layer : layeredGraph.getLayers()) {
+            layer.id = layerIndex++;
+        }
+        dummyPositions = collectDummyPositions(layeredGraph);
+
+        // initializing the port distributor sets node ids to the index of each node in its layer
+        LNode[][] nodeOrder = layeredGraph.toNodeArray();
+        AbstractBarycenterPortDistributor portDistributor = new NodeRelativePortDistributor(nodeOrder.length);
+        IInitializable.init(Arrays.asList(portDistributor), nodeOrder);
+
+        int[] previousPositions = new int[0];
+        for (layerIndex = 0; layerIndex < nodeOrder.length; layerIndex++) {
+            LNode[] nodes = nodeOrder[layerIndex];
+            slots = new double[nodes.length];
+            barycenters = new double[nodes.length];
+            sides = new int[nodes.length];
+
+            LNode[] fixedNodes = assignFixedSlots(nodes);
+            if (fixedNodes.length + countPortDummies(nodes) < nodes.length) {
+                computeBarycenters(nodes, layerIndex, previousPositions);
+                insertFreeNodes(nodes, fixedNodes);
+            } else {
+                // nothing new in this layer, so its nodes keep their previous order
+                Arrays.fill(barycenters, Double.NaN);
+            }
+            attachPortDummies(nodes);
+
+            Arrays.sort(nodes, this::compareNodes);
+            keepExternalPortOrder(nodes);
+
+            // write the new order back to the layer and remember the positions for the next layer
+            List<LNode> layerNodes = layeredGraph.getLayers().get(layerIndex).getNodes();
+            previousPositions = new int[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                layerNodes.set(i, nodes[i]);
+                previousPositions[nodes[i].id] = i;
+            }
+
+            portDistributor.distributePortsWhileSweeping(nodeOrder, layerIndex, true);
+        }
+
+        dummyPositions = null;
+        slots = null;
+        barycenters = null;
+        sides = null;
+        monitor.done();
+    }
+
+    /**
+     * Collects the previous positions of the dummy nodes of all edges whose dummy nodes can keep their
+     * place: both end points of the edge have a position ID, and the edge has as many dummy nodes as
+     * there are dummy position IDs.
+     *
+     * @param layeredGraph the graph, with layer ids set to the layer indices
+     * @return the previous positions of these dummy nodes
+     */
+    private static Map<LNode, Integer> collectDummyPositions(final LGraph layeredGraph) {
+        Map<LNode, Integer> result = Maps.newHashMap();
+        List<LNode> chain = Lists.newArrayList();
+        for (Layer layer : layeredGraph) {
+            for (LNode node : layer) {
+                if (isEdgeDummy(node) || positionId(node) < 0) {
+                    continue;
+                }
+                
+                // follow each edge leaving a node of the previous layout through its dummy nodes
+                for (LEdge edge : node.getOutgoingEdges()) {
+                    List<Integer> positions = edge.getProperty(LayeredOptions.CROSSING_MINIMIZATION_DUMMY_POSITION_IDS);
+                    LNode target = edge.getTarget().getNode();
+                    if (positions == null || positions.isEmpty() || !isEdgeDummy(target)) {
+                        continue;
+                    }
+                    chain.clear();
+                    while (isEdgeDummy(target) && chain.size() <= positions.size()) {
+                        chain.add(target);
+                        Iterator<LEdge> nextEdges = target.getOutgoingEdges().iterator();
+                        target = nextEdges.hasNext() ? nextEdges.next().getTarget().getNode() : null;
+                        if (target == null) {
+                            break;
+                        }
+                    }
+                    if (target != null && positionId(target) >= 0 && chain.size() == positions.size()) {
+                        for (int i = 0; i < chain.size(); i++) {
+                            result.put(chain.get(i), positions.get(i));
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the given node is one of the dummy nodes an edge is split into.
+     *
+     * @param node a node
+     * @return {@code true} if the node is a long edge or label dummy node
+     */
+    private static boolean isEdgeDummy(final LNode node) {
+        return node.getType() == NodeType.LONG_EDGE || node.getType() == NodeType.LABEL;
+    }
+
+    /**
+     * Returns the position ID of the given regular node.
+     *
+     * @param node a node
+     * @return the node's position ID, or a negative value if it has none
+     */
+    private static int positionId(final LNode node) {
+        return node.getIntProperty(LayeredOptions.CROSSING_MINIMIZATION_POSITION_ID);
+    }
+
+    /**
+     * Returns the previous position of the given node.
+     *
+     * @param node a node of the current layer
+     * @return the node's position ID or the previous position of a dummy node of an unchanged edge, or
+     *         {@code -1} if the node has to be inserted
+     */
+    private int previousPosition(final LNode node) {
+        if (isEdgeDummy(node)) {
+            Integer position = dummyPositions.get(node);
+            return position == null ? -1 : position;
+        }
+        return node.getType() == NodeType.NORTH_SOUTH_PORT ? -1 : positionId(node);
+    }
+
+    /**
+     * Assigns the nodes of a layer that have a previous position consecutive integer slots in the order
+     * of their previous positions.
+     *
+     * @param nodes the nodes of the layer
+     * @return the nodes with a previous position, ordered by it
+     */
+    private LNode[] assignFixedSlots(final LNode[] nodes) {
+        LNode[] fixedNodes = Arrays.stream(nodes)
+                .filter(node -> previousPosition(node) >= 0)
+                .sorted((node1, node2) -> Integer.compare(previousPosition(node1), previousPosition(node2)))
+                .toArray(LNode[]::new);
+        for (int i = 0; i < fixedNodes.length; i++) {
+            slots[fixedNodes[i].id] = i;
+        }
+        return fixedNodes;
+    }
+
+    /**
+     * Counts the northern and southern port dummies of a layer, which follow the node they were created
+     * for.
+     *
+     * @param nodes the nodes of the layer
+     * @return the number of port dummies
+     */
+    private static int countPortDummies(final LNode[] nodes) {
+        int count = 0;
+        for (LNode node : nodes) {
+            if (node.getType() == NodeType.NORTH_SOUTH_PORT) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the barycenter of the positions of the predecessors of each node of a layer.
+     *
+     * @param nodes the nodes of the layer
+     * @param layerIndex the index of the layer
+     * @param previousPositions the positions of the nodes of the previous layer, indexed by node id
+     */
+    private void computeBarycenters(final LNode[] nodes, final int layerIndex, final int[] previousPositions) {
+        for (LNode node : nodes) {
+            double sum = 0;
+            int count = 0;
+            for (LEdge edge : node.getIncomingEdges()) {
+                LNode source = edge.getSource().getNode();
+                if (source.getLayer().id == layerIndex - 1) {
+                    sum += previousPositions[source.id];
+                    count++;
+                }
+            }
+            barycenters[node.id] = count > 0 ? sum / count : Double.NaN;
+        }
+    }
+
+    /**
+     * Assigns each node of a layer that has no slot yet the half-integer slot of the gap in which its
+     * barycenter is out of order with the barycenters of the fewest fixed nodes. Nodes without a
+     * barycenter are appended.
+     *
+     * <p>The nodes are inserted in the order of their barycenters. A {@link GapCosts} tree holds, for
+     * each gap, how many more fixed nodes before the gap are out of order with the barycenter than
+     * after the gap. A fixed node before the gap is out of order if its barycenter is larger, and so
+     * each fixed node only changes its contribution twice while the barycenter grows: once the
+     * barycenters are equal and once the fixed node's barycenter is smaller. This takes
+     * {@code O((fixed + free) log fixed)} time instead of comparing each node with each fixed node.</p>
+     *
+     * @param nodes the nodes of the layer
+     * @param fixedNodes the nodes with a previous position, ordered by it
+     */
+    private void insertFreeNodes(final LNode[] nodes, final LNode[] fixedNodes) {
+        LNode[] freeNodes = Arrays.stream(nodes)
+                .filter(node -> previousPosition(node) < 0 && node.getType() != NodeType.NORTH_SOUTH_PORT)
+                .sorted((node1, node2) -> Double.compare(barycenterKey(node1), barycenterKey(node2)))
+                .toArray(LNode[]::new);
+
+        // the gaps of fixed nodes with a barycenter, ordered by their barycenter
+        int[] fixedByBarycenter = Arrays.stream(fixedNodes)
+                .filter(node -> !Double.isNaN(barycenters[node.id]))
+                .sorted((node1, node2) -> Double.compare(barycenters[node1.id], barycenters[node2.id]))
+                .mapToInt(node -> (int) slots[node.id])
+                .toArray();
+
+        // initially, all fixed nodes with a barycenter have larger barycenters than the inserted node
+        int[] initialCosts = new int[fixedNodes.length + 1];
+        for (int gap = 1; gap <= fixedNodes.length; gap++) {
+            boolean hasBarycenter = !Double.isNaN(barycenters[fixedNodes[gap - 1].id]);
+            initialCosts[gap] = initialCosts[gap - 1] + (hasBarycenter ? 1 : 0);
+        }
+        GapCosts costs = new GapCosts(initialCosts);
+
+        int notLarger = 0;
+        int smaller = 0;
+        for (LNode node : freeNodes) {
+            double barycenter = barycenters[node.id];
+            if (Double.isNaN(barycenter)) {
+                // nothing to compare with, so append the node
+                slots[node.id] = fixedNodes.length;
+                continue;
+            }
+
+            // a fixed node before a gap stops being out of order once its barycenter is not larger, and
+            // a fixed node after a gap starts being out of order once its barycenter is smaller
+            while (notLarger < fixedByBarycenter.length
+                    && barycenters[fixedNodes[fixedByBarycenter[notLarger]].id] <= barycenter) {
+                costs.addAfter(fixedByBarycenter[notLarger++], -1);
+            }
+            while (smaller < fixedByBarycenter.length
+                    && barycenters[fixedNodes[fixedByBarycenter[smaller]].id] < barycenter) {
+                costs.addAfter(fixedByBarycenter[smaller++], -1);
+            }
+            slots[node.id] = costs.bestGap() - 0.5;
+        }
+    }
+
+    /**
+     * Keeps northern and southern port dummies with the node they were created for.
+     *
+     * @param nodes the nodes of the layer
+     */
+    private void attachPortDummies(final LNode[] nodes) {
+        for (LNode node : nodes) {
+            if (node.getType() == NodeType.NORTH_SOUTH_PORT) {
+                LPort originPort = (LPort) node.getPorts().get(0).getProperty(InternalProperties.ORIGIN);
+                LNode originNode = originPort.getNode();
+                slots[node.id] = slots[originNode.id];
+                barycenters[node.id] = barycenters[originNode.id];
+                sides[node.id] = originPort.getSide() == PortSide.NORTH ? -1 : 1;
+            }
+        }
+    }
+
+    /**
+     * Restores the current order of the western and eastern external port dummies of a layer, which
+     * are chained by in-layer successor constraints in that order. They keep the places they were
+     * sorted to, but are redistributed among these places.
+     *
+     * @param nodes the sorted nodes of the layer
+     */
+    private static void keepExternalPortOrder(final LNode[] nodes) {
+        List<Integer> places = Lists.newArrayList();
+        List<LNode> portDummies = Lists.newArrayList();
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].getType() == NodeType.EXTERNAL_PORT) {
+                PortSide side = nodes[i].getProperty(InternalProperties.EXT_PORT_SIDE);
+                if (side == PortSide.WEST || side == PortSide.EAST) {
+                    places.add(i);
+                    portDummies.add(nodes[i]);
+                }
+            }
+        }
+        portDummies.sort((node1, node2) -> Integer.compare(node1.id, node2.id));
+        for (int i = 0; i < places.size(); i++) {
+            nodes[places.get(i)] = portDummies.get(i);
+        }
+    }
+
+    /**
+     * Compares two nodes of the current layer by slot, barycenter, side, and finally by their current
+     * order. This is a total order, as required for sorting. In-layer successor constraints are not
+     * checked here: the ones between northern and southern port dummies and their node are already
+     * respected by the sides, and the ones between external port dummies are restored afterwards by
+     * {@link #keepExternalPortOrder(LNode[])}.
+     *
+     * @param node1 the first node
+     * @param node2 the second node
+     * @return the comparison result
+     */
+    private int compareNodes(final LNode node1, final LNode node2) {
+        int compare = Double.compare(slots[node1.id], slots[node2.id]);
+        if (compare == 0) {
+            // nodes without a barycenter go last among the ones sharing a slot
+            compare = Double.compare(barycenterKey(node1), barycenterKey(node2));
+        }
+        if (compare == 0) {
+            compare = Integer.compare(sides[node1.id], sides[node2.id]);
+        }
+        if (compare == 0) {
+            compare = Integer.compare(node1.id, node2.id);
+        }
+        return compare;
+    }
+
+    /**
+     * Returns the barycenter of the given node as a sort key.
+     *
+     * @param node a node of the current layer
+     * @return the barycenter, or positive infinity if the node has none
+     */
+    private double barycenterKey(final LNode node) {
+        double barycenter = barycenters[node.id];
+        return Double.isNaN(barycenter) ? Double.POSITIVE_INFINITY : barycenter;
+    }
+
+    /**
+     * The costs of the gaps between fixed nodes, supporting adding a value to all gaps after a fixed
+     * node and finding the first gap of minimal cost, both in logarithmic time. This is a segment tree
+     * whose inner nodes store the minimum of their subtree, including an addend that applies to the
+     * whole subtree.
+     */
+    private static final class GapCosts {
+
+        /** number of gaps. */
+        private final int size;
+        /** minimal cost in the subtree of each tree node. */
+        private final int[] min;
+        /** first gap of minimal cost in the subtree of each tree node. */
+        private final int[] argMin;
+        /** value added to all gaps in the subtree of each tree node. */
+        private final int[] addend;
+
+        /**
+         * Creates a tree with the given initial costs.
+         *
+         * @param costs the cost of each gap; must not be empty
+         */
+        GapCosts(final int[] costs) {
+            size = costs.length;
+            min = new int[4 * size];
+            argMin = new int[4 * size];
+            addend = new int[4 * size];
+            build(1, 0, size - 1, costs);
+        }
+
+        private void build(final int treeNode, final int from, final int to, final int[] costs) {
+            if (from == to) {
+                min[treeNode] = costs[from];
+                argMin[treeNode] = from;
+            } else {
+                int middle = (from + to) >>> 1;
+                build(2 * treeNode, from, middle, costs);
+                build(2 * treeNode + 1, middle + 1, to, costs);
+                update(treeNode);
+            }
+        }
+
+        /**
+         * Adds the given value to the costs of all gaps after the given fixed node.
+         *
+         * @param fixedIndex index of a fixed node
+         * @param value the value to add
+         */
+        void addAfter(final int fixedIndex, final int value) {
+            add(1, 0, size - 1, fixedIndex + 1, value);
+        }
+
+        private void add(final int treeNode, final int from, final int to, final int first, final int value) {
+            if (first <= from) {
+                min[treeNode] += value;
+                addend[treeNode] += value;
+            } else if (first <= to) {
+                int middle = (from + to) >>> 1;
+                add(2 * treeNode, from, middle, first, value);
+                add(2 * treeNode + 1, middle + 1, to, first, value);
+                update(treeNode);
+            }
+        }
+
+        private void update(final int treeNode) {
+            int left = 2 * treeNode, right = left + 1;
+            // prefer the left subtree on ties to find the first gap of minimal cost
+            int child = min[left] <= min[right] ? left : right;
+            min[treeNode] = min[child] + addend[treeNode];
+            argMin[treeNode] = argMin[child];
+        }
+
+        /**
+         * Returns the first gap of minimal cost.
+         *
+         * @return the index of the gap
+         */
+        int bestGap() {
+            return argMin[1];
+        }
+    }
+
+}
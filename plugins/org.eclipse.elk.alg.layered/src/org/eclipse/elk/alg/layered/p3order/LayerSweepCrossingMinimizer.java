@@ -13,8 +13,11 @@ package org.eclipse.elk.alg.layered.p3order;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.elk.alg.layered.IHierarchyAwareLayoutProcessor;
 import org.eclipse.elk.alg.layered.LayeredPhases;
@@ -28,6 +31,7 @@ import org.eclipse.elk.alg.layered.options.LayeredOptions;
 import org.eclipse.elk.alg.layered.p3order.counting.CrossMinUtil;
 import org.eclipse.elk.core.alg.ILayoutPhase;
 import org.eclipse.elk.core.alg.LayoutProcessorConfiguration;
+import org.eclipse.elk.core.metrics.IMetricsContributor;
 import org.eclipse.elk.core.options.PortConstraints;
 import org.eclipse.elk.core.options.PortSide;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
@@ -72,7 +76,7 @@ import com.google.common.collect.Sets;
  *
  */
 public class LayerSweepCrossingMinimizer
-    implements ILayoutPhase<LayeredPhases, LGraph>, IHierarchyAwareLayoutProcessor {
+    implements ILayoutPhase<LayeredPhases, LGraph>, IHierarchyAwareLayoutProcessor, IMetricsContributor {
     
     /** Collected information about each graph. */
     private List<GraphInfoHolder> graphInfoHolders;
@@ -81,6 +85,10 @@ public class LayerSweepCrossingMinimizer
     private Random random;
     private long randomSeed;
     private final CrossMinType crossMinType;
+    /** the number of sweep runs with crossing counting performed by the most recent run. */
+    private int restartCount;
+    /** the sum of the best crossing counts found for each graph, or -1 if crossings were not counted. */
+    private int crossingCount;
 
     /**
      * Creates LayerSweepHierarchicalCrossingMinimizer using given minimizer type.
@@ -95,6 +103,8 @@ public class LayerSweepCrossingMinimizer
     @Override
     public void process(final LGraph layeredGraph, final IElkProgressMonitor progressMonitor) {
         progressMonitor.begin("Minimize Crossings " + crossMinType, 1);
+        restartCount = 0;
+        crossingCount = -1;
 
         if (layeredGraph.getLayers().isEmpty()) {
             progressMonitor.done();
@@ -119,7 +129,7 @@ public class LayerSweepCrossingMinimizer
         } else if (parent.crossMinAlwaysImproves()) {
             return g -> minimizeCrossingsNoCounter(g);
         } else {
-            return g -> minimizeCrossingsWithCounter(g);
+            return g -> countBestCrossings(1, minimizeCrossingsWithCounter(g));
         }
     }
 
@@ -157,6 +167,11 @@ public class LayerSweepCrossingMinimizer
     }
 
     private void compareDifferentRandomizedLayouts(final GraphInfoHolder gData) {
+        if (canRestartOnCopies(gData)) {
+            compareDifferentRandomizedLayoutsOnCopies(gData);
+            return;
+        }
+
         // Reset the seed, otherwise copies of hierarchical graphs in different parent nodes are
         // layouted differently.
         random.setSeed(randomSeed);
@@ -168,6 +183,7 @@ public class LayerSweepCrossingMinimizer
         int thouroughness = gData.lGraph().getProperty(LayeredOptions.THOROUGHNESS);
         for (int i = 0; i < thouroughness; i++) {
             int crossings = minimizeCrossingsWithCounter(gData);
+            restartCount++;
             if (crossings < bestCrossings) {
                 bestCrossings = crossings;
                 saveAllNodeOrdersOfChangedGraphs();
@@ -176,6 +192,81 @@ public class LayerSweepCrossingMinimizer
                 }
             }
         }
+        countBestCrossings(0, bestCrossings);
+    }
+
+    /**
+     * Checks whether the randomized restarts on the given graph may run on private copies of the graph. This requires
+     * more than one restart and the restarts to stay within the graph, i.e. the graph must not be swept into its
+     * nested graphs. The check does not depend on whether restarts run in parallel, so that both modes yield the same
+     * result.
+     */
+    private boolean canRestartOnCopies(final GraphInfoHolder gData) {
+        if (gData.lGraph().getProperty(LayeredOptions.THOROUGHNESS) < 2) {
+            return false;
+        }
+        for (LGraph childGraph : gData.childGraphs()) {
+            if (!graphInfoHolders.get(childGraph.id).dontSweepInto()) {
+                return false;
+            }
+        }
+        return RestartGraphCopy.canCopy(gData.currentNodeOrder());
+    }
+
+    /**
+     * Runs the randomized restarts on private copies of the given graph, in parallel if the option is set and one
+     * after another otherwise. Each restart begins with the current node and port order and uses its own random
+     * number generator, seeded with the next value of a generator seeded with the random seed. The best result is the
+     * one with the fewest crossings and, among those, the smallest restart index. It thus does not depend on whether
+     * the restarts run in parallel, on the number of threads, or on the order of execution. Sequential restarts stop
+     * at the first restart without crossings, since no later restart can be better.
+     */
+    private void compareDifferentRandomizedLayoutsOnCopies(final GraphInfoHolder gData) {
+        int thoroughness = gData.lGraph().getProperty(LayeredOptions.THOROUGHNESS);
+        Random seeds = new Random(randomSeed);
+
+        List<RandomizedRestart> restarts = Lists.newArrayListWithCapacity(thoroughness);
+        for (int i = 0; i < thoroughness; i++) {
+            restarts.add(new RandomizedRestart(gData, new Random(seeds.nextLong())));
+        }
+
+        RandomizedRestart best = null;
+        if (gData.lGraph().getProperty(LayeredOptions.CROSSING_MINIMIZATION_PARALLEL_RESTARTS)) {
+            ForkJoinTask.invokeAll(restarts);
+            for (RandomizedRestart restart : restarts) {
+                if (best == null || restart.crossings < best.crossings) {
+                    best = restart;
+                }
+            }
+            restartCount += thoroughness;
+        } else {
+            for (RandomizedRestart restart : restarts) {
+                restart.invoke();
+                restartCount++;
+                if (best == null || restart.crossings < best.crossings) {
+                    best = restart;
+                    if (best.crossings == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        gData.setBestNodeNPortOrder(best.result);
+        countBestCrossings(0, best.crossings);
+    }
+
+    /** Records the restarts and the best number of crossings found for a graph, for metrics. */
+    private void countBestCrossings(final int additionalRestarts, final int bestCrossings) {
+        restartCount += additionalRestarts;
+        crossingCount = Math.max(crossingCount, 0) + bestCrossings;
+    }
+
+    @Override
+    public void contributeMetrics(final Map<String, Long> counters) {
+        counters.put("restarts", (long) restartCount);
+        if (crossingCount >= 0) {
+            counters.put("crossings", (long) crossingCount);
+        }
     }
 
     private int minimizeCrossingsWithCounter(final GraphInfoHolder gData) {
@@ -450,6 +541,55 @@ public class LayerSweepCrossingMinimizer
                         .add(IntermediateProcessorStrategy.LONG_EDGE_JOINER)
                         .add(IntermediateProcessorStrategy.HIERARCHICAL_NODE_RESIZER);
     
+    /**
+     * A single randomized restart on a private copy of a graph. Copies are created when a restart starts running and
+     * dropped once it has finished, which keeps the number of copies in memory down to the number of threads. Setting
+     * up a copy reads properties of the original graph and of its parent node, and reading a property may store its
+     * default value, so restarts set up their copies one at a time, synchronized on the original graph's data. Only
+     * the sweeps themselves, which touch nothing but the copy, run concurrently.
+     */
+    private final class RandomizedRestart extends RecursiveAction {
+
+        /** the serial version UID. */
+        private static final long serialVersionUID = -2356181423151624541L;
+
+        /** the graph to restart crossing minimization on. */
+        private final GraphInfoHolder gData;
+        /** the random number generator of this restart. */
+        private final Random restartRandom;
+        /** the number of crossings of the best node order found by this restart. */
+        private int crossings;
+        /** the best node and port order found by this restart, in terms of the original graph. */
+        private SweepCopy result;
+
+        RandomizedRestart(final GraphInfoHolder gData, final Random restartRandom) {
+            this.gData = gData;
+            this.restartRandom = restartRandom;
+        }
+
+        @Override
+        protected void compute() {
+            RestartGraphCopy copy;
+            List<GraphInfoHolder> holders;
+            GraphInfoHolder copyData;
+            synchronized (gData) {
+                copy = new RestartGraphCopy(gData.lGraph(), gData.currentNodeOrder(), restartRandom);
+
+                // The copy replaces the original in the list of graphs; nested graphs are not swept into anyway
+                holders = Lists.newArrayList(graphInfoHolders);
+                copyData = new GraphInfoHolder(copy.graph(), crossMinType, holders);
+                holders.set(copy.graph().id, copyData);
+            }
+
+            LayerSweepCrossingMinimizer minimizer = new LayerSweepCrossingMinimizer(crossMinType);
+            minimizer.graphInfoHolders = holders;
+            minimizer.graphsWhoseNodeOrderChanged = Sets.newHashSet();
+            minimizer.random = restartRandom;
+            crossings = minimizer.minimizeCrossingsWithCounter(copyData);
+            result = copy.toOriginal(copyData.currentlyBestNodeAndPortOrder());
+        }
+    }
+
     /**
      * TODO Java 8 api not supported yet and Guava's Void is much much uglier.
      * 
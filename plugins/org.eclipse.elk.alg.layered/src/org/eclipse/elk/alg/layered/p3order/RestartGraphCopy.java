@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.p3order;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.elk.alg.layered.graph.LEdge;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.graph.LGraphElement;
+import org.eclipse.elk.alg.layered.graph.LNode;
+import org.eclipse.elk.alg.layered.graph.LPort;
+import org.eclipse.elk.alg.layered.graph.Layer;
+import org.eclipse.elk.alg.layered.options.InternalProperties;
+import org.eclipse.elk.graph.properties.IProperty;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * A private copy of a single layered graph on which a randomized restart of the layer sweep can run
+ * without touching the original graph. Sweeps reorder the port lists of the nodes they visit, so
+ * restarts running in parallel cannot share nodes and ports.
+ *
+ * <p>The copy contains copies of all layers, nodes, ports and edges of the graph, in the order given
+ * by the node order the copy is created from. Properties are copied as well; property values that
+ * refer to elements of the graph, or lists of such elements, are redirected to the respective
+ * copies. Nested graphs are not copied, so the copy must not be swept into nested graphs.</p>
+ *
+ * <p>Creating a copy does not modify the original graph, and once created, copies of the same graph can
+ * be used concurrently as long as the original graph is not modified in the meantime. Setting up the
+ * crossing minimization on a copy reads properties of the original parent node, though, so
+ * {@link LayerSweepCrossingMinimizer} sets up its copies one at a time.</p>
+ *
+ * @see LayerSweepCrossingMinimizer
+ */
+final class RestartGraphCopy {
+
+    /** the copied graph. */
+    private final LGraph graph;
+    /** maps elements of the copy to the original elements they were created from. */
+    private final Map<LGraphElement, LGraphElement> originals;
+    /** maps original elements to their copies. */
+    private final Map<LGraphElement, LGraphElement> copies;
+
+    /**
+     * Creates a copy of the given graph.
+     *
+     * @param original
+     *            the graph to copy.
+     * @param nodeOrder
+     *            the current order of the graph's nodes, which the copy is created in.
+     * @param random
+     *            the random number generator to be used by the crossing minimization on the copy.
+     */
+    RestartGraphCopy(final LGraph original, final LNode[][] nodeOrder, final Random random) {
+        // Size the maps for all layers, nodes, ports, and about one edge per port
+        int expectedSize = original.getLayers().size();
+        for (LNode[] layerNodes : nodeOrder) {
+            for (LNode node : layerNodes) {
+                expectedSize += 1 + 2 * node.getPorts().size();
+            }
+        }
+        originals = new IdentityHashMap<>(expectedSize);
+        copies = new IdentityHashMap<>(expectedSize);
+
+        graph = new LGraph();
+        graph.id = original.id;
+        register(original, graph);
+
+        // Layers, nodes, and ports
+        for (LNode[] layerNodes : nodeOrder) {
+            Layer layer = new Layer(graph);
+            graph.getLayers().add(layer);
+            if (layerNodes.length > 0) {
+                register(layerNodes[0].getLayer(), layer);
+            }
+
+            for (LNode node : layerNodes) {
+                LNode nodeCopy = new LNode(graph);
+                nodeCopy.setType(node.getType());
+                nodeCopy.getPosition().set(node.getPosition());
+                nodeCopy.getSize().set(node.getSize());
+                nodeCopy.setLayer(layer);
+                register(node, nodeCopy);
+
+                for (LPort port : node.getPorts()) {
+                    LPort portCopy = new LPort();
+                    portCopy.setSide(port.getSide());
+                    portCopy.getPosition().set(port.getPosition());
+                    portCopy.getSize().set(port.getSize());
+                    portCopy.getAnchor().set(port.getAnchor());
+                    portCopy.setNode(nodeCopy);
+                    register(port, portCopy);
+                }
+
+                // Port sides are fixed during crossing minimization, just as the original's port sides are
+                nodeCopy.cachePortSides();
+            }
+        }
+
+        // Edges; outgoing and incoming edges are connected in two passes to keep the order of both
+        for (LNode[] layerNodes : nodeOrder) {
+            for (LNode node : layerNodes) {
+                for (LPort port : node.getPorts()) {
+                    for (LEdge edge : port.getOutgoingEdges()) {
+                        LEdge edgeCopy = new LEdge();
+                        register(edge, edgeCopy);
+                        edgeCopy.setSource(copyOf(port));
+                    }
+                }
+            }
+        }
+        for (LNode[] layerNodes : nodeOrder) {
+            for (LNode node : layerNodes) {
+                for (LPort port : node.getPorts()) {
+                    for (LEdge edge : port.getIncomingEdges()) {
+                        copyOf(edge).setTarget(copyOf(port));
+                    }
+                }
+            }
+        }
+
+        // Properties may refer to other elements, so they can only be copied once all elements exist
+        for (Map.Entry<LGraphElement, LGraphElement> entry : originals.entrySet()) {
+            copyProperties(entry.getValue(), entry.getKey());
+        }
+        graph.setProperty(InternalProperties.RANDOM, random);
+    }
+
+    /**
+     * Checks whether the given graph can be copied. This is not the case if an edge connects one of
+     * its nodes to a node outside of the given node order.
+     *
+     * @param nodeOrder
+     *            the node order of the graph to be copied.
+     * @return {@code true} if a copy of the graph would be self-contained.
+     */
+    static boolean canCopy(final LNode[][] nodeOrder) {
+        Set<LNode> nodes = Sets.newHashSet();
+        for (LNode[] layerNodes : nodeOrder) {
+            for (LNode node : layerNodes) {
+                nodes.add(node);
+            }
+        }
+        for (LNode node : nodes) {
+            for (LEdge edge : node.getConnectedEdges()) {
+                if (!nodes.contains(edge.getSource().getNode()) || !nodes.contains(edge.getTarget().getNode())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the copied graph.
+     *
+     * @return the copy.
+     */
+    LGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Translates a node and port order of the copy back to the original graph.
+     *
+     * @param sweep
+     *            a node and port order of the copy.
+     * @return the same order, expressed in terms of the original nodes and ports.
+     */
+    SweepCopy toOriginal(final SweepCopy sweep) {
+        LNode[][] nodeOrder = sweep.nodes();
+        LNode[][] originalNodeOrder = new LNode[nodeOrder.length][];
+        List<List<List<LPort>>> originalPortOrders = new ArrayList<>(nodeOrder.length);
+
+        for (int l = 0; l < nodeOrder.length; l++) {
+            originalNodeOrder[l] = new LNode[nodeOrder[l].length];
+            List<List<LPort>> layerPortOrders = new ArrayList<>(nodeOrder[l].length);
+            originalPortOrders.add(layerPortOrders);
+
+            for (int n = 0; n < nodeOrder[l].length; n++) {
+                originalNodeOrder[l][n] = originalOf(nodeOrder[l][n]);
+                List<LPort> ports = sweep.ports().get(l).get(n);
+                List<LPort> originalPorts = new ArrayList<>(ports.size());
+                for (LPort port : ports) {
+                    originalPorts.add(originalOf(port));
+                }
+                layerPortOrders.add(originalPorts);
+            }
+        }
+
+        return new SweepCopy(originalNodeOrder, originalPortOrders);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////
+    // Utilities
+
+    private void register(final LGraphElement original, final LGraphElement copy) {
+        originals.put(copy, original);
+        copies.put(original, copy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends LGraphElement> T copyOf(final T original) {
+        return (T) copies.get(original);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends LGraphElement> T originalOf(final T copy) {
+        return (T) originals.get(copy);
+    }
+
+    /**
+     * Copies all properties of the original to the copy, redirecting references to copied elements.
+     */
+    @SuppressWarnings("unchecked")
+    private void copyProperties(final LGraphElement original, final LGraphElement copy) {
+        copy.copyProperties(original);
+        for (Map.Entry<IProperty<?>, Object> entry : original.getAllProperties().entrySet()) {
+            Object value = entry.getValue();
+            Object redirected = redirect(value);
+            if (redirected != value) {
+                copy.setProperty((IProperty<Object>) entry.getKey(), redirected);
+            }
+        }
+    }
+
+    /**
+     * Returns the copy of the given value if it is a copied element, a list with all copied elements
+     * replaced if it is a list, or the value itself otherwise.
+     */
+    private Object redirect(final Object value) {
+        if (value instanceof LGraphElement) {
+            LGraphElement copy = copies.get(value);
+            return copy != null ? copy : value;
+        } else if (value instanceof List<?>) {
+            List<?> list = (List<?>) value;
+            boolean redirected = false;
+            List<Object> result = Lists.newArrayListWithCapacity(list.size());
+            for (Object element : list) {
+                Object elementCopy = element instanceof LGraphElement ? copies.get(element) : null;
+                if (elementCopy != null) {
+                    result.add(elementCopy);
+                    redirected = true;
+                } else {
+                    result.add(element);
+                }
+            }
+            return redirected ? result : value;
+        }
+        return value;
+    }
+
+}
@@ -57,6 +57,19 @@ class SweepCopy {
         portOrders = new ArrayList<>(sc.portOrders);
     }
 
+    /**
+     * Wraps the given node and port orders without copying them.
+     * 
+     * @param nodeOrder
+     *            the node order.
+     * @param portOrders
+     *            the port orders of the nodes, by layer and node index.
+     */
+    SweepCopy(final LNode[][] nodeOrder, final List<List<List<LPort>>> portOrders) {
+        this.nodeOrder = nodeOrder;
+        this.portOrders = portOrders;
+    }
+
     private LNode[][] deepCopy(final LNode[][] currentlyBestNodeOrder) {
         if (currentlyBestNodeOrder == null) {
             return null;
@@ -77,6 +90,16 @@ class SweepCopy {
         return nodeOrder;
     }
 
+    /**
+     * Returns the copy of the port orders, by layer and node index. WARNING: Do not change, or the copy will be
+     * invalid.
+     * 
+     * @return the port orders
+     */
+    List<List<List<LPort>>> ports() {
+        return portOrders;
+    }
+
     /**
      * @param lGraph
      */
@@ -10,16 +10,28 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.layered.p3order.counting;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.elk.alg.layered.graph.LEdge;
 import org.eclipse.elk.alg.layered.graph.LNode;
 import org.eclipse.elk.alg.layered.graph.LNode.NodeType;
 import org.eclipse.elk.alg.layered.graph.LPort;
 import org.eclipse.elk.core.options.PortSide;
 
+import com.google.common.collect.Lists;
+
 /**
  * Counts all crossings in a graph. Must be initialized using {@link IInitializable#init(java.util.List)}!
  *
  * <p>
+ * Counting is incremental: the crossings between each pair of neighboring layers are cached together with the
+ * order of nodes and ports they were counted for. A layer whose order differs from the cached one is considered
+ * dirty, and only the crossings at dirty layers are recounted. Sweeps usually leave many layers unchanged once
+ * they start to converge, which makes repeated counts on graphs with many layers much cheaper.
+ * </p>
+ *
+ * <p>
  * Must be initialized using {@link IInitializable#init(java.util.List)}!
  * </p>
  */
@@ -30,6 +42,19 @@ public final class AllCrossingsCounter implements IInitializable {
     private boolean[] hasHyperEdgesEastOfIndex;
     private HyperedgeCrossingsCounter hyperedgeCrossingsCounter;
 
+    /** Crossings at each layer index as returned by {@link #countCrossingsAt(int, LNode[][])} at the last count. */
+    private int[] crossingsAt;
+    /** In-layer crossings on the western side of the first layer at the last count. */
+    private int firstLayerWestCrossings;
+    /** In-layer crossings on the eastern side of the last layer at the last count. */
+    private int lastLayerEastCrossings;
+    /** The node order of each layer at the last count. */
+    private LNode[][] countedNodeOrders;
+    /** The ports of each layer in the order they had at the last count. */
+    private LPort[][] countedPortOrders;
+    /** Whether the order of nodes or ports of a layer changed since the last count. */
+    private boolean[] layerChanged;
+
     /** For Initialization. */
     private int[] inLayerEdgeCounts;
     private boolean[] hasNorthSouthPorts;
@@ -46,6 +71,10 @@ public final class AllCrossingsCounter implements IInitializable {
         hasNorthSouthPorts = new boolean[graph.length];
         hasHyperEdgesEastOfIndex = new boolean[graph.length];
         nPorts = 0;
+        crossingsAt = new int[graph.length];
+        countedNodeOrders = new LNode[graph.length][];
+        countedPortOrders = new LPort[graph.length][];
+        layerChanged = new boolean[graph.length];
     }
 
     /**
@@ -59,14 +88,64 @@ public final class AllCrossingsCounter implements IInitializable {
         if (currentOrder.length == 0) {
             return 0;
         }
-        int crossings = crossingCounter.countInLayerCrossingsOnSide(currentOrder[0], PortSide.WEST);
-        crossings += crossingCounter.countInLayerCrossingsOnSide(currentOrder[currentOrder.length - 1], PortSide.EAST);
-        for (int layerIndex = 0; layerIndex < currentOrder.length; layerIndex++) {
-            crossings += countCrossingsAt(layerIndex, currentOrder);
+        int lastIndex = currentOrder.length - 1;
+        for (int layerIndex = 0; layerIndex <= lastIndex; layerIndex++) {
+            layerChanged[layerIndex] = updateCountedOrder(layerIndex, currentOrder[layerIndex]);
+        }
+
+        if (layerChanged[0]) {
+            firstLayerWestCrossings = crossingCounter.countInLayerCrossingsOnSide(currentOrder[0], PortSide.WEST);
+        }
+        if (layerChanged[lastIndex]) {
+            lastLayerEastCrossings =
+                    crossingCounter.countInLayerCrossingsOnSide(currentOrder[lastIndex], PortSide.EAST);
+        }
+        int crossings = firstLayerWestCrossings + lastLayerEastCrossings;
+        for (int layerIndex = 0; layerIndex <= lastIndex; layerIndex++) {
+            // Crossings at a layer index depend on the layer and its eastern neighbor
+            if (layerChanged[layerIndex] || layerIndex < lastIndex && layerChanged[layerIndex + 1]) {
+                crossingsAt[layerIndex] = countCrossingsAt(layerIndex, currentOrder);
+            }
+            crossings += crossingsAt[layerIndex];
         }
         return crossings;
     }
 
+    /**
+     * Compares the order of nodes and ports of the given layer to the one at the last count and remembers the
+     * current order if it differs.
+     * 
+     * @param layerIndex
+     *            index of the layer
+     * @param layer
+     *            the current node order of the layer
+     * @return whether the order changed since the last count
+     */
+    private boolean updateCountedOrder(final int layerIndex, final LNode[] layer) {
+        boolean changed = !Arrays.equals(countedNodeOrders[layerIndex], layer);
+        LPort[] countedPorts = countedPortOrders[layerIndex];
+        int portIndex = 0;
+        for (int n = 0; n < layer.length && !changed; n++) {
+            for (LPort port : layer[n].getPorts()) {
+                if (portIndex >= countedPorts.length || countedPorts[portIndex++] != port) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        changed |= countedPorts == null || portIndex != countedPorts.length;
+
+        if (changed) {
+            List<LPort> ports = Lists.newArrayList();
+            for (LNode node : layer) {
+                ports.addAll(node.getPorts());
+            }
+            countedNodeOrders[layerIndex] = layer.clone();
+            countedPortOrders[layerIndex] = ports.toArray(new LPort[ports.size()]);
+        }
+        return changed;
+    }
+
     private int countCrossingsAt(final int layerIndex, final LNode[][] currentOrder) {
         int totalCrossings = 0;
         LNode[] leftLayer = currentOrder[layerIndex];
@@ -704,8 +704,8 @@ public final class LinearSegmentsNodePlacer implements ILayoutPhase<LayeredPhase
         for (LNode node : segment.nodes) {
             double nodeDeflection = 0;
             int edgeWeightSum = 0;
-            int inputPrio = incoming ? node.getProperty(INPUT_PRIO) : Integer.MIN_VALUE;
-            int outputPrio = outgoing ? node.getProperty(OUTPUT_PRIO) : Integer.MIN_VALUE;
+            int inputPrio = incoming ? node.getIntProperty(INPUT_PRIO) : Integer.MIN_VALUE;
+            int outputPrio = outgoing ? node.getIntProperty(OUTPUT_PRIO) : Integer.MIN_VALUE;
             int minPrio = Math.max(inputPrio, outputPrio);
 
             // Calculate force for every port/edge
@@ -716,8 +716,8 @@ public final class LinearSegmentsNodePlacer implements ILayoutPhase<LayeredPhase
                         LPort otherPort = edge.getTarget();
                         LNode otherNode = otherPort.getNode();
                         if (segment != linearSegments[otherNode.id]) {
-                            int otherPrio = Math.max(otherNode.getProperty(INPUT_PRIO),
-                                    otherNode.getProperty(OUTPUT_PRIO));
+                            int otherPrio = Math.max(otherNode.getIntProperty(INPUT_PRIO),
+                                    otherNode.getIntProperty(OUTPUT_PRIO));
                             int prio = edge.getProperty(LayeredOptions.PRIORITY_STRAIGHTNESS);
                             if (prio >= minPrio && prio >= otherPrio) {
                                 nodeDeflection += otherNode.getPosition().y
@@ -734,8 +734,8 @@ public final class LinearSegmentsNodePlacer implements ILayoutPhase<LayeredPhase
                         LPort otherPort = edge.getSource();
                         LNode otherNode = otherPort.getNode();
                         if (segment != linearSegments[otherNode.id]) {
-                            int otherPrio = Math.max(otherNode.getProperty(INPUT_PRIO),
-                                    otherNode.getProperty(OUTPUT_PRIO));
+                            int otherPrio = Math.max(otherNode.getIntProperty(INPUT_PRIO),
+                                    otherNode.getIntProperty(OUTPUT_PRIO));
                             int prio = edge.getProperty(LayeredOptions.PRIORITY_STRAIGHTNESS);
                             if (prio >= minPrio && prio >= otherPrio) {
                                 nodeDeflection += otherNode.getPosition().y
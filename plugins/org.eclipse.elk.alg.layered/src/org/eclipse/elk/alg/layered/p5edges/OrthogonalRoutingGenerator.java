@@ -11,6 +11,7 @@
 package org.eclipse.elk.alg.layered.p5edges;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -151,19 +152,17 @@ public final class OrthogonalRoutingGenerator {
             double x = startPos + hyperNode.rank * edgeSpacing;
             
             for (LPort port : hyperNode.ports) {
-                double sourcey = port.getAbsoluteAnchor().y;
+                double sourcey = port.getAbsoluteAnchorY();
                 
                 for (LEdge edge : port.getOutgoingEdges()) {
                     LPort target = edge.getTarget();
-                    double targety = target.getAbsoluteAnchor().y;
+                    double targety = target.getAbsoluteAnchorY();
                     if (Math.abs(sourcey - targety) > TOLERANCE) {
-                        KVector point1 = new KVector(x, sourcey);
-                        edge.getBendPoints().add(point1);
-                        addJunctionPointIfNecessary(edge, hyperNode, point1, true);
+                        edge.addBendPoint(x, sourcey);
+                        addJunctionPointIfNecessary(edge, hyperNode, x, sourcey, true);
                         
-                        KVector point2 = new KVector(x, targety);
-                        edge.getBendPoints().add(point2);
-                        addJunctionPointIfNecessary(edge, hyperNode, point2, true);
+                        edge.addBendPoint(x, targety);
+                        addJunctionPointIfNecessary(edge, hyperNode, x, targety, true);
                     }
                 }
             }
@@ -206,19 +205,17 @@ public final class OrthogonalRoutingGenerator {
             double y = startPos + hyperNode.rank * edgeSpacing;
             
             for (LPort port : hyperNode.ports) {
-                double sourcex = port.getAbsoluteAnchor().x;
+                double sourcex = port.getAbsoluteAnchorX();
                 
                 for (LEdge edge : port.getOutgoingEdges()) {
                     LPort target = edge.getTarget();
-                    double targetx = target.getAbsoluteAnchor().x;
+                    double targetx = target.getAbsoluteAnchorX();
                     if (Math.abs(sourcex - targetx) > TOLERANCE) {
-                        KVector point1 = new KVector(sourcex, y);
-                        edge.getBendPoints().add(point1);
-                        addJunctionPointIfNecessary(edge, hyperNode, point1, false);
+                        edge.addBendPoint(sourcex, y);
+                        addJunctionPointIfNecessary(edge, hyperNode, sourcex, y, false);
                         
-                        KVector point2 = new KVector(targetx, y);
-                        edge.getBendPoints().add(point2);
-                        addJunctionPointIfNecessary(edge, hyperNode, point2, false);
+                        edge.addBendPoint(targetx, y);
+                        addJunctionPointIfNecessary(edge, hyperNode, targetx, y, false);
                     }
                 }
             }
@@ -261,19 +258,17 @@ public final class OrthogonalRoutingGenerator {
             double y = startPos - hyperNode.rank * edgeSpacing;
             
             for (LPort port : hyperNode.ports) {
-                double sourcex = port.getAbsoluteAnchor().x;
+                double sourcex = port.getAbsoluteAnchorX();
                 
                 for (LEdge edge : port.getOutgoingEdges()) {
                     LPort target = edge.getTarget();
-                    double targetx = target.getAbsoluteAnchor().x;
+                    double targetx = target.getAbsoluteAnchorX();
                     if (Math.abs(sourcex - targetx) > TOLERANCE) {
-                        KVector point1 = new KVector(sourcex, y);
-                        edge.getBendPoints().add(point1);
-                        addJunctionPointIfNecessary(edge, hyperNode, point1, false);
+                        edge.addBendPoint(sourcex, y);
+                        addJunctionPointIfNecessary(edge, hyperNode, sourcex, y, false);
                         
-                        KVector point2 = new KVector(targetx, y);
-                        edge.getBendPoints().add(point2);
-                        addJunctionPointIfNecessary(edge, hyperNode, point2, false);
+                        edge.addBendPoint(targetx, y);
+                        addJunctionPointIfNecessary(edge, hyperNode, targetx, y, false);
                     }
                 }
             }
@@ -573,15 +568,7 @@ public final class OrthogonalRoutingGenerator {
                 portToHyperNodeMap);
         
         // create dependencies for the hypernode ordering graph
-        ListIterator<HyperNode> iter1 = hyperNodes.listIterator();
-        while (iter1.hasNext()) {
-            HyperNode hyperNode1 = iter1.next();
-            ListIterator<HyperNode> iter2 = hyperNodes.listIterator(iter1.nextIndex());
-            while (iter2.hasNext()) {
-                HyperNode hyperNode2 = iter2.next();
-                createDependency(hyperNode1, hyperNode2, conflictThreshold);
-            }
-        }
+        createDependencies(hyperNodes, conflictThreshold);
         
         // write the full dependency graph to an output file
         if (debugPrefix != null) {
@@ -649,6 +636,53 @@ public final class OrthogonalRoutingGenerator {
         }
     }
 
+    /**
+     * Creates the dependencies between all pairs of the given hypernodes. Two hypernodes can only
+     * depend on each other if their vertical extents overlap or are less than the minimal difference
+     * apart; otherwise, they neither cross nor conflict. Instead of comparing all pairs, the
+     * hypernodes are thus sorted by their start positions and each one is only compared to those
+     * that start before its end plus the minimal difference. The candidate pairs are then processed
+     * in the order of the hypernode list, which results in the same dependencies, in the same order,
+     * as comparing all pairs.
+     * 
+     * @param hyperNodes the hypernodes
+     * @param minDiff the minimal difference between horizontal line segments to avoid a conflict
+     */
+    private static void createDependencies(final List<HyperNode> hyperNodes, final double minDiff) {
+        // straight lines don't take up a slot and thus have no dependencies
+        int count = 0;
+        Integer[] sorted = new Integer[hyperNodes.size()];
+        for (int i = 0; i < hyperNodes.size(); i++) {
+            HyperNode hyperNode = hyperNodes.get(i);
+            if (Math.abs(hyperNode.start - hyperNode.end) >= TOLERANCE) {
+                sorted[count++] = i;
+            }
+        }
+        Arrays.sort(sorted, 0, count, (i1, i2) ->
+                Double.compare(hyperNodes.get(i1).start, hyperNodes.get(i2).start));
+        
+        // collect candidate pairs, encoding the list indices of each pair in ascending order
+        long[] pairs = new long[count];
+        int pairCount = 0;
+        for (int k1 = 0; k1 < count; k1++) {
+            double limit = hyperNodes.get(sorted[k1]).end + minDiff;
+            for (int k2 = k1 + 1; k2 < count && hyperNodes.get(sorted[k2]).start <= limit; k2++) {
+                if (pairCount == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+                }
+                int index1 = Math.min(sorted[k1], sorted[k2]);
+                int index2 = Math.max(sorted[k1], sorted[k2]);
+                pairs[pairCount++] = ((long) index1 << Integer.SIZE) | index2;
+            }
+        }
+        
+        Arrays.sort(pairs, 0, pairCount);
+        for (int p = 0; p < pairCount; p++) {
+            createDependency(hyperNodes.get((int) (pairs[p] >>> Integer.SIZE)), hyperNodes.get((int) pairs[p]),
+                    minDiff);
+        }
+    }
+
     /**
      * Create a dependency between the two given hypernodes, if one is needed. 
      * 
@@ -1006,14 +1040,15 @@ public final class OrthogonalRoutingGenerator {
      * 
      * @param edge an edge
      * @param hyperNode the corresponding hypernode
-     * @param pos the bend point position
+     * @param x x coordinate of the bend point
+     * @param y y coordinate of the bend point
      * @param vertical {@code true} if the connecting segment is vertical, {@code false} if it
      *          is horizontal
      */
     private void addJunctionPointIfNecessary(final LEdge edge, final HyperNode hyperNode,
-            final KVector pos, final boolean vertical) {
+            final double x, final double y, final boolean vertical) {
         
-        double p = vertical ? pos.y : pos.x;
+        double p = vertical ? y : x;
         
         // check if the given bend point is somewhere between the start and end position of the hypernode
         if (p > hyperNode.start && p < hyperNode.end
@@ -1026,7 +1061,8 @@ public final class OrthogonalRoutingGenerator {
                     && Math.abs(p - hyperNode.targetPosis.getLast()) < TOLERANCE)) {
             
             // check whether there is already a junction point at the same position
-            if (!createdJunctionPoints.contains(pos)) {
+            KVector jpoint = new KVector(x, y);
+            if (!createdJunctionPoints.contains(jpoint)) {
                 
                 // create a new junction point for the edge at the bend point's position
                 KVectorChain junctionPoints = edge.getProperty(LayeredOptions.JUNCTION_POINTS);
@@ -1035,7 +1071,6 @@ public final class OrthogonalRoutingGenerator {
                     edge.setProperty(LayeredOptions.JUNCTION_POINTS, junctionPoints);
                 }
                 
-                KVector jpoint = new KVector(pos);
                 junctionPoints.add(jpoint);
                 createdJunctionPoints.add(jpoint);
             }
@@ -229,8 +229,8 @@ public final class PolylineEdgeRouter implements ILayoutPhase<LayeredPhases, LGr
                 // routed at this point
                 double maxCurrOutputYDiff = 0.0;
                 for (LEdge outgoingEdge : node.getOutgoingEdges()) {
-                    double sourcePos = outgoingEdge.getSource().getAbsoluteAnchor().y;
-                    double targetPos = outgoingEdge.getTarget().getAbsoluteAnchor().y;
+                    double sourcePos = outgoingEdge.getSource().getAbsoluteAnchorY();
+                    double targetPos = outgoingEdge.getTarget().getAbsoluteAnchorY();
                     
                     if (layer == outgoingEdge.getTarget().getNode().getLayer()) {
                         // In-layer edges require an extra bend point to make them look nice
@@ -308,9 +308,10 @@ public final class PolylineEdgeRouter implements ILayoutPhase<LayeredPhases, LGr
         // The right side of the layer
         final double layerRightXPos = layerLeftXPos + node.getLayer().getSize().x;
         
+        // addBendPoint(...) only copies the coordinates, so the same vector can be used for all ports
+        KVector bendPoint = new KVector();
         for (LPort port : node.getPorts()) {
-            KVector absolutePortAnchor = port.getAbsoluteAnchor();
-            KVector bendPoint = new KVector(0, absolutePortAnchor.y);
+            bendPoint.y = port.getAbsoluteAnchorY();
             
             if (port.getSide() == PortSide.EAST) {
                 bendPoint.x = layerRightXPos;
@@ -323,7 +324,7 @@ public final class PolylineEdgeRouter implements ILayoutPhase<LayeredPhases, LGr
             
             // If the port's absolute anchor equals the bend point, we don't want to insert anything
             // (unless the node represents an in-layer dummy)
-            if (absolutePortAnchor.x == bendPoint.x && !isInLayerDummy(node)) {
+            if (port.getAbsoluteAnchorX() == bendPoint.x && !isInLayerDummy(node)) {
                 continue;
             }
             
@@ -334,7 +335,7 @@ public final class PolylineEdgeRouter implements ILayoutPhase<LayeredPhases, LGr
             // Iterate over the edges and add bend (and possibly junction) points
             for (LEdge e : port.getConnectedEdges()) {
                 LPort otherPort = e.getSource() == port ? e.getTarget() : e.getSource();
-                if (Math.abs(otherPort.getAbsoluteAnchor().y - bendPoint.y) > MIN_VERT_DIFF) {
+                if (Math.abs(otherPort.getAbsoluteAnchorY() - bendPoint.y) > MIN_VERT_DIFF) {
                     // Insert bend point
                     addBendPoint(e, bendPoint, addJunctionPoint, port);
                 }
@@ -359,7 +360,7 @@ public final class PolylineEdgeRouter implements ILayoutPhase<LayeredPhases, LGr
         LPort sourcePort = edge.getSource();
         LPort targetPort = edge.getTarget();
         
-        double midY = (sourcePort.getAbsoluteAnchor().y + targetPort.getAbsoluteAnchor().y) / 2.0;
+        double midY = (sourcePort.getAbsoluteAnchorY() + targetPort.getAbsoluteAnchorY()) / 2.0;
         
         /* This method is called if an outgoing in-layer edge is found before any other edges of the
          * offending node are routed. Thus, if the edge's list of bend points is not empty, any bend
@@ -367,16 +368,11 @@ public final class PolylineEdgeRouter implements ILayoutPhase<LayeredPhases, LGr
          * inserted at the start of the bend point list.
          */
         
-        KVector bendPoint = null;
         if (sourcePort.getSide() == PortSide.EAST) {
-            bendPoint = new KVector(
-                    layerXPos + sourcePort.getNode().getLayer().getSize().x + edgeSpacing,
-                    midY);
+            edge.addFirstBendPoint(layerXPos + sourcePort.getNode().getLayer().getSize().x + edgeSpacing, midY);
         } else {
-            bendPoint = new KVector(layerXPos - edgeSpacing, midY);
+            edge.addFirstBendPoint(layerXPos - edgeSpacing, midY);
         }
-        
-        edge.getBendPoints().add(0, bendPoint);
     }
     
     
@@ -399,8 +395,8 @@ public final class PolylineEdgeRouter implements ILayoutPhase<LayeredPhases, LGr
                 if (layer == outgoingEdge.getTarget().getNode().getLayer()
                         && outgoingEdge.getSource().getSide() == PortSide.WEST) {
                     
-                    double sourcePos = outgoingEdge.getSource().getAbsoluteAnchor().y;
-                    double targetPos = outgoingEdge.getTarget().getAbsoluteAnchor().y;
+                    double sourcePos = outgoingEdge.getSource().getAbsoluteAnchorY();
+                    double targetPos = outgoingEdge.getTarget().getAbsoluteAnchorY();
                     maxYDiff = Math.max(maxYDiff, Math.abs(targetPos - sourcePos));
                 }
             }
@@ -431,11 +427,12 @@ public final class PolylineEdgeRouter implements ILayoutPhase<LayeredPhases, LGr
         
         // Only insert the bend point if necessary,
         // for in-layer edges we are extra save and add the bend point in any case
-        if (edge.isInLayerEdge() || !currPort.getAbsoluteAnchor().equals(bendPoint)) {
+        if (edge.isInLayerEdge() || currPort.getAbsoluteAnchorX() != bendPoint.x
+                || currPort.getAbsoluteAnchorY() != bendPoint.y) {
             if (edge.getSource() == currPort) {
-                edge.getBendPoints().add(0, new KVector(bendPoint));
+                edge.addFirstBendPoint(bendPoint.x, bendPoint.y);
             } else {
-                edge.getBendPoints().add(new KVector(bendPoint));
+                edge.addBendPoint(bendPoint.x, bendPoint.y);
             }
             
             if (addJunctionPoint && !createdJunctionPoints.contains(bendPoint)) {
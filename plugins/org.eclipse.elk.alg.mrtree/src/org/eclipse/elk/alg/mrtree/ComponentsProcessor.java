@@ -14,7 +14,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -60,7 +60,7 @@ public class ComponentsProcessor {
 
         // create incidence lists
         for (TNode node : graph.getNodes()) {
-            incidence[node.id] = new LinkedList<TEdge>();
+            incidence[node.id] = new ArrayList<TEdge>();
         }
         // add edges to incidence lists
         for (TEdge edge : graph.getEdges()) {
@@ -84,7 +84,7 @@ public class ComponentsProcessor {
             // perform DFS starting on each node, collecting connected components
             List<TGraph> components = new ArrayList<TGraph>();
             for (TNode node : graph.getNodes()) {
-                TGraph comp = dfs(node, null);
+                TGraph comp = dfs(node);
                 if (comp != null) {
                     comp.copyProperties(graph);
                     components.add(comp);
@@ -109,41 +109,72 @@ public class ComponentsProcessor {
 
     /**
      * Perform a DFS starting on the given node and collect all nodes that are found in the
-     * corresponding connected component.
+     * corresponding connected component. Nodes are added to the component when they are first
+     * visited, edges when the search returns from them. The search keeps its own stack, since
+     * components may be much deeper than the call stack.
      * 
-     * @param node
+     * @param start
      *            the starting node
-     * @param graph
-     *            a graph representing a connected component, or {@code null}
      * @return the connected component, or {@code null} if the node was already visited
      */
-    private TGraph dfs(final TNode node, final TGraph graph) {
+    private TGraph dfs(final TNode start) {
         // check if node was visited earlier
-        if (!visited[node.id]) {
-            // if not it is visited now
-            visited[node.id] = true;
-            // create new component if necessary
-            TGraph component = graph;
-            if (component == null) {
-                component = new TGraph();
-            }
-            // add the node to the component
-            component.getNodes().add(node);
-            // follow all edges from this node
-            for (TEdge edge : incidence[node.id]) {
-                if (edge.getSource() != node) {
-                    dfs(edge.getSource(), component);
-                }
-                if (edge.getTarget() != node) {
-                    dfs(edge.getTarget(), component);
+        if (visited[start.id]) {
+            return null;
+        }
+        TGraph component = new TGraph();
+        // the nodes on the current path with their remaining edges, and the edges they were left by
+        List<TNode> path = new ArrayList<TNode>();
+        List<Iterator<TEdge>> remainingEdges = new ArrayList<Iterator<TEdge>>();
+        List<TEdge> pendingEdges = new ArrayList<TEdge>();
+        visit(start, component, path, remainingEdges);
+
+        while (!path.isEmpty()) {
+            int top = path.size() - 1;
+            TNode node = path.get(top);
+            Iterator<TEdge> edges = remainingEdges.get(top);
+            if (!edges.hasNext()) {
+                // all edges of this node are done, so the edge leading to it is done as well
+                path.remove(top);
+                remainingEdges.remove(top);
+                if (top > 0) {
+                    component.getEdges().add(pendingEdges.remove(top - 1));
                 }
+                continue;
+            }
+            // follow the next edge from this node
+            TEdge edge = edges.next();
+            TNode other = edge.getSource() != node ? edge.getSource()
+                    : edge.getTarget() != node ? edge.getTarget() : null;
+            if (other != null && !visited[other.id]) {
+                pendingEdges.add(edge);
+                visit(other, component, path, remainingEdges);
+            } else {
                 // add the edges an labels to the component
                 component.getEdges().add(edge);
             }
-            return component;
         }
-        // if the node was visited before skip it
-        return null;
+        return component;
+    }
+
+    /**
+     * Marks the given node as visited, adds it to the component, and puts it on the search path.
+     * 
+     * @param node
+     *            an unvisited node
+     * @param component
+     *            the component being collected
+     * @param path
+     *            the nodes on the current search path
+     * @param remainingEdges
+     *            the edges yet to be followed from the nodes on the search path
+     */
+    private void visit(final TNode node, final TGraph component, final List<TNode> path,
+            final List<Iterator<TEdge>> remainingEdges) {
+        visited[node.id] = true;
+        component.getNodes().add(node);
+        path.add(node);
+        remainingEdges.add(incidence[node.id].iterator());
     }
 
     /**
@@ -16,6 +16,7 @@ import org.eclipse.elk.alg.mrtree.graph.TGraph;
 import org.eclipse.elk.alg.mrtree.options.MrTreeOptions;
 import org.eclipse.elk.core.alg.AlgorithmAssembler;
 import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.core.metrics.ProcessorMeter;
 import org.eclipse.elk.core.util.BasicProgressMonitor;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
 
@@ -65,13 +66,31 @@ public final class MrTree {
      * @return tree graph with layout applied.
      */
     public TGraph doLayout(final TGraph tgraph, final IElkProgressMonitor progressMonitor) {
+        return doLayout(tgraph, 0, progressMonitor);
+    }
+
+    /**
+     * Does a layout on the given graph, which is one of several connected components laid out one
+     * after the other.
+     * 
+     * @param tgraph
+     *            the graph to layout.
+     * @param componentIndex
+     *            index of the component, reported along with layout metrics.
+     * @param progressMonitor
+     *            a progress monitor to show progress information in.
+     * @return tree graph with layout applied.
+     */
+    public TGraph doLayout(final TGraph tgraph, final int componentIndex,
+            final IElkProgressMonitor progressMonitor) {
+        
         progressMonitor.begin("Tree layout", 1);
 
         // set up the phases and processors depending on user options
         updateModules(tgraph);
 
         // do layout for each component
-        layout(tgraph, progressMonitor.subTask(1.0f));
+        layout(tgraph, componentIndex, progressMonitor.subTask(1.0f));
 
         progressMonitor.done();
 
@@ -153,10 +172,12 @@ public final class MrTree {
      * 
      * @param graph
      *            the graph that is to be laid out
+     * @param componentIndex
+     *            index of the graph among the connected components of the input graph
      * @param themonitor
      *            a progress monitor, or {@code null}
      */
-    private void layout(final TGraph graph, final IElkProgressMonitor themonitor) {
+    private void layout(final TGraph graph, final int componentIndex, final IElkProgressMonitor themonitor) {
         IElkProgressMonitor monitor = themonitor;
         if (monitor == null) {
             monitor = new BasicProgressMonitor();
@@ -175,11 +196,16 @@ public final class MrTree {
             }
         }
         // invoke each layout processor
+        ProcessorMeter<TGraph> meter = new ProcessorMeter<>(graph.getProperty(MrTreeOptions.METRICS_LISTENER),
+                MrTreeOptions.ALGORITHM_ID, componentIndex, (tgraph, counters) -> {
+                    counters.put("nodes", (long) tgraph.getNodes().size());
+                    counters.put("edges", (long) tgraph.getEdges().size());
+                });
         for (ILayoutProcessor<TGraph> processor : algorithm) {
             if (monitor.isCanceled()) {
                 return;
             }
-            processor.process(graph, monitor.subTask(1));
+            meter.process(processor, graph, monitor.subTask(1));
         }
         monitor.done();
     }
@@ -50,8 +50,8 @@ public class TreeLayoutProvider extends AbstractLayoutProvider {
         List<TGraph> components = componentsProcessor.split(tGraph);
 
         // perform the actual layout on the components
-        for (TGraph comp : components) {
-            klayTree.doLayout(comp, progressMonitor.subTask(1.0f / components.size()));
+        for (int i = 0; i < components.size(); i++) {
+            klayTree.doLayout(components.get(i), i, progressMonitor.subTask(1.0f / components.size()));
         }
 
         // pack the components back into one graph
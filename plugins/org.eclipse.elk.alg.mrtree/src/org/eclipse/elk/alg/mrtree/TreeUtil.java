@@ -10,12 +10,13 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.eclipse.elk.alg.mrtree.graph.TEdge;
 import org.eclipse.elk.alg.mrtree.graph.TNode;
 
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 
 /**
  * Utility class for KLay Tree.
@@ -32,7 +33,7 @@ public final class TreeUtil {
     
     /**
      * This method returns the leftmost node at the deepest level. This is implemented using a
-     * postorder walk of the subtree under given level.
+     * level-by-level walk of the subtree under given level.
      * 
      * @param currentlevel
      *            a list of nodes at level one
@@ -44,7 +45,7 @@ public final class TreeUtil {
 
     /**
      * This method returns the leftmost node at the given level. This is implemented using a
-     * postorder walk of the subtree under given level, depth levels down. Depth here refers to the
+     * level-by-level walk of the subtree under given level, depth levels down. Depth here refers to the
      * level below where the leftmost descendant is being found.
      * 
      * If given level is negative it returns the leftmost node at the deepest level.
@@ -56,50 +57,27 @@ public final class TreeUtil {
      * @return the leftmost descendant at depth levels down
      */
     public static TNode getLeftMost(final Iterable<TNode> currentlevel, final int depth) {
-        if (0 < Iterables.size(currentlevel)) {
-            int d = depth;
-
-            // the leftmost descendant at depth levels down
-            if (1 < d) {
-                d--;
-                // build empty iterator
-                Iterable<TNode> nextLevel = new Iterable<TNode>() {
-
-                    public Iterator<TNode> iterator() {
-                        return Iterators.emptyIterator();
-                    }
-                };
-
-                for (TNode cN : currentlevel) {
-                    // append the children of the current node to the next level
-                    nextLevel = Iterables.concat(nextLevel, cN.getChildren());
+        List<TNode> level = Lists.newArrayList(currentlevel);
+        int d = depth;
+        // descend level by level, collecting the children of each level in order
+        while (!level.isEmpty() && (1 < d || d < 0)) {
+            List<TNode> nextLevel = new ArrayList<TNode>();
+            for (TNode cN : level) {
+                for (TEdge tEdge : cN.getOutgoingEdges()) {
+                    nextLevel.add(tEdge.getTarget());
                 }
-                return getLeftMost(nextLevel, d);
             }
-
             // the leftmost node at the deepest level
-            if (d < 0) {
-                // build empty iterator
-                Iterable<TNode> nextLevel = new Iterable<TNode>() {
-
-                    public Iterator<TNode> iterator() {
-                        return Iterators.emptyIterator();
-                    }
-                };
-
-                for (TNode cN : currentlevel) {
-                    // append the children of the current node to the next level
-                    nextLevel = Iterables.concat(nextLevel, cN.getChildren());
-                }
-
-                //
-                if (0 < Iterables.size(nextLevel)) {
-                    return getLeftMost(nextLevel, d);
-                }
+            if (d < 0 && nextLevel.isEmpty()) {
+                break;
+            }
+            if (1 < d) {
+                d--;
             }
+            level = nextLevel;
         }
         // return the leftmost node at the current level
-        return Iterables.getFirst(currentlevel, null);
+        return level.isEmpty() ? null : level.get(0);
     }
 
 }
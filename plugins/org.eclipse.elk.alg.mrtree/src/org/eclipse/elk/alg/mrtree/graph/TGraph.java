@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree.graph;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.elk.graph.properties.MapPropertyHolder;
@@ -27,17 +27,19 @@ public class TGraph extends MapPropertyHolder {
     private static final long serialVersionUID = 1L;
 
     /** All nodes of this graph. */
-    private LinkedList<TNode> nodes = new LinkedList<TNode>();
+    private List<TNode> nodes;
     /** All edges of this graph. */
-    private LinkedList<TEdge> edges = new LinkedList<TEdge>();
-   
+    private List<TEdge> edges;
+    /** Index of the tree spanned by the edges, or {@code null} if it has to be rebuilt. */
+    private TTree tree;
+
     /**
      * Default constructor that creates an empty graph.
      * 
      */
     public TGraph() {
-        this.nodes = new LinkedList<TNode>();
-        this.edges = new LinkedList<TEdge>();
+        this.nodes = new ArrayList<TNode>();
+        this.edges = new ArrayList<TEdge>();
     }
 
     /**
@@ -73,4 +75,26 @@ public class TGraph extends MapPropertyHolder {
         return nodes;
     }
 
+    /**
+     * Returns an index of the tree spanned by the edges of this graph, starting at the root. The
+     * index is built on the first call and reused until {@link #invalidateTree()} is called. Note
+     * that building the index renumbers the nodes.
+     * 
+     * @return the tree index
+     */
+    public TTree getTree() {
+        if (tree == null) {
+            tree = new TTree(this);
+        }
+        return tree;
+    }
+
+    /**
+     * Discards the tree index. This must be called whenever nodes or edges are added or removed, the
+     * root changes, or the order of outgoing edges changes.
+     */
+    public void invalidateTree() {
+        tree = null;
+    }
+
 }
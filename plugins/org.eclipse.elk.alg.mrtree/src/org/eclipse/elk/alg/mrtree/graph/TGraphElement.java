@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree.graph;
 
-import org.eclipse.elk.graph.properties.MapPropertyHolder;
+import org.eclipse.elk.graph.properties.ArrayPropertyHolder;
 
 /**
  * Abstract superclass for the layers, nodes, ports, and edges of a tree graph.
@@ -18,7 +18,7 @@ import org.eclipse.elk.graph.properties.MapPropertyHolder;
  * @author sor
  * @author sgu
  */
-public abstract class TGraphElement extends MapPropertyHolder {
+public abstract class TGraphElement extends ArrayPropertyHolder {
 
     /** the serial version UID. */
     private static final long serialVersionUID = 1L;
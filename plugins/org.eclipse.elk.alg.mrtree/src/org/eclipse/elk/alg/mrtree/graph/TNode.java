@@ -10,8 +10,8 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree.graph;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.eclipse.elk.alg.mrtree.options.InternalProperties;
@@ -34,10 +34,10 @@ public class TNode extends TShape {
     private String label;
 
     /** List of outgoing edges. */
-    private LinkedList<TEdge> outgoingEdges = new LinkedList<TEdge>();
+    private List<TEdge> outgoingEdges = new ArrayList<TEdge>();
 
     /** List of incoming edges. */
-    private LinkedList<TEdge> incomingEdges = new LinkedList<TEdge>();
+    private List<TEdge> incomingEdges = new ArrayList<TEdge>();
 
     // CONSTRUCTORS
 
@@ -139,8 +139,8 @@ public class TNode extends TShape {
      * 
      * @return the list of children
      */
-    public LinkedList<TNode> getChildrenCopy() {
-        LinkedList<TNode> children = new LinkedList<TNode>();
+    public List<TNode> getChildrenCopy() {
+        List<TNode> children = new ArrayList<TNode>(getOutgoingEdges().size());
         for (TEdge iEdge : getOutgoingEdges()) {
             children.add(iEdge.getTarget());
         }
@@ -183,7 +183,7 @@ public class TNode extends TShape {
      */
     public List<TEdge> getOutgoingEdges() {
         if (outgoingEdges == null) {
-            outgoingEdges = new LinkedList<TEdge>();
+            outgoingEdges = new ArrayList<TEdge>();
         }
         return outgoingEdges;
     }
@@ -195,7 +195,7 @@ public class TNode extends TShape {
      */
     public List<TEdge> getIncomingEdges() {
         if (incomingEdges == null) {
-            incomingEdges = new LinkedList<TEdge>();
+            incomingEdges = new ArrayList<TEdge>();
         }
         return incomingEdges;
     }
@@ -223,6 +223,7 @@ public class TNode extends TShape {
         graph.getEdges().add(newEdge);
         getOutgoingEdges().add(newEdge);
         child.getIncomingEdges().add(newEdge);
+        graph.invalidateTree();
     }
 
     // ATTRIBUTES
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.mrtree.graph;
+
+import java.util.Arrays;
+
+import org.eclipse.elk.alg.mrtree.options.InternalProperties;
+
+/**
+ * An index-based snapshot of the tree spanned by the outgoing edges of a {@link TGraph}, starting at
+ * the node marked as {@link InternalProperties#ROOT root}. The nodes of the tree are numbered in
+ * breadth-first order, and these numbers are written to their {@link TGraphElement#id id} fields.
+ * This way the root is node 0, every node comes after its parent, the nodes of each level are
+ * numbered consecutively from left to right, and so are the children of each node. All the structure
+ * is kept in a handful of flat arrays that are filled in a single pass over the graph, so that
+ * processors can walk the tree without copying lists or creating iterators.
+ *
+ * <p>
+ * Nodes that can't be reached from the root are numbered after the nodes of the tree and are not
+ * part of any level or traversal. If a node is reachable through more than one edge, only the first
+ * edge found in breadth-first order counts as a tree edge.
+ * </p>
+ *
+ * <p>
+ * The snapshot is not updated when the graph changes. It is obtained with {@link TGraph#getTree()},
+ * and code that changes the edges of the graph or their order must call
+ * {@link TGraph#invalidateTree()}.
+ * </p>
+ */
+public final class TTree {
+
+    /** marker for a missing node. */
+    public static final int NONE = -1;
+
+    /** the nodes of the graph, indexed by their number. */
+    private final TNode[] nodes;
+    /** the number of nodes that are part of the tree. */
+    private final int size;
+    /** the parent of each node, or {@link #NONE} for the root. */
+    private final int[] parent;
+    /** the number of the first child of each node; the children of node v end where those of v + 1 start. */
+    private final int[] childrenStart;
+    /** the level of each node, 0 for the root. */
+    private final int[] level;
+    /** the number of the first node of each level, followed by the size of the tree. */
+    private final int[] levelStart;
+    /** the nodes of the tree in preorder. */
+    private final int[] preorder;
+    /** the nodes of the tree in postorder. */
+    private final int[] postorder;
+
+    /**
+     * Creates the index for the given graph and renumbers its nodes.
+     *
+     * @param graph
+     *            the graph
+     */
+    TTree(final TGraph graph) {
+        int nodeCount = graph.getNodes().size();
+        nodes = new TNode[nodeCount];
+        parent = new int[nodeCount];
+        childrenStart = new int[nodeCount + 1];
+        level = new int[nodeCount];
+        Arrays.fill(parent, NONE);
+        Arrays.fill(level, NONE);
+
+        // number the nodes by their position in the graph for now, so reached nodes can be marked
+        int index = 0;
+        for (TNode tNode : graph.getNodes()) {
+            tNode.id = index++;
+        }
+        boolean[] reached = new boolean[nodeCount];
+
+        // the nodes array doubles as the queue of the breadth-first search
+        int count = 0;
+        for (TNode tNode : graph.getNodes()) {
+            if (tNode.getProperty(InternalProperties.ROOT)) {
+                reached[tNode.id] = true;
+                nodes[count++] = tNode;
+                level[0] = 0;
+                break;
+            }
+        }
+        int levelCount = count;
+        for (int v = 0; v < count; v++) {
+            childrenStart[v] = count;
+            for (TEdge tEdge : nodes[v].getOutgoingEdges()) {
+                TNode child = tEdge.getTarget();
+                if (!reached[child.id]) {
+                    reached[child.id] = true;
+                    parent[count] = v;
+                    level[count] = level[v] + 1;
+                    levelCount = level[count] + 1;
+                    nodes[count++] = child;
+                }
+            }
+        }
+        size = count;
+        Arrays.fill(childrenStart, size, nodeCount + 1, size);
+
+        // append the unreachable nodes, then number all nodes by their position in the array
+        for (TNode tNode : graph.getNodes()) {
+            if (!reached[tNode.id]) {
+                nodes[count++] = tNode;
+            }
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            nodes[v].id = v;
+        }
+
+        levelStart = new int[levelCount + 1];
+        for (int v = size - 1; v >= 0; v--) {
+            levelStart[level[v]] = v;
+        }
+        levelStart[levelCount] = size;
+
+        // compute both depth-first orders iteratively, since trees may be much deeper than the stack
+        preorder = new int[size];
+        postorder = new int[size];
+        int preorderCount = 0;
+        int postorderCount = 0;
+        int[] stack = new int[size];
+        int[] nextChild = new int[size];
+        int stackSize = 0;
+        if (size > 0) {
+            stack[stackSize++] = 0;
+            preorder[preorderCount++] = 0;
+        }
+        while (stackSize > 0) {
+            int v = stack[stackSize - 1];
+            if (nextChild[v] < getChildCount(v)) {
+                int child = childrenStart[v] + nextChild[v]++;
+                stack[stackSize++] = child;
+                preorder[preorderCount++] = child;
+            } else {
+                stackSize--;
+                postorder[postorderCount++] = v;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of nodes in the tree. The tree nodes are numbered from 0 to this number
+     * minus 1.
+     *
+     * @return the number of nodes reachable from the root
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the node with the given number.
+     *
+     * @param v
+     *            a node number
+     * @return the node
+     */
+    public TNode getNode(final int v) {
+        return nodes[v];
+    }
+
+    /**
+     * Returns the root of the tree.
+     *
+     * @return the root, or {@code null} if the graph has no root
+     */
+    public TNode getRoot() {
+        return size > 0 ? nodes[0] : null;
+    }
+
+    /**
+     * Returns the parent of the given node.
+     *
+     * @param v
+     *            a node number
+     * @return the parent, or {@link #NONE} if the node is the root or not part of the tree
+     */
+    public int getParent(final int v) {
+        return parent[v];
+    }
+
+    /**
+     * Returns the number of children of the given node.
+     *
+     * @param v
+     *            a node number
+     * @return the number of children
+     */
+    public int getChildCount(final int v) {
+        return childrenStart[v + 1] - childrenStart[v];
+    }
+
+    /**
+     * Returns the leftmost child of the given node. The other children follow with consecutive
+     * numbers.
+     *
+     * @param v
+     *            a node number
+     * @return the first child; only meaningful if the node has children
+     */
+    public int getFirstChild(final int v) {
+        return childrenStart[v];
+    }
+
+    /**
+     * Returns the rightmost child of the given node.
+     *
+     * @param v
+     *            a node number
+     * @return the last child; only meaningful if the node has children
+     */
+    public int getLastChild(final int v) {
+        return childrenStart[v + 1] - 1;
+    }
+
+    /**
+     * Returns the position of the given node among its siblings.
+     *
+     * @param v
+     *            a node number
+     * @return the position, starting with 0, or 0 for the root
+     */
+    public int getSiblingIndex(final int v) {
+        return parent[v] == NONE ? 0 : v - childrenStart[parent[v]];
+    }
+
+    /**
+     * Returns the sibling directly left of the given node.
+     *
+     * @param v
+     *            a node number
+     * @return the left sibling, or {@link #NONE} if there is none
+     */
+    public int getLeftSibling(final int v) {
+        return parent[v] == NONE || v == childrenStart[parent[v]] ? NONE : v - 1;
+    }
+
+    /**
+     * Returns the level of the given node.
+     *
+     * @param v
+     *            a node number
+     * @return the level, 0 for the root, or {@link #NONE} if the node is not part of the tree
+     */
+    public int getLevel(final int v) {
+        return level[v];
+    }
+
+    /**
+     * Returns the number of levels of the tree.
+     *
+     * @return the number of levels
+     */
+    public int getLevelCount() {
+        return levelStart.length - 1;
+    }
+
+    /**
+     * Returns the leftmost node of the given level. The other nodes of the level follow with
+     * consecutive numbers.
+     *
+     * @param l
+     *            a level
+     * @return the number of the first node of the level
+     */
+    public int getLevelStart(final int l) {
+        return levelStart[l];
+    }
+
+    /**
+     * Returns the number following the rightmost node of the given level.
+     *
+     * @param l
+     *            a level
+     * @return the number of the first node of the next level, or the size of the tree
+     */
+    public int getLevelEnd(final int l) {
+        return levelStart[l + 1];
+    }
+
+    /**
+     * Returns the nodes of the tree in preorder, where every node comes before its descendants and
+     * after the subtrees of its left siblings. The array must not be modified.
+     *
+     * @return the node numbers in preorder
+     */
+    public int[] getPreorder() {
+        return preorder;
+    }
+
+    /**
+     * Returns the nodes of the tree in postorder, where every node comes after its descendants and
+     * after the subtrees of its left siblings. The array must not be modified.
+     *
+     * @return the node numbers in postorder
+     */
+    public int[] getPostorder() {
+        return postorder;
+    }
+
+}
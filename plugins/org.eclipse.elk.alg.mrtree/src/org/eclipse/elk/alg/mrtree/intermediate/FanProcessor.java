@@ -10,15 +10,11 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree.intermediate;
 
-import java.util.Formatter;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Arrays;
 
 import org.eclipse.elk.alg.mrtree.graph.TGraph;
 import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.graph.TTree;
 import org.eclipse.elk.alg.mrtree.options.InternalProperties;
 import org.eclipse.elk.core.alg.ILayoutProcessor;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
@@ -27,137 +23,88 @@ import org.eclipse.elk.core.util.IElkProgressMonitor;
  * A processor that computes the maximal fan out for each node in the given graph. The maximal fan out of
  * a node is the maximal number of descendants it has got in one level.
  * 
+ * <p>
+ * The number of descendants per level is counted for all subtrees at once in linear time. Every node
+ * continues the counts of the child with the highest subtree, which are stored right behind its own
+ * entry, and adds the counts of its other children to them. Since every node starts a new block of
+ * counts only when it is not the highest child of its parent, all counts fit into one array with an
+ * entry per node.
+ * </p>
+ * 
  * @author sor
  * @author sgu
  */
 public class FanProcessor implements ILayoutProcessor<TGraph> {
 
-    /** this map temporarily contains the maximal fan of each node in the given graph. */
-    private Map<String, Integer> gloFanMap = new HashMap<String, Integer>();
-
-    /** this map temporarily contains the number of descendants of each node in the given graph. */
-    private Map<String, Integer> gloDescMap = new HashMap<String, Integer>();
-
     /**
      * {@inheritDoc}
      */
     public void process(final TGraph tGraph, final IElkProgressMonitor progressMonitor) {
         progressMonitor.begin("Processor compute fanout", 1);
 
-        /** clear map if processor is reused */
-        gloFanMap.clear();
-        gloDescMap.clear();
-
-        TNode root = null;
-        /** find the root of the component */
-        Iterator<TNode> it = tGraph.getNodes().iterator();
-        while (root == null && it.hasNext()) {
-            TNode tNode = it.next();
-            if (tNode.getProperty(InternalProperties.ROOT)) {
-                root = tNode;
+        TTree tree = tGraph.getTree();
+        int size = tree.size();
+
+        /** determine the height of each subtree and the child with the highest subtree */
+        int[] height = new int[size];
+        int[] highestChild = new int[size];
+        Arrays.fill(highestChild, TTree.NONE);
+        for (int v = size - 1; v > 0; v--) {
+            int parent = tree.getParent(v);
+            if (highestChild[parent] == TTree.NONE || height[parent] < height[v] + 1) {
+                height[parent] = height[v] + 1;
+                highestChild[parent] = v;
             }
         }
 
-        LinkedList<TNode> rootLevel = new LinkedList<TNode>();
-        rootLevel.add(root);
-
-        calculateFan(rootLevel);
-
-        /** set the fan and descendants for all nodes */
-        for (TNode tNode : tGraph.getNodes()) {
-            String key = tNode.getProperty(InternalProperties.ID);
-            int fan = gloFanMap.get(key) != null ? gloFanMap.get(key) : 0;
-            tNode.setProperty(InternalProperties.FAN, fan);
-            int desc = 1 + (gloDescMap.get(key) != null ? gloDescMap.get(key) : 0);
-            tNode.setProperty(InternalProperties.DESCENDANTS, desc);
-        }
-
-        progressMonitor.done();
-    }
-
-    /**
-     * Calculates a fan for the nodes in the list currentLevel including their descendants.
-     * 
-     * @param currentLevel
-     *            the list of TNode for which the fan should be calculated.
-     */
-    private void calculateFan(final LinkedList<TNode> currentLevel) {
-        if (!currentLevel.isEmpty()) {
-
-            /** the children of the current level are the next level */
-            LinkedList<TNode> nextLevel = new LinkedList<TNode>();
-
-            /** currentLevel is not empty so stringId will be set */
-            String id = null;
-            String pId = null;
-
-            /** the size of the which the stringId will be extended for this level */
-            int digits = (int) (Math.floor(Math.log10(currentLevel.size())) + 1);
-
-            /**
-             * set final stringId for all nodes in this level and set the provisional stringId for
-             * their children
-             */
-            int index = 0;
-            for (TNode tNode : currentLevel) {
-                /** the final stringId is the stringId of the parent and the extension */
-                if (pId != tNode.getProperty(InternalProperties.ID)) {
-                    pId = tNode.getProperty(InternalProperties.ID);
-                    index = 0;
-                }
-                if (pId != null) {
-                    id = pId + formatRight(index++, digits);
+        /**
+         * assign each node the start of its counts; counts[offset[v] + d] will be the number of
+         * descendants of v that are d levels below it
+         */
+        int[] offset = new int[size];
+        int nextOffset = size > 0 ? height[0] + 1 : 0;
+        for (int v = 0; v < size; v++) {
+            for (int w = tree.getFirstChild(v); w <= tree.getLastChild(v); w++) {
+                if (w == highestChild[v]) {
+                    offset[w] = offset[v] + 1;
                 } else {
-                    id = formatRight(index++, digits);
-                }
-                tNode.setProperty(InternalProperties.ID, id);
-                for (TNode tChild : tNode.getChildren()) {
-                    nextLevel.add(tChild);
-                    /** the provisional stringId is the Id of the parent */
-                    tChild.setProperty(InternalProperties.ID, id);
+                    offset[w] = nextOffset;
+                    nextOffset += height[w] + 1;
                 }
             }
+        }
 
-            /** holds the occurences of descendants in this level */
-            Map<String, Integer> locFanMap = new HashMap<String, Integer>();
-
-            /** calculated occurences of descendants in this level */
-            for (int i = 0; i < id.length() - digits; i++) {
-                for (TNode tNode : currentLevel) {
-                    String key = tNode.getProperty(InternalProperties.ID).substring(0, i + 1);
-                    int blockSize = locFanMap.get(key) != null ? locFanMap.get(key) + 1 : 1;
-                    locFanMap.put(key, blockSize);
+        /** count the descendants per level bottom-up, children being numbered after their parents */
+        int[] counts = new int[size];
+        int[] fan = new int[size];
+        int[] descendants = new int[size];
+        for (int v = size - 1; v >= 0; v--) {
+            counts[offset[v]] = 1;
+            descendants[v] += 1;
+            if (highestChild[v] != TTree.NONE) {
+                fan[v] = Math.max(1, fan[highestChild[v]]);
+                for (int w = tree.getFirstChild(v); w <= tree.getLastChild(v); w++) {
+                    if (w != highestChild[v]) {
+                        for (int d = 0; d <= height[w]; d++) {
+                            counts[offset[v] + 1 + d] += counts[offset[w] + d];
+                            fan[v] = Math.max(fan[v], counts[offset[v] + 1 + d]);
+                        }
+                    }
                 }
             }
-
-            /** update the gloFanMap with the values from locFanMap will only increase the values */
-            for (Entry<String, Integer> locEntry : locFanMap.entrySet()) {
-                Integer gloValue = gloDescMap.get(locEntry.getKey()) != null ? gloDescMap
-                        .get(locEntry.getKey()) : 0;
-                gloDescMap.put(locEntry.getKey(), locEntry.getValue() + gloValue);
-                gloValue = gloFanMap.get(locEntry.getKey());
-                if (gloValue == null || gloValue < locEntry.getValue()) {
-                    gloFanMap.put(locEntry.getKey(), locEntry.getValue());
-                }
+            if (v > 0) {
+                descendants[tree.getParent(v)] += descendants[v];
             }
+        }
 
-            /** calculate the occurrences in the deeper levels and add them to the global gloFanMap */
-            calculateFan(nextLevel);
+        /** set the fan and descendants for all nodes */
+        for (TNode tNode : tGraph.getNodes()) {
+            int v = tNode.id;
+            tNode.setProperty(InternalProperties.FAN, v < size ? fan[v] : 0);
+            tNode.setProperty(InternalProperties.DESCENDANTS, v < size ? descendants[v] : 1);
         }
+
+        progressMonitor.done();
     }
-    
-    /**
-     * Create a string representation of the given value, padded with 0s.
-     * 
-     * @param value a value
-     * @param len the min. number of characters
-     * @return a string representation
-     */
-    public static String formatRight(final int value, final int len) {
-        Formatter formatter = new Formatter();
-        String result = formatter.format("%1$" + len + "d", value).toString();
-        formatter.close();
-        return result;
-    }
-    
+
 }
@@ -10,11 +10,9 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree.intermediate;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-
 import org.eclipse.elk.alg.mrtree.graph.TGraph;
 import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.graph.TTree;
 import org.eclipse.elk.alg.mrtree.options.InternalProperties;
 import org.eclipse.elk.core.alg.ILayoutProcessor;
 import org.eclipse.elk.core.math.KVector;
@@ -29,69 +27,22 @@ import org.eclipse.elk.core.util.IElkProgressMonitor;
  */
 public class NodePositionProcessor implements ILayoutProcessor<TGraph> {
 
-    /** number of nodes in the graph. */
-    private int numberOfNodes;
-
     /**
      * {@inheritDoc}
      */
     public void process(final TGraph tGraph, final IElkProgressMonitor progressMonitor) {
         progressMonitor.begin("Processor set coordinates", 1);
 
-        /** save number of nodes for progress computation */
-        numberOfNodes = tGraph.getNodes().isEmpty() ? 1 : tGraph.getNodes().size();
-
-        /** find the root of the component */
-        TNode root = null;
-        Iterator<TNode> it = tGraph.getNodes().iterator();
-        while (root == null && it.hasNext()) {
-            TNode tNode = it.next();
-            if (tNode.getProperty(InternalProperties.ROOT)) {
-                root = tNode;
-                KVector pos = tNode.getPosition();
-                pos.x = tNode.getProperty(InternalProperties.XCOOR).doubleValue();
-                pos.y = 0;
-            }
+        /** the root is placed at the top, all other nodes of the tree as computed before */
+        TTree tree = tGraph.getTree();
+        for (int v = 0; v < tree.size(); v++) {
+            TNode tNode = tree.getNode(v);
+            KVector pos = tNode.getPosition();
+            pos.x = tNode.getIntProperty(InternalProperties.XCOOR);
+            pos.y = v == 0 ? 0 : tNode.getIntProperty(InternalProperties.YCOOR);
         }
 
-        /** start with the root and level down by bsf */
-        setCoordinates(root.getChildrenCopy(), progressMonitor.subTask(1.0f));
-
         progressMonitor.done();
     }
 
-    /**
-     * Set the coordinate for each node in a given level and all underlying levels.
-     * 
-     * @param currentLevel
-     *            the list of TNode for which the neighbors should be calculated
-     * @param level
-     *            the level index
-     * @param progressMonitor
-     *            the current progress monitor
-     */
-    private void setCoordinates(final LinkedList<TNode> currentLevel,
-            final IElkProgressMonitor progressMonitor) {
-
-        /** if the level is empty there is nothing to do */
-        if (!currentLevel.isEmpty()) {
-
-            LinkedList<TNode> nextLevel = new LinkedList<TNode>();
-
-            /**
-             * set the coordinates for each node in the current level and collect the nodes of the
-             * next level
-             */
-            for (TNode tNode : currentLevel) {
-                nextLevel.addAll(tNode.getChildrenCopy());
-                KVector pos = tNode.getPosition();
-                pos.x = tNode.getProperty(InternalProperties.XCOOR).doubleValue();
-                pos.y = tNode.getProperty(InternalProperties.YCOOR).doubleValue();
-            }
-
-            /** go to the next level */
-            setCoordinates(nextLevel, progressMonitor.subTask(nextLevel.size() / numberOfNodes));
-        }
-    }
-    
 }
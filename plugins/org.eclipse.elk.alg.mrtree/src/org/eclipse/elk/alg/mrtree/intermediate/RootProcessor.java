@@ -73,5 +73,8 @@ public class RootProcessor implements ILayoutProcessor<TGraph> {
             tGraph.getNodes().add(superRoot);
             break;
         }
+
+        /** the root has changed */
+        tGraph.invalidateTree();
     }
 }
@@ -38,6 +38,7 @@ public class Untreeifyer implements ILayoutProcessor<TGraph> {
             tEdge.getSource().getOutgoingEdges().add(tEdge);
             tEdge.getTarget().getIncomingEdges().add(tEdge);
         }
+        tGraph.invalidateTree();
     }
     
 }
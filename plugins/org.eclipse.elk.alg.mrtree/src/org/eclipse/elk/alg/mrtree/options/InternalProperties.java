@@ -77,21 +77,9 @@ public final class InternalProperties {
     /** The y height of the nodes level. */
     public static final IProperty<Double> LEVELHEIGHT = new Property<Double>("LEVELHEIGHT", 0d);
 
-    /**
-     * Id of of a real node. This Indicates the block by the most significant letters and level of
-     * the node by the length of the string.
-     */
-    public static final IProperty<String> ID = new Property<String>("ID", "");
-
     /** Is the node a root of a tree. */
     public static final IProperty<Integer> POSITION = new Property<Integer>("POSITION", 0);
 
-    /** A preliminary x-coordinate. */
-    public static final IProperty<Double> PRELIM = new Property<Double>("PRELIM", 0d);
-
-    /** A modifier x-coordinate. */
-    public static final IProperty<Double> MODIFIER = new Property<Double>("MODIFIER", 0d);
-
     /** Upper left corner of the graph's bounding box. */
     public static final IProperty<KVector> BB_UPLEFT = new Property<KVector>("boundingBox.upLeft");
     /** Lower right corner of the graph's bounding box. */
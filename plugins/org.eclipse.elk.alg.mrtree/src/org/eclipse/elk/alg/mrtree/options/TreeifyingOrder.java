@@ -19,7 +19,7 @@ public enum TreeifyingOrder {
     
     /** treeify in depth-first order. */
     DFS,
-    /** treeify in breadth-first order. */
+    /** treeify in breadth-first order; nodes with several parents are placed under the first one found. */
     BFS;
 
 }
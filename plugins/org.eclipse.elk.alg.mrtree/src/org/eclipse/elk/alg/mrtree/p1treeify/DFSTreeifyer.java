@@ -10,7 +10,10 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree.p1treeify;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.elk.alg.mrtree.TreeLayoutPhases;
@@ -80,7 +83,7 @@ public class DFSTreeifyer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
     private void init(final TGraph tGraph) {
 
         int size = tGraph.getNodes().size();
-        eliminated = new LinkedList<TEdge>();
+        eliminated = new ArrayList<TEdge>();
         visited = new int[size];
 
         /** for using id property initialize ids first */
@@ -124,20 +127,31 @@ public class DFSTreeifyer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
         }
         // set the list of collected edges as a graph property
         tGraph.setProperty(InternalProperties.REMOVABLE_EDGES, eliminated);
+        tGraph.invalidateTree();
     }
 
     /**
-     * Perform a DFS on a given graph till all nodes of the graph have been visited.
+     * Perform a DFS on a given graph till all nodes of the graph have been visited. The search keeps
+     * its own stack of edge iterators, since graphs may be much deeper than the call stack.
      * 
      * @param node
      *            to start DFS
      */
-    private void dfs(final TNode tNode) {
+    private void dfs(final TNode startNode) {
+        Deque<Iterator<TEdge>> stack = new ArrayDeque<Iterator<TEdge>>();
         // dfs starts on a node and marks that node as visited
-        visited[tNode.id] = 1;
-
-        // go to all child nodes of start node
-        for (TEdge tEdge : tNode.getOutgoingEdges()) {
+        visited[startNode.id] = 1;
+        stack.push(startNode.getOutgoingEdges().iterator());
+
+        while (!stack.isEmpty()) {
+            Iterator<TEdge> edges = stack.peek();
+            if (!edges.hasNext()) {
+                // all child nodes of this node are done, go back to its parent
+                stack.pop();
+                continue;
+            }
+            // go to the next child node of the current node
+            TEdge tEdge = edges.next();
             TNode target = tEdge.getTarget();
             // if a child has been visited
             if (visited[target.id] == 1) {
@@ -147,8 +161,9 @@ public class DFSTreeifyer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
                 // if a previous root can be visited from another node unmark the root property
                 visited[target.id] = 1;
             } else {
-                // recurse
-                dfs(target);
+                // descend
+                visited[target.id] = 1;
+                stack.push(target.getOutgoingEdges().iterator());
             }
         }
     }
@@ -160,7 +175,7 @@ public class DFSTreeifyer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
      *            to start BFS
      */
     private void bfs(final TNode startNode) {
-        LinkedList<TNode> nodeQueue = new LinkedList<TNode>();
+        Deque<TNode> nodeQueue = new ArrayDeque<TNode>();
         nodeQueue.add(startNode);
         
         do {
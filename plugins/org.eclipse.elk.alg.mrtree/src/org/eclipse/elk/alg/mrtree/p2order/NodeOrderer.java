@@ -10,9 +10,9 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree.p2order;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.ListIterator;
 
@@ -25,6 +25,7 @@ import org.eclipse.elk.alg.mrtree.options.InternalProperties;
 import org.eclipse.elk.core.alg.ILayoutPhase;
 import org.eclipse.elk.core.alg.LayoutProcessorConfiguration;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
+import org.eclipse.elk.graph.properties.IProperty;
 import org.eclipse.elk.graph.properties.PropertyHolderComparator;
 
 /**
@@ -43,6 +44,11 @@ public class NodeOrderer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
                         .add(IntermediateProcessorStrategy.ROOT_PROC)
                         .add(IntermediateProcessorStrategy.FAN_PROC);
 
+    /** compares edges by the fan of their targets, just like the nodes of a level are sorted. */
+    private static final Comparator<TEdge> TARGET_FAN_ORDER = targetOrder(InternalProperties.FAN);
+    /** compares edges by the position of their targets. */
+    private static final Comparator<TEdge> TARGET_POSITION_ORDER = targetOrder(InternalProperties.POSITION);
+
     /**
      * {@inheritDoc}
      */
@@ -60,110 +66,136 @@ public class NodeOrderer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
 
         // find the root of the component
         // expected only one root exists
-        TNode root = null;
-        LinkedList<TNode> roots = new LinkedList<TNode>();
-        Iterator<TNode> it = tGraph.getNodes().iterator();
-        while (root == null && it.hasNext()) {
-            TNode tNode = it.next();
-            if (tNode.getProperty(InternalProperties.ROOT)) {
-                root = tNode;
+        List<TNode> roots = new ArrayList<TNode>();
+        roots.add(tGraph.getTree().getRoot());
+
+        // order each level; the levels of children are ordered depth first, keeping the levels whose
+        // inner nodes are not done yet on a stack instead of recursing, since trees may be deep
+        List<Level> stack = new ArrayList<Level>();
+        stack.add(new Level(roots));
+        while (!stack.isEmpty()) {
+            Level level = stack.get(stack.size() - 1);
+            if (level.current != null) {
+                // the children of the current inner node have been ordered
+                finishInner(level);
+            }
+            if (level.nextInner < level.inners.size()) {
+                TNode tPNode = level.inners.get(level.nextInner++);
+                tPNode.setProperty(InternalProperties.POSITION, level.pos++);
+                level.current = tPNode;
+
+                // set the position of the children and set them in order
+                stack.add(new Level(tPNode.getChildrenCopy()));
+            } else {
+                stack.remove(stack.size() - 1);
             }
         }
-        // order each level
-        roots.add(root);
-        orderLevel(roots, progressMonitor.subTask(1.0f));
 
+        // the order of children has changed
+        tGraph.invalidateTree();
         progressMonitor.done();
 
     }
 
     /**
-     * Order each level by separating the nodes into leaves and inner nodes. And then fill gaps with
-     * corresponding leaves.
+     * Reorders the children of the current inner node of the given level, which have been ordered
+     * themselves, and fills the gaps after the inner node with leaves.
      * 
-     * @param currentLevel
-     * @param progressMonitor
+     * @param level
+     *            a level whose current inner node is done
      */
-    private void orderLevel(final LinkedList<TNode> currentLevel,
-            final IElkProgressMonitor progressMonitor) {
-
-        progressMonitor.begin("Processor arrange level", 1);
-
-        int pos = 0;
-
-        // sort all nodes in this level by their fan out
-        // so the leaves are at the end of the list
-        Collections.sort(currentLevel, PropertyHolderComparator.with(InternalProperties.FAN));
-
-        // find the first occurence of a leave in the list
-        int firstOcc = currentLevel.size();
-        ListIterator<TNode> it = currentLevel.listIterator(currentLevel.size());
+    private void finishInner(final Level level) {
+        TNode tPNode = level.current;
+        level.current = null;
+
+        // reorder the outgoing edges by the reverse position of their targets; the children have
+        // been sorted by their fan before, so the edges are sorted that way first
+        List<TEdge> outgoing = tPNode.getOutgoingEdges();
+        Collections.sort(outgoing, TARGET_FAN_ORDER);
+        Collections.sort(outgoing, Collections.reverseOrder(TARGET_POSITION_ORDER));
+
+        // fill gaps with leafs
+        ListIterator<TNode> it = level.leaves.listIterator(level.leaves.size());
+        int fillGap = outgoing.size();
         boolean notNull = true;
-        while (notNull && it.hasPrevious()) {
+        while ((0 < fillGap) && notNull && it.hasPrevious()) {
             TNode tNode = (TNode) it.previous();
-            if ((tNode.getProperty(InternalProperties.FAN) == 0)) {
-                firstOcc--;
+            if ((tNode.getIntProperty(InternalProperties.FAN) == 0)) {
+                tNode.setProperty(InternalProperties.POSITION, level.pos++);
+                fillGap--;
+                it.remove();
             } else {
                 notNull = false;
             }
         }
+    }
 
-        // seperate the level into leaves and inner nodes
-        List<TNode> tmp = currentLevel.subList(0, firstOcc);
-        LinkedList<TNode> inners = new LinkedList<TNode>(tmp);
-        tmp = currentLevel.subList(firstOcc, currentLevel.size());
-        LinkedList<TNode> leaves = new LinkedList<TNode>(tmp);
-
-        // check if their are inner nodes left
-        if (inners.isEmpty()) {
-            // leave the leaves in their order
-            for (TNode tENode : leaves) {
-                tENode.setProperty(InternalProperties.POSITION, pos++);
+    /**
+     * A level being ordered, that is the children of a node or the root. The nodes of the level are
+     * separated into leaves and inner nodes. The inner nodes are then positioned one after the other,
+     * each followed by leaves filling the gaps under it.
+     */
+    private static final class Level {
+
+        /** the inner nodes of the level. */
+        private final List<TNode> inners;
+        /** the leaves of the level that have not been positioned yet. */
+        private final List<TNode> leaves;
+        /** the index of the next inner node to position. */
+        private int nextInner = 0;
+        /** the inner node whose children are being ordered, or {@code null}. */
+        private TNode current;
+        /** the next position to assign. */
+        private int pos = 0;
+
+        /**
+         * Separates the given nodes into leaves and inner nodes, and positions the leaves if there
+         * are no inner nodes.
+         * 
+         * @param currentLevel
+         *            the nodes of the level
+         */
+        Level(final List<TNode> currentLevel) {
+            // sort all nodes in this level by their fan out
+            // so the leaves are at the end of the list
+            Collections.sort(currentLevel, PropertyHolderComparator.with(InternalProperties.FAN));
+
+            // find the first occurence of a leave in the list
+            int firstOcc = currentLevel.size();
+            ListIterator<TNode> it = currentLevel.listIterator(currentLevel.size());
+            boolean notNull = true;
+            while (notNull && it.hasPrevious()) {
+                TNode tNode = (TNode) it.previous();
+                if ((tNode.getIntProperty(InternalProperties.FAN) == 0)) {
+                    firstOcc--;
+                } else {
+                    notNull = false;
+                }
             }
-        } else {
 
-            // order each level of descendants of the inner nodes
-            int size = inners.size();
-            for (TNode tPNode : inners) {
-                tPNode.setProperty(InternalProperties.POSITION, pos++);
+            // seperate the level into leaves and inner nodes
+            inners = new ArrayList<TNode>(currentLevel.subList(0, firstOcc));
+            leaves = new ArrayList<TNode>(currentLevel.subList(firstOcc, currentLevel.size()));
 
-                // set the position of the children and set them in order
-                LinkedList<TNode> children = tPNode.getChildrenCopy();
-                orderLevel(children, progressMonitor.subTask(1 / size));
-
-                // order the children by their reverse position
-                Collections.sort(children,
-                        Collections.reverseOrder(PropertyHolderComparator.with(InternalProperties.POSITION)));
-
-                // reset the list of children with the new order
-                List<TEdge> sortedOutEdges = new LinkedList<TEdge>();
-
-                for (TNode tNode : children) {
-                    for (TEdge tEdge : tPNode.getOutgoingEdges()) {
-                        if (tEdge.getTarget() == tNode) {
-                            sortedOutEdges.add(tEdge);
-                        }
-                    }
-                }
-                tPNode.getOutgoingEdges().clear();
-                tPNode.getOutgoingEdges().addAll(sortedOutEdges);
-
-                // fill gaps with leafs
-                it = leaves.listIterator(leaves.size());
-                int fillGap = tPNode.getOutgoingEdges().size();
-                notNull = true;
-                while ((0 < fillGap) && notNull && it.hasPrevious()) {
-                    TNode tNode = (TNode) it.previous();
-                    if ((tNode.getProperty(InternalProperties.FAN) == 0)) {
-                        tNode.setProperty(InternalProperties.POSITION, pos++);
-                        fillGap--;
-                        it.remove();
-                    } else {
-                        notNull = false;
-                    }
+            // check if their are inner nodes left
+            if (inners.isEmpty()) {
+                // leave the leaves in their order
+                for (TNode tENode : leaves) {
+                    tENode.setProperty(InternalProperties.POSITION, pos++);
                 }
             }
         }
-        progressMonitor.done();
+    }
+
+    /**
+     * Creates a comparator that compares edges by the given property of their targets.
+     * 
+     * @param property
+     *            the property to compare
+     * @return a comparator for edges
+     */
+    private static Comparator<TEdge> targetOrder(final IProperty<Integer> property) {
+        PropertyHolderComparator<Integer> nodeOrder = PropertyHolderComparator.with(property);
+        return (e1, e2) -> nodeOrder.compare(e1.getTarget(), e2.getTarget());
     }
 }
@@ -10,17 +10,18 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree.p2order;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Deque;
 import java.util.List;
 
 import org.eclipse.elk.alg.mrtree.TreeLayoutPhases;
-import org.eclipse.elk.alg.mrtree.TreeUtil;
 import org.eclipse.elk.alg.mrtree.graph.TEdge;
 import org.eclipse.elk.alg.mrtree.graph.TGraph;
 import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.graph.TTree;
 import org.eclipse.elk.alg.mrtree.intermediate.IntermediateProcessorStrategy;
 import org.eclipse.elk.alg.mrtree.options.InternalProperties;
 import org.eclipse.elk.alg.mrtree.options.MrTreeOptions;
@@ -48,8 +49,7 @@ public class OrderBalance implements ILayoutPhase<TreeLayoutPhases, TGraph> {
             LayoutProcessorConfiguration.<TreeLayoutPhases, TGraph>create()
                     .before(TreeLayoutPhases.P2_NODE_ORDERING)
                         .add(IntermediateProcessorStrategy.ROOT_PROC)
-                        .add(IntermediateProcessorStrategy.FAN_PROC)
-                        .add(IntermediateProcessorStrategy.NEIGHBORS_PROC);
+                        .add(IntermediateProcessorStrategy.FAN_PROC);
 
     /**
      * Tells the node order which weighting it should use.
@@ -77,125 +77,116 @@ public class OrderBalance implements ILayoutPhase<TreeLayoutPhases, TGraph> {
             weighting = InternalProperties.FAN;
         }
 
-        /** find the root of the component expected only one root exists */
-        TNode root = null;
-        Iterator<TNode> it = tGraph.getNodes().iterator();
-        while (root == null && it.hasNext()) {
-            TNode tNode = it.next();
-            if (tNode.getProperty(InternalProperties.ROOT)) {
-                root = tNode;
-            }
-        }
-
-        /** check if a root is there */
-        if (root != null) {
-
-            /** start two levels above the deepest level at the leftmost node */
-            TNode lM = TreeUtil.getLeftMost(root.getChildren());
-
-            /** if there are only the root and one level or less no reordering is necessary */
-            if (lM != null && lM.getParent() != root) {
-                TNode parent = lM.getParent().getParent();
-                TNode leftMost = parent;
-                /** go to the leftmost node in this level */
-                while (leftMost.getProperty(InternalProperties.LEFTNEIGHBOR) != null) {
-                    leftMost = leftMost.getProperty(InternalProperties.LEFTNEIGHBOR);
-                }
-                /** start the order at the leftmost node */
-                orderLevel(leftMost, false);
-
+        /**
+         * if there are only the root and one level or less no reordering is necessary; otherwise
+         * start two levels above the deepest level at the leftmost node
+         */
+        TTree tree = tGraph.getTree();
+        if (tree.getLevelCount() > 2) {
+            int leftMost = tree.getLevelStart(tree.getLevelCount() - 3);
+            boolean odd = false;
+            while (leftMost != TTree.NONE) {
                 /**
-                 * reset the structure properties of each node to null, because the order of the
-                 * graph has changed
+                 * order the children of the nodes of this level from the given node to the right;
+                 * nodes further left are leaves
                  */
-                for (TNode tNode : tGraph.getNodes()) {
-                    tNode.setProperty(InternalProperties.RIGHTNEIGHBOR, null);
-                    tNode.setProperty(InternalProperties.LEFTNEIGHBOR, null);
-                    tNode.setProperty(InternalProperties.RIGHTSIBLING, null);
-                    tNode.setProperty(InternalProperties.LEFTSIBLING, null);
+                int levelEnd = tree.getLevelEnd(tree.getLevel(leftMost));
+                for (int v = leftMost; v < levelEnd; v++) {
+                    orderChildren(tree.getNode(v), odd);
                 }
+                /** this level has been ordered, go on with the level above */
+                leftMost = tree.getParent(leftMost);
+                odd = !odd;
             }
+
+            /** the order of children has changed */
+            tGraph.invalidateTree();
         }
 
+        progressMonitor.done();
     }
 
     /**
-     * Order each level by seperating the children of the nodes into leaves and inner nodes. And
-     * then fill gaps with corresponding leaves.
+     * Order the children of a node by seperating them into leaves and inner nodes. And then fill
+     * gaps with corresponding leaves.
      * 
-     * @param leftMost
-     *            the leftmost node in a level
+     * @param node
+     *            the node whose children are ordered
+     * @param odd
+     *            whether the node is on an odd level, counted upwards from the first level that
+     *            is ordered
      */
-    private void orderLevel(final TNode leftMost, final boolean odd) {
-        if (leftMost != null) {
-
-            /** copy current to iterate over the copy */
-            TNode currentNode = leftMost;
-
-            while (currentNode != null) {
-                /**
-                 * sort all children of this node by their fan out so the leaves are at the end of
-                 * the list
-                 */
-                List<TEdge> outgoing = currentNode.getOutgoingEdges();
-
-                Collections.sort(outgoing, new SortTEdgeTargetProperty(weighting));
-
-                /**
-                 * Add each child to a balanced list where the fat child are in the middle and the
-                 * thin child are at the borders. Leaves fill the places between the inner child,
-                 * also starting at fattest node in the middle.
-                 * 
-                 * eg. bigger number means fatter nodes, zero means leaf
-                 * 
-                 * unbalanced: 0 1 0 0 4 0 0 9 0 7 2 0 3 0 0 2 3 6 0 0 
-                 * balanced  : 2 3 4 6 0 0 0 0 0 9 0 0 0 0 0 7 0 3 2 1
-                 */
-                List<TEdge> balanced = new LinkedList<TEdge>();
-
-                boolean innerOdd = odd;
-                while (!outgoing.isEmpty()) {
-                    int gaps = outgoing.get(0).getTarget().getProperty(InternalProperties.FAN);
-                    int index;
-
-                    if (innerOdd) {
-                        index = balanced.size();
-                        balanced.add(outgoing.get(0));
+    private void orderChildren(final TNode node, final boolean odd) {
+        /**
+         * sort all children of this node by their fan out so the leaves are at the end of the
+         * list
+         */
+        List<TEdge> outgoing = node.getOutgoingEdges();
+        Collections.sort(outgoing, new SortTEdgeTargetProperty(weighting));
+
+        /**
+         * Add each child to a balanced list where the fat child are in the middle and the thin child
+         * are at the borders. Leaves fill the places between the inner child, also starting at
+         * fattest node in the middle.
+         * 
+         * eg. bigger number means fatter nodes, zero means leaf
+         * 
+         * unbalanced: 0 1 0 0 4 0 0 9 0 7 2 0 3 0 0 2 3 6 0 0 
+         * balanced  : 2 3 4 6 0 0 0 0 0 9 0 0 0 0 0 7 0 3 2 1
+         * 
+         * Children are taken from the front of the sorted list and leaves from its back, and each
+         * is put at either end of the balanced list or next to the child whose gaps it fills.
+         */
+        Deque<TEdge> balanced = new ArrayDeque<TEdge>(outgoing.size());
+        List<TEdge> leavesBefore = new ArrayList<TEdge>();
+        List<TEdge> leavesAfter = new ArrayList<TEdge>();
+
+        int first = 0;
+        int last = outgoing.size();
+        boolean innerOdd = odd;
+        while (first < last) {
+            TEdge inner = outgoing.get(first++);
+            int gaps = inner.getTarget().getIntProperty(InternalProperties.FAN);
+
+            /** take leaves from the back, alternately for the places before and after the child */
+            leavesBefore.clear();
+            leavesAfter.clear();
+            boolean leavesOdd = odd;
+            while (0 < gaps && first < last) {
+                TEdge leaf = outgoing.get(last - 1);
+                if (leaf.getTarget().isLeaf()) {
+                    gaps--;
+                    last--;
+                    if (leavesOdd) {
+                        leavesAfter.add(leaf);
                     } else {
-                        index = 0;
-                        balanced.add(index, outgoing.get(0));
-                    }
-                    outgoing.remove(0);
-                    innerOdd = !innerOdd;
-
-                    int indexEnd = outgoing.size();
-                    boolean leavesOdd = odd;
-                    while (0 < gaps && 0 < indexEnd) {
-                        indexEnd--;
-                        if (outgoing.get(indexEnd).getTarget().isLeaf()) {
-                            gaps--;
-                            if (leavesOdd) {
-                                balanced.add(outgoing.get(indexEnd));
-                            } else {
-                                balanced.add(index, outgoing.get(indexEnd));
-                            }
-                            outgoing.remove(indexEnd);
-                            leavesOdd = !leavesOdd;
-                        } else {
-                            gaps = 0;
-                        }
+                        leavesBefore.add(leaf);
                     }
+                    leavesOdd = !leavesOdd;
+                } else {
+                    gaps = 0;
                 }
+            }
 
-                /** reset the list of children with the new order */
-                currentNode.getOutgoingEdges().addAll(balanced);
-
-                /** go on with the next node to the right */
-                currentNode = currentNode.getProperty(InternalProperties.RIGHTNEIGHBOR);
+            /** the leaves placed before the child end up in reverse order */
+            if (innerOdd) {
+                for (int i = leavesBefore.size() - 1; i >= 0; i--) {
+                    balanced.addLast(leavesBefore.get(i));
+                }
+                balanced.addLast(inner);
+            } else {
+                balanced.addFirst(inner);
+                for (TEdge leaf : leavesBefore) {
+                    balanced.addFirst(leaf);
+                }
             }
-            /** this level has been ordered, go on with the next level above */
-            orderLevel(leftMost.getParent(), !odd);
+            balanced.addAll(leavesAfter);
+            innerOdd = !innerOdd;
         }
+
+        /** reset the list of children with the new order */
+        outgoing.clear();
+        outgoing.addAll(balanced);
     }
     
     /**
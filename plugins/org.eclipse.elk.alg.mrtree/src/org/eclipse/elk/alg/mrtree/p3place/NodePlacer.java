@@ -10,12 +10,12 @@
  *******************************************************************************/
 package org.eclipse.elk.alg.mrtree.p3place;
 
-import java.util.LinkedList;
+import java.util.Arrays;
 
 import org.eclipse.elk.alg.mrtree.TreeLayoutPhases;
-import org.eclipse.elk.alg.mrtree.TreeUtil;
 import org.eclipse.elk.alg.mrtree.graph.TGraph;
 import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.graph.TTree;
 import org.eclipse.elk.alg.mrtree.intermediate.IntermediateProcessorStrategy;
 import org.eclipse.elk.alg.mrtree.options.InternalProperties;
 import org.eclipse.elk.alg.mrtree.options.MrTreeOptions;
@@ -23,15 +23,17 @@ import org.eclipse.elk.core.alg.ILayoutPhase;
 import org.eclipse.elk.core.alg.LayoutProcessorConfiguration;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
 
-import com.google.common.collect.Iterables;
-
 /**
  * The algorithm comes from
  * <ul>
  *   <li> John Q.Walker II, A Node-Positioning Algorithm for General Trees,
  *     <em>Software: Practice and Experience</em> 20(7), pp. 685-705, July 1990.</li>
  * </ul>
- * with some small fixes in the actual code.
+ * in the linear-time variant given by
+ * <ul>
+ *   <li> Christoph Buchheim, Michael J&uuml;nger, Sebastian Leipert, Improving Walker's Algorithm to
+ *     Run in Linear Time, <em>Graph Drawing</em>, LNCS 2528, pp. 344-353, 2002.</li>
+ * </ul>
  * 
  * <p>
  * This algorithm utilizes two concepts developed in previous positioning algorithms. First is the
@@ -51,6 +53,18 @@ import com.google.common.collect.Iterables;
  * computes the final x-coordinate of each node by summing the node's preliminary x-coordinate with
  * the modifier fields of all of its ancestors. The final y-coordinate of the node is the height of
  * the node's ancestors levels and the height nodes's level and the adjust of the root location.
+ * </p>
+ * 
+ * <p>
+ * Walker's algorithm compares a new subtree with its left neighbors by walking up to their ancestors
+ * on every level and spreads each shift over the smaller subtrees in between right away, which takes
+ * quadratic time on deep or unbalanced trees. Following Buchheim et al., the contours of the subtrees
+ * are instead followed along threads that link the last node of a contour to the next node of the
+ * contour further down, the modifier sums are carried along, and the shifts of the smaller subtrees in
+ * between are recorded at their outermost siblings and applied in a single pass once all children of
+ * a node are placed. The working values are kept in arrays indexed by the node numbers of the graph's
+ * {@link TTree}, and both traversals are iterative, so deep trees don't overflow the stack.
+ * </p>
  * 
  * @author sor
  * @author sgu
@@ -61,17 +75,36 @@ public class NodePlacer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
     private static final LayoutProcessorConfiguration<TreeLayoutPhases, TGraph> INTERMEDIATE_PROCESSING_CONFIG =
             LayoutProcessorConfiguration.<TreeLayoutPhases, TGraph>create()
                     .addBefore(TreeLayoutPhases.P2_NODE_ORDERING, IntermediateProcessorStrategy.ROOT_PROC)
-                    .before(TreeLayoutPhases.P3_NODE_PLACEMENT)
-                        .add(IntermediateProcessorStrategy.LEVEL_HEIGHT)
-                        .add(IntermediateProcessorStrategy.NEIGHBORS_PROC)
+                    .addBefore(TreeLayoutPhases.P3_NODE_PLACEMENT, IntermediateProcessorStrategy.LEVEL_HEIGHT)
                     .addBefore(TreeLayoutPhases.P4_EDGE_ROUTING, IntermediateProcessorStrategy.NODE_POSITION_PROC);
 
+    /** marker for a missing node. */
+    private static final int NONE = TTree.NONE;
+
     private double spacing;
 
     /** Determine how to adjust all the nodes with respect to the location of the root. */
     private double xTopAdjustment = 0d;
     private double yTopAdjustment = 0d;
 
+    /** the index of the tree being placed. */
+    private TTree tree;
+    /** the width of each node. */
+    private double[] width;
+
+    /** the preliminary x-coordinate of each node. */
+    private double[] prelim;
+    /** the offset of the subtree of each node to be added to its descendants. */
+    private double[] modifier;
+    /** pending shift of each node that is applied to it and its left siblings when executing shifts. */
+    private double[] shift;
+    /** pending change of the shift per sibling that is applied when executing shifts. */
+    private double[] change;
+    /** the next node on the contour of each leaf, or {@link #NONE}. */
+    private int[] thread;
+    /** the ancestor of each contour node that is a sibling of the subtree currently apportioned. */
+    private int[] ancestor;
+
     /**
      * {@inheritDoc}
      */
@@ -89,169 +122,254 @@ public class NodePlacer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
         /** set the spacing according to the user inputs */
         spacing = tGraph.getProperty(MrTreeOptions.SPACING_NODE_NODE).doubleValue();
 
-        /** find the root node of this component */
-        LinkedList<TNode> roots = new LinkedList<TNode>();
-        for (TNode tNode : tGraph.getNodes()) {
-            if (tNode.getProperty(InternalProperties.ROOT)) {
-                roots.add(tNode);
-            }
-        }
-        TNode root = roots.getFirst();
+        /** Get the tree structure and reset the working values. */
+        tree = tGraph.getTree();
+        TNode root = tree.getRoot();
+        int[] postorder = initialize();
 
         /** Do the preliminary positioning with a postorder walk. */
-        firstWalk(root, 0);
+        firstWalk(postorder);
         progressMonitor.worked(1);
 
         /** Do the final positioning with a preorder walk. */
-        secondWalk(root, yTopAdjustment - (root.getProperty(InternalProperties.LEVELHEIGHT) / 2), xTopAdjustment);
+        secondWalk(postorder, yTopAdjustment - (root.getDoubleProperty(InternalProperties.LEVELHEIGHT) / 2),
+                xTopAdjustment);
         progressMonitor.worked(1);
 
+        tree = null;
+        width = null;
+        prelim = null;
+        modifier = null;
+        shift = null;
+        change = null;
+        thread = null;
+        ancestor = null;
         progressMonitor.done();
     }
 
     /**
-     * In this first postorder walk, every node of the tree is assigned a preliminary x-coordinate
-     * (held in property PRELIM). In addition, internal nodes are given modifiers, which will be
-     * used to move their offspring to the right (held in property MODIFIER).
+     * Resets the working values for all nodes of the tree.
+     * 
+     * @return the nodes of the tree in postorder
+     */
+    private int[] initialize() {
+        int nodeCount = tree.size();
+        width = new double[nodeCount];
+        prelim = new double[nodeCount];
+        modifier = new double[nodeCount];
+        shift = new double[nodeCount];
+        change = new double[nodeCount];
+        thread = new int[nodeCount];
+        ancestor = new int[nodeCount];
+
+        Arrays.fill(thread, NONE);
+        for (int v = 0; v < nodeCount; v++) {
+            ancestor[v] = v;
+            width[v] = tree.getNode(v).getSize().x;
+        }
+        return tree.getPostorder();
+    }
+
+    /**
+     * In this first postorder walk, every node of the tree is assigned a preliminary x-coordinate. In
+     * addition, internal nodes are given modifiers, which will be used to move their offspring to the
+     * right. Each node is apportioned against its left siblings as soon as it is placed, so that its
+     * right sibling is placed with respect to the final position of the left siblings' subtrees.
      * 
-     * @param cN
-     *            the root level of the tree
-     * @param level
-     *            the index of the passed level
+     * @param postorder
+     *            the nodes of the tree in postorder
      */
-    private void firstWalk(final TNode cN, final int level) {
-        cN.setProperty(InternalProperties.MODIFIER, 0d);
-        TNode lS = cN.getProperty(InternalProperties.LEFTSIBLING);
+    private void firstWalk(final int[] postorder) {
+        // the default ancestor of the subtrees apportioned below each node, indexed by node id
+        int[] defaultAncestor = new int[tree.size()];
+
+        for (int v : postorder) {
+            int leftSibling = tree.getLeftSibling(v);
+
+            if (tree.getChildCount(v) == 0) {
+                if (leftSibling != NONE) {
+                    /**
+                     * Determine the preliminary x-coordinate based on: the preliminary x-coordinate of
+                     * the left sibling, the separation between sibling nodes, and tHe mean size of left
+                     * sibling and current node.
+                     */
+                    prelim[v] = prelim[leftSibling] + spacing + meanNodeWidth(leftSibling, v);
+                } else {
+                    /** No sibling on the left to worry about. */
+                    prelim[v] = 0d;
+                }
+            } else {
+                /** Apply the shifts of smaller subtrees recorded while apportioning the children. */
+                executeShifts(v);
 
-        if (cN.isLeaf()) {
-            if (lS != null) {
                 /**
-                 * Determine the preliminary x-coordinate based on: the preliminary x-coordinate of
-                 * the left sibling, the separation between sibling nodes, and tHe mean size of left
-                 * sibling and current node.
+                 * Set the prelim and modifer for this node by determine the midpoint of its offsprings
+                 * and the middle node size of the node and its left sibling
                  */
-                double p = lS.getProperty(InternalProperties.PRELIM) + spacing + meanNodeWidth(lS, cN);
-                cN.setProperty(InternalProperties.PRELIM, p);
-            } else {
-                /** No sibling on the left to worry about. */
-                cN.setProperty(InternalProperties.PRELIM, 0d);
-            }
-        } else {
-            /**
-             * This Node is not a leaf, so call this procedure recursively for each of its
-             * offspring.
-             */
-            for (TNode child : cN.getChildren()) {
-                firstWalk(child, level + 1);
+                double midPoint = (prelim[tree.getLastChild(v)] + prelim[tree.getFirstChild(v)]) / 2f;
+
+                if (leftSibling != NONE) {
+                    /** This Node has a left sibling so its offsprings must be shifted to the right */
+                    prelim[v] = prelim[leftSibling] + spacing + meanNodeWidth(leftSibling, v);
+                    modifier[v] = prelim[v] - midPoint;
+                } else {
+                    /** No sibling on the left to worry about. */
+                    prelim[v] = midPoint;
+                }
             }
 
-            /**
-             * Set the prelim and modifer for this node by determine the midpoint of its offsprings
-             * and the middle node size of the node and its left sibling
-             */
-            TNode lM = Iterables.getFirst(cN.getChildren(), null);
-            TNode rM = Iterables.getLast(cN.getChildren(), null);
-            double midPoint = (rM.getProperty(InternalProperties.PRELIM) + lM
-                    .getProperty(InternalProperties.PRELIM)) / 2f;
-
-            if (lS != null) {
-                /** This Node has a left sibling so its offsprings must be shifted to the right */
-                double p = lS.getProperty(InternalProperties.PRELIM) + spacing + meanNodeWidth(lS, cN);
-                cN.setProperty(InternalProperties.PRELIM, p);
-                cN.setProperty(InternalProperties.MODIFIER, cN.getProperty(InternalProperties.PRELIM) - midPoint);
-                /** shift the offsprings of this node to the right */
-                apportion(cN, level);
-            } else {
-                /** No sibling on the left to worry about. */
-                cN.setProperty(InternalProperties.PRELIM, midPoint);
+            /** shift the subtree of this node to the right of its left siblings' subtrees */
+            int parent = tree.getParent(v);
+            if (leftSibling != NONE) {
+                defaultAncestor[parent] = apportion(v, defaultAncestor[parent]);
+            } else if (parent != NONE) {
+                defaultAncestor[parent] = v;
             }
         }
     }
 
     /**
-     * This method cleans up the positioning of small sibling subtrees, thus fixing the
-     * "left-to-right gluing" problem evident in earlier algorithms. When moving a new subtree
-     * farther and farther to the right, gaps may open up among smaller subtrees that were
-     * previously sandwiched between larger subtrees. Thus, when moving the new, larger subtree to
-     * the right, the distance it is moved is also apportioned to smaller, interior subtrees,
-     * creating a pleasing aesthetic placement.
+     * This method moves the subtree of the given node right of the subtrees of its left siblings. It
+     * follows the left contour of the subtree and the right contour of the left siblings' subtrees
+     * level by level and shifts the subtree wherever the two come too close. The shift is also
+     * apportioned to smaller, interior subtrees, thus fixing the "left-to-right gluing" problem
+     * evident in earlier algorithms; those portions are only recorded here and are applied by
+     * {@link #executeShifts(int)}. Finally, the shorter of the two contours is linked to the rest of
+     * the longer one by a thread.
      * 
-     * @param cN
-     *            the root of the subtree
-     * @param level
-     *            the level of the root in the global tree
+     * @param v
+     *            the root of the subtree, which has a left sibling
+     * @param defaultAncestor
+     *            the leftmost sibling whose subtree reaches deepest among the left siblings
+     * @return the new default ancestor
      */
-    private void apportion(final TNode cN, final int level) {
-        /** Initialize the leftmost and neighbor corresponding to the root of the subtree */
-        TNode leftmost = Iterables.getFirst(cN.getChildren(), null);
-        TNode neighbor = leftmost != null ? leftmost.getProperty(InternalProperties.LEFTNEIGHBOR) : null;
-        int compareDepth = 1;
-        /**
-         * until this node and the neighbor to the left have nodes in the current level we have to
-         * shift the current subtree
-         */
-        while (leftmost != null && neighbor != null) {
-            /** Compute the location of Leftmost and where it should be with respect to Neighbor. */
-            double leftModSum = 0;
-            double rightModSum = 0;
-            TNode ancestorLeftmost = leftmost;
-            TNode ancestorNeighbor = neighbor;
-            /** sum the modifiers of all ancestors according to the current level */
-            for (int i = 0; i < compareDepth; i++) {
-                ancestorLeftmost = ancestorLeftmost.getParent();
-                ancestorNeighbor = ancestorNeighbor.getParent();
-                rightModSum += ancestorLeftmost.getProperty(InternalProperties.MODIFIER);
-                leftModSum += ancestorNeighbor.getProperty(InternalProperties.MODIFIER);
-            }
-            /**
-             * Find the MoveDistance, and apply it to Node's subtree. Add appropriate portions to
-             * smaller interior subtrees.
-             */
-            double prN = neighbor.getProperty(InternalProperties.PRELIM);
-            double prL = leftmost.getProperty(InternalProperties.PRELIM);
-            double mean = meanNodeWidth(leftmost, neighbor);
-            double moveDistance = prN + leftModSum + spacing + mean - prL - rightModSum;
+    private int apportion(final int v, final int defaultAncestor) {
+        int newDefaultAncestor = defaultAncestor;
+
+        // the inner and outer contour nodes of the right (plus) and left (minus) part
+        int vip = v;
+        int vop = v;
+        int vim = tree.getLeftSibling(v);
+        int vom = tree.getFirstChild(tree.getParent(v));
+        // the sums of modifiers along the contours
+        double sip = modifier[vip];
+        double sop = modifier[vop];
+        double sim = modifier[vim];
+        double som = modifier[vom];
+
+        int nextRightVim = nextRight(vim);
+        int nextLeftVip = nextLeft(vip);
+        while (nextRightVim != NONE && nextLeftVip != NONE) {
+            vim = nextRightVim;
+            vip = nextLeftVip;
+            vom = nextLeft(vom);
+            vop = nextRight(vop);
+            ancestor[vop] = v;
 
+            /** Compute the location of vip and where it should be with respect to vim. */
+            double moveDistance = prelim[vim] + sim + spacing + meanNodeWidth(vip, vim)
+                    - prelim[vip] - sip;
             if (0 < moveDistance) {
-                /** Count interior sibling subtrees in LeftSiblings */
-                TNode leftSibling = cN;
-                int leftSiblings = 0;
-                while (leftSibling != null && leftSibling != ancestorNeighbor) {
-                    leftSiblings++;
-                    leftSibling = leftSibling.getProperty(InternalProperties.LEFTSIBLING);
-                }
-                /** Apply portions to appropriate left sibling subtrees. */
-                if (leftSibling != null) {
-                    double portion = moveDistance / (double) leftSiblings;
-                    leftSibling = cN;
-                    while (leftSibling != ancestorNeighbor) {
-                        double newPr = leftSibling.getProperty(InternalProperties.PRELIM) + moveDistance;
-                        leftSibling.setProperty(InternalProperties.PRELIM, newPr);
-                        double newMod = leftSibling.getProperty(InternalProperties.MODIFIER) + moveDistance;
-                        leftSibling.setProperty(InternalProperties.MODIFIER, newMod);
-                        moveDistance -= portion;
-                        leftSibling = leftSibling.getProperty(InternalProperties.LEFTSIBLING);
-                    }
-                } else {
-                    /**
-                     * Don't need to move anything--it needs to be done by an ancestor because
-                     * AncestorNeighbor and AncestorLeftmost are not siblings of each other.
-                     */
-                    return;
-                }
-            }
-            /**
-             * Determine the leftmost descendant of Node at the next lower level to compare its
-             * positioning against that of its Neighbor.
-             */
-            compareDepth++;
-            if (leftmost.isLeaf()) {
-                leftmost = TreeUtil.getLeftMost(cN.getChildren(), compareDepth);
-            } else {
-                leftmost = Iterables.getFirst(leftmost.getChildren(), null);
+                moveSubtree(ancestor(vim, v, newDefaultAncestor), v, moveDistance);
+                sip += moveDistance;
+                sop += moveDistance;
             }
-            neighbor = leftmost != null ? leftmost.getProperty(InternalProperties.LEFTNEIGHBOR) : null;
+            sim += modifier[vim];
+            sip += modifier[vip];
+            som += modifier[vom];
+            sop += modifier[vop];
+
+            nextRightVim = nextRight(vim);
+            nextLeftVip = nextLeft(vip);
+        }
+
+        /** link the end of the shorter contour to the rest of the longer one */
+        if (nextRightVim != NONE && nextRight(vop) == NONE) {
+            thread[vop] = nextRightVim;
+            modifier[vop] += sim - sop;
+        }
+        if (nextLeftVip != NONE && nextLeft(vom) == NONE) {
+            thread[vom] = nextLeftVip;
+            modifier[vom] += sip - som;
+            newDefaultAncestor = v;
         }
+        return newDefaultAncestor;
+    }
+
+    /**
+     * Moves the subtree of the right node by the given distance and records the portions by which the
+     * subtrees of the siblings between the two nodes are to be moved.
+     * 
+     * @param wm
+     *            the left node
+     * @param wp
+     *            the right node, a right sibling of the left node
+     * @param moveDistance
+     *            the distance to move
+     */
+    private void moveSubtree(final int wm, final int wp, final double moveDistance) {
+        double portion = moveDistance / (tree.getSiblingIndex(wp) - tree.getSiblingIndex(wm));
+        change[wp] -= portion;
+        shift[wp] += moveDistance;
+        change[wm] += portion;
+        prelim[wp] += moveDistance;
+        modifier[wp] += moveDistance;
+    }
+
+    /**
+     * Applies the shifts recorded by {@link #moveSubtree(int, int, double)} to the children of the
+     * given node in a single pass from right to left.
+     * 
+     * @param v
+     *            a node with children
+     */
+    private void executeShifts(final int v) {
+        double currentShift = 0;
+        double currentChange = 0;
+        for (int w = tree.getLastChild(v); w >= tree.getFirstChild(v); w--) {
+            prelim[w] += currentShift;
+            modifier[w] += currentShift;
+            currentChange += change[w];
+            currentShift += shift[w] + currentChange;
+        }
+    }
+
+    /**
+     * Returns the sibling of the given node whose subtree contains the given left contour node, if that
+     * is known, or the default ancestor otherwise.
+     * 
+     * @param vim
+     *            a node on the right contour of the left siblings' subtrees
+     * @param v
+     *            the node being apportioned
+     * @param defaultAncestor
+     *            the default ancestor
+     * @return a left sibling of the node being apportioned
+     */
+    private int ancestor(final int vim, final int v, final int defaultAncestor) {
+        return tree.getParent(ancestor[vim]) == tree.getParent(v) ? ancestor[vim] : defaultAncestor;
+    }
+
+    /**
+     * Returns the next node on the left contour below the given node.
+     * 
+     * @param v
+     *            a node
+     * @return its first child if it has children, its thread otherwise
+     */
+    private int nextLeft(final int v) {
+        return tree.getChildCount(v) > 0 ? tree.getFirstChild(v) : thread[v];
+    }
+
+    /**
+     * Returns the next node on the right contour below the given node.
+     * 
+     * @param v
+     *            a node
+     * @return its last child if it has children, its thread otherwise
+     */
+    private int nextRight(final int v) {
+        return tree.getChildCount(v) > 0 ? tree.getLastChild(v) : thread[v];
     }
 
     /**
@@ -265,15 +383,8 @@ public class NodePlacer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
      *            the right hand node
      * @return the sum of the width
      */
-    private double meanNodeWidth(final TNode leftNode, final TNode rightNode) {
-        double nodeWidth = 0d;
-        if (leftNode != null) {
-            nodeWidth += leftNode.getSize().x / 2d;
-        }
-        if (rightNode != null) {
-            nodeWidth += rightNode.getSize().x / 2d;
-        }
-        return nodeWidth;
+    private double meanNodeWidth(final int leftNode, final int rightNode) {
+        return width[leftNode] / 2d + width[rightNode] / 2d;
     }
 
     /**
@@ -282,40 +393,44 @@ public class NodePlacer implements ILayoutPhase<TreeLayoutPhases, TGraph> {
      * depends on the height of the node's ancestors levels. If the actual position of an interior
      * node is right of its preliminary place, the subtree rooted at the node must be moved right to
      * center the sons around the father. Rather than immediately readjust all the nodes in the
-     * subtree, each node remembers the distance to the provisional place in a modifier field
-     * (property MODIFIER). In this second pass down the tree, modifiers are accumulated and applied
-     * to every node.
+     * subtree, each node remembers the distance to the provisional place in a modifier field. In this
+     * second pass down the tree, modifiers are accumulated and applied to every node.
      * 
-     * @param tNode
-     *            the root of the tree
+     * @param postorder
+     *            the nodes of the tree in postorder, which are walked in reverse so that every node
+     *            comes before its children
      * @param yCoor
-     *            the y coordinate of previous level
+     *            the y coordinate of the level above the root
      * @param modsum
-     *            the modifiers of all the node's ancestors
+     *            the modifier to apply to the whole tree
      */
-    private void secondWalk(final TNode tNode, final double yCoor, final double modsum) {
-        if (tNode != null) {
+    private void secondWalk(final int[] postorder, final double yCoor, final double modsum) {
+        // the y coordinate of the level above and the modifiers of all ancestors, indexed by node id
+        double[] levelYCoor = new double[tree.size()];
+        double[] ancestorModsum = new double[tree.size()];
+
+        for (int i = postorder.length - 1; i >= 0; i--) {
+            int v = postorder[i];
+            TNode tNode = tree.getNode(v);
+            double levelHeight = tNode.getDoubleProperty(InternalProperties.LEVELHEIGHT);
+            if (tree.getParent(v) == NONE) {
+                levelYCoor[v] = yCoor;
+                ancestorModsum[v] = modsum;
+            }
             // The x-position of the node is the sum of its prev x-coordinate and the modifiers of
             // all the node's ancestors and the adjust of the root location.
-            double xTemp = tNode.getProperty(InternalProperties.PRELIM) + modsum;
+            double xTemp = prelim[v] + ancestorModsum[v];
             // The y-position of the node is the height of the node's ancestors levels and the
             // height nodes's level and the adjust of the root location.
-            double yTemp = yCoor + (tNode.getProperty(InternalProperties.LEVELHEIGHT) / 2);
+            double yTemp = levelYCoor[v] + (levelHeight / 2);
             // We do not check to see that xTemp and yTemp are of the proper size, because the
             // framework will take care of this.
             tNode.setProperty(InternalProperties.XCOOR, (int) Math.round(xTemp));
             tNode.setProperty(InternalProperties.YCOOR, (int) Math.round(yTemp));
-            // Apply the modifier value for this node to all its offspring.
-            if (!tNode.isLeaf()) {
-                // This node got offsprings so we will step a level down and take care of them.
-                secondWalk(Iterables.getFirst(tNode.getChildren(), null),
-                        yCoor + tNode.getProperty(InternalProperties.LEVELHEIGHT) + spacing,
-                        modsum + tNode.getProperty(InternalProperties.MODIFIER));
-            }
-            // Go ahead with the sibling to the right. This is a dfs so we just layout the current
-            // subtree.
-            if (tNode.getProperty(InternalProperties.RIGHTSIBLING) != null) {
-                secondWalk(tNode.getProperty(InternalProperties.RIGHTSIBLING), yCoor, modsum);
+            // Apply the modifier value for this node to all its offspring, a level down.
+            for (int w = tree.getFirstChild(v); w <= tree.getLastChild(v); w++) {
+                levelYCoor[w] = levelYCoor[v] + levelHeight + spacing;
+                ancestorModsum[w] = ancestorModsum[v] + modifier[v];
             }
         }
     }
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.core.util.IElkCancelIndicator;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+import org.eclipse.elk.graph.ElkNode;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Lays out many graphs concurrently with a {@link RecursiveGraphLayoutEngine}. Each submitted graph
+ * becomes a task on the engine's fork-join pool, and so do the independent hierarchy levels the
+ * engine finds while laying it out. Idle workers thus steal both whole graphs and subgraphs of graphs
+ * that are already being laid out, which keeps all cores busy without any threading code on the
+ * caller's side.
+ * 
+ * <p>Each graph is handed back through a {@link CompletableFuture}, which also allows registering
+ * callbacks. Layout stops early if the future is canceled, if an optional cancel indicator reports
+ * cancelation, or if an optional timeout has passed since the layout of the graph started; the future
+ * then completes with a {@link CancellationException} or a {@link TimeoutException}, respectively.
+ * Layout algorithms only check for cancelation from time to time, so a graph may take somewhat longer
+ * than its timeout, and a graph whose layout was stopped may be partially laid out. A layout that is
+ * never told to stop completes normally, even if it finishes after its timeout.</p>
+ * 
+ * <p>Layout algorithms are resolved while graphs are submitted, so a graph that requests an unknown
+ * algorithm is rejected right away instead of failing on a worker. Layout provider instances are fetched
+ * from and released to the algorithms' instance pools, which keeps their number down to about the
+ * number of workers; for many workers, consider setting a
+ * {@link org.eclipse.elk.core.util.ConcurrentInstancePool ConcurrentInstancePool} on frequently used
+ * algorithms. Graphs may be submitted from any thread, but a graph must not be modified until its
+ * future has completed.</p>
+ */
+public class BatchLayoutEngine {
+    
+    /** the engine that lays out each graph. */
+    private final RecursiveGraphLayoutEngine engine;
+    /** the pool the graphs are laid out on. */
+    private final ForkJoinPool pool;
+    
+    /**
+     * Creates a batch layout engine that lays out graphs and their hierarchy levels on the common
+     * fork-join pool.
+     */
+    public BatchLayoutEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Creates a batch layout engine that lays out graphs and their hierarchy levels on the given pool.
+     * 
+     * @param pool the pool to lay out on
+     */
+    public BatchLayoutEngine(final ForkJoinPool pool) {
+        this(new RecursiveGraphLayoutEngine(pool));
+    }
+    
+    /**
+     * Creates a batch layout engine that lays out graphs with the given engine. Graphs are laid out on
+     * the engine's fork-join pool; if the engine has none, graphs are laid out on the common pool and
+     * their hierarchy levels one after the other.
+     * 
+     * @param engine the engine to lay out each graph with
+     */
+    public BatchLayoutEngine(final RecursiveGraphLayoutEngine engine) {
+        this.engine = engine;
+        this.pool = engine.getForkJoinPool() != null ? engine.getForkJoinPool() : ForkJoinPool.commonPool();
+    }
+    
+    /**
+     * Returns the engine that lays out each graph.
+     * 
+     * @return the engine
+     */
+    public RecursiveGraphLayoutEngine getEngine() {
+        return engine;
+    }
+    
+    /**
+     * Submits a graph for layout.
+     * 
+     * @param graph the graph to lay out
+     * @return a future that completes with the graph once it has been laid out
+     */
+    public CompletableFuture<ElkNode> submit(final ElkNode graph) {
+        return submit(graph, null, 0, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Submits a graph for layout, which stops early if the given indicator reports cancelation or if the
+     * given timeout passes.
+     * 
+     * @param graph the graph to lay out
+     * @param cancelIndicator indicator that is checked for cancelation during layout, or {@code null}
+     * @param timeout the time the layout of the graph may take, measured from when it starts; a value of
+     *                zero or less means no timeout
+     * @param unit the unit of the timeout
+     * @return a future that completes with the graph once it has been laid out
+     */
+    public CompletableFuture<ElkNode> submit(final ElkNode graph, final IElkCancelIndicator cancelIndicator,
+            final long timeout, final TimeUnit unit) {
+        
+        CompletableFuture<ElkNode> future = new CompletableFuture<>();
+        try {
+            resolveAlgorithms(graph);
+        } catch (RuntimeException exception) {
+            future.completeExceptionally(exception);
+            return future;
+        }
+        
+        pool.execute(new GraphLayoutTask(graph, future, cancelIndicator, timeout > 0 ? unit.toNanos(timeout) : 0));
+        return future;
+    }
+    
+    /**
+     * Submits several graphs for layout, each of which stops early if the given indicator reports
+     * cancelation or if the given timeout passes.
+     * 
+     * @param graphs the graphs to lay out
+     * @param cancelIndicator indicator that is checked for cancelation during layout, or {@code null}
+     * @param timeout the time the layout of each graph may take, measured from when it starts; a value
+     *                of zero or less means no timeout
+     * @param unit the unit of the timeout
+     * @return futures that complete with the graphs once they have been laid out, in the order of the
+     *         graphs
+     */
+    public List<CompletableFuture<ElkNode>> submitAll(final Collection<ElkNode> graphs,
+            final IElkCancelIndicator cancelIndicator, final long timeout, final TimeUnit unit) {
+        
+        List<CompletableFuture<ElkNode>> futures = Lists.newArrayListWithCapacity(graphs.size());
+        for (ElkNode graph : graphs) {
+            futures.add(submit(graph, cancelIndicator, timeout, unit));
+        }
+        return futures;
+    }
+    
+    /**
+     * Resolves the layout algorithms of all hierarchy levels of the given graph.
+     * 
+     * @param graph the graph
+     * @throws UnsupportedConfigurationException if one of the algorithms is not available
+     */
+    private void resolveAlgorithms(final ElkNode graph) {
+        if (!graph.getChildren().isEmpty()) {
+            engine.getAlgorithm(graph);
+            engine.resolveAlgorithms(graph);
+        }
+    }
+    
+    /**
+     * Task that lays out one graph and completes its future.
+     */
+    private final class GraphLayoutTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 4378102349262817734L;
+        
+        /** the graph to lay out. */
+        private final ElkNode graph;
+        /** the future to complete. */
+        private final CompletableFuture<ElkNode> future;
+        /** indicator that is checked for cancelation, or {@code null}. */
+        private final IElkCancelIndicator cancelIndicator;
+        /** the time the layout may take in nanoseconds, or zero for no timeout. */
+        private final long timeoutNanos;
+        /** the time at which the layout has to stop, valid if there is a timeout. */
+        private long deadline;
+        /** whether the progress monitor has told the layout to stop; set from any worker. */
+        private volatile boolean stopped;
+        
+        /**
+         * Creates a task for the given graph.
+         * 
+         * @param graph the graph to lay out
+         * @param future the future to complete
+         * @param cancelIndicator indicator that is checked for cancelation, or {@code null}
+         * @param timeoutNanos the time the layout may take in nanoseconds, or zero for no timeout
+         */
+        GraphLayoutTask(final ElkNode graph, final CompletableFuture<ElkNode> future,
+                final IElkCancelIndicator cancelIndicator, final long timeoutNanos) {
+            
+            this.graph = graph;
+            this.future = future;
+            this.cancelIndicator = cancelIndicator;
+            this.timeoutNanos = timeoutNanos;
+        }
+        
+        @Override
+        protected void compute() {
+            deadline = System.nanoTime() + timeoutNanos;
+            if (isCanceled()) {
+                completeCanceled();
+                return;
+            }
+            
+            IElkProgressMonitor monitor = new BasicProgressMonitor(0, false) {
+                @Override
+                public boolean isCanceled() {
+                    if (GraphLayoutTask.this.isCanceled()) {
+                        stopped = true;
+                    }
+                    return stopped;
+                }
+            };
+            try {
+                engine.layout(graph, monitor);
+            } catch (RuntimeException exception) {
+                future.completeExceptionally(exception);
+                return;
+            } catch (Error error) {
+                // callers waiting for the future must not hang, but errors are not ours to handle
+                future.completeExceptionally(error);
+                throw error;
+            }
+            
+            // a layout that was never told to stop is complete, even if it finished after its deadline
+            if (stopped) {
+                completeCanceled();
+            } else {
+                future.complete(graph);
+            }
+        }
+        
+        /**
+         * Returns whether the layout has to stop.
+         */
+        private boolean isCanceled() {
+            return future.isDone()
+                    || cancelIndicator != null && cancelIndicator.isCanceled()
+                    || timeoutNanos > 0 && System.nanoTime() - deadline >= 0;
+        }
+        
+        /**
+         * Completes the future of a layout that had to stop, unless it has been completed already.
+         */
+        private void completeCanceled() {
+            if (future.isDone()) {
+                return;
+            } else if (cancelIndicator != null && cancelIndicator.isCanceled()) {
+                future.cancel(false);
+            } else {
+                future.completeExceptionally(new TimeoutException("Layout of " + graph + " timed out."));
+            }
+        }
+    }
+
+}
@@ -11,21 +11,32 @@
 package org.eclipse.elk.core;
 
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
+import org.eclipse.elk.core.cache.LayoutCache;
+import org.eclipse.elk.core.cache.LayoutLevel;
 import org.eclipse.elk.core.data.LayoutAlgorithmData;
 import org.eclipse.elk.core.data.LayoutMetaDataService;
 import org.eclipse.elk.core.options.CoreOptions;
 import org.eclipse.elk.core.options.HierarchyHandling;
 import org.eclipse.elk.core.util.ElkUtil;
+import org.eclipse.elk.core.util.IElkCancelIndicator;
 import org.eclipse.elk.core.util.IElkProgressMonitor;
 import org.eclipse.elk.graph.ElkBendPoint;
 import org.eclipse.elk.graph.ElkConnectableShape;
 import org.eclipse.elk.graph.ElkEdge;
 import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkGraphElement;
 import org.eclipse.elk.graph.ElkNode;
 import org.eclipse.elk.graph.properties.GraphFeature;
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.IPropertyValueProxy;
 import org.eclipse.elk.graph.util.ElkGraphUtil;
 
 import com.google.common.collect.Lists;
@@ -39,6 +50,17 @@ import com.google.common.collect.Lists;
  * MIGRATE Extend the graph layout engine to offset edge coordinates properly
  * </p> 
  * 
+ * <p>If the engine is created with a {@link ForkJoinPool}, compound children of a node whose hierarchy
+ * handling is {@link HierarchyHandling#SEPARATE_CHILDREN} are independent of each other and are laid out
+ * in parallel on that pool. Each such subgraph is processed with its own layout provider instance and
+ * reports to its own sub-task of the progress monitor. The results are collected in the order of the
+ * children, so the outcome does not depend on the order in which the subgraphs finish.</p>
+ * 
+ * <p>If the engine is created with a {@link LayoutCache}, each hierarchy level is hashed right before
+ * its layout algorithm would run. If a layout is cached for the hash, it is applied instead of running
+ * the algorithm; otherwise, the computed layout is added to the cache. Since levels are hashed
+ * separately, unchanged levels of a partially modified graph are restored as well.</p>
+ * 
  * @kieler.design 2011-03-14 reviewed by cmot, cds
  * @kieler.rating yellow 2012-08-10 review KI-23 by cds, sgu
  * @author ars
@@ -46,6 +68,60 @@ import com.google.common.collect.Lists;
  */
 public class RecursiveGraphLayoutEngine implements IGraphLayoutEngine {
     
+    /** the pool on which independent sibling subgraphs are laid out, or {@code null} for sequential layout. */
+    private final ForkJoinPool forkJoinPool;
+    /** the cache for the layouts of hierarchy levels, or {@code null} if layouts are not cached. */
+    private final LayoutCache layoutCache;
+    
+    /**
+     * Creates a layout engine that lays out all hierarchy levels sequentially.
+     */
+    public RecursiveGraphLayoutEngine() {
+        this(null);
+    }
+    
+    /**
+     * Creates a layout engine that lays out independent sibling subgraphs in parallel on the given pool.
+     * 
+     * @param pool the pool to run sibling subgraph layouts on, or {@code null} to lay out all hierarchy
+     *             levels sequentially
+     */
+    public RecursiveGraphLayoutEngine(final ForkJoinPool pool) {
+        this(pool, null);
+    }
+    
+    /**
+     * Creates a layout engine that lays out independent sibling subgraphs in parallel on the given pool
+     * and caches the layouts of hierarchy levels in the given cache.
+     * 
+     * @param pool the pool to run sibling subgraph layouts on, or {@code null} to lay out all hierarchy
+     *             levels sequentially
+     * @param cache the cache to look up and store the layouts of hierarchy levels in, or {@code null} to
+     *             always run the layout algorithms
+     */
+    public RecursiveGraphLayoutEngine(final ForkJoinPool pool, final LayoutCache cache) {
+        this.forkJoinPool = pool;
+        this.layoutCache = cache;
+    }
+    
+    /**
+     * Returns the pool on which independent sibling subgraphs are laid out.
+     * 
+     * @return the pool, or {@code null} if the engine works sequentially
+     */
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+    
+    /**
+     * Returns the cache the layouts of hierarchy levels are kept in.
+     * 
+     * @return the cache, or {@code null} if layouts are not cached
+     */
+    public LayoutCache getLayoutCache() {
+        return layoutCache;
+    }
+    
     /**
      * Performs recursive layout on the given layout graph.
      * 
@@ -112,6 +188,9 @@ public class RecursiveGraphLayoutEngine implements IGraphLayoutEngine {
             // We collect inside self loops of children and post-process them later
             List<ElkEdge> childrenInsideSelfLoops = Lists.newArrayList();
             
+            // The nodes whose children are laid out by the layout algorithm for this node
+            List<ElkNode> levelParents = Lists.newArrayList(layoutNode);
+            
             // if the layout provider supports hierarchy, it is expected to layout the node's compound
             // node children as well
             int nodeCount;
@@ -149,18 +228,23 @@ public class RecursiveGraphLayoutEngine implements IGraphLayoutEngine {
                         // Child should be included in current layout, possibly adding its own
                         // children
                         kNodeQueue.addAll(knode.getChildren());
+                        levelParents.add(knode);
                     }
                 }
 
             } else {
                 // layout each compound node contained in this node separately
                 nodeCount = layoutNode.getChildren().size();
-                for (ElkNode child : layoutNode.getChildren()) {
-                    List<ElkEdge> childLayoutSelfLoops = layoutRecursively(child, progressMonitor); 
-                    childrenInsideSelfLoops.addAll(childLayoutSelfLoops);
-                    
-                    // apply the LayoutOptions.SCALE_FACTOR if present
-                    ElkUtil.applyConfiguredNodeScaling(child);
+                if (forkJoinPool != null && countCompoundChildren(layoutNode) > 1) {
+                    childrenInsideSelfLoops.addAll(layoutChildrenInParallel(layoutNode, progressMonitor));
+                } else {
+                    for (ElkNode child : layoutNode.getChildren()) {
+                        List<ElkEdge> childLayoutSelfLoops = layoutRecursively(child, progressMonitor); 
+                        childrenInsideSelfLoops.addAll(childLayoutSelfLoops);
+                        
+                        // apply the LayoutOptions.SCALE_FACTOR if present
+                        ElkUtil.applyConfiguredNodeScaling(child);
+                    }
                 }
             }
 
@@ -174,16 +258,31 @@ public class RecursiveGraphLayoutEngine implements IGraphLayoutEngine {
                 selfLoop.setProperty(CoreOptions.NO_LAYOUT, true);
             }
 
-            // get an instance of the layout provider
-            AbstractLayoutProvider layoutProvider = algorithmData.getInstancePool().fetch();
-            try {
-                // perform layout on the current hierarchy level
-                layoutProvider.layout(layoutNode, progressMonitor.subTask(nodeCount));
-                algorithmData.getInstancePool().release(layoutProvider);
-            } catch (RuntimeException exception) {
-                // the layout provider has failed - destroy it slowly and painfully
-                layoutProvider.dispose();
-                throw exception;
+            // look up the layout of the current hierarchy level if layouts are cached
+            LayoutLevel cachedLevel = null;
+            if (layoutCache != null) {
+                cachedLevel = layoutCache.hash(layoutNode, levelParents, algorithmData.getId());
+            }
+            
+            if (cachedLevel != null && cachedLevel.restore()) {
+                progressMonitor.worked(nodeCount);
+            } else {
+                // get an instance of the layout provider
+                AbstractLayoutProvider layoutProvider = algorithmData.getProviderPool().fetch();
+                try {
+                    // perform layout on the current hierarchy level
+                    layoutProvider.layout(layoutNode, progressMonitor.subTask(nodeCount));
+                    algorithmData.getProviderPool().release(layoutProvider);
+                } catch (RuntimeException exception) {
+                    // the layout provider has failed - destroy it slowly and painfully
+                    layoutProvider.dispose();
+                    throw exception;
+                }
+                
+                // a canceled layout may be incomplete and must not be cached
+                if (cachedLevel != null && !progressMonitor.isCanceled()) {
+                    cachedLevel.store();
+                }
             }
             
             // Post-process the inner self loops we collected
@@ -200,6 +299,260 @@ public class RecursiveGraphLayoutEngine implements IGraphLayoutEngine {
         }
     }
 
+    
+    ////////////////////////////////////////////////////////////////////////////////////////
+    // Parallel Layout
+    
+    /**
+     * Lays out the children of the given node in parallel on the engine's fork-join pool. Each compound
+     * child gets a sub-task of the given monitor, which reports cancelation of the given monitor as well.
+     * Since the given monitor is not thread-safe, the sub-tasks don't pass their progress on to it;
+     * instead, the work they represent is reported once they are done. Children without children of
+     * their own are processed right away. The children's inside self loops are returned in the order of
+     * the children.
+     * 
+     * @param layoutNode the node whose children are to be laid out
+     * @param progressMonitor monitor used to keep track of progress
+     * @return list of self loops routed inside the children.
+     */
+    private List<ElkEdge> layoutChildrenInParallel(final ElkNode layoutNode,
+            final IElkProgressMonitor progressMonitor) {
+        
+        resolveSharedProperties(layoutNode);
+        
+        // The sub-tasks are created before any of them is started, so none of them reports progress
+        List<SubgraphLayoutTask> tasks = Lists.newArrayList();
+        for (ElkNode child : layoutNode.getChildren()) {
+            if (!child.getChildren().isEmpty()) {
+                tasks.add(new SubgraphLayoutTask(child, progressMonitor.subTask(0), progressMonitor));
+            }
+        }
+        for (SubgraphLayoutTask task : tasks) {
+            if (ForkJoinTask.getPool() == forkJoinPool) {
+                task.fork();
+            } else {
+                forkJoinPool.execute(task);
+            }
+        }
+        
+        // Wait for all subgraphs, even if one of them fails, to leave the graph in a consistent state
+        List<ElkEdge> insideSelfLoops = Lists.newArrayList();
+        Iterator<SubgraphLayoutTask> taskIterator = tasks.iterator();
+        RuntimeException failure = null;
+        for (ElkNode child : layoutNode.getChildren()) {
+            try {
+                if (child.getChildren().isEmpty()) {
+                    insideSelfLoops.addAll(layoutRecursively(child, progressMonitor));
+                } else {
+                    SubgraphLayoutTask task = taskIterator.next();
+                    insideSelfLoops.addAll(task.join());
+                    progressMonitor.worked(task.work);
+                }
+                
+                // apply the LayoutOptions.SCALE_FACTOR if present
+                ElkUtil.applyConfiguredNodeScaling(child);
+            } catch (RuntimeException exception) {
+                if (failure == null) {
+                    failure = exception;
+                }
+            }
+        }
+        
+        if (failure != null) {
+            throw failure;
+        }
+        return insideSelfLoops;
+    }
+    
+    /**
+     * Resolves the properties that the layouts of the given node's children share before they are run in
+     * parallel. Reading a property of a graph element writes to the element if the value is still a
+     * {@link IPropertyValueProxy}, so the proxies of the given node, its ancestors, and the edges between
+     * its children are resolved up front. The hierarchy handling of the compound children, which may be
+     * inherited from the given node, is evaluated as well. Beyond that, the subgraph layouts only read
+     * inherited values such as the layout direction from the shared elements, which are never stored on
+     * access.
+     * 
+     * @param layoutNode the node whose children are about to be laid out in parallel
+     */
+    private void resolveSharedProperties(final ElkNode layoutNode) {
+        for (ElkNode ancestor = layoutNode; ancestor != null; ancestor = ancestor.getParent()) {
+            resolvePropertyProxies(ancestor);
+        }
+        for (ElkEdge edge : layoutNode.getContainedEdges()) {
+            resolvePropertyProxies(edge);
+        }
+        for (ElkNode child : layoutNode.getChildren()) {
+            if (!child.getChildren().isEmpty()) {
+                evaluateHierarchyHandlingInheritance(child);
+            }
+        }
+    }
+    
+    /**
+     * Replaces the property value proxies of the given element by their resolved values.
+     * 
+     * @param element the element whose property values to resolve
+     */
+    private void resolvePropertyProxies(final ElkGraphElement element) {
+        for (Map.Entry<IProperty<?>, Object> entry : element.getProperties()) {
+            if (entry.getValue() instanceof IPropertyValueProxy) {
+                Object value = ((IPropertyValueProxy) entry.getValue()).resolveValue(entry.getKey());
+                if (value != null) {
+                    entry.setValue(value);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Resolves the layout algorithm of all descendants of the given node that have children, which
+     * fails if one of them is not available.
+     * 
+     * @param layoutNode the root of the subgraph whose algorithms to resolve
+     */
+    void resolveAlgorithms(final ElkNode layoutNode) {
+        for (ElkNode child : layoutNode.getChildren()) {
+            if (!child.getChildren().isEmpty()) {
+                getAlgorithm(child);
+                resolveAlgorithms(child);
+            }
+        }
+    }
+    
+    /**
+     * Returns the number of children of the given node that have children themselves. Only those require
+     * a layout run of their own, so parallel layout only pays off if there are at least two of them.
+     * 
+     * @param layoutNode the node whose children to examine
+     * @return the number of compound children
+     */
+    private int countCompoundChildren(final ElkNode layoutNode) {
+        int count = 0;
+        for (ElkNode child : layoutNode.getChildren()) {
+            if (!child.getChildren().isEmpty()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Task that lays out one child subgraph with its own progress monitor.
+     */
+    private final class SubgraphLayoutTask extends RecursiveTask<List<ElkEdge>> {
+        
+        private static final long serialVersionUID = -2953460421618212393L;
+        
+        /** the root of the subgraph to lay out. */
+        private final ElkNode node;
+        /** the amount of work the subgraph represents in the parent monitor. */
+        private final int work;
+        /** the monitor the subgraph's progress is reported to. */
+        private final IElkProgressMonitor monitor;
+        
+        /**
+         * Creates a task for the given subgraph.
+         * 
+         * @param node the root of the subgraph to lay out
+         * @param subMonitor the monitor to report the subgraph's progress to
+         * @param cancelIndicator the monitor that reports whether layout has been canceled
+         */
+        SubgraphLayoutTask(final ElkNode node, final IElkProgressMonitor subMonitor,
+                final IElkCancelIndicator cancelIndicator) {
+            
+            this.node = node;
+            this.work = countNodesRecursively(node, false);
+            this.monitor = new SubgraphProgressMonitor(subMonitor, cancelIndicator);
+        }
+
+        @Override
+        protected List<ElkEdge> compute() {
+            monitor.begin("Subgraph Layout", work);
+            List<ElkEdge> insideSelfLoops = layoutRecursively(node, monitor);
+            monitor.done();
+            return insideSelfLoops;
+        }
+    }
+    
+    /**
+     * Progress monitor of a subgraph that is laid out in parallel. It reports to a sub-task of the parent
+     * monitor, but is canceled whenever the parent monitor is, even if the sub-task itself does not pass
+     * cancelation on.
+     */
+    private static final class SubgraphProgressMonitor implements IElkProgressMonitor {
+        
+        /** the sub-task of the parent monitor. */
+        private final IElkProgressMonitor delegate;
+        /** the parent monitor. */
+        private final IElkCancelIndicator cancelIndicator;
+        
+        /**
+         * Creates a monitor that reports to the given sub-task.
+         * 
+         * @param delegate the sub-task of the parent monitor
+         * @param cancelIndicator the parent monitor
+         */
+        SubgraphProgressMonitor(final IElkProgressMonitor delegate, final IElkCancelIndicator cancelIndicator) {
+            this.delegate = delegate;
+            this.cancelIndicator = cancelIndicator;
+        }
+
+        @Override
+        public boolean begin(final String name, final float totalWork) {
+            return delegate.begin(name, totalWork);
+        }
+
+        @Override
+        public boolean isRunning() {
+            return delegate.isRunning();
+        }
+
+        @Override
+        public void done() {
+            delegate.done();
+        }
+
+        @Override
+        public void worked(final float work) {
+            delegate.worked(work);
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled() || cancelIndicator.isCanceled();
+        }
+
+        @Override
+        public IElkProgressMonitor subTask(final float work) {
+            return delegate.subTask(work);
+        }
+
+        @Override
+        public List<IElkProgressMonitor> getSubMonitors() {
+            return delegate.getSubMonitors();
+        }
+
+        @Override
+        public IElkProgressMonitor getParentMonitor() {
+            return delegate.getParentMonitor();
+        }
+
+        @Override
+        public String getTaskName() {
+            return delegate.getTaskName();
+        }
+
+        @Override
+        public double getExecutionTime() {
+            return delegate.getExecutionTime();
+        }
+    }
+    
+    
+    ////////////////////////////////////////////////////////////////////////////////////////
+    // Algorithm Selection
+    
     /**
      * Returns the most appropriate layout algorithm for the given node.
      * 
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.cache;
+
+import java.io.Serializable;
+
+/**
+ * The layout of one hierarchy level as stored by a {@link LayoutCache}: the coordinates and sizes of
+ * its shapes and the edge sections of its edges. The values are meaningful only in the order in which
+ * a {@link LayoutLevel} with the same key enumerates the elements of its hierarchy level. Instances are
+ * immutable and serializable, so storages may keep them out of process.
+ */
+public final class CachedLayout implements Serializable {
+
+    private static final long serialVersionUID = 6083629017450941552L;
+
+    /** coordinates and sizes in the order the elements of the hierarchy level are enumerated. */
+    private final double[] values;
+    /** numbers of sections, bend points, junction points, and indices of connected shapes. */
+    private final int[] structure;
+
+    /**
+     * Creates a cached layout.
+     * 
+     * @param values coordinates and sizes.
+     * @param structure structure of the edge sections.
+     */
+    CachedLayout(final double[] values, final int[] structure) {
+        this.values = values;
+        this.structure = structure;
+    }
+
+    /**
+     * Returns the coordinates and sizes. The array must not be modified.
+     */
+    double[] getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the structure of the edge sections. The array must not be modified.
+     */
+    int[] getStructure() {
+        return structure;
+    }
+
+    /**
+     * Returns the weight of this layout, a measure of the memory it occupies.
+     * 
+     * @return the number of values this layout consists of.
+     */
+    public int getWeight() {
+        return values.length + structure.length;
+    }
+
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.cache;
+
+/**
+ * Stores the layouts of a {@link LayoutCache}. Implementations decide how many layouts are kept and
+ * where; {@link LruLayoutCacheStorage} keeps them in memory. Since hierarchy levels may be laid out in
+ * parallel, implementations must be thread-safe.
+ */
+public interface ILayoutCacheStorage {
+
+    /**
+     * Returns the layout stored for the given key.
+     * 
+     * @param key the structural hash of a hierarchy level.
+     * @return the layout, or {@code null} if there is none.
+     */
+    CachedLayout get(String key);
+
+    /**
+     * Stores the layout for the given key, replacing any layout stored before.
+     * 
+     * @param key the structural hash of a hierarchy level.
+     * @param layout the layout computed for the hierarchy level.
+     */
+    void put(String key, CachedLayout layout);
+
+    /**
+     * Removes all stored layouts.
+     */
+    void clear();
+
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.cache;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.elk.graph.ElkNode;
+
+/**
+ * Caches the layouts of hierarchy levels, keyed by a structural hash of each level. The hash covers
+ * the nodes, ports, labels, and edges of a level with their coordinates, sizes, and layout options,
+ * as well as the layout algorithm. Since a level is hashed only once the levels below it have been
+ * laid out, the hash also captures the sizes its children were given. A level whose hash is found in
+ * the cache is given the stored layout without running a layout algorithm, which also works for the
+ * unchanged levels of a partially modified graph.
+ * 
+ * <p>A {@link org.eclipse.elk.core.RecursiveGraphLayoutEngine} uses a cache if it is created with one.
+ * Restoring a layout sets the coordinates and sizes of the level's shapes and the edge sections and
+ * {@link org.eclipse.elk.core.options.CoreOptions#JUNCTION_POINTS junction points} of its edges; other
+ * properties a layout algorithm might set are not restored.</p>
+ */
+public final class LayoutCache {
+
+    /** the maximal number of layouts of the default storage. */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    /** the maximal total weight of the layouts of the default storage. */
+    public static final long DEFAULT_MAX_WEIGHT = 10000000L;
+
+    /** where layouts are stored. */
+    private final ILayoutCacheStorage storage;
+    /** the number of levels whose layout was restored. */
+    private final AtomicInteger hits = new AtomicInteger();
+    /** the number of levels whose layout was not found. */
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Creates a cache that stores layouts in a {@link LruLayoutCacheStorage} with the default bounds.
+     */
+    public LayoutCache() {
+        this(new LruLayoutCacheStorage(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT));
+    }
+
+    /**
+     * Creates a cache that stores layouts in the given storage.
+     * 
+     * @param storage the storage; must be thread-safe.
+     */
+    public LayoutCache(final ILayoutCacheStorage storage) {
+        if (storage == null) {
+            throw new NullPointerException("storage");
+        }
+        this.storage = storage;
+    }
+
+    /**
+     * Returns the storage layouts are kept in.
+     * 
+     * @return the storage.
+     */
+    public ILayoutCacheStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Hashes the given hierarchy level in its current state. This must be done before the level is
+     * laid out.
+     * 
+     * @param layoutNode the node whose content is laid out.
+     * @param levelParents the nodes whose children and edges belong to the level, starting with the
+     *            layout node; more than one if the layout algorithm handles several levels of hierarchy
+     *            at once.
+     * @param algorithmId the identifier of the layout algorithm.
+     * @return the hierarchy level, which can be used to restore or store its layout.
+     */
+    public LayoutLevel hash(final ElkNode layoutNode, final List<ElkNode> levelParents, final String algorithmId) {
+        return new LayoutLevel(this, layoutNode, levelParents, algorithmId);
+    }
+
+    /**
+     * Returns the number of hierarchy levels whose layout was restored.
+     * 
+     * @return the number of hits.
+     */
+    public int getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of hierarchy levels whose layout was looked up but not found.
+     * 
+     * @return the number of misses.
+     */
+    public int getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all layouts from the storage and resets the hit and miss counts.
+     */
+    public void clear() {
+        storage.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Counts a restored hierarchy level.
+     */
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Counts a hierarchy level whose layout was not found.
+     */
+    void miss() {
+        misses.incrementAndGet();
+    }
+
+}
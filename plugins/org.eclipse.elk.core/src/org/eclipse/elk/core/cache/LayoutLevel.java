@@ -0,0 +1,411 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.cache;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.elk.core.math.KVector;
+import org.eclipse.elk.core.math.KVectorChain;
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.util.WrappedException;
+import org.eclipse.elk.graph.ElkBendPoint;
+import org.eclipse.elk.graph.ElkConnectableShape;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkGraphElement;
+import org.eclipse.elk.graph.ElkLabel;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+import org.eclipse.elk.graph.ElkShape;
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+
+/**
+ * One hierarchy level of a graph, hashed by a {@link LayoutCache}. The elements of the level are
+ * enumerated in a canonical order: the labels and ports of the layout node, then the children of each
+ * level parent with their labels and ports, then the edges contained in each level parent. The
+ * structural hash, the {@link CachedLayout} stored for the level, and the restoring of a layout all
+ * follow this order.
+ */
+public final class LayoutLevel {
+
+    /** orders properties by their identifier. */
+    private static final Comparator<Map.Entry<IProperty<?>, Object>> PROPERTY_ORDER =
+            (e1, e2) -> e1.getKey().getId().compareTo(e2.getKey().getId());
+
+    /** marks a missing shape or section. */
+    private static final int NONE = -1;
+
+    /** the cache the level belongs to. */
+    private final LayoutCache cache;
+    /** the node whose content is laid out. */
+    private final ElkNode layoutNode;
+    /** the nodes whose children and edges belong to the level. */
+    private final List<ElkNode> levelParents;
+    /** the shapes of the level except for the layout node, in canonical order. */
+    private final List<ElkShape> shapes = Lists.newArrayList();
+    /** the edges of the level, in canonical order. */
+    private final List<ElkEdge> edges = Lists.newArrayList();
+    /** the index of the layout node, the nodes and the ports of the level in canonical order. */
+    private final Map<ElkConnectableShape, Integer> shapeIndices = Maps.newHashMap();
+    /** the structural hash of the level. */
+    private final String key;
+
+    /**
+     * Enumerates and hashes the given hierarchy level.
+     */
+    LayoutLevel(final LayoutCache cache, final ElkNode layoutNode, final List<ElkNode> levelParents,
+            final String algorithmId) {
+
+        this.cache = cache;
+        this.layoutNode = layoutNode;
+        this.levelParents = levelParents;
+
+        shapeIndices.put(layoutNode, 0);
+        addLabels(layoutNode);
+        addPorts(layoutNode);
+        for (ElkNode parent : levelParents) {
+            for (ElkNode child : parent.getChildren()) {
+                shapeIndices.put(child, shapeIndices.size());
+                shapes.add(child);
+                addLabels(child);
+                addPorts(child);
+            }
+        }
+        for (ElkNode parent : levelParents) {
+            for (ElkEdge edge : parent.getContainedEdges()) {
+                edges.add(edge);
+                addLabels(edge);
+            }
+        }
+
+        key = computeKey(algorithmId);
+    }
+
+    /**
+     * Returns the structural hash of the hierarchy level.
+     *
+     * @return the hash.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Applies the layout stored for the hierarchy level, if any.
+     *
+     * @return {@code true} if a layout was found and applied.
+     */
+    public boolean restore() {
+        CachedLayout layout = cache.getStorage().get(key);
+        if (layout == null) {
+            cache.miss();
+            return false;
+        }
+
+        double[] values = layout.getValues();
+        int[] structure = layout.getStructure();
+        int v = 0, s = 0;
+
+        layoutNode.setDimensions(values[v++], values[v++]);
+        for (ElkShape shape : shapes) {
+            shape.setLocation(values[v++], values[v++]);
+            shape.setDimensions(values[v++], values[v++]);
+        }
+
+        List<ElkShape> shapesByIndex = shapesByIndex();
+        for (ElkEdge edge : edges) {
+            if (edge.getProperty(CoreOptions.NO_LAYOUT)) {
+                continue;
+            }
+
+            edge.getSections().clear();
+            int sectionCount = structure[s++];
+            for (int i = 0; i < sectionCount; i++) {
+                ElkEdgeSection section = ElkGraphUtil.createEdgeSection(edge);
+                section.setStartLocation(values[v++], values[v++]);
+                section.setEndLocation(values[v++], values[v++]);
+                int bendPointCount = structure[s++];
+                for (int j = 0; j < bendPointCount; j++) {
+                    ElkGraphUtil.createBendPoint(section, values[v++], values[v++]);
+                }
+                section.setIncomingShape(connectableShape(shapesByIndex, structure[s++]));
+                section.setOutgoingShape(connectableShape(shapesByIndex, structure[s++]));
+            }
+            for (ElkEdgeSection section : edge.getSections()) {
+                int outgoingCount = structure[s++];
+                for (int j = 0; j < outgoingCount; j++) {
+                    section.getOutgoingSections().add(edge.getSections().get(structure[s++]));
+                }
+            }
+
+            int junctionPointCount = structure[s++];
+            if (junctionPointCount == NONE) {
+                edge.setProperty(CoreOptions.JUNCTION_POINTS, null);
+            } else {
+                KVectorChain junctionPoints = new KVectorChain();
+                for (int j = 0; j < junctionPointCount; j++) {
+                    junctionPoints.add(new KVector(values[v++], values[v++]));
+                }
+                edge.setProperty(CoreOptions.JUNCTION_POINTS, junctionPoints);
+            }
+        }
+
+        cache.hit();
+        return true;
+    }
+
+    /**
+     * Stores the current layout of the hierarchy level under the hash the level had when it was
+     * enumerated.
+     */
+    public void store() {
+        List<Double> values = Lists.newArrayList();
+        List<Integer> structure = Lists.newArrayList();
+
+        values.add(layoutNode.getWidth());
+        values.add(layoutNode.getHeight());
+        for (ElkShape shape : shapes) {
+            values.add(shape.getX());
+            values.add(shape.getY());
+            values.add(shape.getWidth());
+            values.add(shape.getHeight());
+        }
+
+        for (ElkEdge edge : edges) {
+            if (edge.getProperty(CoreOptions.NO_LAYOUT)) {
+                continue;
+            }
+
+            structure.add(edge.getSections().size());
+            for (ElkEdgeSection section : edge.getSections()) {
+                values.add(section.getStartX());
+                values.add(section.getStartY());
+                values.add(section.getEndX());
+                values.add(section.getEndY());
+                structure.add(section.getBendPoints().size());
+                for (ElkBendPoint bendPoint : section.getBendPoints()) {
+                    values.add(bendPoint.getX());
+                    values.add(bendPoint.getY());
+                }
+                structure.add(shapeIndex(section.getIncomingShape()));
+                structure.add(shapeIndex(section.getOutgoingShape()));
+            }
+            for (ElkEdgeSection section : edge.getSections()) {
+                // only connections between sections of the same edge can be restored
+                List<Integer> outgoingIndices = Lists.newArrayList();
+                for (ElkEdgeSection outgoing : section.getOutgoingSections()) {
+                    if (outgoing.getParent() == edge) {
+                        outgoingIndices.add(edge.getSections().indexOf(outgoing));
+                    }
+                }
+                structure.add(outgoingIndices.size());
+                structure.addAll(outgoingIndices);
+            }
+
+            if (edge.hasProperty(CoreOptions.JUNCTION_POINTS)) {
+                KVectorChain junctionPoints = edge.getProperty(CoreOptions.JUNCTION_POINTS);
+                structure.add(junctionPoints.size());
+                for (KVector junctionPoint : junctionPoints) {
+                    values.add(junctionPoint.x);
+                    values.add(junctionPoint.y);
+                }
+            } else {
+                structure.add(NONE);
+            }
+        }
+
+        cache.getStorage().put(key, new CachedLayout(Doubles.toArray(values), Ints.toArray(structure)));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////
+    // Enumeration
+
+    /**
+     * Adds the labels of the given element and, recursively, their labels.
+     */
+    private void addLabels(final ElkGraphElement element) {
+        for (ElkLabel label : element.getLabels()) {
+            shapes.add(label);
+            addLabels(label);
+        }
+    }
+
+    /**
+     * Adds the ports of the given node with their labels.
+     */
+    private void addPorts(final ElkNode node) {
+        for (ElkPort port : node.getPorts()) {
+            shapeIndices.put(port, shapeIndices.size());
+            shapes.add(port);
+            addLabels(port);
+        }
+    }
+
+    /**
+     * Returns the index of the given shape, or {@link #NONE} if it is not part of the level.
+     */
+    private int shapeIndex(final ElkConnectableShape shape) {
+        Integer index = shape == null ? null : shapeIndices.get(shape);
+        return index == null ? NONE : index;
+    }
+
+    /**
+     * Returns the layout node, nodes and ports of the level ordered by their index.
+     */
+    private List<ElkShape> shapesByIndex() {
+        List<ElkShape> result = Lists.newArrayList(Collections.nCopies(shapeIndices.size(), (ElkShape) null));
+        for (Map.Entry<ElkConnectableShape, Integer> entry : shapeIndices.entrySet()) {
+            result.set(entry.getValue(), entry.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the shape with the given index, or {@code null} for {@link #NONE}.
+     */
+    private ElkConnectableShape connectableShape(final List<ElkShape> shapesByIndex, final int index) {
+        return index == NONE ? null : (ElkConnectableShape) shapesByIndex.get(index);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////
+    // Hashing
+
+    /**
+     * Computes the structural hash of the level in its current state.
+     */
+    private String computeKey(final String algorithmId) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new WrappedException(exception);
+        }
+
+        try (DataOutputStream out =
+                new DataOutputStream(new DigestOutputStream(ByteStreams.nullOutputStream(), digest))) {
+
+            writeString(out, algorithmId);
+            out.writeInt(levelParents.size());
+            for (ElkNode parent : levelParents) {
+                out.writeInt(shapeIndex(parent));
+            }
+
+            out.writeDouble(layoutNode.getWidth());
+            out.writeDouble(layoutNode.getHeight());
+            writeElement(out, layoutNode);
+            for (ElkShape shape : shapes) {
+                out.writeDouble(shape.getX());
+                out.writeDouble(shape.getY());
+                out.writeDouble(shape.getWidth());
+                out.writeDouble(shape.getHeight());
+                writeElement(out, shape);
+            }
+
+            for (ElkEdge edge : edges) {
+                out.writeInt(edge.getSources().size());
+                for (ElkConnectableShape source : edge.getSources()) {
+                    out.writeInt(shapeIndex(source));
+                }
+                out.writeInt(edge.getTargets().size());
+                for (ElkConnectableShape target : edge.getTargets()) {
+                    out.writeInt(shapeIndex(target));
+                }
+                writeElement(out, edge);
+
+                out.writeInt(edge.getSections().size());
+                for (ElkEdgeSection section : edge.getSections()) {
+                    out.writeDouble(section.getStartX());
+                    out.writeDouble(section.getStartY());
+                    out.writeDouble(section.getEndX());
+                    out.writeDouble(section.getEndY());
+                    out.writeInt(section.getBendPoints().size());
+                    for (ElkBendPoint bendPoint : section.getBendPoints()) {
+                        out.writeDouble(bendPoint.getX());
+                        out.writeDouble(bendPoint.getY());
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            throw new WrappedException(exception);
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Writes what distinguishes the given element apart from its geometry: its kind, the number of
+     * labels, ports and children, a label's text, and the layout options. Options that are set to their
+     * default value and junction points, which are computed by layout algorithms, are left out.
+     */
+    private void writeElement(final DataOutputStream out, final ElkGraphElement element) throws IOException {
+        out.writeUTF(element.eClass().getName());
+        out.writeInt(element.getLabels().size());
+        if (element instanceof ElkNode) {
+            out.writeInt(((ElkNode) element).getPorts().size());
+            out.writeInt(((ElkNode) element).getChildren().size());
+        } else if (element instanceof ElkLabel) {
+            writeString(out, ((ElkLabel) element).getText());
+        }
+
+        List<Map.Entry<IProperty<?>, Object>> properties = Lists.newArrayList();
+        for (Map.Entry<IProperty<?>, Object> entry : element.getAllProperties().entrySet()) {
+            IProperty<?> property = entry.getKey();
+            Object value = entry.getValue();
+            if (value != null && !property.equals(CoreOptions.JUNCTION_POINTS)
+                    && !value.equals(property.getDefault())) {
+                properties.add(entry);
+            }
+        }
+        Collections.sort(properties, PROPERTY_ORDER);
+
+        out.writeInt(properties.size());
+        for (Map.Entry<IProperty<?>, Object> entry : properties) {
+            writeString(out, entry.getKey().getId());
+            writeString(out, String.valueOf(entry.getValue()));
+        }
+    }
+
+    /**
+     * Writes the given string, which may be {@code null} and of any length.
+     */
+    private void writeString(final DataOutputStream out, final String string) throws IOException {
+        if (string == null) {
+            out.writeInt(NONE);
+        } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps layouts in memory, evicting the least recently used ones once either the number of layouts
+ * or their total {@link CachedLayout#getWeight() weight} exceeds a bound. A layout heavier than the
+ * weight bound is not stored at all.
+ */
+public final class LruLayoutCacheStorage implements ILayoutCacheStorage {
+
+    /** the maximal number of layouts. */
+    private final int maxEntries;
+    /** the maximal total weight of the layouts. */
+    private final long maxWeight;
+    /** the layouts, least recently used first. */
+    private final LinkedHashMap<String, CachedLayout> layouts = new LinkedHashMap<>(16, 0.75f, true);
+    /** the total weight of the layouts. */
+    private long weight;
+
+    /**
+     * Creates a storage with the given bounds.
+     * 
+     * @param maxEntries the maximal number of layouts.
+     * @param maxWeight the maximal total weight of the layouts.
+     */
+    public LruLayoutCacheStorage(final int maxEntries, final long maxWeight) {
+        if (maxEntries < 0 || maxWeight < 0) {
+            throw new IllegalArgumentException("Bounds must not be negative.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized CachedLayout get(final String key) {
+        return layouts.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void put(final String key, final CachedLayout layout) {
+        CachedLayout old = layouts.remove(key);
+        if (old != null) {
+            weight -= old.getWeight();
+        }
+        if (layout.getWeight() > maxWeight || maxEntries == 0) {
+            return;
+        }
+
+        layouts.put(key, layout);
+        weight += layout.getWeight();
+
+        // evict the least recently used layouts
+        Iterator<Map.Entry<String, CachedLayout>> iterator = layouts.entrySet().iterator();
+        while (layouts.size() > maxEntries || weight > maxWeight) {
+            weight -= iterator.next().getValue().getWeight();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear() {
+        layouts.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns the number of stored layouts.
+     * 
+     * @return the number of layouts.
+     */
+    public synchronized int size() {
+        return layouts.size();
+    }
+
+    /**
+     * Returns the total weight of the stored layouts.
+     * 
+     * @return the total weight.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+}
@@ -16,6 +16,7 @@ import java.util.Set;
 
 import org.eclipse.elk.core.AbstractLayoutProvider;
 import org.eclipse.elk.core.util.IFactory;
+import org.eclipse.elk.core.util.IInstancePool;
 import org.eclipse.elk.core.util.InstancePool;
 import org.eclipse.elk.graph.properties.GraphFeature;
 import org.eclipse.elk.graph.properties.IProperty;
@@ -35,8 +36,26 @@ public final class LayoutAlgorithmData implements ILayoutMetaData {
     private final String id;
     /** user friendly name of the layout algorithm. */
     private final String name;
-    /** runtime instance of the layout algorithm. */
-    private final InstancePool<AbstractLayoutProvider> providerPool;
+    /** factory for runtime instances of the layout algorithm. */
+    private final IFactory<AbstractLayoutProvider> providerFactory;
+    /** runtime instance of the layout algorithm, used unless another pool is set. */
+    private final InstancePool<AbstractLayoutProvider> defaultProviderPool;
+    /** the pool runtime instances of the layout algorithm are currently kept in. */
+    private volatile IInstancePool<AbstractLayoutProvider> currentProviderPool;
+    /** pool that forwards to the current pool, so instances are always released to the current pool. */
+    private final IInstancePool<AbstractLayoutProvider> providerPool = new IInstancePool<AbstractLayoutProvider>() {
+        public AbstractLayoutProvider fetch() {
+            return currentProviderPool.fetch();
+        }
+        
+        public void release(final AbstractLayoutProvider obj) {
+            currentProviderPool.release(obj);
+        }
+        
+        public void clear() {
+            currentProviderPool.clear();
+        }
+    };
     /** layout category identifier. */
     private final String category;
     /** name of the bundle of which this algorithm is part of. */
@@ -60,7 +79,9 @@ public final class LayoutAlgorithmData implements ILayoutMetaData {
         this.id = aid;
         this.name = aname;
         this.description = adescription;
-        this.providerPool = new InstancePool<AbstractLayoutProvider>(providerFactory);
+        this.providerFactory = providerFactory;
+        this.defaultProviderPool = new InstancePool<AbstractLayoutProvider>(providerFactory);
+        this.currentProviderPool = defaultProviderPool;
         this.category = acategory;
         this.bundle = abundle;
         this.imagePath = aimagePath;
@@ -192,10 +213,52 @@ public final class LayoutAlgorithmData implements ILayoutMetaData {
      * algorithm in parallel, each thread should use its own instance of the algorithm.
      *
      * @return a layout provider instance pool
+     * @deprecated this returns the default pool even if another one has been set with
+     *             {@link #setProviderPool(IInstancePool)}; use {@link #getProviderPool()} instead
      */
+    @Deprecated
     public InstancePool<AbstractLayoutProvider> getInstancePool() {
+        return defaultProviderPool;
+    }
+    
+    /**
+     * Return an instance pool for layout providers. If multiple threads execute the layout
+     * algorithm in parallel, each thread should use its own instance of the algorithm. The returned
+     * pool always forwards to the pool that is currently set, so instances fetched before the pool is
+     * replaced are released to the new pool.
+     *
+     * @return a layout provider instance pool
+     */
+    public IInstancePool<AbstractLayoutProvider> getProviderPool() {
         return providerPool;
     }
+    
+    /**
+     * Replaces the instance pool for layout providers, for example by a
+     * {@link org.eclipse.elk.core.util.ConcurrentInstancePool ConcurrentInstancePool} if many threads
+     * execute the layout algorithm concurrently. The instances held by the previous pool are disposed;
+     * instances that are in use are released to the new pool. The new pool should create its instances
+     * through {@link #getInstanceFactory()}.
+     * 
+     * @param pool the new layout provider instance pool
+     */
+    public void setProviderPool(final IInstancePool<AbstractLayoutProvider> pool) {
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+        IInstancePool<AbstractLayoutProvider> oldPool = currentProviderPool;
+        currentProviderPool = pool;
+        oldPool.clear();
+    }
+    
+    /**
+     * Returns the factory that creates layout provider instances for this algorithm.
+     * 
+     * @return the layout provider factory
+     */
+    public IFactory<AbstractLayoutProvider> getInstanceFactory() {
+        return providerFactory;
+    }
 
     /**
      * Returns the layout category identifier. Layout categories are represented by {@link LayoutCategoryData}
@@ -11,50 +11,68 @@
 package org.eclipse.elk.core.data;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.elk.core.options.CoreOptions;
 import org.eclipse.elk.core.util.Pair;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * Singleton class for access to the ELK layout meta data. This class is used globally to retrieve meta data for
  * automatic layout through ELK, which is given through the {@code layoutProviders} extension point.
  * 
+ * <p>The service is safe to use from several threads. Registering meta data providers is synchronized and
+ * builds an immutable index of all registered data, including every unambiguous identifier suffix. Lookups
+ * only read the most recently built index; they neither lock nor modify any shared state.</p>
+ * 
  * @kieler.design 2011-03-14 reviewed by cmot, cds
  * @kieler.rating yellow 2012-10-09 review KI-25 by chsch, bdu
  * @author msp
  */
 public class LayoutMetaDataService {
 
-    /** the layout data service instance, which is created lazily. */
+    /** the layout data service instance, which is created lazily; guarded by the class. */
     private static LayoutMetaDataService instance;
+    /** the layout data service instance once it has been completely initialized. */
+    private static volatile LayoutMetaDataService initializedInstance;
 
     /**
      * Returns the singleton instance of the layout data service.
      * 
      * @return the singleton instance
      */
-    public static synchronized LayoutMetaDataService getInstance() {
-        if (instance == null) {
-            instance = new LayoutMetaDataService();
-            
-            // We always load our core options
-            instance.registerLayoutMetaDataProviders(new CoreOptions());
-
-            // Try to make the ELK service plug-in load the extension point data
-            try {
-                Class.forName("org.eclipse.elk.core.service.ElkServicePlugin");
-            } catch (Exception e) {
-                // If the service plug-in is not available, that's no problem; we'll simply use our default factory
+    public static LayoutMetaDataService getInstance() {
+        LayoutMetaDataService service = initializedInstance;
+        if (service != null) {
+            return service;
+        }
+        
+        synchronized (LayoutMetaDataService.class) {
+            if (instance == null) {
+                instance = new LayoutMetaDataService();
+                
+                // We always load our core options
+                instance.registerLayoutMetaDataProviders(new CoreOptions());
+    
+                // Try to make the ELK service plug-in load the extension point data; it calls this method again,
+                // which then returns the instance created above
+                try {
+                    Class.forName("org.eclipse.elk.core.service.ElkServicePlugin");
+                } catch (Exception e) {
+                    // If the service plug-in is not available, that's no problem; we'll simply use our default factory
+                }
+                
+                initializedInstance = instance;
             }
+    
+            return instance;
         }
-
-        return instance;
     }
 
     /**
@@ -63,12 +81,20 @@ public class LayoutMetaDataService {
     public static synchronized void unload() {
         if (instance != null) {
             for (LayoutAlgorithmData algoData : instance.getAlgorithmData()) {
-                algoData.getInstancePool().clear();
+                algoData.getProviderPool().clear();
             }
             instance = null;
+            initializedInstance = null;
         }
     }
 
+    /**
+     * The index all lookups read from. It is replaced whenever meta data providers are registered.
+     */
+    private volatile Index index = new Index();
+    
+    // The following maps collect registered data; they are only accessed while registering providers
+
     /**
      * Mapping of layout provider identifiers to their data instances.
      */
@@ -86,15 +112,6 @@ public class LayoutMetaDataService {
      * Mapping of layout category identifiers to their data instances.
      */
     private final Map<String, LayoutCategoryData> layoutCategoryMap = Maps.newLinkedHashMap();
-    /**
-     * Additional map of layout algorithm suffixes to data instances.
-     */
-    private final Map<String, LayoutAlgorithmData> algorithmSuffixMap = Maps.newHashMap();
-    /**
-     * Additional map of layout option suffixes to data instances. For layout options this include the layout option's
-     * group.
-     */
-    private final Map<String, LayoutOptionData> optionSuffixMap = Maps.newHashMap();
 
     /**
      * Registers the data provided by the given meta data providers with the meta data service. This method doesn't
@@ -104,12 +121,13 @@ public class LayoutMetaDataService {
      * @param providers
      *            the providers to register.
      */
-    public final void registerLayoutMetaDataProviders(final ILayoutMetaDataProvider... providers) {
+    public final synchronized void registerLayoutMetaDataProviders(final ILayoutMetaDataProvider... providers) {
         for (ILayoutMetaDataProvider provider : providers) {
             Registry registry = new Registry();
             provider.apply(registry);
             registry.applyDependencies();
         }
+        index = new Index(this);
     }
 
     /**
@@ -121,7 +139,7 @@ public class LayoutMetaDataService {
      *         identifier
      */
     public final LayoutAlgorithmData getAlgorithmData(final String id) {
-        return layoutAlgorithmMap.get(id);
+        return index.algorithms.get(id);
     }
 
     /**
@@ -130,7 +148,7 @@ public class LayoutMetaDataService {
      * @return collection of registered layout algorithms
      */
     public final Collection<LayoutAlgorithmData> getAlgorithmData() {
-        return Collections.unmodifiableCollection(layoutAlgorithmMap.values());
+        return index.algorithms.values();
     }
 
     /**
@@ -142,31 +160,10 @@ public class LayoutMetaDataService {
      *         suffix or the suffix is not unique (multiple algorithms have it)
      */
     public final LayoutAlgorithmData getAlgorithmDataBySuffix(final String suffix) {
-        if (suffix == null || suffix.isEmpty()) {
+        if (suffix == null) {
             return null;
         }
-        LayoutAlgorithmData data = algorithmSuffixMap.get(suffix);
-        
-        if (data == null) {
-            // Nothing found? Try to find a suitable suffix
-            for (LayoutAlgorithmData d : layoutAlgorithmMap.values()) {
-                String id = d.getId();
-                if (id.endsWith(suffix) && (suffix.length() == id.length()
-                        || id.charAt(id.length() - suffix.length() - 1) == '.')) {
-                    if (data != null) {
-                        // The suffix is not unique, so we don't support it
-                        return null;
-                    }
-                    data = d;
-                }
-            }
-            
-            if (data != null) {
-                algorithmSuffixMap.put(suffix, data);
-            }
-        }
-        
-        return data;
+        return index.algorithmSuffixes.get(suffix);
     }
 
     /**
@@ -213,8 +210,9 @@ public class LayoutMetaDataService {
      * @return the corresponding layout option data, or {@code null} if there is no option with the given identifier
      */
     public final LayoutOptionData getOptionData(final String id) {
-        LayoutOptionData data = layoutOptionMap.get(id);
-        return data != null ? data : legacyLayoutOptionMap.get(id);
+        Index currentIndex = index;
+        LayoutOptionData data = currentIndex.options.get(id);
+        return data != null ? data : currentIndex.legacyOptions.get(id);
     }
 
     /**
@@ -223,7 +221,7 @@ public class LayoutMetaDataService {
      * @return collection of registered layout options
      */
     public final Collection<LayoutOptionData> getOptionData() {
-        return Collections.unmodifiableCollection(layoutOptionMap.values());
+        return index.options.values();
     }
 
     /**
@@ -236,50 +234,10 @@ public class LayoutMetaDataService {
      *         or the suffix is not unique (multiple options have it)
      */
     public final LayoutOptionData getOptionDataBySuffix(final String suffix) {
-        if (suffix == null || suffix.isEmpty()) {
+        if (suffix == null) {
             return null;
         }
-        LayoutOptionData data = optionSuffixMap.get(suffix);
-        
-        if (data == null) {
-            // Nothing found? Try to find a suitable suffix
-            for (LayoutOptionData d : layoutOptionMap.values()) {
-                String id = d.getId();
-                if (id.endsWith(suffix) && (suffix.length() == id.length()
-                        || id.charAt(id.length() - suffix.length() - 1) == '.')) {
-                    if (data != null) {
-                        // The suffix is not unique, so we don't support it
-                        return null;
-                    }
-                    data = d;
-                }
-            }
-            
-            if (data == null) {
-                // Still not lucky? Maybe it's a suffix of a legacy id (we should stop supporting these one day...)
-                for (LayoutOptionData d : layoutOptionMap.values()) {
-                    String[] legacyIds = d.getLegacyIds();
-                    if (legacyIds != null) {
-                        for (String id : legacyIds) {
-                            if (id.endsWith(suffix) && (suffix.length() == id.length()
-                                    || id.charAt(id.length() - suffix.length() - 1) == '.')) {
-                                if (data != null) {
-                                    // The suffix is not unique, so we don't support it
-                                    return null;
-                                }
-                                data = d;
-                            }
-                        }
-                    }
-                }
-            }
-            
-            if (data != null) {
-                optionSuffixMap.put(suffix, data);
-            }
-        }
-        
-        return data;
+        return index.optionSuffixes.get(suffix);
     }
 
     /**
@@ -296,7 +254,7 @@ public class LayoutMetaDataService {
             final LayoutOptionData.Target targetType) {
         
         List<LayoutOptionData> optionDataList = new LinkedList<LayoutOptionData>();
-        for (LayoutOptionData optionData : layoutOptionMap.values()) {
+        for (LayoutOptionData optionData : index.options.values()) {
             if (algorithmData.knowsOption(optionData) || CoreOptions.ALGORITHM.equals(optionData)) {
                 if (optionData.getTargets().contains(targetType)) {
                     optionDataList.add(optionData);
@@ -315,7 +273,7 @@ public class LayoutMetaDataService {
      *         registered
      */
     public final LayoutCategoryData getCategoryData(final String id) {
-        return layoutCategoryMap.get(id);
+        return index.categories.get(id);
     }
 
     /**
@@ -325,7 +283,7 @@ public class LayoutMetaDataService {
      * @return a list of all layout categories
      */
     public final Collection<LayoutCategoryData> getCategoryData() {
-        return Collections.unmodifiableCollection(layoutCategoryMap.values());
+        return index.categories.values();
     }
 
     /**
@@ -398,7 +356,7 @@ public class LayoutMetaDataService {
                     categoryId = "";
                 }
 
-                LayoutCategoryData category = getCategoryData(categoryId);
+                LayoutCategoryData category = layoutCategoryMap.get(categoryId);
                 if (category == null && categoryId.isEmpty()) {
                     category = retrieveBackupCategory();
                 }
@@ -411,8 +369,8 @@ public class LayoutMetaDataService {
             // Apply layout option dependencies registered with this registry (contrary to the code above, this code
             // requires that layout options we depend on have already been registered)
             for (Triple dep : optionDependencies) {
-                LayoutOptionData source = getOptionData(dep.firstId);
-                LayoutOptionData target = getOptionData(dep.secondId);
+                LayoutOptionData source = getRegisteredOptionData(dep.firstId);
+                LayoutOptionData target = getRegisteredOptionData(dep.secondId);
                 if (source != null && target != null) {
                     source.getDependencies().add(Pair.of(target, dep.value));
                 }
@@ -422,8 +380,8 @@ public class LayoutMetaDataService {
             // Apply support information for supported layout options (contrary to the code above the code above, this
             // code requires that layout options we want to support have already been registered)
             for (Triple sup : optionSupport) {
-                LayoutAlgorithmData algorithm = getAlgorithmData(sup.firstId);
-                LayoutOptionData option = getOptionData(sup.secondId);
+                LayoutAlgorithmData algorithm = layoutAlgorithmMap.get(sup.firstId);
+                LayoutOptionData option = getRegisteredOptionData(sup.secondId);
                 if (algorithm != null && option != null) {
                     algorithm.addKnownOption(option, sup.value);
                 }
@@ -431,6 +389,19 @@ public class LayoutMetaDataService {
             optionSupport.clear();
         }
         
+        /**
+         * Returns the registered layout option data with the given identifier, which may be a legacy identifier.
+         * Unlike {@link LayoutMetaDataService#getOptionData(String)}, this also finds options that have been
+         * registered with this registry.
+         * 
+         * @param id layout option identifier
+         * @return the corresponding layout option data, or {@code null} if there is none
+         */
+        private LayoutOptionData getRegisteredOptionData(final String id) {
+            LayoutOptionData data = layoutOptionMap.get(id);
+            return data != null ? data : legacyLayoutOptionMap.get(id);
+        }
+        
         /**
          * Returns the "Other" category. If there is none yet, creates one.
          * 
@@ -448,4 +419,109 @@ public class LayoutMetaDataService {
 
     }
 
+    /**
+     * Immutable snapshot of the registered meta data that all lookups read from. Besides the identifier maps,
+     * it maps every suffix of an identifier that starts after a dot to the algorithm or option it identifies,
+     * unless several algorithms or options share that suffix.
+     */
+    private static final class Index {
+        
+        /** layout algorithms by identifier. */
+        private final Map<String, LayoutAlgorithmData> algorithms;
+        /** layout options by identifier. */
+        private final Map<String, LayoutOptionData> options;
+        /** layout options by legacy identifier. */
+        private final Map<String, LayoutOptionData> legacyOptions;
+        /** layout categories by identifier. */
+        private final Map<String, LayoutCategoryData> categories;
+        /** layout algorithms by unambiguous identifier suffix. */
+        private final Map<String, LayoutAlgorithmData> algorithmSuffixes;
+        /** layout options by unambiguous identifier suffix, falling back to legacy identifier suffixes. */
+        private final Map<String, LayoutOptionData> optionSuffixes;
+        
+        /**
+         * Creates an empty index.
+         */
+        Index() {
+            algorithms = ImmutableMap.of();
+            options = ImmutableMap.of();
+            legacyOptions = ImmutableMap.of();
+            categories = ImmutableMap.of();
+            algorithmSuffixes = ImmutableMap.of();
+            optionSuffixes = ImmutableMap.of();
+        }
+        
+        /**
+         * Creates an index of the data registered with the given service.
+         * 
+         * @param service the meta data service
+         */
+        Index(final LayoutMetaDataService service) {
+            algorithms = ImmutableMap.copyOf(service.layoutAlgorithmMap);
+            options = ImmutableMap.copyOf(service.layoutOptionMap);
+            legacyOptions = ImmutableMap.copyOf(service.legacyLayoutOptionMap);
+            categories = ImmutableMap.copyOf(service.layoutCategoryMap);
+            
+            Map<String, LayoutAlgorithmData> algorithmMap = Maps.newHashMap();
+            Set<String> ambiguousAlgorithmSuffixes = Sets.newHashSet();
+            for (LayoutAlgorithmData algorithm : algorithms.values()) {
+                addSuffixes(algorithm.getId(), algorithm, algorithmMap, ambiguousAlgorithmSuffixes);
+            }
+            algorithmSuffixes = ImmutableMap.copyOf(algorithmMap);
+            
+            Map<String, LayoutOptionData> optionMap = Maps.newHashMap();
+            Set<String> ambiguousOptionSuffixes = Sets.newHashSet();
+            for (LayoutOptionData option : options.values()) {
+                addSuffixes(option.getId(), option, optionMap, ambiguousOptionSuffixes);
+            }
+            
+            // Suffixes of legacy identifiers are only considered if no current identifier has them
+            Map<String, LayoutOptionData> legacyMap = Maps.newHashMap();
+            Set<String> ambiguousLegacySuffixes = Sets.newHashSet();
+            for (LayoutOptionData option : options.values()) {
+                if (option.getLegacyIds() != null) {
+                    for (String legacyId : option.getLegacyIds()) {
+                        addSuffixes(legacyId, option, legacyMap, ambiguousLegacySuffixes);
+                    }
+                }
+            }
+            for (Map.Entry<String, LayoutOptionData> entry : legacyMap.entrySet()) {
+                if (!ambiguousOptionSuffixes.contains(entry.getKey())) {
+                    optionMap.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            optionSuffixes = ImmutableMap.copyOf(optionMap);
+        }
+        
+        /**
+         * Maps all suffixes of the given identifier that start after a dot, and the identifier itself, to the
+         * given data. Suffixes that are already mapped to different data are removed and remembered as
+         * ambiguous.
+         * 
+         * @param id an identifier
+         * @param data the data the identifier belongs to
+         * @param suffixMap map of suffixes to data
+         * @param ambiguous the suffixes known to be ambiguous
+         */
+        private static <T> void addSuffixes(final String id, final T data, final Map<String, T> suffixMap,
+                final Set<String> ambiguous) {
+            
+            for (int start = 0; start < id.length(); start++) {
+                if (start > 0 && id.charAt(start - 1) != '.') {
+                    continue;
+                }
+                
+                String suffix = id.substring(start);
+                if (!ambiguous.contains(suffix)) {
+                    T previous = suffixMap.putIfAbsent(suffix, data);
+                    if (previous != null && previous != data) {
+                        suffixMap.remove(suffix);
+                        ambiguous.add(suffix);
+                    }
+                }
+            }
+        }
+        
+    }
+
 }
@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.math;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A chain of points whose coordinates are packed into a single {@code double} array. Unlike a
+ * {@link KVectorChain}, which is a linked list of vectors, adding a point does not allocate anything
+ * as long as the array has room for it, and reading a point does not require a vector object. This
+ * makes it the better choice for the bend points that edge routers and layout transferrers build and
+ * throw away for every edge.
+ * 
+ * <p>Points are addressed by their index. The point at index {@code i} has its x coordinate at
+ * {@code 2 * i} and its y coordinate at {@code 2 * i + 1} of the backing array.</p>
+ */
+public final class PackedVectorChain implements Serializable {
+    
+    /** the serial version UID. */
+    private static final long serialVersionUID = -3530412446418914254L;
+    
+    /** the number of points the chain has room for if no capacity is given. */
+    private static final int DEFAULT_CAPACITY = 4;
+    
+    /** the coordinates of the points, alternating between x and y. */
+    private double[] coords;
+    /** the number of points in the chain. */
+    private int size;
+    
+    /**
+     * Creates an empty chain.
+     */
+    public PackedVectorChain() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Creates an empty chain with room for the given number of points.
+     * 
+     * @param capacity the number of points that can be added without growing the backing array
+     */
+    public PackedVectorChain(final int capacity) {
+        coords = new double[2 * Math.max(capacity, 1)];
+    }
+    
+    /**
+     * Creates a chain with the points of the given vectors.
+     * 
+     * @param vectors the vectors to copy the points from
+     */
+    public PackedVectorChain(final Iterable<KVector> vectors) {
+        this(DEFAULT_CAPACITY);
+        for (KVector vector : vectors) {
+            add(vector.x, vector.y);
+        }
+    }
+    
+    /**
+     * Returns the number of points in this chain.
+     * 
+     * @return the number of points
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns whether this chain has no points.
+     * 
+     * @return {@code true} if the chain is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Removes all points from this chain. The backing array is kept for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+    
+    /**
+     * Returns the x coordinate of the point at the given index.
+     * 
+     * @param index index of the point
+     * @return the x coordinate
+     */
+    public double getX(final int index) {
+        checkIndex(index);
+        return coords[2 * index];
+    }
+    
+    /**
+     * Returns the y coordinate of the point at the given index.
+     * 
+     * @param index index of the point
+     * @return the y coordinate
+     */
+    public double getY(final int index) {
+        checkIndex(index);
+        return coords[2 * index + 1];
+    }
+    
+    /**
+     * Returns a new vector with the coordinates of the point at the given index.
+     * 
+     * @param index index of the point
+     * @return a new vector
+     */
+    public KVector get(final int index) {
+        return new KVector(getX(index), getY(index));
+    }
+    
+    /**
+     * Replaces the coordinates of the point at the given index.
+     * 
+     * @param index index of the point
+     * @param x the new x coordinate
+     * @param y the new y coordinate
+     */
+    public void set(final int index, final double x, final double y) {
+        checkIndex(index);
+        coords[2 * index] = x;
+        coords[2 * index + 1] = y;
+    }
+    
+    /**
+     * Appends the point (x,y) to this chain.
+     * 
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return {@code this}
+     */
+    public PackedVectorChain add(final double x, final double y) {
+        ensureCapacity(size + 1);
+        coords[2 * size] = x;
+        coords[2 * size + 1] = y;
+        size++;
+        return this;
+    }
+    
+    /**
+     * Appends the point of the given vector to this chain. The vector itself is not kept.
+     * 
+     * @param vector the vector to copy the point from
+     * @return {@code this}
+     */
+    public PackedVectorChain add(final KVector vector) {
+        return add(vector.x, vector.y);
+    }
+    
+    /**
+     * Appends the points of the given vectors to this chain.
+     * 
+     * @param vectors the vectors to copy the points from
+     * @return {@code this}
+     */
+    public PackedVectorChain addAll(final Iterable<KVector> vectors) {
+        for (KVector vector : vectors) {
+            add(vector.x, vector.y);
+        }
+        return this;
+    }
+    
+    /**
+     * Appends the points of the given vectors to this chain, translated by the given offset.
+     * 
+     * @param vectors the vectors to copy the points from
+     * @param dx x value to add
+     * @param dy y value to add
+     * @return {@code this}
+     */
+    public PackedVectorChain addAll(final Iterable<KVector> vectors, final double dx, final double dy) {
+        for (KVector vector : vectors) {
+            add(vector.x + dx, vector.y + dy);
+        }
+        return this;
+    }
+    
+    /**
+     * Appends the points of the given chain to this chain.
+     * 
+     * @param chain the chain to copy the points from
+     * @return {@code this}
+     */
+    public PackedVectorChain addAll(final PackedVectorChain chain) {
+        ensureCapacity(size + chain.size);
+        System.arraycopy(chain.coords, 0, coords, 2 * size, 2 * chain.size);
+        size += chain.size;
+        return this;
+    }
+    
+    /**
+     * Appends the points of the given chain to this chain, translated by the given offset.
+     * 
+     * @param chain the chain to copy the points from
+     * @param dx x value to add
+     * @param dy y value to add
+     * @return {@code this}
+     */
+    public PackedVectorChain addAll(final PackedVectorChain chain, final double dx, final double dy) {
+        ensureCapacity(size + chain.size);
+        for (int i = 0; i < 2 * chain.size; i += 2) {
+            coords[2 * size + i] = chain.coords[i] + dx;
+            coords[2 * size + i + 1] = chain.coords[i + 1] + dy;
+        }
+        size += chain.size;
+        return this;
+    }
+    
+    /**
+     * Inserts the point (x,y) at the given index, moving the point at that index and all following
+     * points back by one.
+     * 
+     * @param index the index to insert the point at; may be the size of the chain to append it
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return {@code this}
+     */
+    public PackedVectorChain insert(final int index, final double x, final double y) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        ensureCapacity(size + 1);
+        System.arraycopy(coords, 2 * index, coords, 2 * index + 2, 2 * (size - index));
+        coords[2 * index] = x;
+        coords[2 * index + 1] = y;
+        size++;
+        return this;
+    }
+    
+    /**
+     * Inserts the point (x,y) at the beginning of this chain.
+     * 
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return {@code this}
+     */
+    public PackedVectorChain addFirst(final double x, final double y) {
+        return insert(0, x, y);
+    }
+    
+    /**
+     * Removes the point at the given index, moving all following points forward by one.
+     * 
+     * @param index index of the point
+     */
+    public void remove(final int index) {
+        checkIndex(index);
+        System.arraycopy(coords, 2 * index + 2, coords, 2 * index, 2 * (size - index - 1));
+        size--;
+    }
+    
+    /**
+     * Translates all points by the given offset.
+     * 
+     * @param dx x value to add
+     * @param dy y value to add
+     * @return {@code this}
+     */
+    public PackedVectorChain offset(final double dx, final double dy) {
+        for (int i = 0; i < 2 * size; i += 2) {
+            coords[i] += dx;
+            coords[i + 1] += dy;
+        }
+        return this;
+    }
+    
+    /**
+     * Scales all points with different values for x and y coordinates.
+     * 
+     * @param scalex the x scaling factor
+     * @param scaley the y scaling factor
+     * @return {@code this}
+     */
+    public PackedVectorChain scale(final double scalex, final double scaley) {
+        for (int i = 0; i < 2 * size; i += 2) {
+            coords[i] *= scalex;
+            coords[i + 1] *= scaley;
+        }
+        return this;
+    }
+    
+    /**
+     * Reverses the order of the points of this chain.
+     * 
+     * @return {@code this}
+     */
+    public PackedVectorChain reverse() {
+        for (int i = 0, j = 2 * (size - 1); i < j; i += 2, j -= 2) {
+            double x = coords[i];
+            double y = coords[i + 1];
+            coords[i] = coords[j];
+            coords[i + 1] = coords[j + 1];
+            coords[j] = x;
+            coords[j + 1] = y;
+        }
+        return this;
+    }
+    
+    /**
+     * Calculates the total length of this chain.
+     * 
+     * @return the total length
+     */
+    public double totalLength() {
+        double length = 0;
+        for (int i = 2; i < 2 * size; i += 2) {
+            double dx = coords[i - 2] - coords[i];
+            double dy = coords[i - 1] - coords[i + 1];
+            length += Math.sqrt((dx * dx) + (dy * dy));
+        }
+        return length;
+    }
+    
+    /**
+     * Creates a vector chain with the points of this chain.
+     * 
+     * @return a new vector chain
+     */
+    public KVectorChain toVectorChain() {
+        KVectorChain chain = new KVectorChain();
+        for (int i = 0; i < 2 * size; i += 2) {
+            chain.add(coords[i], coords[i + 1]);
+        }
+        return chain;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("(");
+        for (int i = 0; i < 2 * size; i += 2) {
+            if (i > 0) {
+                builder.append("; ");
+            }
+            builder.append(coords[i]).append(',').append(coords[i + 1]);
+        }
+        return builder.append(')').toString();
+    }
+    
+    /**
+     * Grows the backing array such that it has room for at least the given number of points.
+     * 
+     * @param capacity the number of points
+     */
+    private void ensureCapacity(final int capacity) {
+        if (2 * capacity > coords.length) {
+            coords = Arrays.copyOf(coords, Math.max(2 * capacity, 2 * coords.length));
+        }
+    }
+    
+    /**
+     * Checks that the given index refers to a point of this chain.
+     * 
+     * @param index an index
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+}
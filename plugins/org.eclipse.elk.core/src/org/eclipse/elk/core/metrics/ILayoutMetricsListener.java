@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.metrics;
+
+/**
+ * Receives a {@link ProcessorMetrics} record each time a layout processor has finished, if it is set
+ * as {@link org.eclipse.elk.core.options.CoreOptions#METRICS_LISTENER} on the graph to be laid out.
+ * Algorithms may lay out independent parts of a graph in parallel, so implementations must be
+ * thread-safe. {@link LayoutMetricsRecorder} simply collects all records.
+ */
+public interface ILayoutMetricsListener {
+
+    /**
+     * Called after a layout processor has finished.
+     * 
+     * @param metrics the measurements taken for the processor.
+     */
+    void processorFinished(ProcessorMetrics metrics);
+
+}
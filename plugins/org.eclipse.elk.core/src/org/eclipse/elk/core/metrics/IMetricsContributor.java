@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Implemented by layout processors that can report counters specific to what they do, such as the
+ * number of reversed edges or of sweeps performed. The counters describe the processor's most recent
+ * run and are only requested while metrics are being recorded.
+ */
+public interface IMetricsContributor {
+
+    /**
+     * Adds the counters of the most recent run to the given map.
+     * 
+     * @param counters map from counter names to values.
+     */
+    void contributeMetrics(Map<String, Long> counters);
+
+}
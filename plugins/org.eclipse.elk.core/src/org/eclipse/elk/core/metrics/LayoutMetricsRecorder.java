@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A metrics listener that collects all records in the order in which they arrive. Records can then
+ * be exported with {@link MetricsExporter}.
+ */
+public class LayoutMetricsRecorder implements ILayoutMetricsListener {
+
+    /** the records received so far. */
+    private final List<ProcessorMetrics> records = new ArrayList<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void processorFinished(final ProcessorMetrics metrics) {
+        records.add(metrics);
+    }
+
+    /**
+     * Returns the records received so far.
+     * 
+     * @return a copy of the list of records.
+     */
+    public synchronized List<ProcessorMetrics> getRecords() {
+        return new ArrayList<>(records);
+    }
+
+    /**
+     * Removes all records received so far.
+     */
+    public synchronized void clear() {
+        records.clear();
+    }
+
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.metrics;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.elk.core.util.persistence.ElkGraphJsonWriter;
+
+/**
+ * Converts metrics records into JSON or CSV so that they can be stored and compared across runs.
+ */
+public final class MetricsExporter {
+    
+    /** names of the CSV columns that precede the counters. */
+    private static final String[] CSV_COLUMNS = {
+        "algorithm", "graphIndex", "slot", "processor", "wallTimeNs", "cpuTimeNs", "allocatedBytes"
+    };
+    
+    /**
+     * Hidden default constructor.
+     */
+    private MetricsExporter() {
+    }
+    
+    /**
+     * Converts the given records into a JSON array with one object per record. Counters are written
+     * into a nested {@code counters} object.
+     * 
+     * @param records the records to convert.
+     * @return the JSON text.
+     */
+    public static String toJson(final Collection<ProcessorMetrics> records) {
+        StringBuilder json = new StringBuilder("[");
+        boolean firstRecord = true;
+        for (ProcessorMetrics record : records) {
+            if (!firstRecord) {
+                json.append(',');
+            }
+            firstRecord = false;
+            
+            json.append("\n  {\"algorithm\": ");
+            ElkGraphJsonWriter.appendString(json, record.getAlgorithm());
+            json.append(", \"graphIndex\": ").append(record.getGraphIndex());
+            json.append(", \"slot\": ").append(record.getSlot());
+            json.append(", \"processor\": ");
+            ElkGraphJsonWriter.appendString(json, record.getProcessor());
+            json.append(", \"wallTimeNs\": ").append(record.getWallTime());
+            json.append(", \"cpuTimeNs\": ").append(record.getCpuTime());
+            json.append(", \"allocatedBytes\": ").append(record.getAllocatedBytes());
+            json.append(", \"counters\": {");
+            boolean firstCounter = true;
+            for (Map.Entry<String, Long> counter : record.getCounters().entrySet()) {
+                if (!firstCounter) {
+                    json.append(", ");
+                }
+                firstCounter = false;
+                ElkGraphJsonWriter.appendString(json, counter.getKey());
+                json.append(": ").append(counter.getValue());
+            }
+            json.append("}}");
+        }
+        return json.append(records.isEmpty() ? "]" : "\n]").toString();
+    }
+    
+    /**
+     * Converts the given records into CSV with a header line and one line per record. Each counter
+     * that appears in any of the records gets a column of its own, in order of first appearance;
+     * records that lack a counter leave its cell empty.
+     * 
+     * @param records the records to convert.
+     * @return the CSV text.
+     */
+    public static String toCsv(final Collection<ProcessorMetrics> records) {
+        Set<String> counterNames = new LinkedHashSet<>();
+        for (ProcessorMetrics record : records) {
+            counterNames.addAll(record.getCounters().keySet());
+        }
+        
+        StringBuilder csv = new StringBuilder(String.join(",", CSV_COLUMNS));
+        for (String counterName : counterNames) {
+            csv.append(',');
+            appendCsvField(csv, counterName);
+        }
+        csv.append('\n');
+        
+        for (ProcessorMetrics record : records) {
+            appendCsvField(csv, record.getAlgorithm());
+            csv.append(',').append(record.getGraphIndex());
+            csv.append(',').append(record.getSlot());
+            csv.append(',');
+            appendCsvField(csv, record.getProcessor());
+            csv.append(',').append(record.getWallTime());
+            csv.append(',').append(record.getCpuTime());
+            csv.append(',').append(record.getAllocatedBytes());
+            for (String counterName : counterNames) {
+                csv.append(',');
+                Long value = record.getCounters().get(counterName);
+                if (value != null) {
+                    csv.append(value);
+                }
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+    
+    /**
+     * Appends the given string as a CSV field, quoting it if it contains commas, quotes, or line breaks.
+     * 
+     * @param csv the builder to append to.
+     * @param value the string to append.
+     */
+    private static void appendCsvField(final StringBuilder csv, final String value) {
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0) {
+            csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+        } else {
+            csv.append(value);
+        }
+    }
+
+}
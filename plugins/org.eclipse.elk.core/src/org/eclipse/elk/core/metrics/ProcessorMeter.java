@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+
+/**
+ * Runs the processors of a layout algorithm on a graph, measuring each of them if a metrics listener
+ * is set. Algorithms create one meter per graph they lay out and run their processor chain through
+ * {@link #process(ILayoutProcessor, Object, IElkProgressMonitor)} instead of calling the processors
+ * directly. Without a listener, the processors are simply run and nothing is measured.
+ * 
+ * <p>CPU time and allocated bytes are taken from the JVM's {@link ThreadMXBean} and are only available
+ * if the JVM supports them. They only cover the thread that calls the meter, so work that processors
+ * hand off to other threads is not included.</p>
+ *
+ * @param <G> the type of graph the processors work on.
+ */
+public final class ProcessorMeter<G> {
+    
+    /** the thread bean, or {@code null} if thread CPU time cannot be measured. */
+    private static final ThreadMXBean THREAD_BEAN;
+    /** method of the extended thread bean that returns allocated bytes, or {@code null} if unsupported. */
+    private static final Method ALLOCATED_BYTES_METHOD;
+    
+    static {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        THREAD_BEAN = threadBean.isCurrentThreadCpuTimeSupported() ? threadBean : null;
+        
+        Method allocatedBytesMethod = null;
+        try {
+            // the extended bean is not part of the Java API, so avoid depending on it
+            Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean");
+            if (beanClass.isInstance(threadBean)) {
+                allocatedBytesMethod = beanClass.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            // allocated bytes will not be available
+        }
+        ALLOCATED_BYTES_METHOD = allocatedBytesMethod;
+    }
+    
+    /** the listener to report to, or {@code null}. */
+    private final ILayoutMetricsListener listener;
+    /** identifier of the layout algorithm. */
+    private final String algorithm;
+    /** index of the graph or component this meter measures. */
+    private final int graphIndex;
+    /** adds counters describing the graph after a processor has run, or {@code null}. */
+    private final BiConsumer<G, Map<String, Long>> graphCounters;
+    /** index of the next processor to run. */
+    private int slot = 0;
+
+    /**
+     * Creates a new meter.
+     * 
+     * @param listener
+     *            the listener to report to; if {@code null}, nothing is measured.
+     * @param algorithm
+     *            identifier of the layout algorithm.
+     * @param graphIndex
+     *            index of the graph or connected component the processors are run on.
+     * @param graphCounters
+     *            adds counters describing the graph to a map after each processor, such as the
+     *            number of nodes; may be {@code null}.
+     */
+    public ProcessorMeter(final ILayoutMetricsListener listener, final String algorithm,
+            final int graphIndex, final BiConsumer<G, Map<String, Long>> graphCounters) {
+        
+        this.listener = listener;
+        this.algorithm = algorithm;
+        this.graphIndex = graphIndex;
+        this.graphCounters = graphCounters;
+    }
+    
+    /**
+     * Returns whether this meter reports to a listener.
+     * 
+     * @return {@code true} if processors are measured.
+     */
+    public boolean isEnabled() {
+        return listener != null;
+    }
+
+    /**
+     * Runs the given processor on the given graph and reports its metrics to the listener, if any.
+     * Processors that implement {@link IMetricsContributor} add their own counters after the graph
+     * counters.
+     * 
+     * @param processor
+     *            the processor to run.
+     * @param graph
+     *            the graph to run it on.
+     * @param monitor
+     *            the progress monitor to pass to the processor.
+     */
+    public void process(final ILayoutProcessor<G> processor, final G graph, final IElkProgressMonitor monitor) {
+        if (listener == null) {
+            processor.process(graph, monitor);
+            return;
+        }
+        
+        long threadId = Thread.currentThread().getId();
+        long startAllocated = allocatedBytes(threadId);
+        long startCpu = cpuTime();
+        long startWall = System.nanoTime();
+        
+        processor.process(graph, monitor);
+        
+        long wallTime = System.nanoTime() - startWall;
+        long endCpu = cpuTime();
+        long endAllocated = allocatedBytes(threadId);
+        
+        Map<String, Long> counters = new LinkedHashMap<>();
+        if (graphCounters != null) {
+            graphCounters.accept(graph, counters);
+        }
+        if (processor instanceof IMetricsContributor) {
+            ((IMetricsContributor) processor).contributeMetrics(counters);
+        }
+        
+        listener.processorFinished(new ProcessorMetrics(algorithm, graphIndex, slot++,
+                processor.getClass().getSimpleName(), wallTime, difference(startCpu, endCpu),
+                difference(startAllocated, endAllocated), counters));
+    }
+    
+    /**
+     * Returns the CPU time of the current thread.
+     * 
+     * @return the CPU time in nanoseconds, or -1 if unavailable.
+     */
+    private static long cpuTime() {
+        return THREAD_BEAN != null ? THREAD_BEAN.getCurrentThreadCpuTime() : -1;
+    }
+    
+    /**
+     * Returns the number of bytes allocated by the given thread so far.
+     * 
+     * @param threadId the thread's identifier.
+     * @return the allocated bytes, or -1 if unavailable.
+     */
+    private static long allocatedBytes(final long threadId) {
+        if (ALLOCATED_BYTES_METHOD != null) {
+            try {
+                return (Long) ALLOCATED_BYTES_METHOD.invoke(ManagementFactory.getThreadMXBean(), threadId);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Returns the difference between two measurements, or -1 if either of them is unavailable.
+     * 
+     * @param start the first measurement.
+     * @param end the second measurement.
+     * @return the difference, or -1.
+     */
+    private static long difference(final long start, final long end) {
+        return start < 0 || end < 0 ? -1 : end - start;
+    }
+
+}
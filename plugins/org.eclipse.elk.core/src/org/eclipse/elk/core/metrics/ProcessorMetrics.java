@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measurements taken while a single layout processor ran on a graph. Times are given in nanoseconds;
+ * CPU time and allocated bytes are {@code -1} if the JVM does not support measuring them. Both refer
+ * to the thread that ran the processor only.
+ */
+public final class ProcessorMetrics {
+
+    /** identifier of the layout algorithm. */
+    private final String algorithm;
+    /** index of the graph or connected component the processor ran on. */
+    private final int graphIndex;
+    /** index of the processor in the algorithm's processor chain. */
+    private final int slot;
+    /** simple name of the processor class. */
+    private final String processor;
+    /** elapsed wall clock time in nanoseconds. */
+    private final long wallTime;
+    /** CPU time used by the running thread in nanoseconds, or -1. */
+    private final long cpuTime;
+    /** bytes allocated by the running thread, or -1. */
+    private final long allocatedBytes;
+    /** graph and processor specific counters. */
+    private final Map<String, Long> counters;
+
+    /**
+     * Creates a new metrics record.
+     * 
+     * @param algorithm identifier of the layout algorithm.
+     * @param graphIndex index of the graph or connected component the processor ran on.
+     * @param slot index of the processor in the algorithm's processor chain.
+     * @param processor name of the processor.
+     * @param wallTime elapsed wall clock time in nanoseconds.
+     * @param cpuTime CPU time in nanoseconds, or -1 if unsupported.
+     * @param allocatedBytes allocated bytes, or -1 if unsupported.
+     * @param counters graph and processor specific counters; the map is copied.
+     */
+    public ProcessorMetrics(final String algorithm, final int graphIndex, final int slot,
+            final String processor, final long wallTime, final long cpuTime, final long allocatedBytes,
+            final Map<String, Long> counters) {
+        
+        this.algorithm = algorithm;
+        this.graphIndex = graphIndex;
+        this.slot = slot;
+        this.processor = processor;
+        this.wallTime = wallTime;
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
+        this.counters = Collections.unmodifiableMap(new LinkedHashMap<>(counters));
+    }
+
+    /**
+     * Returns the identifier of the layout algorithm.
+     * 
+     * @return the algorithm identifier.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the index of the graph or connected component the processor ran on. Algorithms that
+     * lay out components separately number them from zero.
+     * 
+     * @return the graph index.
+     */
+    public int getGraphIndex() {
+        return graphIndex;
+    }
+
+    /**
+     * Returns the index of the processor in the algorithm's processor chain.
+     * 
+     * @return the slot index.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Returns the simple name of the processor class.
+     * 
+     * @return the processor name.
+     */
+    public String getProcessor() {
+        return processor;
+    }
+
+    /**
+     * Returns the elapsed wall clock time.
+     * 
+     * @return the wall time in nanoseconds.
+     */
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Returns the CPU time used by the thread that ran the processor.
+     * 
+     * @return the CPU time in nanoseconds, or -1 if unsupported.
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the thread that ran the processor.
+     * 
+     * @return the allocated bytes, or -1 if unsupported.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the graph and processor specific counters, such as the number of nodes of the graph
+     * after the processor ran or the number of crossings it found.
+     * 
+     * @return unmodifiable map from counter names to values, in insertion order.
+     */
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return algorithm + "[" + graphIndex + "]#" + slot + " " + processor + ": " + wallTime + "ns "
+                + counters;
+    }
+
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.util;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free pool for class instances, meant for situations where many threads fetch and release
+ * instances concurrently. Like {@link InstancePool}, the capacity only limits how many instances are kept
+ * for later reuse, not how many are created.
+ * 
+ * <p>Instances are handed out in last-in-first-out order, which keeps recently used instances busy.
+ * If an idle timeout is configured, instances that have not been fetched for longer than the timeout are
+ * destroyed the next time the pool is accessed. The pool counts how many fetches could be served from
+ * the pool (hits), how many could not (misses), and how many instances were created and destroyed.</p>
+ * 
+ * <p>All of the instance methods in this class are thread-safe.</p>
+ *
+ * @param <T> the type of instances that are held by this pool
+ */
+public final class ConcurrentInstancePool<T> implements IInstancePool<T> {
+    
+    /** no idle timeout; instances are kept until the pool is cleared. */
+    public static final long NO_TIMEOUT = -1;
+    
+    /** the instance factory to use for this pool. */
+    private final IFactory<T> factory;
+    /** the currently held instances; the most recently released one is at the head. */
+    private final ConcurrentLinkedDeque<Entry<T>> instances = new ConcurrentLinkedDeque<Entry<T>>();
+    /** the number of currently held instances. */
+    private final AtomicInteger size = new AtomicInteger();
+    /** the configured instance limit. */
+    private final int limit;
+    /** the time in nanoseconds after which idle instances are destroyed, or a negative value. */
+    private final long idleTimeout;
+    
+    /** the number of fetches served from the pool. */
+    private final AtomicLong hits = new AtomicLong();
+    /** the number of fetches that required a new instance. */
+    private final AtomicLong misses = new AtomicLong();
+    /** the number of instances created by the factory. */
+    private final AtomicLong creations = new AtomicLong();
+    /** the number of instances destroyed by the pool. */
+    private final AtomicLong destructions = new AtomicLong();
+    
+    /**
+     * Create an instance pool with an infinite capacity and no idle timeout.
+     * 
+     * @param thefactory the instance factory
+     */
+    public ConcurrentInstancePool(final IFactory<T> thefactory) {
+        this(thefactory, InstancePool.INFINITE, NO_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Create an instance pool with given capacity and idle timeout.
+     * 
+     * @param thefactory the instance factory
+     * @param thelimit the maximal number of instances that shall be kept in the pool, or
+     *          {@link InstancePool#INFINITE}
+     * @param timeout the time after which unused instances are destroyed, or {@link #NO_TIMEOUT}
+     * @param unit the unit of the timeout
+     */
+    public ConcurrentInstancePool(final IFactory<T> thefactory, final int thelimit, final long timeout,
+            final TimeUnit unit) {
+        
+        assert thefactory != null;
+        this.factory = thefactory;
+        this.limit = thelimit;
+        this.idleTimeout = timeout < 0 ? NO_TIMEOUT : unit.toNanos(timeout);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public T fetch() {
+        evictIdleInstances();
+        
+        Entry<T> entry = instances.pollFirst();
+        if (entry != null) {
+            size.decrementAndGet();
+            hits.incrementAndGet();
+            return entry.instance;
+        }
+        
+        misses.incrementAndGet();
+        T instance = factory.create();
+        creations.incrementAndGet();
+        return instance;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void release(final T obj) {
+        int newSize = size.incrementAndGet();
+        if (limit >= 0 && newSize > limit) {
+            size.decrementAndGet();
+            destroy(obj);
+        } else {
+            instances.offerFirst(new Entry<T>(obj, System.nanoTime()));
+        }
+        
+        evictIdleInstances();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void clear() {
+        Entry<T> entry = instances.pollLast();
+        while (entry != null) {
+            size.decrementAndGet();
+            destroy(entry.instance);
+            entry = instances.pollLast();
+        }
+    }
+    
+    /**
+     * Destroys instances that have been idle for longer than the configured timeout. Since instances are
+     * released at the head of the queue, the longest idle ones are found at its tail.
+     */
+    private void evictIdleInstances() {
+        if (idleTimeout < 0) {
+            return;
+        }
+        
+        long now = System.nanoTime();
+        Entry<T> entry = instances.peekLast();
+        while (entry != null && now - entry.releaseTime > idleTimeout) {
+            // Only destroy the instance if no other thread has taken it in the meantime
+            if (instances.removeLastOccurrence(entry)) {
+                size.decrementAndGet();
+                destroy(entry.instance);
+            }
+            entry = instances.peekLast();
+        }
+    }
+    
+    /**
+     * Destroys the given instance through the factory.
+     * 
+     * @param obj the instance to destroy
+     */
+    private void destroy(final T obj) {
+        destructions.incrementAndGet();
+        factory.destroy(obj);
+    }
+    
+    /**
+     * Returns the number of instances currently held by the pool.
+     * 
+     * @return the number of idle instances
+     */
+    public int size() {
+        return size.get();
+    }
+    
+    /**
+     * Returns the number of fetches that could be served by an instance held in the pool.
+     * 
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+    
+    /**
+     * Returns the number of fetches that required a new instance to be created.
+     * 
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    /**
+     * Returns the number of instances that were successfully created by the factory.
+     * 
+     * @return the number of created instances
+     */
+    public long getCreationCount() {
+        return creations.get();
+    }
+    
+    /**
+     * Returns the number of instances that were destroyed by the pool, either because the pool was
+     * full, because they were idle for too long, or because the pool was cleared.
+     * 
+     * @return the number of destroyed instances
+     */
+    public long getDestructionCount() {
+        return destructions.get();
+    }
+    
+    /**
+     * An instance held by the pool, along with the time at which it was released.
+     * 
+     * @param <T> the type of the instance
+     */
+    private static final class Entry<T> {
+        /** the pooled instance. */
+        private final T instance;
+        /** the time at which the instance was released, in nanoseconds. */
+        private final long releaseTime;
+        
+        Entry(final T instance, final long releaseTime) {
+            this.instance = instance;
+            this.releaseTime = releaseTime;
+        }
+    }
+
+}
@@ -22,6 +22,7 @@ import org.eclipse.elk.core.GraphIssue;
 import org.eclipse.elk.core.GraphValidationException;
 import org.eclipse.elk.core.math.KVector;
 import org.eclipse.elk.core.math.KVectorChain;
+import org.eclipse.elk.core.math.PackedVectorChain;
 import org.eclipse.elk.core.options.CoreOptions;
 import org.eclipse.elk.core.options.Direction;
 import org.eclipse.elk.core.options.EdgeLabelPlacement;
@@ -694,6 +695,44 @@ public final class ElkUtil {
         section.setEndLocation(lastPoint.x, lastPoint.y);
     }
     
+    /**
+     * Applies the points of the given packed chain to the given edge section, just like
+     * {@link #applyVectorChain(KVectorChain, ElkEdgeSection)} does for a vector chain.
+     * 
+     * @param chain the packed chain to apply.
+     * @param section the edge section to apply the chain to.
+     * @throws IllegalArgumentException if the chain contains less than two points.
+     */
+    public static void applyVectorChain(final PackedVectorChain chain, final ElkEdgeSection section) {
+        // We need at least a start and an end point
+        int last = chain.size() - 1;
+        if (last < 1) {
+            throw new IllegalArgumentException("The vector chain must contain at least a source and a target point.");
+        }
+        
+        section.setStartLocation(chain.getX(0), chain.getY(0));
+        
+        // Reuse as many existing bend points as possible
+        List<ElkBendPoint> bendPoints = section.getBendPoints();
+        int oldCount = bendPoints.size();
+        for (int i = 1; i < last; i++) {
+            if (i <= oldCount) {
+                bendPoints.get(i - 1).set(chain.getX(i), chain.getY(i));
+            } else {
+                ElkBendPoint bendPoint = ElkGraphFactory.eINSTANCE.createElkBendPoint();
+                bendPoint.set(chain.getX(i), chain.getY(i));
+                bendPoints.add(bendPoint);
+            }
+        }
+        
+        // Remove existing bend points that we did not use
+        for (int i = oldCount - 1; i >= last - 1; i--) {
+            bendPoints.remove(i);
+        }
+        
+        section.setEndLocation(chain.getX(last), chain.getY(last));
+    }
+    
     
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // DEFAULT LAYOUT SETTINGS
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.util;
+
+/**
+ * Interface for pools of class instances. Instances are fetched from the pool, used, and released back
+ * into the pool afterwards so they can be reused. Implementations must be thread-safe.
+ *
+ * @param <T> the type of instances that are held by the pool
+ * @see InstancePool
+ * @see ConcurrentInstancePool
+ */
+public interface IInstancePool<T> {
+    
+    /**
+     * Fetch an instance from the pool. If no instance is available, a new one is created.
+     * 
+     * @return a class instance
+     */
+    T fetch();
+    
+    /**
+     * Release an instance into the pool to be used again unless the pool's capacity is already reached.
+     * Only instances that are still usable may be released.
+     * 
+     * @param obj a class instance
+     */
+    void release(T obj);
+    
+    /**
+     * Clear the instance pool by disposing all instances that are currently held.
+     */
+    void clear();
+    
+}
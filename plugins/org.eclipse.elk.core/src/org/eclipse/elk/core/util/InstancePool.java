@@ -24,7 +24,7 @@ import java.util.LinkedList;
  * @kieler.design 2014-04-17 reviewed by cds, chsch, tit, uru
  * @kieler.rating proposed yellow 2012-07-10 msp
  */
-public final class InstancePool<T> {
+public final class InstancePool<T> implements IInstancePool<T> {
     
     /** an infinite amount of instances. */
     public static final int INFINITE = -1;
@@ -60,9 +60,7 @@ public final class InstancePool<T> {
     }
     
     /**
-     * Fetch an instance from the pool. If no instance is available, a new one is created.
-     * 
-     * @return a class instance
+     * {@inheritDoc}
      */
     public T fetch() {
         synchronized (lock) {
@@ -74,10 +72,7 @@ public final class InstancePool<T> {
     }
     
     /**
-     * Release an instance into the pool to be used again unless the pool's capacity is already reached.
-     * Only instances that are still usable may be released.
-     * 
-     * @param obj a class instance
+     * {@inheritDoc}
      */
     public void release(final T obj) {
         synchronized (lock) {
@@ -90,7 +85,7 @@ public final class InstancePool<T> {
     }
     
     /**
-     * Clear the instance pool by disposing all instances that are currently held.
+     * {@inheritDoc}
      */
     public void clear() {
         synchronized (lock) {
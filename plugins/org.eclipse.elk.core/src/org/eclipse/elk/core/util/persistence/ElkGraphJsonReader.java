@@ -0,0 +1,517 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.util.persistence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.elk.core.data.LayoutMetaDataService;
+import org.eclipse.elk.core.data.LayoutOptionData;
+import org.eclipse.elk.core.util.internal.LayoutOptionProxy;
+import org.eclipse.elk.graph.ElkConnectableShape;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkGraphElement;
+import org.eclipse.elk.graph.ElkLabel;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+import org.eclipse.elk.graph.ElkShape;
+import org.eclipse.elk.graph.properties.IPropertyHolder;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+
+/**
+ * Reads ELK graphs from JSON text. The graph is built while the text is parsed, without creating an
+ * EMF resource or a tree of the JSON document first, which makes this much faster than loading
+ * graphs through {@link ElkGraphResource} for large graphs. The format is the one written by
+ * {@link ElkGraphJsonWriter}:
+ * 
+ * <pre>
+ * {
+ *   "id": "root",
+ *   "layoutOptions": { "org.eclipse.elk.algorithm": "layered" },
+ *   "children": [
+ *     { "id": "n1", "width": 30, "height": 30, "labels": [ { "text": "n1" } ],
+ *       "ports": [ { "id": "p1", "width": 5, "height": 5 } ] },
+ *     { "id": "n2", "x": 50, "width": 30, "height": 30 }
+ *   ],
+ *   "edges": [
+ *     { "id": "e1", "sources": [ "p1" ], "targets": [ "n2" ],
+ *       "sections": [ { "id": "s1", "startPoint": { "x": 30, "y": 15 }, "endPoint": { "x": 50, "y": 15 },
+ *                       "bendPoints": [ ] } ] }
+ *   ]
+ * }
+ * </pre>
+ * 
+ * <p>Nodes, ports, and labels may have the coordinates {@code x} and {@code y} as well as {@code width}
+ * and {@code height}. Edges refer to their sources and targets by the identifiers of nodes and ports,
+ * which may be declared anywhere in the document. Edge sections refer to their incoming and outgoing
+ * shapes and sections in the same way. Unknown members are ignored.</p>
+ * 
+ * <p>Layout options are given in the {@code layoutOptions} or {@code properties} object of an
+ * element. Keys are resolved through the {@link LayoutMetaDataService}, either as full option
+ * identifiers or as unique suffixes. Values of known options are parsed right away; options that are
+ * not known yet are kept as proxies, just as {@link ElkGraphResource} does.</p>
+ */
+public final class ElkGraphJsonReader {
+    
+    /** Kinds of references that can only be resolved once the whole document has been read. */
+    private enum ReferenceKind {
+        /** a source of an edge. */
+        EDGE_SOURCE,
+        /** a target of an edge. */
+        EDGE_TARGET,
+        /** the incoming shape of an edge section. */
+        INCOMING_SHAPE,
+        /** the outgoing shape of an edge section. */
+        OUTGOING_SHAPE,
+        /** an incoming section of an edge section. */
+        INCOMING_SECTION,
+        /** an outgoing section of an edge section. */
+        OUTGOING_SECTION
+    }
+    
+    /** the parser that reads the document. */
+    private final JsonPullParser parser;
+    /** nodes and ports by their identifier. */
+    private final Map<String, ElkConnectableShape> shapes = new HashMap<>();
+    /** edge sections by their identifier. */
+    private final Map<String, ElkEdgeSection> sections = new HashMap<>();
+    /** layout options by the keys they were given as; {@code null} values denote unknown options. */
+    private final Map<String, LayoutOptionData> options = new HashMap<>();
+    /** the elements that hold references which have not been resolved yet. */
+    private final List<Object> referenceOwners = new ArrayList<>();
+    /** the identifiers referred to, parallel to {@link #referenceOwners}. */
+    private final List<String> referenceIds = new ArrayList<>();
+    /** the kinds of references, parallel to {@link #referenceOwners}. */
+    private final List<ReferenceKind> referenceKinds = new ArrayList<>();
+    
+    /**
+     * Creates a reader for a single document.
+     */
+    private ElkGraphJsonReader(final Reader reader) {
+        this.parser = new JsonPullParser(reader);
+    }
+    
+    /**
+     * Reads a graph from the given reader. The reader is read to its end, but not closed.
+     * 
+     * @param reader
+     *            the reader to read the JSON text from.
+     * @return the graph.
+     * @throws IOException
+     *             if reading fails, the text is not well-formed JSON, or an edge or edge section refers to an
+     *             identifier that is not declared in the document.
+     */
+    public static ElkNode read(final Reader reader) throws IOException {
+        return new ElkGraphJsonReader(reader).readDocument();
+    }
+    
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // Graph Elements
+    
+    /**
+     * Reads the root node and resolves all references afterwards.
+     */
+    private ElkNode readDocument() throws IOException {
+        ElkNode graph = readNode(null);
+        if (parser.peek() != JsonPullParser.Token.END_DOCUMENT) {
+            throw parser.syntaxError("Expected end of input");
+        }
+        resolveReferences();
+        return graph;
+    }
+    
+    /**
+     * Reads a node and everything it contains.
+     * 
+     * @param parent the parent node, or {@code null} for the root node.
+     */
+    private ElkNode readNode(final ElkNode parent) throws IOException {
+        ElkNode node = parent == null ? ElkGraphUtil.createGraph() : ElkGraphUtil.createNode(parent);
+        
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (!readShapeMember(name, node)) {
+                switch (name) {
+                case "ports":
+                    parser.beginArray();
+                    while (parser.hasNext()) {
+                        readPort(node);
+                    }
+                    parser.endArray();
+                    break;
+                case "children":
+                    parser.beginArray();
+                    while (parser.hasNext()) {
+                        readNode(node);
+                    }
+                    parser.endArray();
+                    break;
+                case "edges":
+                    parser.beginArray();
+                    while (parser.hasNext()) {
+                        readEdge(node);
+                    }
+                    parser.endArray();
+                    break;
+                default:
+                    parser.skipValue();
+                }
+            }
+        }
+        parser.endObject();
+        
+        return node;
+    }
+    
+    /**
+     * Reads a port.
+     */
+    private void readPort(final ElkNode parent) throws IOException {
+        ElkPort port = ElkGraphUtil.createPort(parent);
+        
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (!readShapeMember(name, port)) {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+    }
+    
+    /**
+     * Reads a label.
+     */
+    private void readLabel(final ElkGraphElement parent) throws IOException {
+        ElkLabel label = ElkGraphUtil.createLabel(parent);
+        
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (name.equals("text")) {
+                label.setText(parser.nextString());
+            } else if (!readShapeMember(name, label)) {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+    }
+    
+    /**
+     * Reads a member that all shapes have in common. Identifiers of nodes and ports are registered so
+     * that edges can refer to them.
+     * 
+     * @return {@code true} if the member was read, {@code false} if the caller has to handle it.
+     */
+    private boolean readShapeMember(final String name, final ElkShape shape) throws IOException {
+        switch (name) {
+        case "x":
+            shape.setX(parser.nextDouble());
+            return true;
+        case "y":
+            shape.setY(parser.nextDouble());
+            return true;
+        case "width":
+            shape.setWidth(parser.nextDouble());
+            return true;
+        case "height":
+            shape.setHeight(parser.nextDouble());
+            return true;
+        case "id":
+            String id = parser.nextString();
+            shape.setIdentifier(id);
+            if (shape instanceof ElkConnectableShape
+                    && shapes.put(id, (ElkConnectableShape) shape) != null) {
+                throw parser.syntaxError("Duplicate node or port identifier '" + id + "'");
+            }
+            return true;
+        default:
+            return readElementMember(name, shape);
+        }
+    }
+    
+    /**
+     * Reads a member that all graph elements have in common.
+     * 
+     * @return {@code true} if the member was read, {@code false} if the caller has to handle it.
+     */
+    private boolean readElementMember(final String name, final ElkGraphElement element) throws IOException {
+        switch (name) {
+        case "id":
+            element.setIdentifier(parser.nextString());
+            return true;
+        case "layoutOptions":
+        case "properties":
+            readLayoutOptions(element);
+            return true;
+        case "labels":
+            parser.beginArray();
+            while (parser.hasNext()) {
+                readLabel(element);
+            }
+            parser.endArray();
+            return true;
+        default:
+            return false;
+        }
+    }
+    
+    /**
+     * Reads an edge, deferring its sources and targets until all nodes and ports are known.
+     */
+    private void readEdge(final ElkNode containingNode) throws IOException {
+        ElkEdge edge = ElkGraphUtil.createEdge(containingNode);
+        
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            switch (name) {
+            case "sources":
+                readReferences(edge, ReferenceKind.EDGE_SOURCE);
+                break;
+            case "targets":
+                readReferences(edge, ReferenceKind.EDGE_TARGET);
+                break;
+            case "sections":
+                parser.beginArray();
+                while (parser.hasNext()) {
+                    readSection(edge);
+                }
+                parser.endArray();
+                break;
+            default:
+                if (!readElementMember(name, edge)) {
+                    parser.skipValue();
+                }
+            }
+        }
+        parser.endObject();
+    }
+    
+    /**
+     * Reads an edge section, deferring references to shapes and other sections.
+     */
+    private void readSection(final ElkEdge edge) throws IOException {
+        ElkEdgeSection section = ElkGraphUtil.createEdgeSection(edge);
+        
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            switch (name) {
+            case "id":
+                String id = parser.nextString();
+                section.setIdentifier(id);
+                if (sections.put(id, section) != null) {
+                    throw parser.syntaxError("Duplicate edge section identifier '" + id + "'");
+                }
+                break;
+            case "startPoint":
+                readPoint(section, true);
+                break;
+            case "endPoint":
+                readPoint(section, false);
+                break;
+            case "bendPoints":
+                parser.beginArray();
+                while (parser.hasNext()) {
+                    readPoint(section, null);
+                }
+                parser.endArray();
+                break;
+            case "incomingShape":
+                addReference(section, parser.nextString(), ReferenceKind.INCOMING_SHAPE);
+                break;
+            case "outgoingShape":
+                addReference(section, parser.nextString(), ReferenceKind.OUTGOING_SHAPE);
+                break;
+            case "incomingSections":
+                readReferences(section, ReferenceKind.INCOMING_SECTION);
+                break;
+            case "outgoingSections":
+                readReferences(section, ReferenceKind.OUTGOING_SECTION);
+                break;
+            case "layoutOptions":
+            case "properties":
+                readLayoutOptions(section);
+                break;
+            default:
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+    }
+    
+    /**
+     * Reads a point object and applies it to the given section.
+     * 
+     * @param start {@code true} for the start point, {@code false} for the end point, and {@code null}
+     *              for a new bend point.
+     */
+    private void readPoint(final ElkEdgeSection section, final Boolean start) throws IOException {
+        double x = 0;
+        double y = 0;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (name.equals("x")) {
+                x = parser.nextDouble();
+            } else if (name.equals("y")) {
+                y = parser.nextDouble();
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+        
+        if (start == null) {
+            ElkGraphUtil.createBendPoint(section, x, y);
+        } else if (start) {
+            section.setStartLocation(x, y);
+        } else {
+            section.setEndLocation(x, y);
+        }
+    }
+    
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // Layout Options
+    
+    /**
+     * Reads the layout options object of a graph element.
+     */
+    private void readLayoutOptions(final IPropertyHolder holder) throws IOException {
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String key = parser.nextName();
+            String value = parser.nextScalar();
+            if (value == null) {
+                continue;
+            }
+            
+            LayoutOptionData optionData = resolveOption(key);
+            if (optionData == null) {
+                LayoutOptionProxy.setProxyValue(holder, key, value);
+            } else {
+                Object parsedValue = optionData.parseValue(value);
+                if (parsedValue != null) {
+                    holder.setProperty(optionData, parsedValue);
+                }
+            }
+        }
+        parser.endObject();
+    }
+    
+    /**
+     * Looks up the layout option with the given identifier or suffix. Lookups by suffix are slow, so the
+     * results are remembered for the rest of the document.
+     */
+    private LayoutOptionData resolveOption(final String key) {
+        if (options.containsKey(key)) {
+            return options.get(key);
+        }
+        
+        LayoutMetaDataService service = LayoutMetaDataService.getInstance();
+        LayoutOptionData optionData = service.getOptionData(key);
+        if (optionData == null) {
+            optionData = service.getOptionDataBySuffix(key);
+        }
+        if (optionData != null && !optionData.canParseValue()) {
+            optionData = null;
+        }
+        options.put(key, optionData);
+        return optionData;
+    }
+    
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // References
+    
+    /**
+     * Reads an array of identifiers that the given element refers to.
+     */
+    private void readReferences(final Object owner, final ReferenceKind kind) throws IOException {
+        parser.beginArray();
+        while (parser.hasNext()) {
+            addReference(owner, parser.nextString(), kind);
+        }
+        parser.endArray();
+    }
+    
+    /**
+     * Remembers a reference to resolve once the document has been read completely.
+     */
+    private void addReference(final Object owner, final String id, final ReferenceKind kind) {
+        referenceOwners.add(owner);
+        referenceIds.add(id);
+        referenceKinds.add(kind);
+    }
+    
+    /**
+     * Resolves all references in the order in which they were read.
+     */
+    private void resolveReferences() throws IOException {
+        for (int i = 0; i < referenceOwners.size(); i++) {
+            Object owner = referenceOwners.get(i);
+            String id = referenceIds.get(i);
+            
+            switch (referenceKinds.get(i)) {
+            case EDGE_SOURCE:
+                ((ElkEdge) owner).getSources().add(shape(id));
+                break;
+            case EDGE_TARGET:
+                ((ElkEdge) owner).getTargets().add(shape(id));
+                break;
+            case INCOMING_SHAPE:
+                ((ElkEdgeSection) owner).setIncomingShape(shape(id));
+                break;
+            case OUTGOING_SHAPE:
+                ((ElkEdgeSection) owner).setOutgoingShape(shape(id));
+                break;
+            case INCOMING_SECTION:
+                ((ElkEdgeSection) owner).getIncomingSections().add(section(id));
+                break;
+            default:
+                // OUTGOING_SECTION
+                ((ElkEdgeSection) owner).getOutgoingSections().add(section(id));
+            }
+        }
+    }
+    
+    /**
+     * Returns the node or port with the given identifier.
+     */
+    private ElkConnectableShape shape(final String id) throws IOException {
+        ElkConnectableShape shape = shapes.get(id);
+        if (shape == null) {
+            throw new IOException("Reference to unknown node or port '" + id + "'.");
+        }
+        return shape;
+    }
+    
+    /**
+     * Returns the edge section with the given identifier.
+     */
+    private ElkEdgeSection section(final String id) throws IOException {
+        ElkEdgeSection section = sections.get(id);
+        if (section == null) {
+            throw new IOException("Reference to unknown edge section '" + id + "'.");
+        }
+        return section;
+    }
+    
+}
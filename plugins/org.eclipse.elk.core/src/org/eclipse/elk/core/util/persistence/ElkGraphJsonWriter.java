@@ -0,0 +1,530 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.util.persistence;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.elk.core.data.LayoutMetaDataService;
+import org.eclipse.elk.core.data.LayoutOptionData;
+import org.eclipse.elk.graph.ElkBendPoint;
+import org.eclipse.elk.graph.ElkConnectableShape;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkGraphElement;
+import org.eclipse.elk.graph.ElkLabel;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+import org.eclipse.elk.graph.ElkShape;
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.IPropertyHolder;
+
+/**
+ * Writes ELK graphs as JSON text in the format read by {@link ElkGraphJsonReader}, including their
+ * layout. The text is written while the graph is traversed, without creating an EMF resource or a
+ * tree of the JSON document first.
+ * 
+ * <p>Nodes and ports are written with their identifiers so that edges can refer to them. Elements
+ * without an identifier, or whose identifier is already used by another element, are given generated
+ * ones. As with {@link ElkGraphResource}, only the properties that are known layout options whose
+ * values can be parsed again are written.</p>
+ */
+public final class ElkGraphJsonWriter {
+    
+    /** number of characters collected before they are handed to the writer. */
+    private static final int FLUSH_THRESHOLD = 8192;
+    
+    /** the writer to write to. */
+    private final Writer out;
+    /** the text that has not been handed to the writer yet. */
+    private final StringBuilder text = new StringBuilder(FLUSH_THRESHOLD * 2);
+    /** the identifiers written for nodes, ports, and edge sections. */
+    private final Map<Object, String> ids = new HashMap<>();
+    /** the identifiers used so far. */
+    private final Set<String> usedIds = new HashSet<>();
+    /** counter for generating identifiers. */
+    private int nextGeneratedId = 0;
+    /** layout options by property identifier; {@code null} values denote properties not to write. */
+    private final Map<String, LayoutOptionData> options = new HashMap<>();
+    /** whether the current object or array already has members or elements, per nesting level. */
+    private boolean[] hasElements = new boolean[32]; // SUPPRESS CHECKSTYLE MagicNumber
+    /** the current nesting level. */
+    private int depth = 0;
+    /** whether a member name has just been written, so the next value needs no separator. */
+    private boolean afterName = false;
+    
+    /**
+     * Creates a writer for a single document.
+     */
+    private ElkGraphJsonWriter(final Writer out) {
+        this.out = out;
+    }
+    
+    /**
+     * Writes the given graph to the given writer. The writer is flushed, but not closed.
+     * 
+     * @param graph
+     *            the graph to write.
+     * @param out
+     *            the writer to write the JSON text to.
+     * @throws IOException
+     *             if writing fails.
+     */
+    public static void write(final ElkNode graph, final Writer out) throws IOException {
+        ElkGraphJsonWriter writer = new ElkGraphJsonWriter(out);
+        writer.writeNode(graph);
+        writer.flush(0);
+        out.flush();
+    }
+    
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // Graph Elements
+    
+    /**
+     * Writes a node and everything it contains.
+     */
+    private void writeNode(final ElkNode node) throws IOException {
+        beginObject();
+        writeShape(node, idOf(node, node.getIdentifier(), "n"));
+        
+        if (!node.getPorts().isEmpty()) {
+            name("ports");
+            beginArray();
+            for (ElkPort port : node.getPorts()) {
+                beginObject();
+                writeShape(port, idOf(port, port.getIdentifier(), "p"));
+                endObject();
+            }
+            endArray();
+        }
+        
+        if (!node.getChildren().isEmpty()) {
+            name("children");
+            beginArray();
+            for (ElkNode child : node.getChildren()) {
+                writeNode(child);
+            }
+            endArray();
+        }
+        
+        if (!node.getContainedEdges().isEmpty()) {
+            name("edges");
+            beginArray();
+            for (ElkEdge edge : node.getContainedEdges()) {
+                writeEdge(edge);
+            }
+            endArray();
+        }
+        
+        endObject();
+        flush(FLUSH_THRESHOLD);
+    }
+    
+    /**
+     * Writes the members of a shape, that is its identifier, coordinates, layout options, and labels.
+     * 
+     * @param id the identifier to write, or {@code null}.
+     */
+    private void writeShape(final ElkShape shape, final String id) throws IOException {
+        if (id != null) {
+            name("id");
+            value(id);
+        }
+        name("x");
+        value(shape.getX());
+        name("y");
+        value(shape.getY());
+        name("width");
+        value(shape.getWidth());
+        name("height");
+        value(shape.getHeight());
+        writeLayoutOptions(shape);
+        writeLabels(shape);
+    }
+    
+    /**
+     * Writes the labels of a graph element, if it has any.
+     */
+    private void writeLabels(final ElkGraphElement element) throws IOException {
+        if (element.getLabels().isEmpty()) {
+            return;
+        }
+        
+        name("labels");
+        beginArray();
+        for (ElkLabel label : element.getLabels()) {
+            beginObject();
+            if (label.getText() != null) {
+                name("text");
+                value(label.getText());
+            }
+            writeShape(label, label.getIdentifier());
+            endObject();
+        }
+        endArray();
+    }
+    
+    /**
+     * Writes an edge, its sections, and its labels.
+     */
+    private void writeEdge(final ElkEdge edge) throws IOException {
+        beginObject();
+        if (edge.getIdentifier() != null) {
+            name("id");
+            value(edge.getIdentifier());
+        }
+        
+        name("sources");
+        beginArray();
+        for (ElkConnectableShape source : edge.getSources()) {
+            value(idOf(source));
+        }
+        endArray();
+        
+        name("targets");
+        beginArray();
+        for (ElkConnectableShape target : edge.getTargets()) {
+            value(idOf(target));
+        }
+        endArray();
+        
+        if (!edge.getSections().isEmpty()) {
+            name("sections");
+            beginArray();
+            for (ElkEdgeSection section : edge.getSections()) {
+                writeSection(section);
+            }
+            endArray();
+        }
+        
+        writeLayoutOptions(edge);
+        writeLabels(edge);
+        endObject();
+    }
+    
+    /**
+     * Writes an edge section.
+     */
+    private void writeSection(final ElkEdgeSection section) throws IOException {
+        beginObject();
+        name("id");
+        value(idOf(section, section.getIdentifier(), "s"));
+        
+        name("startPoint");
+        writePoint(section.getStartX(), section.getStartY());
+        name("endPoint");
+        writePoint(section.getEndX(), section.getEndY());
+        
+        if (!section.getBendPoints().isEmpty()) {
+            name("bendPoints");
+            beginArray();
+            for (ElkBendPoint bendPoint : section.getBendPoints()) {
+                writePoint(bendPoint.getX(), bendPoint.getY());
+            }
+            endArray();
+        }
+        
+        if (section.getIncomingShape() != null) {
+            name("incomingShape");
+            value(idOf(section.getIncomingShape()));
+        }
+        if (section.getOutgoingShape() != null) {
+            name("outgoingShape");
+            value(idOf(section.getOutgoingShape()));
+        }
+        writeSectionReferences("incomingSections", section.getIncomingSections());
+        writeSectionReferences("outgoingSections", section.getOutgoingSections());
+        
+        writeLayoutOptions(section);
+        endObject();
+    }
+    
+    /**
+     * Writes a point object.
+     */
+    private void writePoint(final double x, final double y) throws IOException {
+        beginObject();
+        name("x");
+        value(x);
+        name("y");
+        value(y);
+        endObject();
+    }
+    
+    /**
+     * Writes an array of references to edge sections, if there are any.
+     */
+    private void writeSectionReferences(final String name, final List<ElkEdgeSection> sections)
+            throws IOException {
+        
+        if (sections.isEmpty()) {
+            return;
+        }
+        
+        name(name);
+        beginArray();
+        for (ElkEdgeSection section : sections) {
+            value(idOf(section, section.getIdentifier(), "s"));
+        }
+        endArray();
+    }
+    
+    /**
+     * Writes the layout options of a graph element or edge section, if it has any that can be read again.
+     */
+    private void writeLayoutOptions(final IPropertyHolder holder) throws IOException {
+        boolean first = true;
+        for (Map.Entry<IProperty<?>, Object> entry : holder.getAllProperties().entrySet()) {
+            Object value = entry.getValue();
+            if (value == null || resolveOption(entry.getKey()) == null) {
+                continue;
+            }
+            
+            if (first) {
+                name("layoutOptions");
+                beginObject();
+                first = false;
+            }
+            name(entry.getKey().getId());
+            if (value instanceof Boolean) {
+                literal(value.toString());
+            } else if (value instanceof Number && Double.isFinite(((Number) value).doubleValue())) {
+                literal(value.toString());
+            } else if (value instanceof Enum<?>) {
+                value(((Enum<?>) value).name());
+            } else {
+                value(value.toString());
+            }
+        }
+        if (!first) {
+            endObject();
+        }
+    }
+    
+    /**
+     * Looks up the layout option for the given property. Returns {@code null} if there is none or if
+     * its values cannot be parsed.
+     */
+    private LayoutOptionData resolveOption(final IProperty<?> property) {
+        String id = property.getId();
+        if (options.containsKey(id)) {
+            return options.get(id);
+        }
+        
+        LayoutOptionData optionData = LayoutMetaDataService.getInstance().getOptionData(id);
+        if (optionData != null && !optionData.canParseValue()) {
+            optionData = null;
+        }
+        options.put(id, optionData);
+        return optionData;
+    }
+    
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // Identifiers
+    
+    /**
+     * Returns the identifier of a node or port.
+     */
+    private String idOf(final ElkConnectableShape shape) {
+        return idOf(shape, shape.getIdentifier(), shape instanceof ElkPort ? "p" : "n");
+    }
+    
+    /**
+     * Returns the identifier to write for the given element. The first time the element is written or
+     * referred to, its own identifier is used if it is unique so far; otherwise, a new one is generated.
+     * 
+     * @param element the element.
+     * @param identifier the element's own identifier, or {@code null}.
+     * @param prefix prefix for generated identifiers.
+     */
+    private String idOf(final Object element, final String identifier, final String prefix) {
+        String id = ids.get(element);
+        if (id == null) {
+            if (identifier != null && usedIds.add(identifier)) {
+                id = identifier;
+            } else {
+                do {
+                    id = prefix + nextGeneratedId++;
+                } while (!usedIds.add(id));
+            }
+            ids.put(element, id);
+        }
+        return id;
+    }
+    
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // JSON Output
+    
+    /**
+     * Writes the separator required before a new value or member name.
+     */
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+        } else if (depth > 0) {
+            if (hasElements[depth]) {
+                text.append(',');
+            }
+            hasElements[depth] = true;
+        }
+    }
+    
+    /**
+     * Writes the start of an object.
+     */
+    private void beginObject() {
+        separator();
+        text.append('{');
+        push();
+    }
+    
+    /**
+     * Writes the end of an object.
+     */
+    private void endObject() {
+        depth--;
+        text.append('}');
+    }
+    
+    /**
+     * Writes the start of an array.
+     */
+    private void beginArray() {
+        separator();
+        text.append('[');
+        push();
+    }
+    
+    /**
+     * Writes the end of an array.
+     */
+    private void endArray() {
+        depth--;
+        text.append(']');
+    }
+    
+    /**
+     * Enters a new nesting level.
+     */
+    private void push() {
+        depth++;
+        if (depth == hasElements.length) {
+            boolean[] newHasElements = new boolean[depth * 2];
+            System.arraycopy(hasElements, 0, newHasElements, 0, depth);
+            hasElements = newHasElements;
+        }
+        hasElements[depth] = false;
+    }
+    
+    /**
+     * Writes a member name.
+     */
+    private void name(final String name) {
+        separator();
+        string(name);
+        text.append(':');
+        afterName = true;
+    }
+    
+    /**
+     * Writes a string value.
+     */
+    private void value(final String value) {
+        separator();
+        string(value);
+    }
+    
+    /**
+     * Writes a number value. Non-finite numbers are not valid JSON and are written as strings, which
+     * the reader accepts for numbers.
+     */
+    private void value(final double value) {
+        if (Double.isFinite(value)) {
+            literal(Double.toString(value));
+        } else {
+            value(Double.toString(value));
+        }
+    }
+    
+    /**
+     * Writes a number or boolean value given as text.
+     */
+    private void literal(final String value) {
+        separator();
+        text.append(value);
+    }
+    
+    /**
+     * Writes a quoted and escaped string.
+     */
+    private void string(final String value) {
+        appendString(text, value);
+    }
+    
+    /**
+     * Appends the given string to the given builder as a quoted JSON string, escaping quotes,
+     * backslashes, and control characters.
+     * 
+     * @param json
+     *            the builder to append to.
+     * @param value
+     *            the string to append.
+     */
+    public static void appendString(final StringBuilder json, final String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < ' ') {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+    
+    /**
+     * Hands the collected text to the writer if there is more of it than the given threshold.
+     */
+    private void flush(final int threshold) throws IOException {
+        if (text.length() > threshold) {
+            out.append(text);
+            text.setLength(0);
+        }
+    }
+    
+}
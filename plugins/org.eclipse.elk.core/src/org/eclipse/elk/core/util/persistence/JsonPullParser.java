@@ -0,0 +1,542 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.util.persistence;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A minimal pull parser for JSON text. Values are consumed one token at a time straight from the
+ * underlying reader, so no tree of the document is ever built. The parser checks that the input is
+ * well-formed JSON and reports the line of the first error it finds.
+ */
+final class JsonPullParser {
+    
+    /** The tokens reported by {@link JsonPullParser#peek()}. */
+    enum Token {
+        /** start of an object. */
+        BEGIN_OBJECT,
+        /** end of an object. */
+        END_OBJECT,
+        /** start of an array. */
+        BEGIN_ARRAY,
+        /** end of an array. */
+        END_ARRAY,
+        /** a member name of an object. */
+        NAME,
+        /** a string value. */
+        STRING,
+        /** a number value. */
+        NUMBER,
+        /** {@code true} or {@code false}. */
+        BOOLEAN,
+        /** {@code null}. */
+        NULL,
+        /** the end of the input. */
+        END_DOCUMENT
+    }
+    
+    /** scope of an array without elements so far. */
+    private static final int EMPTY_ARRAY = 0;
+    /** scope of an array with elements. */
+    private static final int NONEMPTY_ARRAY = 1;
+    /** scope of an object without members so far. */
+    private static final int EMPTY_OBJECT = 2;
+    /** scope of an object whose last member name has been read, but not its value. */
+    private static final int DANGLING_NAME = 3;
+    /** scope of an object with members. */
+    private static final int NONEMPTY_OBJECT = 4;
+    /** scope of the document before its value. */
+    private static final int EMPTY_DOCUMENT = 5;
+    /** scope of the document after its value. */
+    private static final int NONEMPTY_DOCUMENT = 6;
+    
+    /** size of the read buffer. */
+    private static final int BUFFER_SIZE = 8192;
+    /** value of a hexadecimal digit 'a'. */
+    private static final int HEX_TEN = 10;
+    /** bits per hexadecimal digit. */
+    private static final int HEX_SHIFT = 4;
+    /** number of hexadecimal digits of a unicode escape. */
+    private static final int UNICODE_DIGITS = 4;
+    
+    /** the reader to read from. */
+    private final Reader in;
+    /** the read buffer. */
+    private final char[] buffer = new char[BUFFER_SIZE];
+    /** the position of the next character in the buffer. */
+    private int pos = 0;
+    /** the number of valid characters in the buffer. */
+    private int limit = 0;
+    /** the current line, for error messages. */
+    private int line = 1;
+    /** the scopes that are currently open; the innermost is last. */
+    private int[] stack = new int[32]; // SUPPRESS CHECKSTYLE MagicNumber
+    /** the number of scopes that are currently open. */
+    private int stackSize = 0;
+    /** the token returned by the last call to {@link #peek()} that has not been consumed yet. */
+    private Token peeked = null;
+    /** the text of the peeked token, for names and scalar values. */
+    private String peekedText = null;
+    /** reusable builder for strings that contain escape sequences or span buffer refills. */
+    private final StringBuilder stringBuilder = new StringBuilder();
+    
+    /**
+     * Creates a parser that reads from the given reader.
+     * 
+     * @param in the reader to read from.
+     */
+    JsonPullParser(final Reader in) {
+        this.in = in;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+    
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // Token Access
+    
+    /**
+     * Returns the type of the next token without consuming it.
+     * 
+     * @return the next token.
+     * @throws IOException if reading fails or the input is malformed.
+     */
+    Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        
+        int c;
+        switch (stack[stackSize - 1]) {
+        case EMPTY_ARRAY:
+            stack[stackSize - 1] = NONEMPTY_ARRAY;
+            if (nextNonWhitespace() == ']') {
+                return peeked = Token.END_ARRAY;
+            }
+            pos--;
+            break;
+            
+        case NONEMPTY_ARRAY:
+            c = nextNonWhitespace();
+            if (c == ']') {
+                return peeked = Token.END_ARRAY;
+            } else if (c != ',') {
+                throw syntaxError("Expected ',' or ']'");
+            }
+            break;
+            
+        case EMPTY_OBJECT:
+        case NONEMPTY_OBJECT:
+            c = nextNonWhitespace();
+            if (c == '}') {
+                return peeked = Token.END_OBJECT;
+            } else if (stack[stackSize - 1] == NONEMPTY_OBJECT) {
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or '}'");
+                }
+                c = nextNonWhitespace();
+            }
+            if (c != '"') {
+                throw syntaxError("Expected a member name");
+            }
+            stack[stackSize - 1] = DANGLING_NAME;
+            peekedText = readString();
+            return peeked = Token.NAME;
+            
+        case DANGLING_NAME:
+            if (nextNonWhitespace() != ':') {
+                throw syntaxError("Expected ':'");
+            }
+            stack[stackSize - 1] = NONEMPTY_OBJECT;
+            break;
+            
+        case EMPTY_DOCUMENT:
+            stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+            break;
+            
+        default:
+            // NONEMPTY_DOCUMENT
+            skipWhitespace();
+            if (pos < limit || fill()) {
+                throw syntaxError("Expected end of input");
+            }
+            return peeked = Token.END_DOCUMENT;
+        }
+        
+        return peeked = readValueToken();
+    }
+    
+    /**
+     * Returns whether the current object or array has more members or elements.
+     * 
+     * @return {@code true} if the next token is neither the end of an object nor of an array.
+     * @throws IOException if reading fails or the input is malformed.
+     */
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+    
+    /**
+     * Consumes the start of an object.
+     * 
+     * @throws IOException if reading fails or the next token is not the start of an object.
+     */
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+    
+    /**
+     * Consumes the end of an object.
+     * 
+     * @throws IOException if reading fails or the next token is not the end of an object.
+     */
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+    
+    /**
+     * Consumes the start of an array.
+     * 
+     * @throws IOException if reading fails or the next token is not the start of an array.
+     */
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+    
+    /**
+     * Consumes the end of an array.
+     * 
+     * @throws IOException if reading fails or the next token is not the end of an array.
+     */
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+    
+    /**
+     * Consumes a member name.
+     * 
+     * @return the name.
+     * @throws IOException if reading fails or the next token is not a member name.
+     */
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        return peekedText;
+    }
+    
+    /**
+     * Consumes a string or number value and returns its text. Numbers are accepted since identifiers
+     * are often given as numbers.
+     * 
+     * @return the text of the value.
+     * @throws IOException if reading fails or the next token is neither a string nor a number.
+     */
+    String nextString() throws IOException {
+        Token token = peek();
+        if (token != Token.STRING && token != Token.NUMBER) {
+            throw syntaxError("Expected a string but was " + token);
+        }
+        peeked = null;
+        return peekedText;
+    }
+    
+    /**
+     * Consumes a number value. Strings are accepted as well if they contain a number, which allows
+     * non-finite values to be represented.
+     * 
+     * @return the number.
+     * @throws IOException if reading fails or the next token is not a number.
+     */
+    double nextDouble() throws IOException {
+        Token token = peek();
+        if (token != Token.NUMBER && token != Token.STRING) {
+            throw syntaxError("Expected a number but was " + token);
+        }
+        try {
+            double value = Double.parseDouble(peekedText);
+            peeked = null;
+            return value;
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number '" + peekedText + "'");
+        }
+    }
+    
+    /**
+     * Consumes a scalar value and returns its text, or skips a nested object or array.
+     * 
+     * @return the text of a string, number, or boolean value, or {@code null} if the value is
+     *         {@code null}, an object, or an array.
+     * @throws IOException if reading fails or the input is malformed.
+     */
+    String nextScalar() throws IOException {
+        switch (peek()) {
+        case STRING:
+        case NUMBER:
+        case BOOLEAN:
+            peeked = null;
+            return peekedText;
+        default:
+            skipValue();
+            return null;
+        }
+    }
+    
+    /**
+     * Skips the next value, including all nested values if it is an object or an array.
+     * 
+     * @throws IOException if reading fails or the input is malformed.
+     */
+    void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+            case BEGIN_OBJECT:
+                beginObject();
+                depth++;
+                break;
+            case BEGIN_ARRAY:
+                beginArray();
+                depth++;
+                break;
+            case END_OBJECT:
+                endObject();
+                depth--;
+                break;
+            case END_ARRAY:
+                endArray();
+                depth--;
+                break;
+            case END_DOCUMENT:
+                throw syntaxError("Unexpected end of input");
+            default:
+                // names and scalar values
+                peeked = null;
+            }
+        } while (depth > 0);
+    }
+    
+    /**
+     * Returns an exception that describes a problem at the current position of the input.
+     * 
+     * @param message the problem.
+     * @return the exception, which the caller is expected to throw.
+     */
+    IOException syntaxError(final String message) {
+        return new IOException(message + " at line " + line + ".");
+    }
+    
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // Scanning
+    
+    /**
+     * Consumes the next token if it is of the given type.
+     */
+    private void expect(final Token token) throws IOException {
+        Token actual = peek();
+        if (actual != token) {
+            throw syntaxError("Expected " + token + " but was " + actual);
+        }
+        peeked = null;
+    }
+    
+    /**
+     * Opens a new scope.
+     */
+    private void push(final int scope) {
+        if (stackSize == stack.length) {
+            int[] newStack = new int[stackSize * 2];
+            System.arraycopy(stack, 0, newStack, 0, stackSize);
+            stack = newStack;
+        }
+        stack[stackSize++] = scope;
+    }
+    
+    /**
+     * Reads the token of a value, whose first character is the next non-whitespace character.
+     */
+    private Token readValueToken() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+        case '{':
+            return Token.BEGIN_OBJECT;
+        case '[':
+            return Token.BEGIN_ARRAY;
+        case '"':
+            peekedText = readString();
+            return Token.STRING;
+        case 't':
+        case 'f':
+        case 'n':
+            pos--;
+            peekedText = readLiteral();
+            if (peekedText.equals("true") || peekedText.equals("false")) {
+                return Token.BOOLEAN;
+            } else if (peekedText.equals("null")) {
+                return Token.NULL;
+            }
+            throw syntaxError("Unexpected literal '" + peekedText + "'");
+        default:
+            if (c == '-' || c >= '0' && c <= '9') {
+                pos--;
+                peekedText = readLiteral();
+                return Token.NUMBER;
+            }
+            throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+    
+    /**
+     * Reads the characters of a number or of a literal such as {@code true}.
+     */
+    private String readLiteral() throws IOException {
+        stringBuilder.setLength(0);
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.'
+                    || c == 'E') {
+                stringBuilder.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return stringBuilder.toString();
+    }
+    
+    /**
+     * Reads the rest of a string whose opening quote has already been consumed, resolving escape
+     * sequences.
+     */
+    private String readString() throws IOException {
+        // fast path: the string lies completely in the buffer and has no escape sequences
+        for (int i = pos; i < limit; i++) {
+            char c = buffer[i];
+            if (c == '"') {
+                String result = new String(buffer, pos, i - pos);
+                pos = i + 1;
+                return result;
+            } else if (c == '\\' || c == '\n') {
+                break;
+            }
+        }
+        
+        stringBuilder.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return stringBuilder.toString();
+            } else if (c == '\\') {
+                stringBuilder.append(readEscapeCharacter());
+            } else if (c == '\n') {
+                throw syntaxError("Unterminated string");
+            } else {
+                stringBuilder.append(c);
+            }
+        }
+    }
+    
+    /**
+     * Reads an escape sequence whose backslash has already been consumed.
+     */
+    private char readEscapeCharacter() throws IOException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char c = buffer[pos++];
+        switch (c) {
+        case 'u':
+            int value = 0;
+            for (int i = 0; i < UNICODE_DIGITS; i++) {
+                if (pos == limit && !fill()) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                char digit = buffer[pos++];
+                value <<= HEX_SHIFT;
+                if (digit >= '0' && digit <= '9') {
+                    value += digit - '0';
+                } else if (digit >= 'a' && digit <= 'f') {
+                    value += digit - 'a' + HEX_TEN;
+                } else if (digit >= 'A' && digit <= 'F') {
+                    value += digit - 'A' + HEX_TEN;
+                } else {
+                    throw syntaxError("Invalid unicode escape sequence");
+                }
+            }
+            return (char) value;
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case '"':
+        case '\\':
+        case '/':
+            return c;
+        default:
+            throw syntaxError("Invalid escape sequence '\\" + c + "'");
+        }
+    }
+    
+    /**
+     * Consumes whitespace and returns the next character after it.
+     */
+    private int nextNonWhitespace() throws IOException {
+        skipWhitespace();
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return buffer[pos++];
+    }
+    
+    /**
+     * Consumes whitespace up to the next other character or the end of the input.
+     */
+    private void skipWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c == '\n') {
+                line++;
+            } else if (c != ' ' && c != '\t' && c != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+    
+    /**
+     * Refills the buffer once all of its characters have been consumed.
+     * 
+     * @return {@code false} if the end of the input has been reached.
+     */
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        pos = 0;
+        limit = count;
+        return true;
+    }
+    
+}
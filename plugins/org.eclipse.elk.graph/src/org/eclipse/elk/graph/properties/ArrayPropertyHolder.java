@@ -0,0 +1,453 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.graph.properties;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An implementation of {@link IPropertyHolder} that stores its values in compact arrays instead of a
+ * {@link HashMap}. Every property is identified by the dense index assigned to it by
+ * {@link PropertyIndex}, so looking up a value neither hashes the property nor allocates anything.
+ * The values live in a small open-addressing table that is only allocated once the first property is
+ * set and grows as needed.
+ * 
+ * <p>Values of integer, double, and boolean properties can be set and retrieved without boxing
+ * through {@link #setProperty(IProperty, int)}, {@link #getIntProperty(IProperty)} and their
+ * siblings. Such values are still visible through {@link #getProperty(IProperty)}, which boxes them on
+ * demand.</p>
+ * 
+ * <p>In contrast to {@link MapPropertyHolder}, the map returned by {@link #getAllProperties()} is an
+ * unmodifiable snapshot of the current property values.</p>
+ */
+public class ArrayPropertyHolder implements IPropertyHolder, Serializable {
+
+    /** the serial version UID. */
+    private static final long serialVersionUID = -2382347622151442170L;
+    
+    /** initial capacity of the value table; must be a power of two. */
+    private static final int INITIAL_CAPACITY = 8;
+    /** marker value for slots that hold an integer in the primitive array. */
+    private static final Object INT_VALUE = new PrimitiveMarker(0);
+    /** marker value for slots that hold a double in the primitive array. */
+    private static final Object DOUBLE_VALUE = new PrimitiveMarker(1);
+    /** marker value for slots that hold a boolean in the primitive array. */
+    private static final Object BOOLEAN_VALUE = new PrimitiveMarker(2);
+    
+    /** property indices plus one for each slot; zero marks an empty slot. */
+    private int[] keys;
+    /** the properties of each slot. */
+    private IProperty<?>[] properties;
+    /** the values of each slot, or one of the primitive markers. */
+    private Object[] values;
+    /** primitive values of slots marked accordingly; allocated when the first primitive is stored. */
+    private long[] primitives;
+    /** the number of occupied slots. */
+    private int size;
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ArrayPropertyHolder setProperty(final IProperty<? super T> property, final T value) {
+        if (value == null) {
+            remove(property);
+        } else {
+            // The slot has to be determined first since it may reallocate the value array
+            int slot = slotFor(property);
+            values[slot] = value;
+        }
+        return this;
+    }
+    
+    /**
+     * Sets the value of an integer property without boxing it.
+     * 
+     * @param property the property to set
+     * @param value the new value
+     * @return {@code this} holder for convenience
+     */
+    public ArrayPropertyHolder setProperty(final IProperty<Integer> property, final int value) {
+        setPrimitive(property, INT_VALUE, value);
+        return this;
+    }
+    
+    /**
+     * Sets the value of a double property without boxing it.
+     * 
+     * @param property the property to set
+     * @param value the new value
+     * @return {@code this} holder for convenience
+     */
+    public ArrayPropertyHolder setProperty(final IProperty<Double> property, final double value) {
+        setPrimitive(property, DOUBLE_VALUE, Double.doubleToRawLongBits(value));
+        return this;
+    }
+    
+    /**
+     * Sets the value of a boolean property without boxing it.
+     * 
+     * @param property the property to set
+     * @param value the new value
+     * @return {@code this} holder for convenience
+     */
+    public ArrayPropertyHolder setProperty(final IProperty<Boolean> property, final boolean value) {
+        setPrimitive(property, BOOLEAN_VALUE, value ? 1 : 0);
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getProperty(final IProperty<T> property) {
+        int slot = find(PropertyIndex.of(property));
+        if (slot >= 0) {
+            Object value = values[slot];
+            if (value instanceof PrimitiveMarker) {
+                return (T) box(slot);
+            } else if (value instanceof IPropertyValueProxy) {
+                value = ((IPropertyValueProxy) value).resolveValue(property);
+                if (value != null) {
+                    values[slot] = value;
+                    return (T) value;
+                }
+            } else {
+                return (T) value;
+            }
+        }
+        
+        // Retrieve the default value and memorize it for our property if the user may alter it,
+        // just like MapPropertyHolder does
+        T defaultValue = property.getDefault();
+        if (defaultValue instanceof Cloneable) {
+            setProperty(property, defaultValue);
+        }
+        return defaultValue;
+    }
+    
+    /**
+     * Retrieves the value of an integer property without boxing it, if possible.
+     * 
+     * @param property the property to get
+     * @return the current value, or the default value if the property is not set
+     */
+    public int getIntProperty(final IProperty<Integer> property) {
+        int slot = find(PropertyIndex.of(property));
+        if (slot >= 0 && values[slot] == INT_VALUE) {
+            return (int) primitives[slot];
+        }
+        return getProperty(property);
+    }
+    
+    /**
+     * Retrieves the value of a double property without boxing it, if possible.
+     * 
+     * @param property the property to get
+     * @return the current value, or the default value if the property is not set
+     */
+    public double getDoubleProperty(final IProperty<Double> property) {
+        int slot = find(PropertyIndex.of(property));
+        if (slot >= 0 && values[slot] == DOUBLE_VALUE) {
+            return Double.longBitsToDouble(primitives[slot]);
+        }
+        return getProperty(property);
+    }
+    
+    /**
+     * Retrieves the value of a boolean property without boxing it, if possible.
+     * 
+     * @param property the property to get
+     * @return the current value, or the default value if the property is not set
+     */
+    public boolean getBooleanProperty(final IProperty<Boolean> property) {
+        int slot = find(PropertyIndex.of(property));
+        if (slot >= 0 && values[slot] == BOOLEAN_VALUE) {
+            return primitives[slot] != 0;
+        }
+        return getProperty(property);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasProperty(final IProperty<?> property) {
+        return find(PropertyIndex.of(property)) >= 0;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ArrayPropertyHolder copyProperties(final IPropertyHolder other) {
+        if (other == null) {
+            return this;
+        }
+        
+        if (other instanceof ArrayPropertyHolder) {
+            // Copy slot by slot to keep primitive values unboxed
+            ArrayPropertyHolder holder = (ArrayPropertyHolder) other;
+            for (int i = 0; holder.keys != null && i < holder.keys.length; i++) {
+                if (holder.keys[i] != 0) {
+                    int slot = slotFor(holder.properties[i]);
+                    values[slot] = holder.values[i];
+                    if (holder.values[i] instanceof PrimitiveMarker) {
+                        ensurePrimitives();
+                        primitives[slot] = holder.primitives[i];
+                    }
+                }
+            }
+        } else {
+            for (Map.Entry<IProperty<?>, Object> entry : other.getAllProperties().entrySet()) {
+                setProperty((IProperty<Object>) entry.getKey(), entry.getValue());
+            }
+        }
+        
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<IProperty<?>, Object> getAllProperties() {
+        if (size == 0) {
+            return Collections.emptyMap();
+        }
+        
+        Map<IProperty<?>, Object> result = new HashMap<IProperty<?>, Object>(size * 2);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                result.put(properties[i], values[i] instanceof PrimitiveMarker ? box(i) : values[i]);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+    
+    
+    ///////////////////////////////////////////////////////////////////////////////
+    // Value Table
+    
+    /**
+     * Returns the slot that holds the property with the given index.
+     * 
+     * @param index the property index
+     * @return the slot, or -1 if the property is not set
+     */
+    private int find(final int index) {
+        if (keys == null) {
+            return -1;
+        }
+        
+        int mask = keys.length - 1;
+        int key = index + 1;
+        int slot = hash(index) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Returns the slot that holds the given property, creating an empty one if the property is not
+     * set yet.
+     * 
+     * @param property the property
+     * @return the property's slot
+     */
+    private int slotFor(final IProperty<?> property) {
+        int index = PropertyIndex.of(property);
+        int slot = find(index);
+        if (slot >= 0) {
+            return slot;
+        }
+        
+        if (keys == null) {
+            allocate(INITIAL_CAPACITY);
+        } else if ((size + 1) * 4 > keys.length * 3) {
+            // Keep the load factor at 0.75 at most
+            int[] oldKeys = keys;
+            IProperty<?>[] oldProperties = properties;
+            Object[] oldValues = values;
+            long[] oldPrimitives = primitives;
+            
+            allocate(oldKeys.length * 2);
+            if (oldPrimitives != null) {
+                ensurePrimitives();
+            }
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int newSlot = insert(oldKeys[i], oldProperties[i]);
+                    values[newSlot] = oldValues[i];
+                    if (oldPrimitives != null) {
+                        primitives[newSlot] = oldPrimitives[i];
+                    }
+                }
+            }
+        }
+        
+        return insert(index + 1, property);
+    }
+    
+    /**
+     * Allocates an empty table with the given capacity.
+     * 
+     * @param capacity the new capacity, which must be a power of two
+     */
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        properties = new IProperty<?>[capacity];
+        values = new Object[capacity];
+        primitives = null;
+        size = 0;
+    }
+    
+    /**
+     * Inserts a key that is known not to be in the table yet. The table must have room for it.
+     * 
+     * @param key the property index plus one
+     * @param property the property
+     * @return the slot the key was inserted into
+     */
+    private int insert(final int key, final IProperty<?> property) {
+        int mask = keys.length - 1;
+        int slot = hash(key - 1) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        properties[slot] = property;
+        size++;
+        return slot;
+    }
+    
+    /**
+     * Removes the given property from the table. Subsequent entries of the same probe sequence are
+     * shifted back so that no tombstones are needed.
+     * 
+     * @param property the property to remove
+     */
+    private void remove(final IProperty<?> property) {
+        int slot = find(PropertyIndex.of(property));
+        if (slot < 0) {
+            return;
+        }
+        
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int home = hash(keys[next] - 1) & mask;
+            // Move the entry into the hole unless its home slot lies cyclically in (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                properties[hole] = properties[next];
+                values[hole] = values[next];
+                if (primitives != null) {
+                    primitives[hole] = primitives[next];
+                }
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        
+        keys[hole] = 0;
+        properties[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+    
+    /**
+     * Stores a primitive value for the given property.
+     * 
+     * @param property the property
+     * @param marker the marker of the primitive type
+     * @param bits the value, encoded as a long
+     */
+    private void setPrimitive(final IProperty<?> property, final Object marker, final long bits) {
+        int slot = slotFor(property);
+        ensurePrimitives();
+        values[slot] = marker;
+        primitives[slot] = bits;
+    }
+    
+    /**
+     * Makes sure the primitive value array exists.
+     */
+    private void ensurePrimitives() {
+        if (primitives == null) {
+            primitives = new long[keys.length];
+        }
+    }
+    
+    /**
+     * Boxes the primitive value stored in the given slot.
+     * 
+     * @param slot the slot
+     * @return the boxed value
+     */
+    private Object box(final int slot) {
+        Object marker = values[slot];
+        if (marker == INT_VALUE) {
+            return Integer.valueOf((int) primitives[slot]);
+        } else if (marker == DOUBLE_VALUE) {
+            return Double.valueOf(Double.longBitsToDouble(primitives[slot]));
+        } else {
+            return Boolean.valueOf(primitives[slot] != 0);
+        }
+    }
+    
+    /**
+     * Scrambles property indices, which are dense, to spread them over the table.
+     * 
+     * @param index the property index
+     * @return the hash of the index
+     */
+    private static int hash(final int index) {
+        int h = index * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * Type of the markers for primitive values. Being serializable, the markers would lose their
+     * identity when holders are deserialized, so they are resolved to the canonical instances.
+     */
+    private static final class PrimitiveMarker implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        /** the primitive type this marker stands for. */
+        private final int type;
+        
+        PrimitiveMarker(final int type) {
+            this.type = type;
+        }
+        
+        private Object readResolve() {
+            switch (type) {
+            case 0:
+                return INT_VALUE;
+            case 1:
+                return DOUBLE_VALUE;
+            default:
+                return BOOLEAN_VALUE;
+            }
+        }
+    }
+    
+}
@@ -27,6 +27,8 @@ public class Property<T> implements IProperty<T>, Comparable<IProperty<?>> {
     
     /** identifier of this property. */
     private final String id;
+    /** the index of this property's identifier, or -1 if not determined yet. */
+    private int index = -1;
     /** the default value of this property. */
     private T defaultValue;
     /** the lower bound of this property. */
@@ -153,6 +155,18 @@ public class Property<T> implements IProperty<T>, Comparable<IProperty<?>> {
         return id;
     }
     
+    /**
+     * Returns the dense index of this property's identifier, as assigned by {@link PropertyIndex}.
+     * 
+     * @return the property's index
+     */
+    public int getIndex() {
+        if (index < 0) {
+            index = PropertyIndex.register(id);
+        }
+        return index;
+    }
+    
     /**
      * {@inheritDoc}
      */
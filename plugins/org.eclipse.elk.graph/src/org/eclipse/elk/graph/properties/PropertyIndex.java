@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.graph.properties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns dense integer indices to property identifiers. Since properties are equal if their identifiers
+ * are equal, all property instances with the same identifier share the same index. Indices are assigned
+ * in the order in which identifiers are first registered and are never reused.
+ * 
+ * <p>The index of a {@link Property} is determined once and then cached by the property itself; other
+ * implementations of {@link IProperty} are looked up by their identifier.</p>
+ *
+ * @see ArrayPropertyHolder
+ */
+public final class PropertyIndex {
+    
+    /** map of property identifiers to their indices. */
+    private static final ConcurrentMap<String, Integer> INDICES = new ConcurrentHashMap<String, Integer>();
+    
+    /**
+     * Utility class, no instantiation.
+     */
+    private PropertyIndex() {
+    }
+    
+    /**
+     * Returns the index of the given property, registering its identifier if necessary.
+     * 
+     * @param property the property
+     * @return the property's index
+     */
+    public static int of(final IProperty<?> property) {
+        if (property instanceof Property) {
+            return ((Property<?>) property).getIndex();
+        }
+        return register(property.getId());
+    }
+    
+    /**
+     * Returns the index of the given property identifier, registering it if necessary.
+     * 
+     * @param id the property identifier
+     * @return the identifier's index
+     */
+    public static int register(final String id) {
+        Integer index = INDICES.get(id);
+        if (index == null) {
+            synchronized (INDICES) {
+                index = INDICES.get(id);
+                if (index == null) {
+                    index = INDICES.size();
+                    INDICES.put(id, index);
+                }
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * Returns the number of property identifiers registered so far.
+     * 
+     * @return the number of registered identifiers
+     */
+    public static int size() {
+        return INDICES.size();
+    }
+    
+}
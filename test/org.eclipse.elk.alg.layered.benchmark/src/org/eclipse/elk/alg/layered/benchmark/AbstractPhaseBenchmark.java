@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.elk.alg.layered.ElkLayered;
+import org.eclipse.elk.alg.layered.ElkLayered.TestExecutionState;
+import org.eclipse.elk.alg.layered.LayeredLayoutProvider;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.core.options.PortConstraints;
+import org.eclipse.elk.graph.ElkNode;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base class for benchmarks that measure a single phase of ELK Layered. The graph is generated once
+ * per trial. Before each invocation, it is imported afresh and all processors that precede the
+ * benchmarked phase are run through the layout test API of {@link ElkLayered}, so that the
+ * measurement only covers the phase itself.
+ *
+ * <p>Since the preparation runs before every invocation, the graphs should be large enough for the
+ * phase to take at least a millisecond; JMH's timestamping overhead is negligible then.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public abstract class AbstractPhaseBenchmark {
+
+    /** number of nodes of the generated graph. */
+    @Param({ "100", "500", "2000" })
+    public int nodes;
+
+    /** number of edges per node of the generated graph. */
+    @Param({ "1.5", "3" })
+    public double edgeDensity;
+
+    /** port constraints of the generated graph's nodes. */
+    @Param({ "UNDEFINED", "FIXED_SIDE", "FIXED_ORDER" })
+    public PortConstraints portConstraints;
+
+    /** the layout provider whose algorithm is benchmarked. */
+    private final LayeredLayoutProvider layoutProvider = new LayeredLayoutProvider();
+    /** the generated input graph. */
+    private ElkNode graph;
+    /** the test execution state, positioned right before the benchmarked phase. */
+    private TestExecutionState state;
+
+
+    /**
+     * Generates the input graph.
+     */
+    @Setup(Level.Trial)
+    public void generateGraph() {
+        graph = new SyntheticGraphGenerator()
+                .nodes(nodes)
+                .edges((int) Math.round(nodes * edgeDensity))
+                .portConstraints(portConstraints)
+                .generate();
+        configure(graph);
+    }
+
+    /**
+     * Imports the input graph and runs all processors up to the benchmarked phase.
+     */
+    @Setup(Level.Invocation)
+    public void prepareLayout() {
+        state = layoutProvider.startLayoutTest(graph);
+        layoutProvider.getLayoutAlgorithm().runLayoutTestUntil(getPhase(), false, state);
+    }
+
+    /**
+     * Runs the benchmarked phase. Subclasses call this from their benchmark methods.
+     *
+     * @return the test execution state, to be consumed by JMH.
+     */
+    protected TestExecutionState runPhase() {
+        layoutProvider.getLayoutAlgorithm().runLayoutTestUntil(getPhase(), true, state);
+        return state;
+    }
+
+    /**
+     * Sets the layout options that select the benchmarked phase implementation on the input graph.
+     *
+     * @param inputGraph the generated input graph.
+     */
+    protected abstract void configure(ElkNode inputGraph);
+
+    /**
+     * Returns the class of the benchmarked phase. Must match the implementation selected in
+     * {@link #configure(ElkNode)}.
+     *
+     * @return the phase class.
+     */
+    protected abstract Class<? extends ILayoutProcessor<LGraph>> getPhase();
+
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.benchmark;
+
+import org.eclipse.elk.alg.layered.ElkLayered.TestExecutionState;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.options.CrossingMinimizationStrategy;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.alg.layered.p3order.LayerSweepCrossingMinimizer;
+import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.graph.ElkNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the {@link LayerSweepCrossingMinimizer}. The thoroughness determines the number of
+ * randomized restarts and thus dominates the running time, which is why the restarts can run in parallel.
+ */
+public class CrossingMinimizationBenchmark extends AbstractPhaseBenchmark {
+
+    /** the thoroughness of the crossing minimization. */
+    @Param({ "1", "7" })
+    public int thoroughness;
+
+    /** whether the randomized restarts run in parallel. */
+    @Param({ "false", "true" })
+    public boolean parallelRestarts;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void configure(final ElkNode inputGraph) {
+        inputGraph.setProperty(LayeredOptions.CROSSING_MINIMIZATION_STRATEGY,
+                CrossingMinimizationStrategy.LAYER_SWEEP);
+        inputGraph.setProperty(LayeredOptions.THOROUGHNESS, thoroughness);
+        inputGraph.setProperty(LayeredOptions.CROSSING_MINIMIZATION_PARALLEL_RESTARTS, parallelRestarts);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Class<? extends ILayoutProcessor<LGraph>> getPhase() {
+        return LayerSweepCrossingMinimizer.class;
+    }
+
+    /**
+     * Runs the layer sweep crossing minimizer.
+     *
+     * @return the test execution state.
+     */
+    @Benchmark
+    public TestExecutionState layerSweepCrossingMinimizer() {
+        return runPhase();
+    }
+
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.benchmark;
+
+import org.eclipse.elk.alg.layered.ElkLayered.TestExecutionState;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.options.CycleBreakingStrategy;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.alg.layered.p1cycles.GreedyCycleBreaker;
+import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.graph.ElkNode;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks the {@link GreedyCycleBreaker}.
+ */
+public class CycleBreakingBenchmark extends AbstractPhaseBenchmark {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void configure(final ElkNode inputGraph) {
+        inputGraph.setProperty(LayeredOptions.CYCLE_BREAKING_STRATEGY, CycleBreakingStrategy.GREEDY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Class<? extends ILayoutProcessor<LGraph>> getPhase() {
+        return GreedyCycleBreaker.class;
+    }
+
+    /**
+     * Runs the greedy cycle breaker.
+     *
+     * @return the test execution state.
+     */
+    @Benchmark
+    public TestExecutionState greedyCycleBreaker() {
+        return runPhase();
+    }
+
+}
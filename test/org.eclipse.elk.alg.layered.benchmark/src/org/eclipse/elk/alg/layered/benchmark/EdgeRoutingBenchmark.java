@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.benchmark;
+
+import org.eclipse.elk.alg.layered.ElkLayered.TestExecutionState;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.alg.layered.p5edges.OrthogonalEdgeRouter;
+import org.eclipse.elk.alg.layered.p5edges.splines.SplineEdgeRouter;
+import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.core.options.EdgeRouting;
+import org.eclipse.elk.graph.ElkNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the {@link OrthogonalEdgeRouter} and the {@link SplineEdgeRouter}.
+ */
+public class EdgeRoutingBenchmark extends AbstractPhaseBenchmark {
+
+    /** the edge routing style to benchmark. */
+    @Param({ "ORTHOGONAL", "SPLINES" })
+    public EdgeRouting edgeRouting;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void configure(final ElkNode inputGraph) {
+        inputGraph.setProperty(LayeredOptions.EDGE_ROUTING, edgeRouting);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Class<? extends ILayoutProcessor<LGraph>> getPhase() {
+        switch (edgeRouting) {
+        case ORTHOGONAL:
+            return OrthogonalEdgeRouter.class;
+        case SPLINES:
+            return SplineEdgeRouter.class;
+        default:
+            throw new IllegalArgumentException("Unsupported edge routing: " + edgeRouting);
+        }
+    }
+
+    /**
+     * Runs the selected edge router.
+     *
+     * @return the test execution state.
+     */
+    @Benchmark
+    public TestExecutionState edgeRouter() {
+        return runPhase();
+    }
+
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.elk.alg.layered.LayeredLayoutProvider;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.core.RecursiveGraphLayoutEngine;
+import org.eclipse.elk.core.data.LayoutMetaDataService;
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.options.HierarchyHandling;
+import org.eclipse.elk.core.options.PortConstraints;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.graph.ElkNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+
+/**
+ * Benchmarks complete runs of the {@link LayeredLayoutProvider}, including graph import and export,
+ * through the {@link RecursiveGraphLayoutEngine}. A new graph is generated before each invocation
+ * so that no run sees the results of a previous one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LayeredLayoutBenchmark {
+
+    /** number of nodes per hierarchy level of the generated graph. */
+    @Param({ "100", "500" })
+    public int nodes;
+
+    /** number of edges per node of the generated graph. */
+    @Param({ "1.5" })
+    public double edgeDensity;
+
+    /** number of hierarchy levels of the generated graph. */
+    @Param({ "1", "3" })
+    public int hierarchyDepth;
+
+    /** port constraints of the generated graph's nodes. */
+    @Param({ "UNDEFINED", "FIXED_ORDER" })
+    public PortConstraints portConstraints;
+
+    /** how hierarchical graphs are laid out. */
+    @Param({ "SEPARATE_CHILDREN", "INCLUDE_CHILDREN" })
+    public HierarchyHandling hierarchyHandling;
+
+    /** the layout engine. */
+    private final RecursiveGraphLayoutEngine layoutEngine = new RecursiveGraphLayoutEngine();
+    /** the graph to be laid out in the next invocation. */
+    private ElkNode graph;
+
+
+    /**
+     * Registers ELK Layered with the meta data service.
+     */
+    @Setup(Level.Trial)
+    public void registerAlgorithm() {
+        LayoutMetaDataService.getInstance().registerLayoutMetaDataProviders(new LayeredOptions());
+    }
+
+    /**
+     * Generates a fresh input graph.
+     */
+    @Setup(Level.Invocation)
+    public void generateGraph() {
+        graph = new SyntheticGraphGenerator()
+                .nodes(nodes)
+                .edges((int) Math.round(nodes * edgeDensity))
+                .hierarchyDepth(hierarchyDepth)
+                .portConstraints(portConstraints)
+                .generate();
+
+        graph.setProperty(CoreOptions.HIERARCHY_HANDLING, hierarchyHandling);
+        configureAlgorithm(graph);
+
+        // Setting properties modifies the containment tree, so collect the nodes first
+        for (ElkNode node : Lists.newArrayList(Iterators.filter(graph.eAllContents(), ElkNode.class))) {
+            if (!node.getChildren().isEmpty()) {
+                configureAlgorithm(node);
+            }
+        }
+    }
+
+    /**
+     * Lays out the generated graph.
+     *
+     * @return the laid out graph.
+     */
+    @Benchmark
+    public ElkNode layeredLayout() {
+        layoutEngine.layout(graph, new BasicProgressMonitor());
+        return graph;
+    }
+
+    /**
+     * Configures the given node to be laid out with ELK Layered.
+     */
+    private void configureAlgorithm(final ElkNode node) {
+        node.setProperty(CoreOptions.ALGORITHM, LayeredOptions.ALGORITHM_ID);
+    }
+
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.benchmark;
+
+import org.eclipse.elk.alg.layered.ElkLayered.TestExecutionState;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.alg.layered.options.LayeringStrategy;
+import org.eclipse.elk.alg.layered.p2layers.NetworkSimplexLayerer;
+import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.graph.ElkNode;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks the {@link NetworkSimplexLayerer}.
+ */
+public class LayeringBenchmark extends AbstractPhaseBenchmark {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void configure(final ElkNode inputGraph) {
+        inputGraph.setProperty(LayeredOptions.LAYERING_STRATEGY, LayeringStrategy.NETWORK_SIMPLEX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Class<? extends ILayoutProcessor<LGraph>> getPhase() {
+        return NetworkSimplexLayerer.class;
+    }
+
+    /**
+     * Runs the network simplex layerer.
+     *
+     * @return the test execution state.
+     */
+    @Benchmark
+    public TestExecutionState networkSimplexLayerer() {
+        return runPhase();
+    }
+
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.benchmark;
+
+import org.eclipse.elk.alg.layered.ElkLayered.TestExecutionState;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.alg.layered.options.NodePlacementStrategy;
+import org.eclipse.elk.alg.layered.p4nodes.NetworkSimplexPlacer;
+import org.eclipse.elk.alg.layered.p4nodes.bk.BKNodePlacer;
+import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.graph.ElkNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the {@link BKNodePlacer} and the {@link NetworkSimplexPlacer}.
+ */
+public class NodePlacementBenchmark extends AbstractPhaseBenchmark {
+
+    /** the node placement strategy to benchmark. */
+    @Param({ "BRANDES_KOEPF", "NETWORK_SIMPLEX" })
+    public NodePlacementStrategy strategy;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void configure(final ElkNode inputGraph) {
+        inputGraph.setProperty(LayeredOptions.NODE_PLACEMENT_STRATEGY, strategy);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Class<? extends ILayoutProcessor<LGraph>> getPhase() {
+        switch (strategy) {
+        case BRANDES_KOEPF:
+            return BKNodePlacer.class;
+        case NETWORK_SIMPLEX:
+            return NetworkSimplexPlacer.class;
+        default:
+            throw new IllegalArgumentException("Unsupported node placement strategy: " + strategy);
+        }
+    }
+
+    /**
+     * Runs the selected node placer.
+     *
+     * @return the test execution state.
+     */
+    @Benchmark
+    public TestExecutionState nodePlacer() {
+        return runPhase();
+    }
+
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.layered.benchmark;
+
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.options.PortConstraints;
+import org.eclipse.elk.core.options.PortSide;
+import org.eclipse.elk.graph.ElkConnectableShape;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Generates random graphs of configurable size and shape to be used as benchmark inputs. Graphs
+ * are generated from a fixed random seed, so two generators with the same configuration produce
+ * structurally identical graphs.
+ *
+ * <p>Each graph level consists of {@link #nodes(int) n} nodes connected by a random spanning tree,
+ * which keeps the number of connected components low, plus random additional edges until the
+ * requested {@link #edges(int) edge count} is reached. The additional edges may point in any
+ * direction and thus introduce cycles. If the {@link #hierarchyDepth(int) hierarchy depth} is
+ * larger than one, the first {@link #compoundNodes(int) few} nodes of each level get a nested
+ * graph of their own, generated with the same parameters.</p>
+ *
+ * <p>Unless port constraints are {@link PortConstraints#UNDEFINED}, every edge is connected to a
+ * port of its own. Outgoing ports are put on the eastern side and incoming ports on the western
+ * side of their node, spread evenly across the side.</p>
+ */
+public final class SyntheticGraphGenerator {
+
+    /** the size of regular nodes. */
+    private static final double NODE_SIZE = 30;
+    /** the size of ports. */
+    private static final double PORT_SIZE = 5;
+    /** the minimum distance between two ports on the same side. */
+    private static final double PORT_SPACING = 10;
+
+    /** number of nodes per graph level. */
+    private int nodeCount = 100;
+    /** number of edges per graph level. */
+    private int edgeCount = 150;
+    /** number of graph levels. */
+    private int hierarchyDepth = 1;
+    /** number of nodes per graph level that contain a nested graph. */
+    private int compoundNodeCount = 2;
+    /** port constraints set on all nodes. */
+    private PortConstraints portConstraints = PortConstraints.UNDEFINED;
+    /** the random seed. */
+    private long seed = 0;
+
+
+    /**
+     * Sets the number of nodes in each graph level. The default is 100.
+     *
+     * @param count the number of nodes.
+     * @return this generator.
+     */
+    public SyntheticGraphGenerator nodes(final int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one node is required: " + count);
+        }
+        this.nodeCount = count;
+        return this;
+    }
+
+    /**
+     * Sets the number of edges in each graph level. The number of edges is at least the number of
+     * nodes minus one since the nodes are connected by a spanning tree. The default is 150.
+     *
+     * @param count the number of edges.
+     * @return this generator.
+     */
+    public SyntheticGraphGenerator edges(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of edges must not be negative: " + count);
+        }
+        this.edgeCount = count;
+        return this;
+    }
+
+    /**
+     * Sets the number of graph levels. A depth of one yields a flat graph. The default is one.
+     *
+     * @param depth the hierarchy depth.
+     * @return this generator.
+     */
+    public SyntheticGraphGenerator hierarchyDepth(final int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The hierarchy depth must be at least one: " + depth);
+        }
+        this.hierarchyDepth = depth;
+        return this;
+    }
+
+    /**
+     * Sets the number of nodes per graph level that contain a nested graph if the hierarchy depth
+     * is larger than one. The default is two.
+     *
+     * @param count the number of compound nodes.
+     * @return this generator.
+     */
+    public SyntheticGraphGenerator compoundNodes(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of compound nodes must not be negative: " + count);
+        }
+        this.compoundNodeCount = count;
+        return this;
+    }
+
+    /**
+     * Sets the port constraints to be used for all nodes. The default is
+     * {@link PortConstraints#UNDEFINED}, which causes edges to be connected to nodes directly.
+     *
+     * @param constraints the port constraints.
+     * @return this generator.
+     */
+    public SyntheticGraphGenerator portConstraints(final PortConstraints constraints) {
+        this.portConstraints = constraints;
+        return this;
+    }
+
+    /**
+     * Sets the seed of the random number generator. The default is zero.
+     *
+     * @param randomSeed the seed.
+     * @return this generator.
+     */
+    public SyntheticGraphGenerator seed(final long randomSeed) {
+        this.seed = randomSeed;
+        return this;
+    }
+
+    /**
+     * Generates a new graph according to the current configuration.
+     *
+     * @return the root node of the generated graph.
+     */
+    public ElkNode generate() {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        generateLevel(graph, hierarchyDepth, new Random(seed));
+        return graph;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////
+    // Generation
+
+    /**
+     * Fills the given parent node with a new graph level and recurses into the compound nodes.
+     */
+    private void generateLevel(final ElkNode parent, final int depth, final Random random) {
+        List<ElkNode> nodes = Lists.newArrayListWithCapacity(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            ElkNode node = ElkGraphUtil.createNode(parent);
+            node.setDimensions(NODE_SIZE, NODE_SIZE);
+            if (portConstraints != PortConstraints.UNDEFINED) {
+                node.setProperty(CoreOptions.PORT_CONSTRAINTS, portConstraints);
+            }
+            nodes.add(node);
+        }
+
+        // A spanning tree with forward edges keeps the number of connected components low
+        for (int i = 1; i < nodeCount; i++) {
+            connect(nodes.get(random.nextInt(i)), nodes.get(i));
+        }
+
+        // Additional edges may point backwards and thus introduce cycles
+        if (nodeCount > 1) {
+            for (int i = nodeCount - 1; i < edgeCount; i++) {
+                int source = random.nextInt(nodeCount);
+                int target = random.nextInt(nodeCount - 1);
+                if (target >= source) {
+                    target++;
+                }
+                connect(nodes.get(source), nodes.get(target));
+            }
+        }
+
+        if (portConstraints != PortConstraints.UNDEFINED) {
+            for (ElkNode node : nodes) {
+                placePorts(node);
+            }
+        }
+
+        if (depth > 1) {
+            for (int i = 0; i < Math.min(compoundNodeCount, nodeCount); i++) {
+                generateLevel(nodes.get(i), depth - 1, random);
+            }
+        }
+    }
+
+    /**
+     * Connects the two nodes with a new edge, creating ports for it if required.
+     */
+    private void connect(final ElkNode source, final ElkNode target) {
+        ElkConnectableShape sourceShape = source;
+        ElkConnectableShape targetShape = target;
+
+        if (portConstraints != PortConstraints.UNDEFINED) {
+            sourceShape = createPort(source, PortSide.EAST);
+            targetShape = createPort(target, PortSide.WEST);
+        }
+
+        ElkGraphUtil.createSimpleEdge(sourceShape, targetShape);
+    }
+
+    /**
+     * Creates a new port on the given side of the given node.
+     */
+    private ElkPort createPort(final ElkNode node, final PortSide side) {
+        ElkPort port = ElkGraphUtil.createPort(node);
+        port.setDimensions(PORT_SIZE, PORT_SIZE);
+        port.setProperty(CoreOptions.PORT_SIDE, side);
+        return port;
+    }
+
+    /**
+     * Spreads the ports of the given node evenly across their sides, enlarging the node if necessary.
+     * The port indices are assigned in clockwise order.
+     */
+    private void placePorts(final ElkNode node) {
+        List<ElkPort> eastPorts = Lists.newArrayList();
+        List<ElkPort> westPorts = Lists.newArrayList();
+        for (ElkPort port : node.getPorts()) {
+            if (port.getProperty(CoreOptions.PORT_SIDE) == PortSide.EAST) {
+                eastPorts.add(port);
+            } else {
+                westPorts.add(port);
+            }
+        }
+
+        int maxPorts = Math.max(eastPorts.size(), westPorts.size());
+        double height = Math.max(NODE_SIZE, (maxPorts + 1) * PORT_SPACING);
+        node.setHeight(height);
+
+        // Clockwise: eastern ports from top to bottom, western ports from bottom to top
+        int index = 0;
+        for (int i = 0; i < eastPorts.size(); i++) {
+            ElkPort port = eastPorts.get(i);
+            port.setLocation(node.getWidth(), (i + 1) * height / (eastPorts.size() + 1) - PORT_SIZE / 2);
+            port.setProperty(CoreOptions.PORT_INDEX, index++);
+        }
+        for (int i = westPorts.size() - 1; i >= 0; i--) {
+            ElkPort port = westPorts.get(i);
+            port.setLocation(-PORT_SIZE, (i + 1) * height / (westPorts.size() + 1) - PORT_SIZE / 2);
+            port.setProperty(CoreOptions.PORT_INDEX, index++);
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.force;
+
+import static org.eclipse.elk.alg.test.force.TestFGraphCreator.addEdge;
+import static org.eclipse.elk.alg.test.force.TestFGraphCreator.copyPositions;
+import static org.eclipse.elk.alg.test.force.TestFGraphCreator.createRandomGraph;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.elk.alg.force.graph.FEdge;
+import org.eclipse.elk.alg.force.graph.FGraph;
+import org.eclipse.elk.alg.force.graph.FNode;
+import org.eclipse.elk.alg.force.graph.FParticle;
+import org.eclipse.elk.alg.force.model.AbstractForceModel;
+import org.eclipse.elk.alg.force.model.EadesModel;
+import org.eclipse.elk.alg.force.model.FruchtermanReingoldModel;
+import org.eclipse.elk.alg.force.model.ParticleQuadtree;
+import org.eclipse.elk.alg.force.options.ForceOptions;
+import org.eclipse.elk.alg.force.options.InternalProperties;
+import org.eclipse.elk.core.math.KVector;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.junit.Test;
+
+/**
+ * Tests for the Barnes-Hut approximation of repulsive forces in the force models.
+ */
+public class BarnesHutTest {
+
+    /** number of nodes of the graph the quadtree is built for. */
+    private static final int QUADTREE_SIZE = 200;
+    /** number of nodes of that graph with a higher priority. */
+    private static final int PRIORITY_NODES = 20;
+    /** the higher priority of those nodes. */
+    private static final int NODE_PRIORITY = 3;
+    /** the accuracies the quadtree is visited with. */
+    private static final double[] THETAS = { 0, 0.5, 1, 2 };
+    /** number of random graphs laid out with and without the approximation. */
+    private static final int LAYOUT_SEEDS = 5;
+    /** number of nodes of the graphs that are laid out. */
+    private static final int LAYOUT_SIZE = 80;
+    /** the seed of the graph whose adjacency is computed. */
+    private static final long ADJACENCY_SEED = 3;
+    /** number of nodes of that graph. */
+    private static final int ADJACENCY_SIZE = 60;
+    /** number of edges of that graph with a higher priority. */
+    private static final int PRIORITY_EDGES = 10;
+    /** the higher priority of those edges. */
+    private static final int EDGE_PRIORITY = 4;
+    /** the tolerance when comparing priorities. */
+    private static final double PRIORITY_TOLERANCE = 1e-9;
+    /** the tolerance when comparing positions. */
+    private static final double POSITION_TOLERANCE = 1e-6;
+
+    /**
+     * Checks that visiting the quadtree from any particle covers the priorities of all other particles
+     * exactly once, and that no particle is grouped if the accuracy is zero.
+     */
+    @Test
+    public void quadtreeVisitsAllOtherPriority() {
+        FGraph graph = createRandomGraph(new Random(0), QUADTREE_SIZE);
+        for (FNode node : graph.getNodes().subList(0, PRIORITY_NODES)) {
+            node.setProperty(ForceOptions.PRIORITY, NODE_PRIORITY);
+        }
+        // some particles share a position
+        graph.getNodes().get(1).getPosition().set(graph.getNodes().get(0).getPosition());
+        double totalPriority = PRIORITY_NODES * NODE_PRIORITY + QUADTREE_SIZE - PRIORITY_NODES;
+
+        ParticleQuadtree quadtree = new ParticleQuadtree();
+        quadtree.build(graph.getParticles());
+        for (double theta : THETAS) {
+            for (FNode forcee : graph.getNodes()) {
+                final double[] visited = new double[2];
+                quadtree.visit(forcee, theta, new ParticleQuadtree.Visitor() {
+                    @Override
+                    public void visitParticle(final FParticle particle) {
+                        visited[0] += particle.getProperty(ForceOptions.PRIORITY);
+                        visited[1]++;
+                    }
+
+                    @Override
+                    public void visitGroup(final KVector center, final double radius, final double priority) {
+                        visited[0] += priority;
+                    }
+                });
+                assertEquals(totalPriority - forcee.getProperty(ForceOptions.PRIORITY), visited[0],
+                        PRIORITY_TOLERANCE);
+                if (theta == 0) {
+                    assertEquals(QUADTREE_SIZE - 1, visited[1], 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the approximation with an accuracy of zero yields the exact displacements.
+     */
+    @Test
+    public void exactApproximationYieldsSameDisplacements() {
+        for (int seed = 0; seed < LAYOUT_SEEDS; seed++) {
+            assertSamePositions(layoutOnce(new EadesModel(), seed, false, 0),
+                    layoutOnce(new EadesModel(), seed, true, 0));
+            assertSamePositions(layoutOnce(new FruchtermanReingoldModel(), seed, false, 0),
+                    layoutOnce(new FruchtermanReingoldModel(), seed, true, 0));
+        }
+    }
+
+    /**
+     * Checks that the sparse adjacency yields the same connections as the adjacency matrix, also for
+     * self loops, edges of higher priority and edges in both directions.
+     */
+    @Test
+    public void sparseAdjacencyYieldsSameConnections() {
+        FGraph graph = createRandomGraph(new Random(ADJACENCY_SEED), ADJACENCY_SIZE);
+        for (FEdge edge : graph.getEdges().subList(0, PRIORITY_EDGES)) {
+            edge.setProperty(ForceOptions.PRIORITY, EDGE_PRIORITY);
+        }
+        // add a self loop and a parallel edge in the opposite direction
+        FEdge first = graph.getEdges().get(0);
+        addEdge(graph, 0, 0);
+        addEdge(graph, first.getTarget().id, first.getSource().id);
+
+        int n = graph.getNodes().size();
+        int[][] expected = new int[n][n];
+        graph.calcAdjacency();
+        for (FNode u : graph.getNodes()) {
+            for (FNode v : graph.getNodes()) {
+                expected[u.id][v.id] = graph.getConnection(u, v);
+            }
+        }
+        graph.calcSparseAdjacency();
+        for (FNode u : graph.getNodes()) {
+            for (FNode v : graph.getNodes()) {
+                assertEquals(expected[u.id][v.id], graph.getConnection(u, v));
+            }
+        }
+    }
+
+    /**
+     * Asserts that the given positions are equal up to {@link #POSITION_TOLERANCE}.
+     *
+     * @param expected
+     *            the expected positions
+     * @param actual
+     *            the actual positions
+     */
+    private static void assertSamePositions(final List<KVector> expected, final List<KVector> actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).x, actual.get(i).x, POSITION_TOLERANCE);
+            assertEquals(expected.get(i).y, actual.get(i).y, POSITION_TOLERANCE);
+        }
+    }
+
+    /**
+     * Runs a single iteration of the given model and returns the resulting node positions.
+     *
+     * @param model
+     *            the force model
+     * @param seed
+     *            the seed of the random graph and of the model
+     * @param barnesHut
+     *            whether to approximate repulsive forces
+     * @param theta
+     *            the accuracy of the approximation
+     * @return the node positions
+     */
+    private static List<KVector> layoutOnce(final AbstractForceModel model, final long seed,
+            final boolean barnesHut, final double theta) {
+
+        FGraph graph = createRandomGraph(new Random(seed), LAYOUT_SIZE);
+        graph.setProperty(InternalProperties.RANDOM, new Random(seed));
+        graph.setProperty(ForceOptions.ITERATIONS, 1);
+        graph.setProperty(ForceOptions.BARNES_HUT, barnesHut);
+        graph.setProperty(ForceOptions.BARNES_HUT_THETA, theta);
+        model.layout(graph, new BasicProgressMonitor());
+        return copyPositions(graph);
+    }
+
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.force;
+
+import static org.eclipse.elk.alg.test.force.TestFGraphCreator.copyPositions;
+import static org.eclipse.elk.alg.test.force.TestFGraphCreator.createRandomGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.elk.alg.force.graph.FGraph;
+import org.eclipse.elk.alg.force.graph.FNode;
+import org.eclipse.elk.alg.force.model.AbstractForceModel;
+import org.eclipse.elk.alg.force.model.EadesModel;
+import org.eclipse.elk.alg.force.model.FruchtermanReingoldModel;
+import org.eclipse.elk.alg.force.options.ForceOptions;
+import org.eclipse.elk.alg.force.options.InternalProperties;
+import org.eclipse.elk.core.math.KVector;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the parallel calculation of forces in the force models.
+ */
+public class ParallelForcesTest {
+
+    /** number of nodes of the test graphs, enough for several parallel tasks. */
+    private static final int SIZE = 300;
+    /** one out of this many edges repels other nodes with bend points. */
+    private static final int REPULSIVE_EDGE_RATIO = 5;
+    /** number of iterations of each layout. */
+    private static final int ITERATIONS = 20;
+    /** number of random graphs laid out sequentially and in parallel. */
+    private static final int SEEDS = 3;
+    /** number of threads of the larger pool. */
+    private static final int THREADS = 4;
+    /** number of nodes that share a position in graphs with coincident nodes. */
+    private static final int COINCIDENT_NODES = 10;
+
+    /** a pool with a single thread. */
+    private ForkJoinPool singlePool;
+    /** a pool with several threads. */
+    private ForkJoinPool multiPool;
+
+    /**
+     * Creates the pools.
+     */
+    @Before
+    public void setUp() {
+        singlePool = new ForkJoinPool(1);
+        multiPool = new ForkJoinPool(THREADS);
+    }
+
+    /**
+     * Shuts the pools down.
+     */
+    @After
+    public void tearDown() {
+        singlePool.shutdownNow();
+        multiPool.shutdownNow();
+    }
+
+    /**
+     * Checks that calculating the forces in parallel yields the sequential layout.
+     *
+     * @throws Exception
+     *             if the layout fails
+     */
+    @Test
+    public void parallelForcesYieldSequentialLayout() throws Exception {
+        for (boolean eades : new boolean[] { false, true }) {
+            for (boolean barnesHut : new boolean[] { false, true }) {
+                for (int seed = 0; seed < SEEDS; seed++) {
+                    List<KVector> sequential = layout(null, eades, barnesHut, false, false, seed);
+                    List<KVector> parallel = layout(null, eades, barnesHut, true, false, seed);
+                    assertSamePositions(sequential, parallel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the layout is the same on the common pool, on a single thread and on several threads.
+     *
+     * @throws Exception
+     *             if the layout fails
+     */
+    @Test
+    public void parallelForcesDoNotDependOnPool() throws Exception {
+        for (boolean eades : new boolean[] { false, true }) {
+            for (boolean barnesHut : new boolean[] { false, true }) {
+                for (boolean coincident : new boolean[] { false, true }) {
+                    // without a pool, the layout runs on the common pool
+                    List<KVector> common = layout(null, eades, barnesHut, true, coincident, 1);
+                    assertSamePositions(common, layout(singlePool, eades, barnesHut, true, coincident, 1));
+                    assertSamePositions(common, layout(multiPool, eades, barnesHut, true, coincident, 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that parallel forces move nodes that share a position apart.
+     *
+     * @throws Exception
+     *             if the layout fails
+     */
+    @Test
+    public void parallelForcesSeparateCoincidentNodes() throws Exception {
+        for (boolean eades : new boolean[] { false, true }) {
+            for (boolean barnesHut : new boolean[] { false, true }) {
+                List<KVector> positions = layout(multiPool, eades, barnesHut, true, true, 2);
+                for (KVector position : positions) {
+                    assertFalse(Double.isNaN(position.x) || Double.isNaN(position.y));
+                }
+                for (int i = 1; i < COINCIDENT_NODES; i++) {
+                    assertNotEquals(positions.get(0), positions.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Asserts that the given positions are equal.
+     *
+     * @param expected
+     *            the expected positions
+     * @param actual
+     *            the actual positions
+     */
+    private static void assertSamePositions(final List<KVector> expected, final List<KVector> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).x, actual.get(i).x, 0);
+            assertEquals(expected.get(i).y, actual.get(i).y, 0);
+        }
+    }
+
+    /**
+     * Lays out a random graph with the given model and returns the resulting node positions. If a pool
+     * is given, the layout runs on one of its threads. Graphs with coincident nodes keep their initial
+     * positions, {@link #COINCIDENT_NODES} of which are equal.
+     *
+     * @param pool
+     *            the pool to run the layout on, or {@code null} to run it on the calling thread
+     * @param eades
+     *            whether to use the Eades model instead of the Fruchterman-Reingold model
+     * @param barnesHut
+     *            whether to approximate repulsive forces
+     * @param parallel
+     *            whether to calculate forces in parallel
+     * @param coincident
+     *            whether some nodes share a position
+     * @param seed
+     *            the seed of the random graph and of the model
+     * @return the node positions
+     * @throws InterruptedException
+     *             if waiting for the pool is interrupted
+     * @throws ExecutionException
+     *             if the layout fails on the pool
+     */
+    private static List<KVector> layout(final ForkJoinPool pool, final boolean eades, final boolean barnesHut,
+            final boolean parallel, final boolean coincident, final long seed)
+            throws InterruptedException, ExecutionException {
+
+        final FGraph graph = createRandomGraph(new Random(seed), SIZE);
+        for (int i = 0; i < SIZE; i += REPULSIVE_EDGE_RATIO) {
+            graph.getEdges().get(i).setProperty(ForceOptions.REPULSIVE_POWER, 1);
+        }
+        graph.setProperty(InternalProperties.RANDOM, new Random(seed));
+        graph.setProperty(ForceOptions.ITERATIONS, ITERATIONS);
+        graph.setProperty(ForceOptions.BARNES_HUT, barnesHut);
+        graph.setProperty(ForceOptions.PARALLEL_FORCES, parallel);
+        if (coincident) {
+            graph.setProperty(ForceOptions.INTERACTIVE, true);
+            for (FNode node : graph.getNodes().subList(1, COINCIDENT_NODES)) {
+                node.getPosition().set(graph.getNodes().get(0).getPosition());
+            }
+        }
+
+        final AbstractForceModel model = eades ? new EadesModel() : new FruchtermanReingoldModel();
+        Runnable job = () -> model.layout(graph, new BasicProgressMonitor());
+        if (pool == null) {
+            job.run();
+        } else {
+            pool.submit(job).get();
+        }
+
+        return copyPositions(graph);
+    }
+
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.force;
+
+import static org.eclipse.elk.alg.test.force.TestFGraphCreator.AREA;
+import static org.eclipse.elk.alg.test.force.TestFGraphCreator.addEdge;
+import static org.eclipse.elk.alg.test.force.TestFGraphCreator.addNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.elk.alg.force.graph.FGraph;
+import org.eclipse.elk.alg.force.graph.FNode;
+import org.eclipse.elk.alg.force.options.StressOptions;
+import org.eclipse.elk.alg.force.stress.StressMajorization;
+import org.junit.Test;
+
+/**
+ * Tests for {@link StressMajorization}.
+ */
+public class StressMajorizationTest {
+
+    /** number of nodes per row and column of the grid graph. */
+    private static final int SIDE = 12;
+    /** the pivot counts the grid graph is laid out with; zero selects the full model. */
+    private static final int[] PIVOT_COUNTS = { 0, 20, 50 };
+    /** the maximal mean relative error of the distances in the grid graph. */
+    private static final double MAX_RELATIVE_ERROR = 0.2;
+    /** number of nodes of the path graph. */
+    private static final int PATH_LENGTH = 50;
+    /** number of pivots chosen on the path graph. */
+    private static final int PATH_PIVOTS = 10;
+
+    /**
+     * Checks that the euclidean distances in the grid graph approximate the graph distances for the
+     * full model and for the sparse model with different numbers of pivots.
+     */
+    @Test
+    public void sparseModelApproximatesGraphDistances() {
+        for (int pivots : PIVOT_COUNTS) {
+            FGraph graph = layout(pivots);
+            assertTrue("pivots: " + pivots, relativeError(graph) < MAX_RELATIVE_ERROR);
+        }
+    }
+
+    /**
+     * Checks that the sparse model falls back to the full model if every node would be a pivot.
+     */
+    @Test
+    public void sparseModelWithTooManyPivotsIsFullModel() {
+        FGraph full = layout(0);
+        FGraph pivots = layout(SIDE * SIDE);
+        for (int i = 0; i < SIDE * SIDE; i++) {
+            assertEquals(full.getNodes().get(i).getPosition().x, pivots.getNodes().get(i).getPosition().x, 0);
+            assertEquals(full.getNodes().get(i).getPosition().y, pivots.getNodes().get(i).getPosition().y, 0);
+        }
+    }
+
+    /**
+     * Checks that the pivots chosen on a path are distinct, start with both ends of the path, and that
+     * each further pivot is a node farthest from the pivots chosen before it.
+     */
+    @Test
+    public void sparseModelChoosesDistinctPivotsFarthestFirst() {
+        final int n = PATH_LENGTH;
+        FGraph graph = new FGraph();
+        for (int i = 0; i < n; i++) {
+            addNode(graph);
+        }
+        for (int i = 0; i + 1 < n; i++) {
+            addEdge(graph, i, i + 1);
+        }
+        graph.setProperty(StressOptions.PIVOTS, PATH_PIVOTS);
+
+        StressMajorization stress = new StressMajorization();
+        stress.initialize(graph);
+        int[] pivots = stress.getPivots();
+        assertEquals(PATH_PIVOTS, pivots.length);
+        assertEquals(0, pivots[0]);
+        assertEquals(n - 1, pivots[1]);
+
+        // on a path, the graph distance of two nodes is the difference of their indices
+        boolean[] isPivot = new boolean[n];
+        isPivot[pivots[0]] = true;
+        for (int p = 1; p < pivots.length; p++) {
+            assertFalse("pivot chosen twice: " + pivots[p], isPivot[pivots[p]]);
+            int farthest = 0;
+            for (int i = 0; i < n; i++) {
+                if (!isPivot[i]) {
+                    farthest = Math.max(farthest, distanceToPivots(i, pivots, p));
+                }
+            }
+            assertEquals("pivot " + p, farthest, distanceToPivots(pivots[p], pivots, p));
+            isPivot[pivots[p]] = true;
+        }
+    }
+
+    /**
+     * Returns the distance of a node on a path to the closest of the first given number of pivots.
+     *
+     * @param node
+     *            the index of the node
+     * @param pivots
+     *            the pivots
+     * @param count
+     *            the number of pivots to consider
+     * @return the distance to the closest pivot
+     */
+    private static int distanceToPivots(final int node, final int[] pivots, final int count) {
+        int result = Integer.MAX_VALUE;
+        for (int p = 0; p < count; p++) {
+            result = Math.min(result, Math.abs(node - pivots[p]));
+        }
+        return result;
+    }
+
+    /**
+     * Lays out a randomly placed grid graph with the given number of pivots.
+     *
+     * @param pivots
+     *            the number of pivots, or zero for the full model
+     * @return the laid out graph
+     */
+    private static FGraph layout(final int pivots) {
+        Random random = new Random(0);
+        FGraph graph = new FGraph();
+        for (int i = 0; i < SIDE * SIDE; i++) {
+            FNode node = addNode(graph);
+            node.getPosition().add(random.nextDouble() * AREA, random.nextDouble() * AREA);
+        }
+        for (int i = 0; i < SIDE * SIDE; i++) {
+            if (i % SIDE + 1 < SIDE) {
+                addEdge(graph, i, i + 1);
+            }
+            if (i + SIDE < SIDE * SIDE) {
+                addEdge(graph, i, i + SIDE);
+            }
+        }
+        graph.setProperty(StressOptions.PIVOTS, pivots);
+
+        StressMajorization stress = new StressMajorization();
+        stress.initialize(graph);
+        stress.execute();
+        return graph;
+    }
+
+    /**
+     * Returns the mean relative deviation of the euclidean distance between two nodes of the grid graph
+     * from their graph distance.
+     *
+     * @param graph
+     *            the laid out grid graph
+     * @return the mean relative error
+     */
+    private static double relativeError(final FGraph graph) {
+        double length = StressOptions.DESIRED_EDGE_LENGTH.getDefault();
+        double error = 0;
+        int pairs = 0;
+        for (int i = 0; i < SIDE * SIDE; i++) {
+            for (int j = i + 1; j < SIDE * SIDE; j++) {
+                double graphDist = length * (Math.abs(i % SIDE - j % SIDE) + Math.abs(i / SIDE - j / SIDE));
+                double dist = graph.getNodes().get(i).getPosition().distance(graph.getNodes().get(j).getPosition());
+                error += Math.abs(dist - graphDist) / graphDist;
+                pairs++;
+            }
+        }
+        return error / pairs;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.force;
+
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.elk.alg.force.graph.FEdge;
+import org.eclipse.elk.alg.force.graph.FGraph;
+import org.eclipse.elk.alg.force.graph.FNode;
+import org.eclipse.elk.core.math.KVector;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Creates {@link FGraph}s for the tests of the force models. Nodes are numbered in the order they are
+ * created.
+ */
+public final class TestFGraphCreator {
+
+    /** the width and height of the area random nodes are placed in. */
+    public static final double AREA = 1000;
+    /** the minimal width and height of random nodes. */
+    private static final int MIN_NODE_SIZE = 10;
+    /** the range of widths and heights of random nodes. */
+    private static final int NODE_SIZE_RANGE = 30;
+
+    /**
+     * Hidden constructor.
+     */
+    private TestFGraphCreator() {
+    }
+
+    /**
+     * Creates a graph with randomly placed nodes of random size and as many random edges, which may
+     * be self loops or parallel to each other.
+     *
+     * @param random
+     *            the random number generator
+     * @param size
+     *            the number of nodes and edges
+     * @return the graph
+     */
+    public static FGraph createRandomGraph(final Random random, final int size) {
+        FGraph graph = new FGraph();
+        for (int i = 0; i < size; i++) {
+            FNode node = addNode(graph);
+            node.getPosition().add(random.nextDouble() * AREA, random.nextDouble() * AREA);
+            node.getSize().add(MIN_NODE_SIZE + random.nextInt(NODE_SIZE_RANGE),
+                    MIN_NODE_SIZE + random.nextInt(NODE_SIZE_RANGE));
+        }
+        for (int i = 0; i < size; i++) {
+            addEdge(graph, random.nextInt(size), random.nextInt(size));
+        }
+        return graph;
+    }
+
+    /**
+     * Adds a node at the origin to the graph.
+     *
+     * @param graph
+     *            the graph
+     * @return the new node
+     */
+    public static FNode addNode(final FGraph graph) {
+        FNode node = new FNode();
+        node.id = graph.getNodes().size();
+        graph.getNodes().add(node);
+        return node;
+    }
+
+    /**
+     * Adds an edge between the nodes with the given indices to the graph.
+     *
+     * @param graph
+     *            the graph
+     * @param source
+     *            the index of the source node
+     * @param target
+     *            the index of the target node
+     * @return the new edge
+     */
+    public static FEdge addEdge(final FGraph graph, final int source, final int target) {
+        FEdge edge = new FEdge();
+        edge.setSource(graph.getNodes().get(source));
+        edge.setTarget(graph.getNodes().get(target));
+        graph.getEdges().add(edge);
+        return edge;
+    }
+
+    /**
+     * Returns copies of the positions of all nodes of the graph.
+     *
+     * @param graph
+     *            the graph
+     * @return the node positions, in the order of the nodes
+     */
+    public static List<KVector> copyPositions(final FGraph graph) {
+        List<KVector> positions = Lists.newArrayList();
+        for (FNode node : graph.getNodes()) {
+            positions.add(node.getPosition().clone());
+        }
+        return positions;
+    }
+
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.graphviz;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.eclipse.elk.alg.graphviz.dot.dot.Attribute;
+import org.eclipse.elk.alg.graphviz.dot.dot.AttributeStatement;
+import org.eclipse.elk.alg.graphviz.dot.dot.AttributeType;
+import org.eclipse.elk.alg.graphviz.dot.dot.EdgeOperator;
+import org.eclipse.elk.alg.graphviz.dot.dot.EdgeStatement;
+import org.eclipse.elk.alg.graphviz.dot.dot.Graph;
+import org.eclipse.elk.alg.graphviz.dot.dot.GraphType;
+import org.eclipse.elk.alg.graphviz.dot.dot.GraphvizModel;
+import org.eclipse.elk.alg.graphviz.dot.dot.Node;
+import org.eclipse.elk.alg.graphviz.dot.dot.NodeStatement;
+import org.eclipse.elk.alg.graphviz.dot.dot.Statement;
+import org.eclipse.elk.alg.graphviz.dot.dot.Subgraph;
+import org.eclipse.elk.alg.graphviz.dot.transform.DotReader;
+import org.eclipse.elk.alg.graphviz.dot.transform.DotWriter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DotReader} and {@link DotWriter}. The input is a layout result in the form written by
+ * {@code dot -Tdot}: attributes spread over several lines, record ports with compass points, a cluster,
+ * an HTML label, escaped quotes and line breaks in labels, and a long value that Graphviz has wrapped
+ * with an escaped line break.
+ */
+public class DotReaderWriterTest {
+
+    // CHECKSTYLEOFF javadoc
+
+    /** the layout result. */
+    private static final String LAYOUT = String.join("\n",
+            "digraph G {",
+            "\tgraph [bb=\"0,0,203,221\",",
+            "\t\trankdir=TB",
+            "\t];",
+            "\tnode [label=\"\\N\",",
+            "\t\tshape=record",
+            "\t];",
+            "\tsubgraph cluster_0 {",
+            "\t\tgraph [bb=\"8,8,94,150\",",
+            "\t\t\tlabel=\"Cluster \\\"0\\\"\",",
+            "\t\t\tlheight=0.21,",
+            "\t\t\tlp=\"51,138.5\",",
+            "\t\t\tlwidth=0.79",
+            "\t\t];",
+            "\t\ta\t[height=0.5,",
+            "\t\t\tlabel=\"{<p1> in|<p2> out}\",",
+            "\t\t\tpos=\"51,98\",",
+            "\t\t\trects=\"16,98,51,116 51,98,86,116\",",
+            "\t\t\twidth=0.97222];",
+            "\t\tb\t[height=0.5,",
+            "\t\t\tpos=\"51,34\",",
+            "\t\t\twidth=0.75];",
+            "\t}",
+            "\tc\t[height=0.52778,",
+            "\t\tlabel=<<b>bold</b><br/>text>,",
+            "\t\tpos=\"152,34\",",
+            "\t\tshape=box,",
+            "\t\twidth=1.0278];",
+            "\ta:p1:s -> b:n\t[pos=\"e,51,52.1 51,79.697 51,71.983 51,62.712 51,54.112\"];",
+            "\ta:p2 -> c\t[label=\"multi\\nline\",",
+            "\t\tlp=\"132.5,66\",",
+            "\t\tpos=\"e,142.08,53.191 71.213,97.982 90.648,93.766 118.34,84.826 133.1,68.246 135.75,65.282 14\\",
+            "0.1,58.703\"];",
+            "}",
+            "");
+
+    @Test
+    public void testRead() throws IOException {
+        GraphvizModel model = DotReader.read(new StringReader(LAYOUT));
+
+        assertEquals(1, model.getGraphs().size());
+        Graph graph = model.getGraphs().get(0);
+        assertEquals(GraphType.DIGRAPH, graph.getType());
+        assertEquals("G", graph.getName());
+        assertEquals(6, graph.getStatements().size());
+
+        AttributeStatement graphAttributes = (AttributeStatement) graph.getStatements().get(0);
+        assertEquals(AttributeType.GRAPH, graphAttributes.getType());
+        assertAttribute(graphAttributes.getAttributes().get(0), "bb", "\"0,0,203,221\"");
+        assertAttribute(graphAttributes.getAttributes().get(1), "rankdir", "TB");
+        AttributeStatement nodeAttributes = (AttributeStatement) graph.getStatements().get(1);
+        assertAttribute(nodeAttributes.getAttributes().get(0), "label", "\"\\N\"");
+
+        // the cluster with its own attributes and nodes
+        Subgraph cluster = (Subgraph) graph.getStatements().get(2);
+        assertEquals("cluster_0", cluster.getName());
+        assertEquals(3, cluster.getStatements().size());
+        AttributeStatement clusterAttributes = (AttributeStatement) cluster.getStatements().get(0);
+        assertAttribute(clusterAttributes.getAttributes().get(1), "label", "\"Cluster \\\"0\\\"\"");
+        assertAttribute(clusterAttributes.getAttributes().get(2), "lheight", "0.21");
+        NodeStatement a = (NodeStatement) cluster.getStatements().get(1);
+        assertEquals("a", a.getNode().getName());
+        assertNull(a.getNode().getPort());
+        assertEquals(5, a.getAttributes().size());
+        assertAttribute(a.getAttributes().get(1), "label", "\"{<p1> in|<p2> out}\"");
+
+        // the node with an HTML label
+        NodeStatement c = (NodeStatement) graph.getStatements().get(3);
+        assertAttribute(c.getAttributes().get(1), "label", "<<b>bold</b><br/>text>");
+
+        // edges between ports, with and without compass points
+        EdgeStatement first = (EdgeStatement) graph.getStatements().get(4);
+        assertNode(first.getSourceNode(), "a", "p1", "s");
+        assertEquals(1, first.getEdgeTargets().size());
+        assertEquals(EdgeOperator.DIRECTED, first.getEdgeTargets().get(0).getOperator());
+        assertNode(first.getEdgeTargets().get(0).getTargetnode(), "b", "n", null);
+        EdgeStatement second = (EdgeStatement) graph.getStatements().get(5);
+        assertNode(second.getSourceNode(), "a", "p2", null);
+        assertNode(second.getEdgeTargets().get(0).getTargetnode(), "c", null, null);
+        assertAttribute(second.getAttributes().get(0), "label", "\"multi\\nline\"");
+
+        // the escaped line break is removed from the wrapped value
+        assertAttribute(second.getAttributes().get(2), "pos", "\"e,142.08,53.191 71.213,97.982 90.648,93.766 "
+                + "118.34,84.826 133.1,68.246 135.75,65.282 140.1,58.703\"");
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        GraphvizModel model = DotReader.read(new StringReader(LAYOUT));
+        String written = write(model);
+        GraphvizModel reread = DotReader.read(new StringReader(written));
+
+        assertTrue(EcoreUtil.equals(model, reread));
+        assertEquals(written, write(reread));
+    }
+
+    @Test
+    public void testUndirectedGraph() throws IOException {
+        String text = "strict graph \"my graph\" {\n\ta -- b -- c [weight=2];\n\t{\n\t\trank=same;\n\t\td;\n\t}\n}\n";
+        GraphvizModel model = DotReader.read(new StringReader(text));
+
+        Graph graph = model.getGraphs().get(0);
+        assertTrue(graph.isStrict());
+        assertEquals(GraphType.GRAPH, graph.getType());
+        assertEquals("\"my graph\"", graph.getName());
+        EdgeStatement edges = (EdgeStatement) graph.getStatements().get(0);
+        assertEquals(2, edges.getEdgeTargets().size());
+        assertEquals(EdgeOperator.UNDIRECTED, edges.getEdgeTargets().get(1).getOperator());
+        Subgraph anonymous = (Subgraph) graph.getStatements().get(1);
+        assertNull(anonymous.getName());
+        assertAttribute((Attribute) anonymous.getStatements().get(0), "rank", "same");
+
+        assertTrue(EcoreUtil.equals(model, DotReader.read(new StringReader(write(model)))));
+    }
+
+    @Test
+    public void testTruncatedInput() throws IOException {
+        // every proper prefix of the layout lacks at least the closing brace of the graph
+        int end = LAYOUT.lastIndexOf('}');
+        for (int length = 1; length <= end; length++) {
+            String prefix = LAYOUT.substring(0, length);
+            try {
+                DotReader.read(new StringReader(prefix));
+                fail("Truncated input was accepted: " + prefix);
+            } catch (IllegalArgumentException exception) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedInput() throws IOException {
+        String[] inputs = {
+            "G { a; }",
+            "digraph G { a -> }",
+            "digraph G { a -> b [pos=] }",
+            "digraph G { a -> b [pos=\"1,2\" }",
+            "digraph G { a [label=\"unterminated] }",
+            "digraph G { a [label=<<b>bold</b>] }",
+            "digraph G { node a; }",
+            "digraph G { a ] }",
+            "digraph G { a / b }",
+        };
+        for (String input : inputs) {
+            try {
+                DotReader.read(new StringReader(input));
+                fail("Malformed input was accepted: " + input);
+            } catch (IllegalArgumentException exception) {
+                assertTrue(exception.getMessage().startsWith("1: "));
+            }
+        }
+    }
+
+    @Test
+    public void testErrorLine() throws IOException {
+        try {
+            DotReader.read(new StringReader("digraph G {\n\ta -> b;\n\tb -> ;\n}\n"));
+            fail("Malformed input was accepted.");
+        } catch (IllegalArgumentException exception) {
+            assertTrue(exception.getMessage().startsWith("3: "));
+        }
+    }
+
+    private static String write(final GraphvizModel model) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        DotWriter.write(model, builder);
+        return builder.toString();
+    }
+
+    private static void assertAttribute(final Statement statement, final String name, final String value) {
+        Attribute attribute = (Attribute) statement;
+        assertEquals(name, attribute.getName());
+        assertEquals(value, attribute.getValue());
+    }
+
+    private static void assertNode(final Node node, final String name, final String port, final String compass) {
+        assertEquals(name, node.getName());
+        if (port == null) {
+            assertNull(node.getPort());
+        } else {
+            assertEquals(port, node.getPort().getName());
+            assertEquals(compass, node.getPort().getCompass_pt());
+        }
+    }
+
+}
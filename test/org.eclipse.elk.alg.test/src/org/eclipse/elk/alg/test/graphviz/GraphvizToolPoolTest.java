@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.graphviz;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.eclipse.elk.alg.graphviz.dot.transform.Command;
+import org.eclipse.elk.alg.graphviz.layouter.GraphvizTool;
+import org.eclipse.elk.alg.graphviz.layouter.GraphvizToolPool;
+import org.junit.Test;
+
+/**
+ * Tests for {@link GraphvizToolPool}. The pool hands out tools that only pretend to run a Graphviz
+ * process, so the tests do not need a Graphviz installation.
+ */
+public class GraphvizToolPoolTest {
+
+    // CHECKSTYLEOFF javadoc
+
+    /**
+     * Tool that keeps track of whether its process would be running.
+     */
+    private static final class FakeTool extends GraphvizTool {
+        private boolean running;
+        private int starts;
+
+        FakeTool() {
+            super(Command.DOT);
+        }
+
+        @Override
+        public synchronized void initialize(final List<String> arguments) {
+            if (!running) {
+                running = true;
+                starts++;
+            }
+        }
+
+        @Override
+        public synchronized void cleanup(final Cleanup c) {
+            if (c != Cleanup.NORMAL) {
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Pool of fake tools.
+     */
+    private static final class FakeToolPool extends GraphvizToolPool {
+        private int created;
+
+        FakeToolPool(final int maxIdleTools) {
+            super(Command.DOT, maxIdleTools);
+        }
+
+        @Override
+        protected GraphvizTool createTool(final Command toolCommand) {
+            created++;
+            return new FakeTool();
+        }
+    }
+
+    @Test
+    public void testSeparateTools() {
+        FakeToolPool pool = new FakeToolPool(2);
+        FakeTool first = (FakeTool) pool.acquire();
+        FakeTool second = (FakeTool) pool.acquire();
+
+        assertNotSame(first, second);
+        assertTrue(first.running);
+        assertTrue(second.running);
+        assertEquals(2, pool.created);
+    }
+
+    @Test
+    public void testReuseMostRecentlyUsed() {
+        FakeToolPool pool = new FakeToolPool(2);
+        FakeTool first = (FakeTool) pool.acquire();
+        FakeTool second = (FakeTool) pool.acquire();
+        pool.release(first, true);
+        pool.release(second, true);
+
+        assertSame(second, pool.acquire());
+        assertSame(first, pool.acquire());
+        assertEquals(2, pool.created);
+        assertEquals(1, first.starts);
+        assertEquals(1, second.starts);
+        assertTrue(first.running);
+    }
+
+    @Test
+    public void testIdleLimit() {
+        FakeToolPool pool = new FakeToolPool(1);
+        FakeTool first = (FakeTool) pool.acquire();
+        FakeTool second = (FakeTool) pool.acquire();
+        pool.release(first, true);
+        pool.release(second, true);
+
+        assertTrue(first.running);
+        assertFalse(second.running);
+        assertSame(first, pool.acquire());
+        assertNotSame(second, pool.acquire());
+        assertEquals(3, pool.created);
+    }
+
+    @Test
+    public void testReleaseWithoutReuse() {
+        FakeToolPool pool = new FakeToolPool(2);
+        FakeTool tool = (FakeTool) pool.acquire();
+        pool.release(tool, false);
+
+        assertFalse(tool.running);
+        assertNotSame(tool, pool.acquire());
+    }
+
+    @Test
+    public void testDispose() {
+        FakeToolPool pool = new FakeToolPool(2);
+        FakeTool idle = (FakeTool) pool.acquire();
+        FakeTool checkedOut = (FakeTool) pool.acquire();
+        pool.release(idle, true);
+
+        pool.dispose();
+        assertFalse(idle.running);
+        assertTrue(checkedOut.running);
+
+        // tools that are handed back after the pool has been disposed are stopped
+        pool.release(checkedOut, true);
+        assertFalse(checkedOut.running);
+
+        try {
+            pool.acquire();
+            fail("A disposed pool must not hand out tools.");
+        } catch (IllegalStateException exception) {
+            // expected
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCommand() {
+        new GraphvizToolPool(Command.INVALID);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeIdleLimit() {
+        new GraphvizToolPool(Command.DOT, -1);
+    }
+
+}
@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.layered;
+
+import static org.eclipse.elk.alg.test.layered.TestElkGraphCreator.addRandomComponent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.eclipse.elk.alg.layered.LayeredLayoutProvider;
+import org.eclipse.elk.alg.layered.options.CrossingMinimizationStrategy;
+import org.eclipse.elk.alg.layered.options.CycleBreakingStrategy;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.alg.layered.options.LayeringStrategy;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Tests the incremental layout phases of ELK Layered, which reuse the layering and node order of a
+ * previous layout.
+ */
+public class IncrementalLayoutTest {
+
+    /** number of nodes of the random graphs. */
+    private static final int SIZE = 60;
+    /** the width and height of the node added to a laid out graph. */
+    private static final double NEW_NODE_SIZE = 30;
+    /** the seed of the graph whose dummy nodes are checked. */
+    private static final long DUMMY_SEED = 3;
+
+    /**
+     * Checks that an incremental layout of an unchanged graph keeps the layering and the node order,
+     * except for layers that only contained dummy nodes.
+     */
+    @Test
+    public void unchangedGraphKeepsLayeringAndOrder() {
+        ElkNode graph = randomGraph(new Random(0));
+        layout(graph, false);
+        Map<ElkNode, Integer> layers = layerIds(graph);
+        List<List<ElkNode>> order = nodeOrder(graph);
+
+        layout(graph, true);
+        assertEquals(compactLayers(layers), layerIds(graph));
+        assertEquals(order, nodeOrder(graph));
+    }
+
+    /**
+     * Checks that repeated incremental layouts of an unchanged graph keep the positions of all nodes,
+     * including the dummy nodes of long edges.
+     */
+    @Test
+    public void unchangedGraphKeepsDummyPositions() {
+        ElkNode graph = randomGraph(new Random(DUMMY_SEED));
+        layout(graph, false);
+        // the first incremental layout may remove layers that only contained dummy nodes
+        layout(graph, true);
+        Map<ElkEdge, List<Integer>> dummyPositions = dummyPositionIds(graph);
+        Map<ElkNode, Integer> positions = positionIds(graph);
+        assertTrue(dummyPositions.values().stream().anyMatch(ids -> !ids.isEmpty()));
+
+        layout(graph, true);
+        assertEquals(dummyPositions, dummyPositionIds(graph));
+        assertEquals(positions, positionIds(graph));
+    }
+
+    /**
+     * Checks that adding a node yields a proper layering and keeps the relative order of nodes that
+     * still share a layer.
+     */
+    @Test
+    public void addedNodeKeepsOrderOfPreviousNodes() {
+        Random random = new Random(1);
+        ElkNode graph = randomGraph(random);
+        layout(graph, false);
+        Map<ElkNode, Integer> oldLayers = layerIds(graph);
+        Map<ElkNode, Integer> oldPositions = positionIds(graph);
+
+        List<ElkNode> oldNodes = Lists.newArrayList(graph.getChildren());
+        ElkNode newNode = ElkGraphUtil.createNode(graph);
+        newNode.setDimensions(NEW_NODE_SIZE, NEW_NODE_SIZE);
+        ElkGraphUtil.createSimpleEdge(oldNodes.get(random.nextInt(oldNodes.size())), newNode);
+        ElkGraphUtil.createSimpleEdge(newNode, oldNodes.get(random.nextInt(oldNodes.size())));
+
+        layout(graph, true);
+        assertTrue(newNode.getProperty(LayeredOptions.LAYERING_LAYER_ID) >= 0);
+        assertProperLayering(graph);
+
+        // nodes that shared a layer before and still do keep their relative order
+        for (ElkNode node1 : oldNodes) {
+            for (ElkNode node2 : oldNodes) {
+                if (oldLayers.get(node1).equals(oldLayers.get(node2)) && layerId(node1) == layerId(node2)
+                        && oldPositions.get(node1) < oldPositions.get(node2)) {
+                    assertTrue(positionId(node1) < positionId(node2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the incremental strategies yield a proper layering for a graph that was never laid
+     * out before.
+     */
+    @Test
+    public void layoutWithoutMemento() {
+        ElkNode graph = randomGraph(new Random(2));
+        layout(graph, true);
+        assertProperLayering(graph);
+    }
+
+    /**
+     * Lays out the given graph with the default or the incremental strategies, generating layer and
+     * position IDs in both cases.
+     *
+     * @param graph
+     *            the graph
+     * @param incremental
+     *            whether to use the incremental strategies
+     */
+    private static void layout(final ElkNode graph, final boolean incremental) {
+        graph.setProperty(LayeredOptions.GENERATE_POSITION_AND_LAYER_IDS, true);
+        if (incremental) {
+            graph.setProperty(LayeredOptions.CYCLE_BREAKING_STRATEGY, CycleBreakingStrategy.INCREMENTAL);
+            graph.setProperty(LayeredOptions.LAYERING_STRATEGY, LayeringStrategy.INCREMENTAL);
+            graph.setProperty(LayeredOptions.CROSSING_MINIMIZATION_STRATEGY,
+                    CrossingMinimizationStrategy.INCREMENTAL);
+        }
+        new LayeredLayoutProvider().layout(graph, new BasicProgressMonitor());
+    }
+
+    /**
+     * Asserts that all nodes have layer IDs and that no edge connects two nodes of the same layer.
+     *
+     * @param graph
+     *            the laid out graph
+     */
+    private static void assertProperLayering(final ElkNode graph) {
+        for (ElkNode node : graph.getChildren()) {
+            assertTrue(layerId(node) >= 0);
+            assertTrue(positionId(node) >= 0);
+        }
+        for (ElkEdge edge : graph.getContainedEdges()) {
+            ElkNode source = ElkGraphUtil.connectableShapeToNode(edge.getSources().get(0));
+            ElkNode target = ElkGraphUtil.connectableShapeToNode(edge.getTargets().get(0));
+            if (source != target) {
+                assertNotEquals(layerId(source), layerId(target));
+            }
+        }
+    }
+
+    /**
+     * Returns the layer ID of a laid out node.
+     *
+     * @param node
+     *            the node
+     * @return the layer ID
+     */
+    private static int layerId(final ElkNode node) {
+        return node.getProperty(LayeredOptions.LAYERING_LAYER_ID);
+    }
+
+    /**
+     * Returns the position ID of a laid out node.
+     *
+     * @param node
+     *            the node
+     * @return the position ID
+     */
+    private static int positionId(final ElkNode node) {
+        return node.getProperty(LayeredOptions.CROSSING_MINIMIZATION_POSITION_ID);
+    }
+
+    /**
+     * Returns the layer IDs of all nodes.
+     *
+     * @param graph
+     *            the laid out graph
+     * @return the layer ID of each node
+     */
+    private static Map<ElkNode, Integer> layerIds(final ElkNode graph) {
+        Map<ElkNode, Integer> layers = Maps.newHashMap();
+        for (ElkNode node : graph.getChildren()) {
+            layers.put(node, layerId(node));
+        }
+        return layers;
+    }
+
+    /**
+     * Returns the position IDs of all nodes.
+     *
+     * @param graph
+     *            the laid out graph
+     * @return the position ID of each node
+     */
+    private static Map<ElkNode, Integer> positionIds(final ElkNode graph) {
+        Map<ElkNode, Integer> positions = Maps.newHashMap();
+        for (ElkNode node : graph.getChildren()) {
+            positions.put(node, positionId(node));
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the position IDs of the dummy nodes of all edges.
+     *
+     * @param graph
+     *            the laid out graph
+     * @return the position IDs of the dummy nodes of each edge
+     */
+    private static Map<ElkEdge, List<Integer>> dummyPositionIds(final ElkNode graph) {
+        Map<ElkEdge, List<Integer>> positions = Maps.newHashMap();
+        for (ElkEdge edge : graph.getContainedEdges()) {
+            positions.put(edge, Lists.newArrayList(
+                    edge.getProperty(LayeredOptions.CROSSING_MINIMIZATION_DUMMY_POSITION_IDS)));
+        }
+        return positions;
+    }
+
+    /**
+     * Renumbers the given layer IDs such that layers without regular nodes, which only contained dummy
+     * nodes, are left out.
+     *
+     * @param layers
+     *            the layer ID of each node
+     * @return the renumbered layer ID of each node
+     */
+    private static Map<ElkNode, Integer> compactLayers(final Map<ElkNode, Integer> layers) {
+        List<Integer> used = Lists.newArrayList(new TreeSet<>(layers.values()));
+        Map<ElkNode, Integer> compacted = Maps.newHashMap();
+        layers.forEach((node, layer) -> compacted.put(node, used.indexOf(layer)));
+        return compacted;
+    }
+
+    /**
+     * Returns the regular nodes of each layer in their order within the layer.
+     *
+     * @param graph
+     *            the laid out graph
+     * @return the nodes of each layer
+     */
+    private static List<List<ElkNode>> nodeOrder(final ElkNode graph) {
+        List<ElkNode> nodes = Lists.newArrayList(graph.getChildren());
+        nodes.sort((node1, node2) -> layerId(node1) != layerId(node2)
+                ? Integer.compare(layerId(node1), layerId(node2))
+                : Integer.compare(positionId(node1), positionId(node2)));
+
+        List<List<ElkNode>> order = Lists.newArrayList();
+        int currentLayer = -1;
+        for (ElkNode node : nodes) {
+            if (layerId(node) != currentLayer) {
+                order.add(Lists.newArrayList());
+                currentLayer = layerId(node);
+            }
+            order.get(order.size() - 1).add(node);
+        }
+        return order;
+    }
+
+    /**
+     * Creates a connected graph with a random spanning tree plus some random additional edges, which
+     * may introduce cycles.
+     *
+     * @param random
+     *            the random number generator
+     * @return the graph
+     */
+    private static ElkNode randomGraph(final Random random) {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        addRandomComponent(graph, random, SIZE, SIZE / 3);
+        return graph;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.layered;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.elk.alg.layered.LayeredLayoutProvider;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.core.metrics.LayoutMetricsRecorder;
+import org.eclipse.elk.core.metrics.ProcessorMetrics;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.junit.Test;
+
+/**
+ * Tests the per-processor metrics reported by ELK Layered.
+ */
+public class LayeredMetricsTest {
+
+    /** the number of nodes of each component, which form a cycle. */
+    private static final int CYCLE_SIZE = 3;
+
+    /**
+     * Lays out two cycles and checks that each processor reports one record per component, in the
+     * order of the processors, and that the cycle breaker and the crossing minimizer report their
+     * counters.
+     */
+    @Test
+    public void oneRecordPerProcessorAndComponent() {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        for (int component = 0; component < 2; component++) {
+            ElkNode n1 = ElkGraphUtil.createNode(graph);
+            ElkNode n2 = ElkGraphUtil.createNode(graph);
+            ElkNode n3 = ElkGraphUtil.createNode(graph);
+            ElkGraphUtil.createSimpleEdge(n1, n2);
+            ElkGraphUtil.createSimpleEdge(n2, n3);
+            ElkGraphUtil.createSimpleEdge(n3, n1);
+        }
+        LayoutMetricsRecorder recorder = new LayoutMetricsRecorder();
+        graph.setProperty(LayeredOptions.METRICS_LISTENER, recorder);
+
+        new LayeredLayoutProvider().layout(graph, new BasicProgressMonitor());
+
+        List<ProcessorMetrics> records = recorder.getRecords();
+        List<ProcessorMetrics> first = records.stream()
+                .filter(record -> record.getGraphIndex() == 0)
+                .collect(Collectors.toList());
+        assertEquals(records.size(), 2 * first.size());
+        for (int i = 0; i < first.size(); i++) {
+            ProcessorMetrics record = first.get(i);
+            assertEquals(LayeredOptions.ALGORITHM_ID, record.getAlgorithm());
+            assertEquals(i, record.getSlot());
+            assertTrue(record.getWallTime() >= 0);
+            assertTrue(record.getCounters().get("nodes") >= CYCLE_SIZE);
+        }
+
+        ProcessorMetrics cycleBreaking = first.stream()
+                .filter(record -> record.getProcessor().equals("GreedyCycleBreaker"))
+                .findFirst().get();
+        assertEquals(1L, (long) cycleBreaking.getCounters().get("reversedEdges"));
+
+        ProcessorMetrics crossingMinimization = first.stream()
+                .filter(record -> record.getProcessor().equals("LayerSweepCrossingMinimizer"))
+                .findFirst().get();
+        assertTrue(crossingMinimization.getCounters().get("restarts") >= 1);
+        assertEquals(0L, (long) crossingMinimization.getCounters().get("crossings"));
+    }
+
+}
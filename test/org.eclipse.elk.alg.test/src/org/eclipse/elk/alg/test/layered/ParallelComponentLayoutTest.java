@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.layered;
+
+import static org.eclipse.elk.alg.test.layered.TestElkGraphCreator.addRandomComponent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.elk.alg.layered.LayeredLayoutProvider;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.core.metrics.ILayoutMetricsListener;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.graph.ElkBendPoint;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests the parallel layout of connected components in ELK Layered.
+ */
+public class ParallelComponentLayoutTest {
+
+    /** the index of the component the {@link #failingListener()} fails for. */
+    private static final int FAILING_COMPONENT = 5;
+    /** number of components of the test graph. */
+    private static final int COMPONENTS = 40;
+    /** the minimal number of nodes per component. */
+    private static final int MIN_COMPONENT_SIZE = 2;
+    /** the range of the number of nodes per component. */
+    private static final int COMPONENT_SIZE_RANGE = 12;
+    /** the thoroughness of the layout, high enough for several crossing minimization runs. */
+    private static final int THOROUGHNESS = 10;
+    /** number of threads of the fixed thread pool. */
+    private static final int THREADS = 4;
+    /** the time after which a layout is considered to be blocked, in milliseconds. */
+    private static final long TIMEOUT = 60000;
+
+    /** The graph indices reported to the last {@link #failingListener()}, in order. */
+    private List<Integer> reported;
+
+    /**
+     * Checks that laying out the components in parallel yields the sequential layout.
+     */
+    @Test
+    public void parallelComponentsYieldSequentialLayout() {
+        assertEquals(layout(false, null, null), layout(true, null, null));
+    }
+
+    /**
+     * Checks that the layout is the same whether the components are laid out on the calling thread, on
+     * the common pool or on a fixed thread pool.
+     */
+    @Test
+    public void parallelComponentsResultDoesNotDependOnExecutor() {
+        List<Double> direct = layout(Runnable::run);
+        List<Double> commonPool = layout(null);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Double> fixedPool = layout(pool);
+            assertEquals(direct, fixedPool);
+            assertEquals(direct, commonPool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Checks that a layout running on the only worker of a fork-join pool doesn't wait for component
+     * tasks that can never run.
+     *
+     * @throws Exception
+     *             if the layout fails
+     */
+    @Test(timeout = TIMEOUT)
+    public void parallelComponentsOnForkJoinWorkerDoNotBlockPool() throws Exception {
+        List<Double> direct = layout(Runnable::run);
+
+        // the layout runs on the only worker of the pool, which must not wait for tasks queued on the pool
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            assertEquals(direct, pool.submit(() -> layout(pool)).get());
+            assertEquals(direct, pool.submit(() -> layout(null)).get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Checks that the failure of a component laid out on an executor reaches the caller, and that no
+     * other component starts afterwards.
+     *
+     * @throws Exception
+     *             if waiting for the executor is interrupted
+     */
+    @Test
+    public void parallelComponentsOnExecutorFailureStopsOtherComponents() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertFailureIsRethrown(() -> layout(executor, failingListener()));
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        assertNoWorkAfterFailure();
+    }
+
+    /**
+     * Checks that the failure of a component laid out on a fork-join pool reaches the caller, and that
+     * no other component starts afterwards.
+     *
+     * @throws Exception
+     *             if the layout task can't be run
+     */
+    @Test
+    public void parallelComponentsOnForkJoinWorkerFailureStopsOtherComponents() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            pool.submit(() -> assertFailureIsRethrown(() -> layout(null, failingListener()))).get();
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+            ForkJoinPool.commonPool().awaitQuiescence(1, TimeUnit.MINUTES);
+        }
+        assertNoWorkAfterFailure();
+    }
+
+    /**
+     * A metrics listener that records the graph indices it is called for and fails for one component.
+     *
+     * @return the listener
+     */
+    private ILayoutMetricsListener failingListener() {
+        reported = Collections.synchronizedList(Lists.newArrayList());
+        return metrics -> {
+            reported.add(metrics.getGraphIndex());
+            if (metrics.getGraphIndex() == FAILING_COMPONENT) {
+                throw new IllegalStateException("component failed");
+            }
+        };
+    }
+
+    /**
+     * Runs a layout with a {@link #failingListener()} and checks that the failure reaches the caller.
+     *
+     * @param layout
+     *            runs the layout
+     */
+    private void assertFailureIsRethrown(final Runnable layout) {
+        try {
+            layout.run();
+            fail("the failure of a component was swallowed");
+        } catch (IllegalStateException exception) {
+            Throwable cause = exception;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            assertEquals("component failed", cause.getMessage());
+        }
+    }
+
+    /**
+     * Checks that once all tasks of a single-threaded layout with a {@link #failingListener()} are done, no
+     * component did any work after the failure.
+     */
+    private void assertNoWorkAfterFailure() {
+        assertEquals(reported.size() - 1, reported.indexOf(FAILING_COMPONENT));
+    }
+
+    /**
+     * Lays out a graph of many random components in parallel on the given executor and returns all
+     * node and bend point coordinates.
+     *
+     * @param executor
+     *            the executor, or {@code null} for the common pool
+     * @return the coordinates
+     */
+    private List<Double> layout(final Executor executor) {
+        return layout(true, executor, null);
+    }
+
+    /**
+     * Lays out a graph of many random components in parallel on the given executor, reporting metrics to the
+     * given listener, and returns all node and bend point coordinates.
+     *
+     * @param executor
+     *            the executor, or {@code null} for the common pool
+     * @param listener
+     *            the metrics listener
+     * @return the coordinates
+     */
+    private List<Double> layout(final Executor executor, final ILayoutMetricsListener listener) {
+        return layout(true, executor, listener);
+    }
+
+    /**
+     * Lays out a graph of many random components, in parallel on the given executor or sequentially,
+     * reporting metrics to the given listener, and returns all node and bend point coordinates.
+     *
+     * @param parallel
+     *            whether to lay out the components in parallel
+     * @param executor
+     *            the executor, or {@code null} for the common pool
+     * @param listener
+     *            the metrics listener
+     * @return the coordinates
+     */
+    private List<Double> layout(final boolean parallel, final Executor executor,
+            final ILayoutMetricsListener listener) {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        Random random = new Random(0);
+        for (int c = 0; c < COMPONENTS; c++) {
+            int size = MIN_COMPONENT_SIZE + random.nextInt(COMPONENT_SIZE_RANGE);
+            addRandomComponent(graph, random, size, size / 2);
+        }
+        graph.setProperty(LayeredOptions.RANDOM_SEED, 1);
+        graph.setProperty(LayeredOptions.THOROUGHNESS, THOROUGHNESS);
+        graph.setProperty(LayeredOptions.PARALLEL_COMPONENTS, parallel);
+        graph.setProperty(LayeredOptions.PARALLEL_COMPONENTS_EXECUTOR, executor);
+        graph.setProperty(LayeredOptions.METRICS_LISTENER, listener);
+        new LayeredLayoutProvider().layout(graph, new BasicProgressMonitor());
+
+        List<Double> coordinates = Lists.newArrayList();
+        for (ElkNode node : graph.getChildren()) {
+            coordinates.add(node.getX());
+            coordinates.add(node.getY());
+        }
+        for (ElkEdge edge : graph.getContainedEdges()) {
+            for (ElkEdgeSection section : edge.getSections()) {
+                coordinates.add(section.getStartX());
+                coordinates.add(section.getStartY());
+                for (ElkBendPoint bendPoint : section.getBendPoints()) {
+                    coordinates.add(bendPoint.getX());
+                    coordinates.add(bendPoint.getY());
+                }
+                coordinates.add(section.getEndX());
+                coordinates.add(section.getEndY());
+            }
+        }
+        return coordinates;
+    }
+
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.layered;
+
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Creates random {@link ElkNode} graphs for the tests that run the whole layered algorithm.
+ */
+public final class TestElkGraphCreator {
+
+    /** the minimal width and height of random nodes. */
+    private static final int MIN_NODE_SIZE = 20;
+    /** the range of widths and heights of random nodes. */
+    private static final int NODE_SIZE_RANGE = 20;
+
+    /**
+     * Hidden constructor.
+     */
+    private TestElkGraphCreator() {
+    }
+
+    /**
+     * Adds a connected component of nodes of random size to the graph. The nodes are connected by a
+     * random spanning tree plus the given number of random additional edges, which may introduce
+     * cycles and self loops.
+     *
+     * @param graph
+     *            the graph
+     * @param random
+     *            the random number generator
+     * @param size
+     *            the number of nodes of the component
+     * @param extraEdges
+     *            the number of edges added to the spanning tree
+     * @return the nodes of the component, in the order they were created
+     */
+    public static List<ElkNode> addRandomComponent(final ElkNode graph, final Random random, final int size,
+            final int extraEdges) {
+
+        List<ElkNode> nodes = Lists.newArrayList();
+        for (int i = 0; i < size; i++) {
+            ElkNode node = ElkGraphUtil.createNode(graph);
+            node.setDimensions(MIN_NODE_SIZE + random.nextInt(NODE_SIZE_RANGE),
+                    MIN_NODE_SIZE + random.nextInt(NODE_SIZE_RANGE));
+            nodes.add(node);
+        }
+        for (int i = 1; i < size; i++) {
+            ElkGraphUtil.createSimpleEdge(nodes.get(random.nextInt(i)), nodes.get(i));
+        }
+        for (int i = 0; i < extraEdges; i++) {
+            ElkGraphUtil.createSimpleEdge(nodes.get(random.nextInt(size)), nodes.get(random.nextInt(size)));
+        }
+        return nodes;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.layered.intermediate.greedyswitch;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.eclipse.elk.alg.layered.graph.LNode;
+import org.eclipse.elk.alg.layered.intermediate.greedyswitch.BetweenLayerEdgeTwoNodeCrossingsCounter;
+import org.eclipse.elk.alg.layered.intermediate.greedyswitch.CrossingMatrixFiller;
+import org.eclipse.elk.alg.layered.intermediate.greedyswitch.SwitchDecider.CrossingCountSide;
+import org.eclipse.elk.alg.layered.p3order.LayerSweepCrossingMinimizer.CrossMinType;
+import org.junit.Test;
+
+/**
+ * Tests that the {@link CrossingMatrixFiller} yields the crossings counted by
+ * {@link BetweenLayerEdgeTwoNodeCrossingsCounter} for any pair of nodes, also after being reset.
+ */
+public class CrossingMatrixFillerTest extends TestGraphCreator {
+
+    /** number of layers of the test graph. */
+    private static final int LAYERS = 4;
+    /** maximal number of nodes per layer of the test graph. */
+    private static final int MAX_LAYER_SIZE = 30;
+
+    /**
+     * Checks all pairs of nodes of a random graph for both greedy switch variants, reusing the filler
+     * for free layers of different size and on both sides.
+     */
+    @Test
+    public void allPairsMatchCounter() {
+        LNode[][] order = getRandomGraph(new Random(0), LAYERS, MAX_LAYER_SIZE);
+        for (CrossMinType type : new CrossMinType[] { CrossMinType.ONE_SIDED_GREEDY_SWITCH,
+                CrossMinType.TWO_SIDED_GREEDY_SWITCH }) {
+
+            CrossingMatrixFiller filler = new CrossingMatrixFiller(type, order, 1, CrossingCountSide.WEST);
+            assertMatchesCounter(filler, type, order, 1, CrossingCountSide.WEST);
+
+            // reuse the filler for other layers, which are of different size
+            filler.reset(order, 2, CrossingCountSide.EAST);
+            assertMatchesCounter(filler, type, order, 2, CrossingCountSide.EAST);
+            filler.reset(order, 0, CrossingCountSide.EAST);
+            assertMatchesCounter(filler, type, order, 0, CrossingCountSide.EAST);
+            filler.reset(order, 1, CrossingCountSide.WEST);
+            assertMatchesCounter(filler, type, order, 1, CrossingCountSide.WEST);
+        }
+    }
+
+    /**
+     * Asserts that the filler yields the crossings counted by a new counter for all pairs of nodes of
+     * the free layer.
+     *
+     * @param filler
+     *            the filler
+     * @param type
+     *            the greedy switch variant
+     * @param order
+     *            the node order of the graph
+     * @param freeLayerIndex
+     *            the index of the free layer
+     * @param side
+     *            the side crossings are counted on by the one-sided variant
+     */
+    private static void assertMatchesCounter(final CrossingMatrixFiller filler, final CrossMinType type,
+            final LNode[][] order, final int freeLayerIndex, final CrossingCountSide side) {
+
+        LNode[] layer = order[freeLayerIndex];
+        for (int i = 0; i < layer.length; i++) {
+            for (int j = 0; j < layer.length; j++) {
+                if (i == j) {
+                    continue;
+                }
+                BetweenLayerEdgeTwoNodeCrossingsCounter counter =
+                        new BetweenLayerEdgeTwoNodeCrossingsCounter(order, freeLayerIndex);
+                if (type == CrossMinType.TWO_SIDED_GREEDY_SWITCH) {
+                    counter.countBothSideCrossings(layer[i], layer[j]);
+                } else if (side == CrossingCountSide.WEST) {
+                    counter.countWesternEdgeCrossings(layer[i], layer[j]);
+                } else {
+                    counter.countEasternEdgeCrossings(layer[i], layer[j]);
+                }
+                assertEquals(counter.getUpperLowerCrossings(), filler.getCrossingMatrixEntry(layer[i], layer[j]));
+                assertEquals(counter.getLowerUpperCrossings(), filler.getCrossingMatrixEntry(layer[j], layer[i]));
+            }
+        }
+    }
+
+}
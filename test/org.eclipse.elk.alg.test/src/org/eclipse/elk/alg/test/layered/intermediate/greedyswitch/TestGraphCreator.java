@@ -29,8 +29,8 @@ import org.eclipse.elk.alg.layered.options.LayeredOptions;
 import org.eclipse.elk.core.options.EdgeRouting;
 import org.eclipse.elk.core.options.PortConstraints;
 import org.eclipse.elk.core.options.PortSide;
+import org.eclipse.elk.graph.properties.ArrayPropertyHolder;
 import org.eclipse.elk.graph.properties.IProperty;
-import org.eclipse.elk.graph.properties.MapPropertyHolder;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -1048,7 +1048,7 @@ public class TestGraphCreator {
         return layers;
     }
 
-    public MapPropertyHolder setFixedOrderConstraint(final LNode node) {
+    public ArrayPropertyHolder setFixedOrderConstraint(final LNode node) {
         return node.setProperty(LayeredOptions.PORT_CONSTRAINTS, PortConstraints.FIXED_ORDER);
     }
 
@@ -1320,6 +1320,70 @@ public class TestGraphCreator {
         addEdgeBetweenPorts(addPortOnSide(left, PortSide.EAST), right);
     }
 
+    /**
+     * Creates layers of random size with random edges between neighboring layers. Each edge leaves
+     * a new or an existing eastern port and enters a new or an existing western port, so some ports
+     * have several edges.
+     *
+     * @param rand
+     *            the random number generator
+     * @param layerCount
+     *            the number of layers
+     * @param maxLayerSize
+     *            the maximal number of nodes per layer, at least two
+     * @return the node order of the created graph
+     */
+    public LNode[][] getRandomGraph(final Random rand, final int layerCount, final int maxLayerSize) {
+        Layer[] layers = makeLayers(layerCount);
+        LNode[][] nodes = new LNode[layerCount][];
+        for (int l = 0; l < layerCount; l++) {
+            nodes[l] = addNodesToLayer(2 + rand.nextInt(maxLayerSize - 1), layers[l]);
+        }
+        for (int l = 0; l + 1 < layerCount; l++) {
+            for (int e = 0; e < 2 * nodes[l].length; e++) {
+                LPort source = getRandomPort(rand, nodes[l][rand.nextInt(nodes[l].length)], PortSide.EAST);
+                LPort target = getRandomPort(rand, nodes[l + 1][rand.nextInt(nodes[l + 1].length)], PortSide.WEST);
+                addEdgeBetweenPorts(source, target);
+            }
+        }
+        return getGraph().toNodeArray();
+    }
+
+    /**
+     * Creates layerless nodes with random edges between them, which may be self loops or parallel to
+     * each other. Each edge gets new ports.
+     *
+     * @param rand
+     *            the random number generator
+     * @param nodeCount
+     *            the number of nodes
+     * @param edgeCount
+     *            the number of edges
+     * @return the graph
+     */
+    public LGraph getRandomLayerlessGraph(final Random rand, final int nodeCount, final int edgeCount) {
+        List<LNode> nodes = graph.getLayerlessNodes();
+        for (int i = 0; i < nodeCount; i++) {
+            LNode node = new LNode(graph);
+            node.setType(NodeType.NORMAL);
+            node.id = nodeId++;
+            nodes.add(node);
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            addEdgeBetweenPorts(addPortOnSide(nodes.get(rand.nextInt(nodeCount)), PortSide.EAST),
+                    addPortOnSide(nodes.get(rand.nextInt(nodeCount)), PortSide.WEST));
+        }
+        return graph;
+    }
+
+    private LPort getRandomPort(final Random rand, final LNode node, final PortSide portSide) {
+        List<LPort> ports = Lists.newArrayList(node.getPorts(portSide));
+        if (ports.isEmpty() || rand.nextBoolean()) {
+            return addPortOnSide(node, portSide);
+        }
+        return ports.get(rand.nextInt(ports.size()));
+    }
+
     public MockRandom getRandom() {
         return random;
     }
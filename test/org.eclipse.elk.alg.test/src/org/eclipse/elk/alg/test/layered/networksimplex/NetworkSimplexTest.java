@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.layered.networksimplex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.elk.alg.layered.networksimplex.NEdge;
+import org.eclipse.elk.alg.layered.networksimplex.NGraph;
+import org.eclipse.elk.alg.layered.networksimplex.NNode;
+import org.eclipse.elk.alg.layered.networksimplex.NetworkSimplex;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for {@link NetworkSimplex}.
+ */
+public class NetworkSimplexTest {
+
+    /** number of random graphs per size. */
+    private static final int RANDOM_GRAPHS = 10;
+    /** sizes of the random graphs, below and above the threshold for removing subtrees. */
+    private static final int[] SIZES = { 2, 10, 39, 40, 150 };
+    /** size of the random graph used to count pivots. */
+    private static final int PIVOT_GRAPH_SIZE = 150;
+    /** seed of the random graph used to count pivots. */
+    private static final int PIVOT_GRAPH_SEED = 3;
+    /** the range of integral edge weights. */
+    private static final int WEIGHT_RANGE = 10;
+    /** the range of minimal edge lengths. */
+    private static final int DELTA_RANGE = 4;
+    /** the range of minimal edge lengths that balancing can handle. */
+    private static final int BALANCING_DELTA_RANGE = 2;
+    /** tolerance when comparing sums of edge weights. */
+    private static final double TOLERANCE = 1e-6;
+
+    /**
+     * Checks that the layering respects the minimal length of every edge and starts at layer zero,
+     * with and without balancing. Balancing is only applied to graphs whose minimal edge lengths are
+     * at most one.
+     */
+    @Test
+    public void layeringIsFeasibleAndNormalized() {
+        for (int size : SIZES) {
+            for (int seed = 0; seed < RANDOM_GRAPHS; seed++) {
+                for (boolean balance : new boolean[] { false, true }) {
+                    NGraph graph = randomGraph(new Random(seed), size,
+                            balance ? BALANCING_DELTA_RANGE : DELTA_RANGE);
+                    List<NNode> nodes = Lists.newArrayList(graph.nodes);
+                    NetworkSimplex.forGraph(graph).withBalancing(balance).execute(new BasicProgressMonitor());
+
+                    int lowest = Integer.MAX_VALUE;
+                    for (NNode node : nodes) {
+                        lowest = Math.min(lowest, node.layer);
+                        for (NEdge edge : node.getOutgoingEdges()) {
+                            assertTrue(edge.getTarget().layer - edge.getSource().layer >= edge.delta);
+                        }
+                    }
+                    assertEquals(0, lowest);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the weighted edge length of the layering cannot be reduced by moving a single node
+     * one layer up or down, and that it does not exceed that of a layering computed with only one
+     * pivot.
+     */
+    @Test
+    public void layeringIsLocallyOptimal() {
+        for (int size : SIZES) {
+            for (int seed = 0; seed < RANDOM_GRAPHS; seed++) {
+                NGraph graph = randomGraph(new Random(seed), size, DELTA_RANGE);
+                List<NNode> nodes = Lists.newArrayList(graph.nodes);
+                NetworkSimplex.forGraph(graph).execute(new BasicProgressMonitor());
+                double length = weightedLength(nodes);
+
+                for (NNode node : nodes) {
+                    for (int shift : new int[] { -1, 1 }) {
+                        node.layer += shift;
+                        assertTrue(!isFeasible(node) || weightedLength(nodes) >= length - TOLERANCE);
+                        node.layer -= shift;
+                    }
+                }
+
+                NGraph limitedGraph = randomGraph(new Random(seed), size, DELTA_RANGE);
+                List<NNode> limitedNodes = Lists.newArrayList(limitedGraph.nodes);
+                NetworkSimplex.forGraph(limitedGraph).withIterationLimit(1).execute(new BasicProgressMonitor());
+                assertTrue(length <= weightedLength(limitedNodes) + TOLERANCE);
+            }
+        }
+    }
+
+    /**
+     * Checks that pivots are counted, reported as a sub task of the progress monitor, and stop at the
+     * iteration limit.
+     */
+    @Test
+    public void pivotsAreCountedAndLimited() {
+        BasicProgressMonitor monitor = new BasicProgressMonitor();
+        NetworkSimplex unlimited =
+                NetworkSimplex.forGraph(randomGraph(new Random(PIVOT_GRAPH_SEED), PIVOT_GRAPH_SIZE, DELTA_RANGE));
+        unlimited.execute(monitor);
+        assertTrue(unlimited.getPivots() > 2);
+        assertEquals("Pivots", monitor.getSubMonitors().get(0).getTaskName());
+
+        NetworkSimplex limited =
+                NetworkSimplex.forGraph(randomGraph(new Random(PIVOT_GRAPH_SEED), PIVOT_GRAPH_SIZE, DELTA_RANGE))
+                    .withIterationLimit(2);
+        limited.execute(new BasicProgressMonitor());
+        assertEquals(2, limited.getPivots());
+    }
+
+    /**
+     * Returns the sum of the lengths of all edges, multiplied by their weights.
+     *
+     * @param nodes
+     *            all nodes of a layered graph
+     * @return the weighted length of all edges
+     */
+    private static double weightedLength(final List<NNode> nodes) {
+        double length = 0;
+        for (NNode node : nodes) {
+            for (NEdge edge : node.getOutgoingEdges()) {
+                length += edge.weight * (edge.getTarget().layer - edge.getSource().layer);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Checks that all edges incident to the given node respect their minimal length.
+     *
+     * @param node
+     *            a node of a layered graph
+     * @return whether the incident edges are long enough
+     */
+    private static boolean isFeasible(final NNode node) {
+        for (NEdge edge : node.getConnectedEdges()) {
+            if (edge.getTarget().layer - edge.getSource().layer < edge.delta) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a connected acyclic graph: a random spanning tree plus random additional edges, all
+     * pointing from lower to higher node indices, with random weights and minimal lengths.
+     *
+     * @param random
+     *            the random number generator
+     * @param size
+     *            the number of nodes, which is also the number of additional edges
+     * @param deltaRange
+     *            the range of minimal edge lengths, which start at zero
+     * @return the graph
+     */
+    private static NGraph randomGraph(final Random random, final int size, final int deltaRange) {
+        NGraph graph = new NGraph();
+        List<NNode> nodes = Lists.newArrayList();
+        for (int i = 0; i < size; i++) {
+            nodes.add(NNode.of().id(i).create(graph));
+        }
+
+        for (int i = 1; i < size; i++) {
+            connect(random, nodes.get(random.nextInt(i)), nodes.get(i), deltaRange);
+        }
+        for (int i = 0; i < size; i++) {
+            int source = random.nextInt(size - 1);
+            int target = source + 1 + random.nextInt(size - source - 1);
+            connect(random, nodes.get(source), nodes.get(target), deltaRange);
+        }
+        return graph;
+    }
+
+    /**
+     * Adds an edge with a random weight, which may be integral or not, and a random minimal length.
+     *
+     * @param random
+     *            the random number generator
+     * @param source
+     *            the source node
+     * @param target
+     *            the target node
+     * @param deltaRange
+     *            the range of minimal edge lengths, which start at zero
+     */
+    private static void connect(final Random random, final NNode source, final NNode target,
+            final int deltaRange) {
+
+        NEdge.of()
+            .source(source)
+            .target(target)
+            .weight(random.nextBoolean() ? random.nextInt(WEIGHT_RANGE) : random.nextDouble() * WEIGHT_RANGE)
+            .delta(random.nextInt(deltaRange))
+            .create();
+    }
+
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.layered.p1cycles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.elk.alg.layered.graph.LEdge;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.graph.LNode;
+import org.eclipse.elk.alg.layered.options.InternalProperties;
+import org.eclipse.elk.alg.layered.options.LayeredOptions;
+import org.eclipse.elk.alg.layered.p1cycles.GreedyCycleBreaker;
+import org.eclipse.elk.alg.test.layered.intermediate.greedyswitch.TestGraphCreator;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Tests for {@link GreedyCycleBreaker}.
+ */
+public class GreedyCycleBreakerTest {
+
+    /** number of random graphs to break the cycles of. */
+    private static final int RANDOM_GRAPHS = 20;
+    /** the minimal number of nodes of the random graphs. */
+    private static final int MIN_NODES = 5;
+    /** the range of the number of nodes of the random graphs. */
+    private static final int NODE_RANGE = 100;
+    /** the number of edges of the random graphs per node. */
+    private static final int EDGES_PER_NODE = 3;
+    /** the range of edge priorities, which start at -1. */
+    private static final int PRIORITY_RANGE = 4;
+
+    /**
+     * Checks that random graphs, including self loops and edges of different priority, become
+     * acyclic, and that the number of reversed edges is reported as work of a progress monitor sub
+     * task and as a metrics counter.
+     */
+    @Test
+    public void cyclicGraphsBecomeAcyclic() {
+        for (int seed = 0; seed < RANDOM_GRAPHS; seed++) {
+            Random random = new Random(seed);
+            int size = MIN_NODES + random.nextInt(NODE_RANGE);
+            LGraph graph = new TestGraphCreator().getRandomLayerlessGraph(random, size, EDGES_PER_NODE * size);
+            graph.setProperty(InternalProperties.RANDOM, new Random(random.nextLong()));
+            List<LEdge> edges = edges(graph);
+            for (LEdge edge : edges) {
+                edge.setProperty(LayeredOptions.PRIORITY_DIRECTION, random.nextInt(PRIORITY_RANGE) - 1);
+            }
+
+            GreedyCycleBreaker cycleBreaker = new GreedyCycleBreaker();
+            RecordingProgressMonitor monitor = new RecordingProgressMonitor();
+            cycleBreaker.process(graph, monitor);
+
+            int reversed = 0;
+            for (LEdge edge : edges) {
+                if (edge.getProperty(InternalProperties.REVERSED)) {
+                    reversed++;
+                }
+            }
+            IElkProgressMonitor reversedEdges = monitor.getSubMonitors().get(0);
+            assertEquals("Reversed edges", reversedEdges.getTaskName());
+            assertEquals(reversed, ((RecordingProgressMonitor) reversedEdges).completedWork, 0);
+            Map<String, Long> counters = Maps.newHashMap();
+            cycleBreaker.contributeMetrics(counters);
+            assertEquals(Long.valueOf(reversed), counters.get("reversedEdges"));
+            assertTrue(reversed > 0);
+            assertTrue(isAcyclic(graph));
+        }
+    }
+
+    /**
+     * A progress monitor that remembers the work completed in steps of one, ignoring the remaining
+     * work that is completed when the monitor is done.
+     */
+    private static final class RecordingProgressMonitor extends BasicProgressMonitor {
+
+        /** the work completed in steps of one. */
+        private float completedWork;
+
+        @Override
+        protected BasicProgressMonitor doSubTask(final float work, final int maxHierarchyLevels,
+                final boolean measureExecTime) {
+            return new RecordingProgressMonitor();
+        }
+
+        @Override
+        protected void doWorked(final float thecompletedWork, final float thetotalWork, final boolean topInstance) {
+            if (thecompletedWork == completedWork + 1) {
+                completedWork = thecompletedWork;
+            }
+        }
+    }
+
+    /**
+     * Returns the edges of the graph.
+     *
+     * @param graph
+     *            a graph without layers
+     * @return the outgoing edges of all nodes
+     */
+    private static List<LEdge> edges(final LGraph graph) {
+        List<LEdge> edges = Lists.newArrayList();
+        for (LNode node : graph.getLayerlessNodes()) {
+            edges.addAll(Lists.newArrayList(node.getOutgoingEdges()));
+        }
+        return edges;
+    }
+
+    /**
+     * Checks that the graph has no cycles apart from self loops by repeatedly removing sources.
+     *
+     * @param graph
+     *            a graph without layers whose node ids are their indices
+     * @return whether the graph is acyclic
+     */
+    private static boolean isAcyclic(final LGraph graph) {
+        List<LNode> nodes = graph.getLayerlessNodes();
+        int[] indeg = new int[nodes.size()];
+        for (LNode node : nodes) {
+            for (LEdge edge : node.getIncomingEdges()) {
+                if (!edge.isSelfLoop()) {
+                    indeg[node.id]++;
+                }
+            }
+        }
+        List<LNode> sources = Lists.newArrayList();
+        for (LNode node : nodes) {
+            if (indeg[node.id] == 0) {
+                sources.add(node);
+            }
+        }
+        int removed = 0;
+        while (!sources.isEmpty()) {
+            LNode source = sources.remove(sources.size() - 1);
+            removed++;
+            for (LEdge edge : source.getOutgoingEdges()) {
+                LNode target = edge.getTarget().getNode();
+                if (target != source && --indeg[target.id] == 0) {
+                    sources.add(target);
+                }
+            }
+        }
+        return removed == nodes.size();
+    }
+
+}
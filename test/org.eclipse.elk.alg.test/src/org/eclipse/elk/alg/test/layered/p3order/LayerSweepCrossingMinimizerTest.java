@@ -19,6 +19,7 @@ import static org.junit.Assert.assertTrue;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.eclipse.elk.alg.layered.graph.LGraph;
 import org.eclipse.elk.alg.layered.graph.LNode;
@@ -1664,6 +1665,65 @@ public class LayerSweepCrossingMinimizerTest extends TestGraphCreator {
         assertEquals(leftNode.getPorts(), expectedPortOrder);
     }
 
+    @Test
+    public void parallelRestarts_yieldSequentialResult() throws Exception {
+        for (int seed = 0; seed < 5; seed++) {
+            List<List<Integer>> sequential = minimizeCrossingsOfRandomGraph(seed, false, null);
+            List<List<Integer>> parallel = minimizeCrossingsOfRandomGraph(seed, true, new ForkJoinPool(4));
+
+            assertThat(parallel, is(sequential));
+        }
+    }
+
+    /**
+     * Creates a random graph, minimizes its crossings with sequential restarts or with parallel restarts in the
+     * given pool, and returns the resulting node order as indices into the order in which the nodes were created.
+     */
+    private List<List<Integer>> minimizeCrossingsOfRandomGraph(final int seed, final boolean parallel,
+            final ForkJoinPool pool) throws Exception {
+        LGraph g = getEmptyGraph();
+        g.setProperty(InternalProperties.RANDOM, new Random(0));
+        g.setProperty(LayeredOptions.THOROUGHNESS, 10);
+        g.setProperty(LayeredOptions.CROSSING_MINIMIZATION_PARALLEL_RESTARTS, parallel);
+
+        Random edgeTargets = new Random(seed);
+        Layer[] layers = makeLayers(4, g);
+        List<LNode> createdNodes = Lists.newArrayList();
+        LNode[][] nodes = new LNode[layers.length][];
+        for (int i = 0; i < layers.length; i++) {
+            nodes[i] = addNodesToLayer(8, layers[i]);
+            createdNodes.addAll(Arrays.asList(nodes[i]));
+        }
+        for (int i = 0; i < layers.length - 1; i++) {
+            for (LNode node : nodes[i]) {
+                for (int j = 0; j < 3; j++) {
+                    eastWestEdgeFromTo(node, nodes[i + 1][edgeTargets.nextInt(8)]);
+                }
+            }
+        }
+
+        LayerSweepCrossingMinimizer minimizer = new LayerSweepCrossingMinimizer(crossMinType);
+        if (pool == null) {
+            minimizer.process(g, new BasicProgressMonitor());
+        } else {
+            try {
+                pool.submit(() -> minimizer.process(g, new BasicProgressMonitor())).get();
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        List<List<Integer>> order = Lists.newArrayList();
+        for (Layer layer : g) {
+            List<Integer> layerOrder = Lists.newArrayList();
+            for (LNode node : layer) {
+                layerOrder.add(createdNodes.indexOf(node));
+            }
+            order.add(layerOrder);
+        }
+        return order;
+    }
+
     private LPort[] reverse(final LPort[] rightOuterPorts) {
         LPort[] res = new LPort[rightOuterPorts.length];
         for (int i = 0; i < rightOuterPorts.length; i++) {
@@ -13,6 +13,7 @@ package org.eclipse.elk.alg.test.layered.p3order.counting;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.elk.alg.layered.graph.LNode;
@@ -20,12 +21,16 @@ import org.eclipse.elk.alg.layered.graph.LPort;
 import org.eclipse.elk.alg.layered.graph.Layer;
 import org.eclipse.elk.alg.layered.p3order.GraphInfoHolder;
 import org.eclipse.elk.alg.layered.p3order.LayerSweepCrossingMinimizer.CrossMinType;
+import org.eclipse.elk.alg.layered.p3order.counting.AllCrossingsCounter;
+import org.eclipse.elk.alg.layered.p3order.counting.IInitializable;
 import org.eclipse.elk.alg.test.layered.intermediate.greedyswitch.InLayerEdgeTestGraphCreator;
 import org.eclipse.elk.alg.test.layered.intermediate.greedyswitch.NorthSouthEdgeTestGraphCreator;
 import org.eclipse.elk.alg.test.layered.intermediate.greedyswitch.TestGraphCreator;
 import org.eclipse.elk.core.options.PortSide;
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
+
 /**
  * Test for extracted and modified AllCrossingsCounter.
  *
@@ -214,6 +219,59 @@ public class AllCrossingsCounterTest extends TestGraphCreator {
         assertThat(amountOfCrossings, is(1));
     }
 
+    @Test
+    public void countAgainAfterSwitchingNodes() {
+        graph = getCrossFormedGraph();
+        LNode[][] nodeArray = graph.toNodeArray();
+        AllCrossingsCounter counter = counterFor(nodeArray);
+        assertThat(counter.countAllCrossings(nodeArray), is(1));
+
+        switchNodes(nodeArray[1], 0, 1);
+        assertThat(counter.countAllCrossings(nodeArray), is(0));
+        assertThat(counter.countAllCrossings(nodeArray), is(0));
+
+        switchNodes(nodeArray[1], 0, 1);
+        assertThat(counter.countAllCrossings(nodeArray), is(1));
+    }
+
+    @Test
+    public void countAgainAfterSwitchingPorts() {
+        graph = getFixedPortOrderGraph();
+        LNode[][] nodeArray = graph.toNodeArray();
+        AllCrossingsCounter counter = counterFor(nodeArray);
+        assertThat(counter.countAllCrossings(nodeArray), is(1));
+
+        Collections.swap(nodeArray[0][0].getPorts(), 0, 1);
+        assertThat(counter.countAllCrossings(nodeArray), is(0));
+    }
+
+    @Test
+    public void countAgainAfterReplacingLayer() {
+        graph = getSwitchOnlyOneSided();
+        LNode[][] nodeArray = graph.toNodeArray();
+        AllCrossingsCounter counter = counterFor(nodeArray);
+        assertThat(counter.countAllCrossings(nodeArray), is(1));
+
+        LNode[] middleLayer = nodeArray[1].clone();
+        switchNodes(middleLayer, 0, 1);
+        nodeArray[1] = middleLayer;
+        assertThat(counter.countAllCrossings(nodeArray), is(1));
+        switchNodes(nodeArray[2], 0, 1);
+        assertThat(counter.countAllCrossings(nodeArray), is(0));
+    }
+
+    private void switchNodes(final LNode[] layer, final int i, final int j) {
+        LNode node = layer[i];
+        layer[i] = layer[j];
+        layer[j] = node;
+    }
+
+    private AllCrossingsCounter counterFor(final LNode[][] nodeArray) {
+        AllCrossingsCounter counter = new AllCrossingsCounter(nodeArray);
+        IInitializable.init(Lists.<IInitializable>newArrayList(counter), nodeArray);
+        return counter;
+    }
+
     private int allCrossings() {
         LNode[][] nodeArray = graph.toNodeArray();
         int portId = 0;
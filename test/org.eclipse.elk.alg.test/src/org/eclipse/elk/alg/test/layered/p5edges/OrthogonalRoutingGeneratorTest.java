@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.layered.p5edges;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.elk.alg.layered.graph.LEdge;
+import org.eclipse.elk.alg.layered.graph.LGraph;
+import org.eclipse.elk.alg.layered.graph.LNode;
+import org.eclipse.elk.alg.layered.graph.LPort;
+import org.eclipse.elk.alg.layered.p5edges.OrthogonalRoutingGenerator;
+import org.eclipse.elk.alg.layered.p5edges.OrthogonalRoutingGenerator.RoutingDirection;
+import org.eclipse.elk.alg.test.layered.intermediate.greedyswitch.TestGraphCreator;
+import org.eclipse.elk.core.math.KVector;
+import org.eclipse.elk.core.options.PortSide;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests for the routing slots assigned by {@link OrthogonalRoutingGenerator}.
+ */
+public class OrthogonalRoutingGeneratorTest {
+
+    /** the edge spacing the generators are created with. */
+    private static final double EDGE_SPACING = 10;
+    /** the position of the first routing slot. */
+    private static final double START_POS = 100;
+    /** number of random graphs to route. */
+    private static final int RANDOM_GRAPHS = 200;
+    /** maximal number of nodes per layer of the random graphs. */
+    private static final int MAX_LAYER_SIZE = 12;
+    /** maximal vertical position of the nodes of the random graphs. */
+    private static final int MAX_NODE_Y = 400;
+    /** maximal vertical position of a port relative to its node. */
+    private static final int MAX_PORT_Y = 10;
+    /** one out of this many edges of the random graphs is reversed. */
+    private static final int BACK_EDGE_RATIO = 5;
+    /** minimal number of overlapping pairs of hyperedges the random graphs must yield. */
+    private static final int MIN_OVERLAPS = 1000;
+
+    /**
+     * Routes random two-layer graphs and checks that hyperedges, which are sets of edges connected
+     * through shared ports, never share a routing slot if their vertical extents overlap. Two such
+     * hyperedges always cross, so the router must order them. Ports lie on integer positions, which
+     * makes segments often share positions; some edges go back, and some ports have several edges.
+     */
+    @Test
+    public void overlappingHyperedgesGetDifferentSlots() {
+        int overlaps = 0;
+        for (int seed = 0; seed < RANDOM_GRAPHS; seed++) {
+            Random random = new Random(seed);
+            TestGraphCreator creator = new TestGraphCreator();
+            // sparse layers have many hyperedges that are far apart, dense ones many that overlap
+            int height = 2 * MAX_PORT_Y + random.nextInt(MAX_NODE_Y);
+            LNode[][] layers = creator.getRandomGraph(random, 2, MAX_LAYER_SIZE);
+            LGraph graph = creator.getGraph();
+            for (LNode[] layer : layers) {
+                for (LNode node : layer) {
+                    node.getPosition().y = random.nextInt(height);
+                    for (LPort port : node.getPorts()) {
+                        port.getPosition().y = random.nextInt(MAX_PORT_Y);
+                    }
+                }
+            }
+            for (LNode node : layers[0]) {
+                for (LEdge edge : Lists.newArrayList(node.getOutgoingEdges())) {
+                    if (random.nextInt(BACK_EDGE_RATIO) == 0) {
+                        edge.reverse(graph, false);
+                    }
+                }
+            }
+
+            int slots = route(graph, layers);
+
+            List<double[]> hyperedges = hyperedges(layers);
+            for (double[] hyperedge : hyperedges) {
+                assertTrue(hyperedge[2] >= START_POS);
+                assertTrue(hyperedge[2] <= START_POS + (slots - 1) * EDGE_SPACING);
+            }
+            for (int i = 0; i < hyperedges.size(); i++) {
+                for (int j = i + 1; j < hyperedges.size(); j++) {
+                    double[] h1 = hyperedges.get(i);
+                    double[] h2 = hyperedges.get(j);
+                    if (h1[0] <= h2[1] && h2[0] <= h1[1]) {
+                        assertNotEquals("seed " + seed, h1[2], h2[2], 0);
+                        overlaps++;
+                    }
+                }
+            }
+        }
+        assertTrue(overlaps > MIN_OVERLAPS);
+    }
+
+    /**
+     * Checks that straight edges get neither bend points nor a routing slot, even if a bent edge
+     * spans them.
+     */
+    @Test
+    public void straightEdgesTakeNoSlot() {
+        TestGraphCreator creator = new TestGraphCreator();
+        LNode[] left = creator.addNodesToLayer(1, creator.makeLayer(creator.getGraph()));
+        LNode[] right = creator.addNodesToLayer(1, creator.makeLayer(creator.getGraph()));
+        LEdge straight1 = connect(creator, left[0], 2 * EDGE_SPACING, right[0], 2 * EDGE_SPACING);
+        LEdge straight2 = connect(creator, left[0], 2 * EDGE_SPACING, right[0], 2 * EDGE_SPACING);
+        LEdge bent = connect(creator, left[0], 0, right[0], 4 * EDGE_SPACING);
+        LGraph graph = creator.getGraph();
+
+        assertEquals(1, route(graph, graph.toNodeArray()));
+        assertTrue(straight1.getBendPoints().isEmpty());
+        assertTrue(straight2.getBendPoints().isEmpty());
+        assertEquals(2, bent.getBendPoints().size());
+        assertEquals(START_POS, bent.getBendPoints().getFirst().x, 0);
+    }
+
+    /**
+     * Routes the edges between the two given layers from west to east.
+     *
+     * @param graph
+     *            the graph
+     * @param layers
+     *            the two layers
+     * @return the number of routing slots
+     */
+    private static int route(final LGraph graph, final LNode[][] layers) {
+        OrthogonalRoutingGenerator generator =
+                new OrthogonalRoutingGenerator(RoutingDirection.WEST_TO_EAST, EDGE_SPACING, null);
+        return generator.routeEdges(graph, Arrays.asList(layers[0]), 0, Arrays.asList(layers[1]), START_POS);
+    }
+
+    /**
+     * Collects the ports connected to each other and returns, for each such hyperedge that is not a
+     * straight line, its vertical start and end and the horizontal position of its bend points. All
+     * bent edges of a hyperedge must share the same routing slot.
+     *
+     * @param layers
+     *            the two routed layers
+     * @return the start, end and slot position of each bent hyperedge
+     */
+    private static List<double[]> hyperedges(final LNode[][] layers) {
+        Set<LPort> visited = Sets.newHashSet();
+        List<double[]> hyperedges = Lists.newArrayList();
+        for (LNode[] layer : layers) {
+            for (LNode node : layer) {
+                for (LPort port : node.getPorts()) {
+                    if (!visited.add(port)) {
+                        continue;
+                    }
+
+                    double[] hyperedge = { Double.MAX_VALUE, -Double.MAX_VALUE, Double.NaN };
+                    Deque<LPort> queue = Lists.newLinkedList();
+                    queue.add(port);
+                    while (!queue.isEmpty()) {
+                        LPort current = queue.poll();
+                        double y = current.getAbsoluteAnchor().y;
+                        hyperedge[0] = Math.min(hyperedge[0], y);
+                        hyperedge[1] = Math.max(hyperedge[1], y);
+                        for (LEdge edge : current.getOutgoingEdges()) {
+                            hyperedge[2] = checkSlot(edge, hyperedge[2]);
+                        }
+                        for (LPort other : current.getConnectedPorts()) {
+                            if (visited.add(other)) {
+                                queue.add(other);
+                            }
+                        }
+                    }
+
+                    if (hyperedge[1] - hyperedge[0] > OrthogonalRoutingGenerator.TOLERANCE) {
+                        assertFalse(Double.isNaN(hyperedge[2]));
+                        hyperedges.add(hyperedge);
+                    }
+                }
+            }
+        }
+        return hyperedges;
+    }
+
+    /**
+     * Checks that the given edge is straight or has two bend points at the slot position of its
+     * hyperedge.
+     *
+     * @param edge
+     *            a routed edge
+     * @param slot
+     *            the slot position found so far for the edge's hyperedge, or {@code NaN}
+     * @return the slot position of the edge's hyperedge, or {@code NaN} if still unknown
+     */
+    private static double checkSlot(final LEdge edge, final double slot) {
+        double sourceY = edge.getSource().getAbsoluteAnchor().y;
+        double targetY = edge.getTarget().getAbsoluteAnchor().y;
+        if (Math.abs(sourceY - targetY) <= OrthogonalRoutingGenerator.TOLERANCE) {
+            assertTrue(edge.getBendPoints().isEmpty());
+            return slot;
+        }
+
+        assertEquals(2, edge.getBendPoints().size());
+        KVector first = edge.getBendPoints().getFirst();
+        KVector last = edge.getBendPoints().getLast();
+        assertEquals(sourceY, first.y, 0);
+        assertEquals(targetY, last.y, 0);
+        assertEquals(first.x, last.x, 0);
+        if (!Double.isNaN(slot)) {
+            assertEquals(slot, first.x, 0);
+        }
+        return first.x;
+    }
+
+    /**
+     * Connects a new eastern port of the left node to a new western port of the right node.
+     *
+     * @param creator
+     *            the graph creator
+     * @param left
+     *            the left node
+     * @param leftY
+     *            the vertical position of the left port
+     * @param right
+     *            the right node
+     * @param rightY
+     *            the vertical position of the right port
+     * @return the created edge
+     */
+    private static LEdge connect(final TestGraphCreator creator, final LNode left, final double leftY,
+            final LNode right, final double rightY) {
+
+        LPort source = creator.addPortOnSide(left, PortSide.EAST);
+        source.getPosition().y = leftY;
+        LPort target = creator.addPortOnSide(right, PortSide.WEST);
+        target.getPosition().y = rightY;
+        creator.addEdgeBetweenPorts(source, target);
+        return source.getOutgoingEdges().get(0);
+    }
+
+}
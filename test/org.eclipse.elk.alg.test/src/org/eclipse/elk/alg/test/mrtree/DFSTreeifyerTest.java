@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.mrtree;
+
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addEdge;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addNode;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.createGraph;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.placeNodes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.elk.alg.mrtree.graph.TGraph;
+import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.intermediate.RootProcessor;
+import org.eclipse.elk.alg.mrtree.options.InternalProperties;
+import org.eclipse.elk.alg.mrtree.options.MrTreeOptions;
+import org.eclipse.elk.alg.mrtree.options.TreeifyingOrder;
+import org.eclipse.elk.alg.mrtree.p1treeify.DFSTreeifyer;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DFSTreeifyer} on the graph with the edges r-a, r-b, b-d, a-d and b-e, where d can
+ * be reached from both a and b.
+ */
+public class DFSTreeifyerTest {
+
+    private TNode r;
+    private TNode a;
+    private TNode b;
+    private TNode d;
+    private TNode e;
+
+    /**
+     * Checks that breadth-first search keeps both edges into d, and that d is then placed under a,
+     * the parent found first in breadth-first order, although the edge from b was added first.
+     */
+    @Test
+    public void breadthFirstSearchLeavesDagPlacedUnderFirstParent() {
+        TGraph graph = treeify(TreeifyingOrder.BFS);
+        assertTrue(graph.getProperty(InternalProperties.REMOVABLE_EDGES).isEmpty());
+        assertEquals(2, d.getIncomingEdges().size());
+
+        new RootProcessor().process(graph, new BasicProgressMonitor());
+        placeNodes(graph);
+        assertEquals(x(a), x(d));
+        assertEquals(x(b), x(e));
+        assertEquals(y(d), y(e));
+        assertTrue(x(a) < x(b));
+    }
+
+    /**
+     * Checks that depth-first search removes the edge into d that is found second, which is the one
+     * from b since a is visited first.
+     */
+    @Test
+    public void depthFirstSearchRemovesSecondEdge() {
+        TGraph graph = treeify(TreeifyingOrder.DFS);
+        assertEquals(1, graph.getProperty(InternalProperties.REMOVABLE_EDGES).size());
+        assertEquals(1, d.getIncomingEdges().size());
+        assertEquals(a, d.getIncomingEdges().get(0).getSource());
+    }
+
+    /**
+     * Creates the graph and runs the treeifyer with the given search order.
+     *
+     * @param order
+     *            the search order
+     * @return the treeified graph
+     */
+    private TGraph treeify(final TreeifyingOrder order) {
+        TGraph graph = createGraph();
+        graph.setProperty(MrTreeOptions.SEARCH_ORDER, order);
+        r = addNode(graph);
+        a = addNode(graph);
+        b = addNode(graph);
+        d = addNode(graph);
+        e = addNode(graph);
+        addEdge(graph, r, a);
+        addEdge(graph, r, b);
+        addEdge(graph, b, d);
+        addEdge(graph, a, d);
+        addEdge(graph, b, e);
+
+        new DFSTreeifyer().process(graph, new BasicProgressMonitor());
+        return graph;
+    }
+
+    /**
+     * Returns the x coordinate of a placed node.
+     *
+     * @param node
+     *            a placed node
+     * @return the x coordinate of the node
+     */
+    private static int x(final TNode node) {
+        return node.getProperty(InternalProperties.XCOOR);
+    }
+
+    /**
+     * Returns the y coordinate of a placed node.
+     *
+     * @param node
+     *            a placed node
+     * @return the y coordinate of the node
+     */
+    private static int y(final TNode node) {
+        return node.getProperty(InternalProperties.YCOOR);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.mrtree;
+
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addChild;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addEdge;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addNode;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addRoot;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.createGraph;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.elk.alg.mrtree.graph.TGraph;
+import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.intermediate.FanProcessor;
+import org.eclipse.elk.alg.mrtree.options.InternalProperties;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FanProcessor}.
+ */
+public class FanProcessorTest {
+
+    /** the fan and descendants of the nodes of the small tree, in the order they are created. */
+    private static final int[][] SMALL_TREE = {
+        { 3, 9 }, { 3, 6 }, { 1, 2 }, { 3, 4 }, { 0, 1 }, { 0, 1 }, { 0, 1 }, { 0, 1 }, { 0, 1 }, { 0, 1 } };
+    /** number of random trees to compare with the naive count. */
+    private static final int RANDOM_TREES = 200;
+    /** maximal number of nodes of the random trees. */
+    private static final int MAX_NODES = 60;
+
+    /**
+     * Checks the fan and descendants of the tree
+     *
+     * <pre>
+     *        r
+     *      /   \
+     *     a     b
+     *    / \    |
+     *   c   d   e
+     *  /|\
+     * f g h
+     * </pre>
+     *
+     * and of a node that can't be reached from its root.
+     */
+    @Test
+    public void fanAndDescendantsOfSmallTree() {
+        TGraph graph = createGraph();
+        TNode r = addRoot(graph);
+        TNode a = addChild(graph, r);
+        TNode b = addChild(graph, r);
+        TNode c = addChild(graph, a);
+        addChild(graph, a);
+        addChild(graph, b);
+        addChild(graph, c);
+        addChild(graph, c);
+        addChild(graph, c);
+        addNode(graph);
+        process(graph);
+
+        List<TNode> nodes = graph.getNodes();
+        assertEquals(SMALL_TREE.length, nodes.size());
+        for (int i = 0; i < SMALL_TREE.length; i++) {
+            assertFanAndDescendants(SMALL_TREE[i][0], SMALL_TREE[i][1], nodes.get(i));
+        }
+    }
+
+    /**
+     * Compares the fan and descendants of random trees with a naive count per node.
+     */
+    @Test
+    public void randomTreesMatchNaiveCount() {
+        Random random = new Random(0);
+        for (int t = 0; t < RANDOM_TREES; t++) {
+            TGraph graph = createGraph();
+            List<TNode> nodes = new ArrayList<TNode>();
+            nodes.add(addRoot(graph));
+            int size = 1 + random.nextInt(MAX_NODES);
+            for (int i = 1; i < size; i++) {
+                nodes.add(addChild(graph, nodes.get(random.nextInt(i))));
+            }
+            process(graph);
+
+            for (TNode node : nodes) {
+                int fan = 0;
+                int descendants = 1;
+                List<TNode> level = node.getChildrenCopy();
+                while (!level.isEmpty()) {
+                    fan = Math.max(fan, level.size());
+                    descendants += level.size();
+                    List<TNode> next = new ArrayList<TNode>();
+                    for (TNode n : level) {
+                        next.addAll(n.getChildrenCopy());
+                    }
+                    level = next;
+                }
+                assertFanAndDescendants(fan, descendants, node);
+            }
+        }
+    }
+
+    /**
+     * Checks that a node with two incoming edges is only counted below its first parent.
+     */
+    @Test
+    public void dagCountsNodesBelowFirstParent() {
+        TGraph graph = createGraph();
+        TNode r = addRoot(graph);
+        TNode a = addChild(graph, r);
+        TNode b = addChild(graph, r);
+        TNode c = addChild(graph, a);
+        addEdge(graph, b, c);
+        process(graph);
+
+        assertFanAndDescendants(2, graph.getNodes().size(), r);
+        assertFanAndDescendants(1, 2, a);
+        assertFanAndDescendants(0, 1, b);
+    }
+
+    /**
+     * Runs the fan processor on the given graph.
+     *
+     * @param graph
+     *            the graph
+     */
+    private static void process(final TGraph graph) {
+        new FanProcessor().process(graph, new BasicProgressMonitor());
+    }
+
+    /**
+     * Asserts that the fan and number of descendants of a node are as expected.
+     *
+     * @param fan
+     *            the expected fan
+     * @param descendants
+     *            the expected number of descendants, including the node itself
+     * @param node
+     *            the node
+     */
+    private static void assertFanAndDescendants(final int fan, final int descendants, final TNode node) {
+        assertEquals(node.getLabel(), fan, node.getIntProperty(InternalProperties.FAN));
+        assertEquals(node.getLabel(), descendants, node.getIntProperty(InternalProperties.DESCENDANTS));
+    }
+
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.mrtree;
+
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addChild;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addRoot;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.createGraph;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.createPath;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.eclipse.elk.alg.mrtree.graph.TGraph;
+import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.graph.TTree;
+import org.eclipse.elk.alg.mrtree.intermediate.FanProcessor;
+import org.eclipse.elk.alg.mrtree.options.InternalProperties;
+import org.eclipse.elk.alg.mrtree.p2order.NodeOrderer;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NodeOrderer}.
+ */
+public class NodeOrdererTest {
+
+    /** number of nodes of a path that would overflow the stack if ordered recursively. */
+    private static final int DEEP_PATH_LENGTH = 100000;
+
+    /**
+     * Checks the order of a root with the children l1, a, l2, b, l3 and l4, where a has two and b has
+     * three leaves. Nodes are positioned by increasing fan, and the children of each node are then
+     * sorted by decreasing position, which reverses the order of leaves.
+     */
+    @Test
+    public void childrenAreOrderedByDecreasingPosition() {
+        TGraph graph = createGraph();
+        TNode r = addRoot(graph);
+        TNode l1 = addChild(graph, r);
+        TNode a = addChild(graph, r);
+        TNode l2 = addChild(graph, r);
+        TNode b = addChild(graph, r);
+        TNode l3 = addChild(graph, r);
+        TNode l4 = addChild(graph, r);
+        TNode a0 = addChild(graph, a);
+        TNode a1 = addChild(graph, a);
+        TNode b0 = addChild(graph, b);
+        TNode b1 = addChild(graph, b);
+        TNode b2 = addChild(graph, b);
+        process(graph);
+
+        assertEquals(Arrays.asList(b, a, l4, l3, l2, l1), r.getChildrenCopy());
+        assertEquals(Arrays.asList(a1, a0), a.getChildrenCopy());
+        assertEquals(Arrays.asList(b2, b1, b0), b.getChildrenCopy());
+
+        TNode[] positioned = { l1, l2, l3, l4, a, b };
+        for (int i = 0; i < positioned.length; i++) {
+            assertEquals(i, positioned[i].getIntProperty(InternalProperties.POSITION));
+        }
+
+        // the tree has been invalidated and reflects the new order
+        TTree tree = graph.getTree();
+        assertSame(b, tree.getNode(1));
+        assertSame(b2, tree.getNode(tree.getFirstChild(b.id)));
+    }
+
+    /**
+     * Checks that a path much deeper than the stack allows for recursion can be ordered.
+     */
+    @Test
+    public void deepPathIsOrdered() {
+        TGraph graph = createPath(DEEP_PATH_LENGTH);
+        process(graph);
+
+        TTree tree = graph.getTree();
+        assertEquals(DEEP_PATH_LENGTH, tree.size());
+        for (TNode node : graph.getNodes()) {
+            assertEquals(0, node.getIntProperty(InternalProperties.POSITION));
+        }
+    }
+
+    /**
+     * Computes the fan of all nodes and orders the given graph.
+     *
+     * @param graph
+     *            the graph
+     */
+    private static void process(final TGraph graph) {
+        new FanProcessor().process(graph, new BasicProgressMonitor());
+        new NodeOrderer().process(graph, new BasicProgressMonitor());
+    }
+
+}
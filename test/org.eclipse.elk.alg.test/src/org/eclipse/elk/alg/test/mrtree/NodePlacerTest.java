@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.mrtree;
+
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addChild;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addEdge;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addLeaves;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addNode;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addRoot;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.createGraph;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.createPath;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.placeNodes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.elk.alg.mrtree.graph.TGraph;
+import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.options.InternalProperties;
+import org.eclipse.elk.alg.mrtree.p3place.NodePlacer;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NodePlacer}. Expected coordinates are given per node in the order the nodes were
+ * created, with nodes of size 10 and a spacing of 20.
+ */
+public class NodePlacerTest {
+
+    /** a root with two leaves. */
+    private static final int[][] TWO_LEAVES = { { 15, 0 }, { 0, 30 }, { 30, 30 } };
+    /** a root with three children, the middle one having two leaves. */
+    private static final int[][] CENTERED_GRANDCHILDREN = {
+        { 30, 0 }, { 0, 30 }, { 30, 30 }, { 60, 30 }, { 15, 60 }, { 45, 60 } };
+    /** width of the wide child in {@link #MIXED_SIZES}. */
+    private static final double WIDE_WIDTH = 40;
+    /** height of the wide child in {@link #MIXED_SIZES}. */
+    private static final double WIDE_HEIGHT = 20;
+    /** number of leaves of the wide child in {@link #MIXED_SIZES}. */
+    private static final int WIDE_LEAVES = 3;
+    /** a root with a wide and tall first child with three leaves, and a second child. */
+    private static final int[][] MIXED_SIZES = {
+        { 53, 0 }, { 30, 35 }, { 75, 35 }, { 0, 70 }, { 30, 70 }, { 60, 70 } };
+
+    /** number of nodes of a path that would overflow the stack if placed recursively. */
+    private static final int DEEP_PATH_LENGTH = 100000;
+    /** number of children of the root of unbalanced trees. */
+    private static final int CHILDREN = 4;
+    /** number of leaves below the outer subtrees of unbalanced trees. */
+    private static final int OUTER_LEAVES = 5;
+
+    /**
+     * Checks the coordinates of a few small trees.
+     */
+    @Test
+    public void smallTreesHaveFixedCoordinates() {
+        TGraph graph = createGraph();
+        TNode root = addRoot(graph);
+        addLeaves(graph, root, 2);
+        placeNodes(graph);
+        assertCoordinates(TWO_LEAVES, graph);
+
+        graph = createGraph();
+        root = addRoot(graph);
+        addChild(graph, root);
+        TNode middle = addChild(graph, root);
+        addChild(graph, root);
+        addLeaves(graph, middle, 2);
+        placeNodes(graph);
+        assertCoordinates(CENTERED_GRANDCHILDREN, graph);
+
+        graph = createGraph();
+        root = addRoot(graph);
+        TNode wide = addNode(graph, WIDE_WIDTH, WIDE_HEIGHT);
+        addEdge(graph, root, wide);
+        addChild(graph, root);
+        addLeaves(graph, wide, WIDE_LEAVES);
+        placeNodes(graph);
+        assertCoordinates(MIXED_SIZES, graph);
+    }
+
+    /**
+     * Checks that small subtrees between two wide ones are spread evenly instead of being packed
+     * against one of them.
+     */
+    @Test
+    public void unbalancedTreeSpreadsSmallSubtreesEvenly() {
+        // the subtrees in between are leaves
+        TGraph graph = createGraph();
+        TNode root = addRoot(graph);
+        TNode[] children = addChildren(graph, root);
+        addLeaves(graph, children[0], OUTER_LEAVES);
+        addLeaves(graph, children[children.length - 1], OUTER_LEAVES);
+        placeNodes(graph);
+        assertEvenlySpaced(children);
+
+        // the subtrees in between have children, and the wide subtrees only touch a level further down
+        graph = createGraph();
+        root = addRoot(graph);
+        children = addChildren(graph, root);
+        addLeaves(graph, addChild(graph, children[0]), OUTER_LEAVES);
+        addLeaves(graph, addChild(graph, children[children.length - 1]), OUTER_LEAVES);
+        TNode[] grandchildren = new TNode[children.length];
+        for (int i = 1; i < children.length - 1; i++) {
+            grandchildren[i] = addChild(graph, children[i]);
+        }
+        placeNodes(graph);
+        assertEvenlySpaced(children);
+        for (int i = 1; i < children.length - 1; i++) {
+            assertEquals(x(children[i]), x(grandchildren[i]));
+        }
+    }
+
+    /**
+     * Checks that a path much deeper than the stack allows for recursion is placed in a straight line.
+     */
+    @Test
+    public void deepPathIsPlacedInLine() {
+        TGraph graph = createPath(DEEP_PATH_LENGTH);
+        placeNodes(graph);
+
+        List<TNode> nodes = graph.getNodes();
+        int levelDistance = (int) (TestTreeCreator.SIZE + TestTreeCreator.SPACING);
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(0, x(nodes.get(i)));
+            assertEquals(i * levelDistance, y(nodes.get(i)));
+        }
+    }
+
+    /**
+     * Adds {@link #CHILDREN} children to the given node.
+     *
+     * @param graph
+     *            the graph
+     * @param parent
+     *            the parent of the children
+     * @return the children from left to right
+     */
+    private static TNode[] addChildren(final TGraph graph, final TNode parent) {
+        TNode[] children = new TNode[CHILDREN];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = addChild(graph, parent);
+        }
+        return children;
+    }
+
+    /**
+     * Asserts that the given nodes are placed from left to right at equal distances.
+     *
+     * @param nodes
+     *            the nodes
+     */
+    private static void assertEvenlySpaced(final TNode[] nodes) {
+        int distance = x(nodes[1]) - x(nodes[0]);
+        assertTrue(distance > 0);
+        for (int i = 2; i < nodes.length; i++) {
+            assertEquals(distance, x(nodes[i]) - x(nodes[i - 1]));
+        }
+    }
+
+    /**
+     * Asserts that the nodes of the given graph have the expected coordinates.
+     *
+     * @param expected
+     *            the x and y coordinate of each node
+     * @param graph
+     *            the graph
+     */
+    private static void assertCoordinates(final int[][] expected, final TGraph graph) {
+        List<TNode> nodes = graph.getNodes();
+        assertEquals(expected.length, nodes.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(nodes.get(i).getLabel(), expected[i][0], x(nodes.get(i)));
+            assertEquals(nodes.get(i).getLabel(), expected[i][1], y(nodes.get(i)));
+        }
+    }
+
+    /**
+     * Returns the x coordinate of a placed node.
+     *
+     * @param node
+     *            a placed node
+     * @return the x coordinate of the node
+     */
+    private static int x(final TNode node) {
+        return node.getProperty(InternalProperties.XCOOR);
+    }
+
+    /**
+     * Returns the y coordinate of a placed node.
+     *
+     * @param node
+     *            a placed node
+     * @return the y coordinate of the node
+     */
+    private static int y(final TNode node) {
+        return node.getProperty(InternalProperties.YCOOR);
+    }
+
+}
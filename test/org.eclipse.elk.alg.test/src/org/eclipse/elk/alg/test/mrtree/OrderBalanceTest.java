@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.mrtree;
+
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addChild;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addRoot;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.createGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.eclipse.elk.alg.mrtree.graph.TGraph;
+import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.intermediate.FanProcessor;
+import org.eclipse.elk.alg.mrtree.options.MrTreeOptions;
+import org.eclipse.elk.alg.mrtree.options.OrderWeighting;
+import org.eclipse.elk.alg.mrtree.p2order.OrderBalance;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.junit.Test;
+
+/**
+ * Tests for {@link OrderBalance}.
+ */
+public class OrderBalanceTest {
+
+    /**
+     * Checks how leaves fill the gaps next to the inner children of a root with the children l1, a,
+     * l2, b, l3 and l4, where a has two and b has three leaves. The heaviest child b takes leaves from
+     * the back of the list alternately before and after it, and a is put after the leaf left over.
+     */
+    @Test
+    public void leavesFillGapsNextToInnerNodes() {
+        for (OrderWeighting weighting : OrderWeighting.values()) {
+            TGraph graph = createGraph();
+            graph.setProperty(MrTreeOptions.WEIGHTING, weighting);
+            TNode r = addRoot(graph);
+            TNode l1 = addChild(graph, r);
+            TNode a = addChild(graph, r);
+            TNode l2 = addChild(graph, r);
+            TNode b = addChild(graph, r);
+            TNode l3 = addChild(graph, r);
+            TNode l4 = addChild(graph, r);
+            TNode a0 = addChild(graph, a);
+            TNode a1 = addChild(graph, a);
+            addChild(graph, b);
+            addChild(graph, b);
+            addChild(graph, b);
+            process(graph);
+
+            assertEquals(weighting.toString(), Arrays.asList(l2, l4, b, l3, l1, a), r.getChildrenCopy());
+            assertEquals(weighting.toString(), Arrays.asList(a0, a1), a.getChildrenCopy());
+            assertSame(l2, graph.getTree().getNode(1));
+        }
+    }
+
+    /**
+     * Checks the order of the children of a root with the children l, p and q, where p has three
+     * leaves and q has two children with a leaf each. p has the larger fan, while q has more
+     * descendants. The heavier child is placed first, followed by the leaf l, and the other child is
+     * put in front of them. The leaves of p, being on the first level that is ordered, are
+     * alternately put at the front and at the back.
+     */
+    @Test
+    public void weightingDecidesOrder() {
+        for (OrderWeighting weighting : OrderWeighting.values()) {
+            TGraph graph = createGraph();
+            graph.setProperty(MrTreeOptions.WEIGHTING, weighting);
+            TNode r = addRoot(graph);
+            TNode l = addChild(graph, r);
+            TNode p = addChild(graph, r);
+            TNode q = addChild(graph, r);
+            TNode p0 = addChild(graph, p);
+            TNode p1 = addChild(graph, p);
+            TNode p2 = addChild(graph, p);
+            addChild(graph, addChild(graph, q));
+            addChild(graph, addChild(graph, q));
+            process(graph);
+
+            if (weighting == OrderWeighting.FAN) {
+                assertEquals(Arrays.asList(q, p, l), r.getChildrenCopy());
+            } else {
+                assertEquals(Arrays.asList(p, q, l), r.getChildrenCopy());
+            }
+            assertEquals(weighting.toString(), Arrays.asList(p2, p0, p1), p.getChildrenCopy());
+        }
+    }
+
+    /**
+     * Computes the fan of all nodes and balances the given graph.
+     *
+     * @param graph
+     *            the graph
+     */
+    private static void process(final TGraph graph) {
+        new FanProcessor().process(graph, new BasicProgressMonitor());
+        new OrderBalance().process(graph, new BasicProgressMonitor());
+    }
+
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.mrtree;
+
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addEdge;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addNode;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.addRoot;
+import static org.eclipse.elk.alg.test.mrtree.TestTreeCreator.createGraph;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+
+import org.eclipse.elk.alg.mrtree.graph.TGraph;
+import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.graph.TTree;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TTree}. Most tests use the tree
+ *
+ * <pre>
+ *        r
+ *      /   \
+ *     a     b
+ *    / \    |
+ *   c   d   e
+ *       |
+ *       f
+ * </pre>
+ *
+ * whose nodes are created bottom-up, followed by the nodes u and v with an edge between them, which
+ * can't be reached from the root.
+ */
+public class TTreeTest {
+
+    /** the parent of each node in breadth-first order. */
+    private static final int[] PARENTS = { TTree.NONE, 0, 0, 1, 1, 2, 4 };
+    /** the level of each node in breadth-first order. */
+    private static final int[] LEVELS = { 0, 1, 1, 2, 2, 2, 3 };
+    /** the first node of each level, followed by the size of the tree. */
+    private static final int[] LEVEL_STARTS = { 0, 1, 3, 6, 7 };
+    /** the nodes in preorder: r a c d f b e. */
+    private static final int[] PREORDER = { 0, 1, 3, 4, 6, 2, 5 };
+    /** the nodes in postorder: c f d a e b r. */
+    private static final int[] POSTORDER = { 3, 6, 4, 1, 5, 2, 0 };
+
+    private TGraph graph;
+    private TNode r;
+    private TNode a;
+    private TNode b;
+    private TNode c;
+    private TNode d;
+    private TNode e;
+    private TNode f;
+    private TNode u;
+    private TNode v;
+
+    /**
+     * Creates the tree, adding the nodes in an order different from their breadth-first order.
+     */
+    @Before
+    public void createTree() {
+        graph = createGraph();
+        f = addNode(graph);
+        e = addNode(graph);
+        d = addNode(graph);
+        c = addNode(graph);
+        b = addNode(graph);
+        a = addNode(graph);
+        u = addNode(graph);
+        v = addNode(graph);
+        r = addRoot(graph);
+        addEdge(graph, r, a);
+        addEdge(graph, r, b);
+        addEdge(graph, a, c);
+        addEdge(graph, a, d);
+        addEdge(graph, b, e);
+        addEdge(graph, d, f);
+        addEdge(graph, u, v);
+    }
+
+    /**
+     * Checks that the nodes are numbered level by level from left to right.
+     */
+    @Test
+    public void nodesAreNumberedInBreadthFirstOrder() {
+        TTree tree = graph.getTree();
+        TNode[] expected = { r, a, b, c, d, e, f };
+        assertEquals(expected.length, tree.size());
+        assertSame(r, tree.getRoot());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(i, expected[i].id);
+            assertSame(expected[i], tree.getNode(i));
+            assertEquals(PARENTS[i], tree.getParent(i));
+            assertEquals(LEVELS[i], tree.getLevel(i));
+        }
+    }
+
+    /**
+     * Checks that the nodes of each level and the children of each node are numbered consecutively.
+     */
+    @Test
+    public void levelsAndChildrenAreContiguous() {
+        TTree tree = graph.getTree();
+        assertEquals(LEVEL_STARTS.length - 1, tree.getLevelCount());
+        for (int l = 0; l < tree.getLevelCount(); l++) {
+            assertEquals(LEVEL_STARTS[l], tree.getLevelStart(l));
+            assertEquals(LEVEL_STARTS[l + 1], tree.getLevelEnd(l));
+        }
+
+        for (int p = 0; p < tree.size(); p++) {
+            int count = 0;
+            for (int w = 0; w < tree.size(); w++) {
+                if (tree.getParent(w) == p) {
+                    assertEquals(tree.getFirstChild(p) + count, w);
+                    assertEquals(count, tree.getSiblingIndex(w));
+                    assertEquals(count == 0 ? TTree.NONE : w - 1, tree.getLeftSibling(w));
+                    count++;
+                }
+            }
+            assertEquals(count, tree.getChildCount(p));
+            if (count > 0) {
+                assertEquals(tree.getFirstChild(p) + count - 1, tree.getLastChild(p));
+            }
+        }
+    }
+
+    /**
+     * Checks both depth-first orders.
+     */
+    @Test
+    public void traversalOrders() {
+        TTree tree = graph.getTree();
+        assertArrayEquals(PREORDER, tree.getPreorder());
+        assertArrayEquals(POSTORDER, tree.getPostorder());
+    }
+
+    /**
+     * Checks that unreachable nodes are numbered after the tree and left out of it.
+     */
+    @Test
+    public void unreachableNodesComeLast() {
+        TTree tree = graph.getTree();
+        assertEquals(tree.size(), u.id);
+        assertEquals(tree.size() + 1, v.id);
+        assertSame(u, tree.getNode(u.id));
+        assertSame(v, tree.getNode(v.id));
+        assertEquals(tree.size(), tree.getLevelEnd(tree.getLevelCount() - 1));
+        assertEquals(tree.size(), tree.getPreorder().length);
+        assertEquals(tree.size(), tree.getPostorder().length);
+    }
+
+    /**
+     * Checks that the tree is kept until it is invalidated, and then reflects the new order of edges.
+     */
+    @Test
+    public void invalidateTreeAfterReordering() {
+        TTree tree = graph.getTree();
+        Collections.reverse(r.getOutgoingEdges());
+        assertSame(tree, graph.getTree());
+        assertEquals(1, a.id);
+
+        graph.invalidateTree();
+        TTree reordered = graph.getTree();
+        assertNotSame(tree, reordered);
+        TNode[] expected = { r, b, a, e, c, d, f };
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i], reordered.getNode(i));
+        }
+        assertEquals(a.id, reordered.getParent(c.id));
+        assertEquals(b.id, reordered.getParent(e.id));
+    }
+
+    /**
+     * Checks that a node reachable through several edges is a child of the first parent found in
+     * breadth-first order only.
+     */
+    @Test
+    public void dagKeepsFirstParent() {
+        TGraph dag = createGraph();
+        TNode root = addRoot(dag);
+        TNode left = addNode(dag);
+        TNode right = addNode(dag);
+        TNode bottom = addNode(dag);
+        addEdge(dag, root, left);
+        addEdge(dag, root, right);
+        addEdge(dag, right, bottom);
+        addEdge(dag, left, bottom);
+
+        TTree tree = dag.getTree();
+        assertEquals(dag.getNodes().size(), tree.size());
+        assertEquals(left.id, tree.getParent(bottom.id));
+        assertEquals(1, tree.getChildCount(left.id));
+        assertEquals(0, tree.getChildCount(right.id));
+        assertEquals(2, tree.getLevel(bottom.id));
+    }
+
+}
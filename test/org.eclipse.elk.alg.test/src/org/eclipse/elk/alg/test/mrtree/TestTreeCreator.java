@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.alg.test.mrtree;
+
+import org.eclipse.elk.alg.mrtree.graph.TEdge;
+import org.eclipse.elk.alg.mrtree.graph.TGraph;
+import org.eclipse.elk.alg.mrtree.graph.TNode;
+import org.eclipse.elk.alg.mrtree.intermediate.LevelHeightProcessor;
+import org.eclipse.elk.alg.mrtree.options.InternalProperties;
+import org.eclipse.elk.alg.mrtree.options.MrTreeOptions;
+import org.eclipse.elk.alg.mrtree.p3place.NodePlacer;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+
+/**
+ * Creates small {@link TGraph}s for the tests of the tree layout phases. Nodes are numbered in the
+ * order they are created and edges are appended to the edge lists of their end points, just like the
+ * graph importer does.
+ */
+public final class TestTreeCreator {
+
+    /** the spacing between nodes set on all created graphs. */
+    public static final double SPACING = 20;
+    /** the width and height of nodes created without a size. */
+    public static final double SIZE = 10;
+
+    /**
+     * Hidden constructor.
+     */
+    private TestTreeCreator() {
+    }
+
+    /**
+     * Creates an empty graph with a node spacing of {@link #SPACING}.
+     *
+     * @return the graph
+     */
+    public static TGraph createGraph() {
+        TGraph graph = new TGraph();
+        graph.setProperty(MrTreeOptions.SPACING_NODE_NODE, SPACING);
+        return graph;
+    }
+
+    /**
+     * Adds a node of size {@link #SIZE} to the graph.
+     *
+     * @param graph
+     *            the graph
+     * @return the new node
+     */
+    public static TNode addNode(final TGraph graph) {
+        return addNode(graph, SIZE, SIZE);
+    }
+
+    /**
+     * Adds a node of the given size to the graph.
+     *
+     * @param graph
+     *            the graph
+     * @param width
+     *            the width of the node
+     * @param height
+     *            the height of the node
+     * @return the new node
+     */
+    public static TNode addNode(final TGraph graph, final double width, final double height) {
+        TNode node = new TNode(graph.getNodes().size(), graph, "n" + graph.getNodes().size());
+        node.getSize().x = width;
+        node.getSize().y = height;
+        graph.getNodes().add(node);
+        graph.invalidateTree();
+        return node;
+    }
+
+    /**
+     * Adds the root of a tree to the graph.
+     *
+     * @param graph
+     *            the graph
+     * @return the new root
+     */
+    public static TNode addRoot(final TGraph graph) {
+        TNode root = addNode(graph);
+        root.setProperty(InternalProperties.ROOT, true);
+        return root;
+    }
+
+    /**
+     * Adds a node of size {@link #SIZE} as the last child of the given node.
+     *
+     * @param graph
+     *            the graph
+     * @param parent
+     *            the parent of the new node
+     * @return the new node
+     */
+    public static TNode addChild(final TGraph graph, final TNode parent) {
+        TNode child = addNode(graph);
+        addEdge(graph, parent, child);
+        return child;
+    }
+
+    /**
+     * Adds the given number of leaves of size {@link #SIZE} as the last children of the given node.
+     *
+     * @param graph
+     *            the graph
+     * @param parent
+     *            the parent of the new nodes
+     * @param count
+     *            the number of leaves
+     */
+    public static void addLeaves(final TGraph graph, final TNode parent, final int count) {
+        for (int i = 0; i < count; i++) {
+            addChild(graph, parent);
+        }
+    }
+
+    /**
+     * Adds an edge between the given nodes, which is the last outgoing edge of the source.
+     *
+     * @param graph
+     *            the graph
+     * @param source
+     *            the source of the edge
+     * @param target
+     *            the target of the edge
+     * @return the new edge
+     */
+    public static TEdge addEdge(final TGraph graph, final TNode source, final TNode target) {
+        TEdge edge = new TEdge(source, target);
+        graph.getEdges().add(edge);
+        source.getOutgoingEdges().add(edge);
+        target.getIncomingEdges().add(edge);
+        graph.invalidateTree();
+        return edge;
+    }
+
+    /**
+     * Creates a path of the given number of nodes, starting at the root.
+     *
+     * @param length
+     *            the number of nodes
+     * @return the graph
+     */
+    public static TGraph createPath(final int length) {
+        TGraph graph = createGraph();
+        TNode node = addRoot(graph);
+        for (int i = 1; i < length; i++) {
+            node = addChild(graph, node);
+        }
+        return graph;
+    }
+
+    /**
+     * Determines the level heights and places the nodes of the given graph, which leaves the
+     * coordinates in the {@link InternalProperties#XCOOR} and {@link InternalProperties#YCOOR}
+     * properties of the nodes.
+     *
+     * @param graph
+     *            the graph
+     */
+    public static void placeNodes(final TGraph graph) {
+        new LevelHeightProcessor().process(graph, new BasicProgressMonitor());
+        new NodePlacer().process(graph, new BasicProgressMonitor());
+    }
+
+}
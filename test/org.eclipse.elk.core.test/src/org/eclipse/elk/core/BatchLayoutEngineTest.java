@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for {@link BatchLayoutEngine}.
+ */
+public class BatchLayoutEngineTest {
+    
+    /** the number of graphs laid out in one batch. */
+    private static final int GRAPHS = 50;
+    
+    /** the pool the graphs are laid out on. */
+    private ForkJoinPool pool;
+    
+    /**
+     * Creates the pool.
+     */
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+    
+    /**
+     * Shuts the pool down.
+     */
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Test that all graphs of a batch are laid out, including their compound children.
+     */
+    @Test
+    public void testBatch() throws Exception {
+        List<ElkNode> graphs = Lists.newArrayList();
+        for (int i = 0; i < GRAPHS; i++) {
+            graphs.add(createGraph());
+        }
+        
+        List<CompletableFuture<ElkNode>> futures =
+                new BatchLayoutEngine(pool).submitAll(graphs, null, 0, TimeUnit.SECONDS);
+        assertEquals(GRAPHS, futures.size());
+        for (int i = 0; i < GRAPHS; i++) {
+            ElkNode graph = futures.get(i).get(1, TimeUnit.MINUTES);
+            assertSame(graphs.get(i), graph);
+            assertTrue(graph.getWidth() > 0);
+            for (ElkNode compound : graph.getChildren()) {
+                assertTrue(compound.getWidth() > 0);
+                double right = 0;
+                for (ElkNode node : compound.getChildren()) {
+                    right = Math.max(right, node.getX() + node.getWidth());
+                }
+                assertTrue(right > 0);
+            }
+        }
+    }
+    
+    /**
+     * Test that a graph is not laid out if its cancel indicator reports cancelation.
+     */
+    @Test
+    public void testCancelation() throws Exception {
+        ElkNode graph = createGraph();
+        CompletableFuture<ElkNode> future =
+                new BatchLayoutEngine(pool).submit(graph, () -> true, 0, TimeUnit.SECONDS);
+        
+        try {
+            future.get(1, TimeUnit.MINUTES);
+            fail("Layout should have been canceled.");
+        } catch (CancellationException exception) {
+            assertTrue(future.isCancelled());
+        }
+        assertEquals(0, graph.getWidth(), 0);
+    }
+    
+    /**
+     * Test that a layout that takes longer than its timeout completes with a {@link TimeoutException}.
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        CompletableFuture<ElkNode> future =
+                new BatchLayoutEngine(pool).submit(createGraph(), null, 1, TimeUnit.NANOSECONDS);
+        
+        try {
+            future.get(1, TimeUnit.MINUTES);
+            fail("Layout should have timed out.");
+        } catch (ExecutionException exception) {
+            assertTrue(exception.getCause() instanceof TimeoutException);
+        }
+    }
+    
+    /**
+     * Test that a layout that is canceled only after it has finished still completes normally.
+     */
+    @Test
+    public void testCancelationAfterLayout() throws Exception {
+        AtomicBoolean finished = new AtomicBoolean();
+        RecursiveGraphLayoutEngine engine = new RecursiveGraphLayoutEngine(pool) {
+            @Override
+            public void layout(final ElkNode layoutGraph, final IElkProgressMonitor monitor) {
+                super.layout(layoutGraph, monitor);
+                finished.set(true);
+            }
+        };
+        ElkNode graph = createGraph();
+        CompletableFuture<ElkNode> future =
+                new BatchLayoutEngine(engine).submit(graph, finished::get, 0, TimeUnit.SECONDS);
+        
+        assertSame(graph, future.get(1, TimeUnit.MINUTES));
+        assertTrue(graph.getWidth() > 0);
+    }
+    
+    /**
+     * Test that an error thrown during layout completes the future exceptionally.
+     */
+    @Test
+    public void testError() throws Exception {
+        RecursiveGraphLayoutEngine engine = new RecursiveGraphLayoutEngine(pool) {
+            @Override
+            public void layout(final ElkNode layoutGraph, final IElkProgressMonitor monitor) {
+                throw new AssertionError("layout failed");
+            }
+        };
+        CompletableFuture<ElkNode> future = new BatchLayoutEngine(engine).submit(createGraph());
+        
+        try {
+            future.get(1, TimeUnit.MINUTES);
+            fail("Layout should have failed.");
+        } catch (ExecutionException exception) {
+            assertTrue(exception.getCause() instanceof AssertionError);
+        }
+    }
+    
+    /**
+     * Test that a graph with an unknown layout algorithm is rejected right away if there is no default
+     * algorithm to fall back to.
+     */
+    @Test
+    public void testUnknownAlgorithm() throws Exception {
+        ElkNode graph = createGraph();
+        graph.setProperty(CoreOptions.ALGORITHM, "org.eclipse.elk.doesNotExist");
+        RecursiveGraphLayoutEngine engine = new RecursiveGraphLayoutEngine(pool) {
+            @Override
+            public String getDefaultLayoutAlgorithmID() {
+                return null;
+            }
+        };
+        CompletableFuture<ElkNode> future = new BatchLayoutEngine(engine).submit(graph);
+        
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            fail("Layout should have failed.");
+        } catch (ExecutionException exception) {
+            assertTrue(exception.getCause() instanceof UnsupportedConfigurationException);
+        }
+    }
+
+    /**
+     * Creates a graph with a few compound children, each with some connected nodes.
+     */
+    private ElkNode createGraph() {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        graph.setProperty(CoreOptions.ALGORITHM, "org.eclipse.elk.box");
+        for (int i = 0; i < 3; i++) {
+            ElkNode compound = ElkGraphUtil.createNode(graph);
+            compound.setProperty(CoreOptions.ALGORITHM, "org.eclipse.elk.box");
+            ElkNode previous = null;
+            for (int j = 0; j < 5; j++) {
+                ElkNode node = ElkGraphUtil.createNode(compound);
+                node.setDimensions(20 + j, 20);
+                if (previous != null) {
+                    ElkGraphUtil.createSimpleEdge(previous, node);
+                }
+                previous = node;
+            }
+        }
+        return graph;
+    }
+
+}
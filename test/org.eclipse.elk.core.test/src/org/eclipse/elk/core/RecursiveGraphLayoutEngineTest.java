@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core;
+
+import static org.junit.Assert.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.elk.core.data.LayoutAlgorithmData;
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.util.AlgorithmFactory;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.properties.GraphFeature;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for the parallel layout of sibling subgraphs in {@link RecursiveGraphLayoutEngine}.
+ */
+public class RecursiveGraphLayoutEngineTest {
+
+    /** identifier of the layout algorithm that always fails. */
+    private static final String FAILING_ALGORITHM = "test.failing";
+
+    /** the pool sibling subgraphs are laid out on. */
+    private ForkJoinPool pool;
+
+    /**
+     * Creates the pool.
+     */
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    /**
+     * Shuts the pool down.
+     */
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Test that laying out sibling subgraphs in parallel yields exactly the sequential layout.
+     */
+    @Test
+    public void testParallelEqualsSequential() {
+        ElkNode sequential = createGraph(4, 3);
+        ElkNode parallel = createGraph(4, 3);
+
+        new RecursiveGraphLayoutEngine().layout(sequential, new BasicProgressMonitor());
+        new RecursiveGraphLayoutEngine(pool).layout(parallel, new BasicProgressMonitor());
+
+        List<Double> sequentialCoordinates = coordinates(sequential, Lists.newArrayList());
+        assertTrue(sequential.getWidth() > 0);
+        assertEquals(sequentialCoordinates, coordinates(parallel, Lists.newArrayList()));
+    }
+
+    /**
+     * Test that the failure of one subgraph is rethrown after the other subgraphs have been laid out.
+     */
+    @Test
+    public void testFailingSubgraph() {
+        ElkNode graph = createGraph(4, 1);
+        ElkNode failing = graph.getChildren().get(2);
+        failing.setProperty(CoreOptions.ALGORITHM, FAILING_ALGORITHM);
+
+        try {
+            new FailingLayoutEngine(pool).layout(graph, new BasicProgressMonitor());
+            fail("Layout should have failed.");
+        } catch (IllegalStateException exception) {
+            // the fork-join pool may wrap the exception into one of the same type
+            Throwable cause = exception;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            assertEquals(FAILING_ALGORITHM, cause.getMessage());
+        }
+        for (ElkNode compound : graph.getChildren()) {
+            if (compound != failing) {
+                assertTrue(compound.getWidth() > 0);
+            }
+        }
+        assertEquals(0, graph.getWidth(), 0);
+    }
+
+    /**
+     * Test that every subgraph reports to a sub-task of the progress monitor, including the sub-tasks of
+     * its own layout algorithms.
+     */
+    @Test
+    public void testSubgraphProgress() {
+        ElkNode graph = createGraph(3, 2);
+        BasicProgressMonitor monitor = new BasicProgressMonitor();
+        new RecursiveGraphLayoutEngine(pool).layout(graph, monitor);
+
+        List<IElkProgressMonitor> subgraphMonitors = Lists.newArrayList();
+        for (IElkProgressMonitor subMonitor : monitor.getSubMonitors()) {
+            if ("Subgraph Layout".equals(subMonitor.getTaskName())) {
+                subgraphMonitors.add(subMonitor);
+            }
+        }
+        assertEquals(3, subgraphMonitors.size());
+        for (IElkProgressMonitor subgraphMonitor : subgraphMonitors) {
+            assertFalse(subgraphMonitor.isRunning());
+            assertFalse(subgraphMonitor.getSubMonitors().isEmpty());
+        }
+        assertFalse(monitor.isRunning());
+    }
+
+    /**
+     * Test that subgraphs are not laid out once the progress monitor reports cancelation, even if their
+     * sub-tasks do not pass cancelation on.
+     */
+    @Test
+    public void testCancelation() {
+        ElkNode graph = createGraph(3, 2);
+        BasicProgressMonitor monitor = new BasicProgressMonitor() {
+            @Override
+            public boolean isCanceled() {
+                // cancel as soon as the subgraphs have their sub-tasks
+                return !getSubMonitors().isEmpty();
+            }
+        };
+        new RecursiveGraphLayoutEngine(pool).layout(graph, monitor);
+
+        assertEquals(3, monitor.getSubMonitors().size());
+        for (ElkNode compound : graph.getChildren()) {
+            assertEquals(0, compound.getWidth(), 0);
+            for (ElkNode subcompound : compound.getChildren()) {
+                assertEquals(0, subcompound.getWidth(), 0);
+            }
+        }
+        assertEquals(0, graph.getWidth(), 0);
+    }
+
+    /**
+     * Creates a graph with the given number of compound children, each of which has the given number of
+     * compound children in turn, with some connected nodes on the lowest level.
+     */
+    private ElkNode createGraph(final int compounds, final int subcompounds) {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        graph.setProperty(CoreOptions.ALGORITHM, "org.eclipse.elk.box");
+        for (int i = 0; i < compounds; i++) {
+            ElkNode compound = ElkGraphUtil.createNode(graph);
+            compound.setProperty(CoreOptions.ALGORITHM, "org.eclipse.elk.box");
+            for (int j = 0; j < subcompounds; j++) {
+                ElkNode subcompound = ElkGraphUtil.createNode(compound);
+                subcompound.setProperty(CoreOptions.ALGORITHM, "org.eclipse.elk.random");
+                subcompound.setProperty(CoreOptions.RANDOM_SEED, i * subcompounds + j + 1);
+                ElkNode previous = null;
+                for (int k = 0; k < 6; k++) {
+                    ElkNode node = ElkGraphUtil.createNode(subcompound);
+                    node.setDimensions(20 + k, 20 + j);
+                    if (previous != null) {
+                        ElkGraphUtil.createSimpleEdge(previous, node);
+                    }
+                    previous = node;
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Collects the coordinates of all nodes and edges of the given graph in a fixed order.
+     */
+    private List<Double> coordinates(final ElkNode graph, final List<Double> result) {
+        result.add(graph.getX());
+        result.add(graph.getY());
+        result.add(graph.getWidth());
+        result.add(graph.getHeight());
+        for (ElkEdge edge : graph.getContainedEdges()) {
+            for (ElkEdgeSection section : edge.getSections()) {
+                result.add(section.getStartX());
+                result.add(section.getStartY());
+                result.add(section.getEndX());
+                result.add(section.getEndY());
+            }
+        }
+        for (ElkNode child : graph.getChildren()) {
+            coordinates(child, result);
+        }
+        return result;
+    }
+
+    /**
+     * Layout engine that knows an additional algorithm which always fails.
+     */
+    private static final class FailingLayoutEngine extends RecursiveGraphLayoutEngine {
+
+        /** the data of the failing algorithm. */
+        private final LayoutAlgorithmData failingAlgorithm = new LayoutAlgorithmData(FAILING_ALGORITHM,
+                FAILING_ALGORITHM, "", new AlgorithmFactory(FailingLayoutProvider.class, ""), null, null, null,
+                EnumSet.noneOf(GraphFeature.class));
+
+        FailingLayoutEngine(final ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        protected LayoutAlgorithmData getAlgorithm(final ElkNode layoutNode) {
+            if (FAILING_ALGORITHM.equals(layoutNode.getProperty(CoreOptions.ALGORITHM))) {
+                return failingAlgorithm;
+            }
+            return super.getAlgorithm(layoutNode);
+        }
+    }
+
+    /**
+     * Layout provider that always fails.
+     */
+    public static final class FailingLayoutProvider extends AbstractLayoutProvider {
+
+        @Override
+        public void layout(final ElkNode layoutGraph, final IElkProgressMonitor progressMonitor) {
+            throw new IllegalStateException(FAILING_ALGORITHM);
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.eclipse.elk.core.RecursiveGraphLayoutEngine;
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.graph.ElkBendPoint;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkShape;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for {@link LayoutCache}. The graphs are laid out with the randomizer without a random seed, so
+ * a layout algorithm that is run again produces a different layout.
+ */
+public class LayoutCacheTest {
+    
+    /** the number of compound children of the test graph. */
+    private static final int COMPOUND_CHILDREN = 3;
+
+    /**
+     * Test that an identical graph is given the cached layout without running the layout algorithm.
+     */
+    @Test
+    public void testIdenticalGraph() {
+        LayoutCache cache = new LayoutCache();
+        RecursiveGraphLayoutEngine engine = new RecursiveGraphLayoutEngine(null, cache);
+
+        ElkNode first = createGraph();
+        engine.layout(first, new BasicProgressMonitor());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(COMPOUND_CHILDREN + 1, cache.getMissCount());
+
+        ElkNode second = createGraph();
+        engine.layout(second, new BasicProgressMonitor());
+        assertEquals(COMPOUND_CHILDREN + 1, cache.getHitCount());
+        assertEquals(coordinates(first), coordinates(second));
+    }
+
+    /**
+     * Test that the unchanged levels of a modified graph are given their cached layout.
+     */
+    @Test
+    public void testModifiedGraph() {
+        LayoutCache cache = new LayoutCache();
+        RecursiveGraphLayoutEngine engine = new RecursiveGraphLayoutEngine(null, cache);
+        engine.layout(createGraph(), new BasicProgressMonitor());
+
+        // changing a node inside the first compound child changes that level and, through the size of
+        // the compound child, the top level
+        ElkNode modified = createGraph();
+        modified.getChildren().get(0).getChildren().get(0).setDimensions(50, 50);
+        engine.layout(modified, new BasicProgressMonitor());
+        assertEquals(COMPOUND_CHILDREN - 1, cache.getHitCount());
+        assertEquals(COMPOUND_CHILDREN + 1 + 2, cache.getMissCount());
+        
+        // a different layout option changes the level as well
+        ElkNode configured = createGraph();
+        configured.getChildren().get(1).setProperty(CoreOptions.SPACING_NODE_NODE, 42.0);
+        cache.clear();
+        engine.layout(createGraph(), new BasicProgressMonitor());
+        engine.layout(configured, new BasicProgressMonitor());
+        assertEquals(COMPOUND_CHILDREN - 1, cache.getHitCount());
+    }
+
+    /**
+     * Test that the least recently used layouts are evicted once a bound is exceeded.
+     */
+    @Test
+    public void testLruStorage() {
+        CachedLayout layout = new CachedLayout(new double[10], new int[0]);
+
+        LruLayoutCacheStorage byCount = new LruLayoutCacheStorage(2, 1000);
+        byCount.put("a", layout);
+        byCount.put("b", layout);
+        byCount.get("a");
+        byCount.put("c", layout);
+        assertNotNull(byCount.get("a"));
+        assertNull(byCount.get("b"));
+        assertNotNull(byCount.get("c"));
+
+        LruLayoutCacheStorage byWeight = new LruLayoutCacheStorage(100, 25);
+        byWeight.put("a", layout);
+        byWeight.put("b", layout);
+        byWeight.put("c", layout);
+        assertEquals(2, byWeight.size());
+        assertEquals(20, byWeight.getWeight());
+        assertNull(byWeight.get("a"));
+        
+        byWeight.put("d", new CachedLayout(new double[30], new int[0]));
+        assertNull(byWeight.get("d"));
+        assertEquals(2, byWeight.size());
+    }
+
+    /**
+     * Creates a graph with a few compound children, each with some nodes and edges, and edges between
+     * the compound children.
+     */
+    private ElkNode createGraph() {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        graph.setProperty(CoreOptions.ALGORITHM, "org.eclipse.elk.random");
+        List<ElkNode> compounds = Lists.newArrayList();
+        for (int i = 0; i < COMPOUND_CHILDREN; i++) {
+            ElkNode compound = ElkGraphUtil.createNode(graph);
+            compound.setProperty(CoreOptions.ALGORITHM, "org.eclipse.elk.random");
+            ElkGraphUtil.createLabel("compound " + i, compound).setDimensions(40, 10);
+            List<ElkNode> nodes = Lists.newArrayList();
+            for (int j = 0; j < 4; j++) {
+                ElkNode node = ElkGraphUtil.createNode(compound);
+                node.setDimensions(20 + j, 20);
+                nodes.add(node);
+            }
+            for (int j = 1; j < nodes.size(); j++) {
+                ElkGraphUtil.createSimpleEdge(nodes.get(j - 1), nodes.get(j));
+            }
+            compounds.add(compound);
+        }
+        for (int i = 1; i < compounds.size(); i++) {
+            ElkGraphUtil.createSimpleEdge(compounds.get(i - 1), compounds.get(i));
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the coordinates and sizes of all nodes and the edge sections of all edges.
+     */
+    private List<Double> coordinates(final ElkNode graph) {
+        List<Double> result = Lists.newArrayList();
+        addShape(result, graph);
+        for (ElkNode compound : graph.getChildren()) {
+            addShape(result, compound);
+            for (ElkNode node : compound.getChildren()) {
+                addShape(result, node);
+            }
+            addEdges(result, compound);
+        }
+        addEdges(result, graph);
+        return result;
+    }
+    
+    private void addShape(final List<Double> result, final ElkShape shape) {
+        result.add(shape.getX());
+        result.add(shape.getY());
+        result.add(shape.getWidth());
+        result.add(shape.getHeight());
+    }
+    
+    private void addEdges(final List<Double> result, final ElkNode parent) {
+        for (ElkEdge edge : parent.getContainedEdges()) {
+            assertEquals(1, edge.getSections().size());
+            ElkEdgeSection section = edge.getSections().get(0);
+            result.add(section.getStartX());
+            result.add(section.getStartY());
+            for (ElkBendPoint bendPoint : section.getBendPoints()) {
+                result.add(bendPoint.getX());
+                result.add(bendPoint.getY());
+            }
+            result.add(section.getEndX());
+            result.add(section.getEndY());
+        }
+    }
+
+}
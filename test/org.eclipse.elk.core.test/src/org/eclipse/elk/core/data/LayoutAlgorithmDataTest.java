@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.data;
+
+import static org.junit.Assert.*;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.eclipse.elk.core.AbstractLayoutProvider;
+import org.eclipse.elk.core.util.ConcurrentInstancePool;
+import org.eclipse.elk.core.util.IFactory;
+import org.eclipse.elk.core.util.IInstancePool;
+import org.eclipse.elk.core.util.RandomLayoutProvider;
+import org.eclipse.elk.graph.properties.GraphFeature;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Tests for the layout provider pools of {@link LayoutAlgorithmData}.
+ */
+public class LayoutAlgorithmDataTest {
+
+    /**
+     * Factory that keeps track of the providers that are alive.
+     */
+    private static final class TrackingFactory implements IFactory<AbstractLayoutProvider> {
+        private final Set<AbstractLayoutProvider> alive = Sets.newConcurrentHashSet();
+
+        @Override
+        public AbstractLayoutProvider create() {
+            AbstractLayoutProvider provider = new RandomLayoutProvider();
+            alive.add(provider);
+            return provider;
+        }
+
+        @Override
+        public void destroy(final AbstractLayoutProvider obj) {
+            alive.remove(obj);
+        }
+    }
+
+    /**
+     * Test that replacing the provider pool disposes the instances of the old pool and that instances in
+     * use are released to the new pool.
+     */
+    @Test
+    public void testReplacePool() {
+        TrackingFactory factory = new TrackingFactory();
+        LayoutAlgorithmData data = new LayoutAlgorithmData("test.algorithm", "Test", "", factory, null, null,
+                null, EnumSet.noneOf(GraphFeature.class));
+        IInstancePool<AbstractLayoutProvider> pool = data.getProviderPool();
+
+        AbstractLayoutProvider idle = pool.fetch();
+        AbstractLayoutProvider inUse = pool.fetch();
+        pool.release(idle);
+
+        ConcurrentInstancePool<AbstractLayoutProvider> newPool =
+                new ConcurrentInstancePool<AbstractLayoutProvider>(data.getInstanceFactory());
+        data.setProviderPool(newPool);
+        assertFalse(factory.alive.contains(idle));
+        assertTrue(factory.alive.contains(inUse));
+
+        pool.release(inUse);
+        assertEquals(1, newPool.size());
+        assertSame(inUse, data.getProviderPool().fetch());
+
+        data.getProviderPool().release(inUse);
+        data.getProviderPool().clear();
+        assertTrue(factory.alive.isEmpty());
+    }
+
+}
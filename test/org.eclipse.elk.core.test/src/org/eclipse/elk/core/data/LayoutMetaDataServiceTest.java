@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.data;
+
+import static org.junit.Assert.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.elk.core.util.AlgorithmFactory;
+import org.eclipse.elk.core.util.RandomLayoutProvider;
+import org.eclipse.elk.graph.properties.GraphFeature;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for the lookups of {@link LayoutMetaDataService}. Each test uses a service of its own, so the
+ * registered test data does not affect the global instance.
+ */
+public class LayoutMetaDataServiceTest {
+
+    /**
+     * Test that algorithms are found by every unambiguous suffix of their identifier.
+     */
+    @Test
+    public void testAlgorithmSuffixes() {
+        LayoutMetaDataService service = new LayoutMetaDataService();
+        service.registerLayoutMetaDataProviders(registry -> {
+            registry.register(algorithm("test.one.layered"));
+            registry.register(algorithm("test.two.layered"));
+            registry.register(algorithm("test.two.tree"));
+        });
+        
+        assertEquals("test.one.layered", service.getAlgorithmDataBySuffix("one.layered").getId());
+        assertEquals("test.two.tree", service.getAlgorithmDataBySuffix("tree").getId());
+        assertEquals("test.two.layered", service.getAlgorithmDataBySuffix("test.two.layered").getId());
+        assertNull(service.getAlgorithmDataBySuffix("layered"));
+        assertNull(service.getAlgorithmDataBySuffix("ayered"));
+        assertNull(service.getAlgorithmDataBySuffix(""));
+        assertNull(service.getAlgorithmDataBySuffix(null));
+        
+        // a later registration makes a previously unique suffix ambiguous
+        service.registerLayoutMetaDataProviders(registry -> registry.register(algorithm("test.three.tree")));
+        assertNull(service.getAlgorithmDataBySuffix("tree"));
+        assertEquals("test.three.tree", service.getAlgorithmDataBySuffix("three.tree").getId());
+        assertEquals(4, service.getAlgorithmData().size());
+    }
+
+    /**
+     * Test that options are found by suffixes of their identifiers and, if no identifier has a suffix, by
+     * suffixes of their legacy identifiers.
+     */
+    @Test
+    public void testOptionSuffixes() {
+        LayoutMetaDataService service = new LayoutMetaDataService();
+        service.registerLayoutMetaDataProviders(registry -> {
+            registry.register(option("test.spacing.node", "de.old.spacing"));
+            registry.register(option("test.spacing.edge", "de.old.edgeSpacing"));
+            registry.register(option("test.other.node"));
+        });
+        
+        assertEquals("test.spacing.node", service.getOptionDataBySuffix("spacing.node").getId());
+        assertEquals("test.spacing.edge", service.getOptionDataBySuffix("edge").getId());
+        assertNull(service.getOptionDataBySuffix("node"));
+        
+        // legacy identifiers
+        assertEquals("test.spacing.node", service.getOptionData("de.old.spacing").getId());
+        assertEquals("test.spacing.node", service.getOptionDataBySuffix("old.spacing").getId());
+        assertEquals("test.spacing.edge", service.getOptionDataBySuffix("edgeSpacing").getId());
+        
+        // legacy identifiers are only considered for suffixes that no current identifier has
+        assertEquals("test.spacing.node", service.getOptionDataBySuffix("spacing").getId());
+        service.registerLayoutMetaDataProviders(registry -> registry.register(option("test.x.spacing")));
+        assertEquals("test.x.spacing", service.getOptionDataBySuffix("spacing").getId());
+        service.registerLayoutMetaDataProviders(registry -> registry.register(option("test.y.spacing")));
+        assertNull(service.getOptionDataBySuffix("spacing"));
+    }
+
+    /**
+     * Test that concurrent lookups of the same suffixes all yield the same data.
+     */
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        LayoutMetaDataService service = new LayoutMetaDataService();
+        service.registerLayoutMetaDataProviders(registry -> {
+            for (int i = 0; i < 100; i++) {
+                registry.register(algorithm("test.algorithm" + i));
+            }
+        });
+        
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = Lists.newArrayList();
+            for (int t = 0; t < 8; t++) {
+                Callable<Boolean> lookups = () -> {
+                    for (int round = 0; round < 100; round++) {
+                        for (int i = 0; i < 100; i++) {
+                            LayoutAlgorithmData data = service.getAlgorithmDataBySuffix("algorithm" + i);
+                            if (data == null || !data.getId().equals("test.algorithm" + i)) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                };
+                futures.add(executor.submit(lookups));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates layout algorithm data with the given identifier.
+     */
+    private static LayoutAlgorithmData algorithm(final String id) {
+        return new LayoutAlgorithmData(id, id, "", new AlgorithmFactory(RandomLayoutProvider.class, ""), null,
+                null, null, EnumSet.noneOf(GraphFeature.class));
+    }
+
+    /**
+     * Creates layout option data with the given identifier and legacy identifiers.
+     */
+    private static LayoutOptionData option(final String id, final String... legacyIds) {
+        return new LayoutOptionData(id, "", id, "", null, null, null, LayoutOptionData.Type.INT, Integer.class,
+                EnumSet.allOf(LayoutOptionData.Target.class), LayoutOptionData.Visibility.VISIBLE, legacyIds);
+    }
+
+}
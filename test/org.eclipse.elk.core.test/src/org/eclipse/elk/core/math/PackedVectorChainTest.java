@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.math;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.elk.core.util.ElkUtil;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PackedVectorChain}.
+ */
+public class PackedVectorChainTest {
+
+    /**
+     * Test adding, inserting, and removing points beyond the initial capacity.
+     */
+    @Test
+    public void testModification() {
+        PackedVectorChain chain = new PackedVectorChain(1);
+        for (int i = 0; i < 10; i++) {
+            chain.add(i, -i);
+        }
+        chain.addFirst(42, 43);
+        chain.insert(5, 7, 8);
+        chain.remove(1);
+        
+        assertEquals(11, chain.size());
+        assertEquals(42, chain.getX(0), 0);
+        assertEquals(43, chain.getY(0), 0);
+        assertEquals(1, chain.getX(1), 0);
+        assertEquals(new KVector(7, 8), chain.get(4));
+        assertEquals(9, chain.getX(10), 0);
+        
+        chain.reverse();
+        assertEquals(9, chain.getX(0), 0);
+        assertEquals(42, chain.getX(10), 0);
+        
+        chain.clear();
+        assertTrue(chain.isEmpty());
+    }
+
+    /**
+     * Test that the packed chain computes the same as a vector chain with the same points.
+     */
+    @Test
+    public void testEquivalence() {
+        KVectorChain vectors = new KVectorChain(new KVector(0, 0), new KVector(3, 4), new KVector(3, 10),
+                new KVector(-2.5, 7.25));
+        PackedVectorChain chain = new PackedVectorChain(vectors);
+        assertEquals(vectors.totalLength(), chain.totalLength(), 0);
+        
+        vectors.offset(1.5, -2).scale(2, 3);
+        chain.offset(1.5, -2).scale(2, 3);
+        assertEquals(vectors, chain.toVectorChain());
+        assertEquals(vectors.toString(), chain.toString());
+        
+        PackedVectorChain fromVectors = new PackedVectorChain().add(1, 1).addAll(vectors, -1, 0.5);
+        PackedVectorChain fromChain = new PackedVectorChain().add(1, 1).addAll(chain, -1, 0.5);
+        assertEquals(fromVectors.toVectorChain(), fromChain.toVectorChain());
+    }
+
+    /**
+     * Test that applying a packed chain to an edge section reuses and removes bend points just like
+     * applying a vector chain.
+     */
+    @Test
+    public void testApplyToSection() {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        ElkEdge edge = ElkGraphUtil.createSimpleEdge(ElkGraphUtil.createNode(graph),
+                ElkGraphUtil.createNode(graph));
+        ElkEdgeSection section = ElkGraphUtil.firstEdgeSection(edge, true, true);
+        
+        PackedVectorChain chain = new PackedVectorChain().add(1, 2).add(3, 4).add(5, 6).add(7, 8);
+        ElkUtil.applyVectorChain(chain, section);
+        assertEquals(chain.toVectorChain(), ElkUtil.createVectorChain(section));
+        
+        chain.remove(1);
+        ElkUtil.applyVectorChain(chain, section);
+        assertEquals(1, section.getBendPoints().size());
+        assertEquals(chain.toVectorChain(), ElkUtil.createVectorChain(section));
+    }
+
+}
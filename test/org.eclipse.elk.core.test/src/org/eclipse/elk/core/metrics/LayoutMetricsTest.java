@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.metrics;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.elk.core.alg.ILayoutProcessor;
+import org.eclipse.elk.core.util.BasicProgressMonitor;
+import org.eclipse.elk.core.util.IElkProgressMonitor;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for {@link ProcessorMeter}, {@link LayoutMetricsRecorder}, and {@link MetricsExporter}. The
+ * graphs are simply lists of strings to which the processors append.
+ */
+public class LayoutMetricsTest {
+
+    /**
+     * Test that the meter reports one record per processor, with graph and processor counters.
+     */
+    @Test
+    public void testRecordsPerProcessor() {
+        LayoutMetricsRecorder recorder = new LayoutMetricsRecorder();
+        ProcessorMeter<List<String>> meter = new ProcessorMeter<>(recorder, "test", 2,
+                (graph, counters) -> counters.put("size", (long) graph.size()));
+
+        List<String> graph = Lists.newArrayList();
+        meter.process(new AppendingProcessor(), graph, new BasicProgressMonitor());
+        meter.process(new CountingProcessor(), graph, new BasicProgressMonitor());
+
+        List<ProcessorMetrics> records = recorder.getRecords();
+        assertEquals(2, records.size());
+
+        ProcessorMetrics first = records.get(0);
+        assertEquals("test", first.getAlgorithm());
+        assertEquals(2, first.getGraphIndex());
+        assertEquals(0, first.getSlot());
+        assertEquals("AppendingProcessor", first.getProcessor());
+        assertTrue(first.getWallTime() >= 0);
+        assertEquals(ImmutableMap.of("size", 1L), first.getCounters());
+
+        ProcessorMetrics second = records.get(1);
+        assertEquals(1, second.getSlot());
+        assertEquals("CountingProcessor", second.getProcessor());
+        assertEquals(ImmutableMap.of("size", 2L, "runs", 1L), second.getCounters());
+        
+        recorder.clear();
+        assertTrue(recorder.getRecords().isEmpty());
+    }
+
+    /**
+     * Test that a meter without a listener still runs the processors.
+     */
+    @Test
+    public void testDisabledMeter() {
+        ProcessorMeter<List<String>> meter = new ProcessorMeter<>(null, "test", 0, null);
+        assertFalse(meter.isEnabled());
+
+        List<String> graph = Lists.newArrayList();
+        meter.process(new AppendingProcessor(), graph, new BasicProgressMonitor());
+        assertEquals(1, graph.size());
+    }
+
+    /**
+     * Test the JSON export, including escaping.
+     */
+    @Test
+    public void testJsonExport() {
+        assertEquals("[]", MetricsExporter.toJson(Lists.newArrayList()));
+
+        String json = MetricsExporter.toJson(Lists.newArrayList(
+                new ProcessorMetrics("a\"b", 1, 2, "P", 10, -1, 30, ImmutableMap.of("nodes", 4L))));
+        assertEquals("[\n  {\"algorithm\": \"a\\\"b\", \"graphIndex\": 1, \"slot\": 2, \"processor\": \"P\", "
+                + "\"wallTimeNs\": 10, \"cpuTimeNs\": -1, \"allocatedBytes\": 30, \"counters\": {\"nodes\": 4}}\n]",
+                json);
+    }
+
+    /**
+     * Test that the CSV export has a column for every counter and leaves missing counters empty.
+     */
+    @Test
+    public void testCsvExport() {
+        String csv = MetricsExporter.toCsv(Lists.newArrayList(
+                new ProcessorMetrics("alg", 0, 0, "P1", 10, 20, 30, ImmutableMap.of("nodes", 4L)),
+                new ProcessorMetrics("alg", 0, 1, "P,2", 11, 21, 31, ImmutableMap.of("crossings", 5L))));
+        assertEquals("algorithm,graphIndex,slot,processor,wallTimeNs,cpuTimeNs,allocatedBytes,nodes,crossings\n"
+                + "alg,0,0,P1,10,20,30,4,\n"
+                + "alg,0,1,\"P,2\",11,21,31,,5\n", csv);
+    }
+
+    /**
+     * A processor that appends an element to the graph.
+     */
+    private static class AppendingProcessor implements ILayoutProcessor<List<String>> {
+        @Override
+        public void process(final List<String> graph, final IElkProgressMonitor progressMonitor) {
+            graph.add("node");
+        }
+    }
+
+    /**
+     * A processor that appends an element to the graph and counts its runs.
+     */
+    private static class CountingProcessor extends AppendingProcessor implements IMetricsContributor {
+        private long runs = 0;
+
+        @Override
+        public void process(final List<String> graph, final IElkProgressMonitor progressMonitor) {
+            super.process(graph, progressMonitor);
+            runs++;
+        }
+
+        @Override
+        public void contributeMetrics(final Map<String, Long> counters) {
+            counters.put("runs", runs);
+        }
+    }
+
+}
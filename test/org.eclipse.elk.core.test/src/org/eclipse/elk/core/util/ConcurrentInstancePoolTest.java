@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ConcurrentInstancePool}.
+ */
+public class ConcurrentInstancePoolTest {
+    
+    /**
+     * Factory that counts how many of its instances are alive.
+     */
+    private static final class CountingFactory implements IFactory<Object> {
+        private final AtomicInteger alive = new AtomicInteger();
+
+        @Override
+        public Object create() {
+            alive.incrementAndGet();
+            return new Object();
+        }
+
+        @Override
+        public void destroy(final Object obj) {
+            alive.decrementAndGet();
+        }
+    }
+
+    /**
+     * Test method for {@link ConcurrentInstancePool#fetch()} and {@link ConcurrentInstancePool#release(Object)}.
+     */
+    @Test
+    public void testReuse() {
+        ConcurrentInstancePool<Object> pool = new ConcurrentInstancePool<Object>(new CountingFactory());
+        
+        Object first = pool.fetch();
+        pool.release(first);
+        assertSame(first, pool.fetch());
+        
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+        assertEquals(1, pool.getCreationCount());
+    }
+
+    /**
+     * Test method for {@link ConcurrentInstancePool#release(Object)}.
+     */
+    @Test
+    public void testLimit() {
+        CountingFactory factory = new CountingFactory();
+        ConcurrentInstancePool<Object> pool = new ConcurrentInstancePool<Object>(factory, 2,
+                ConcurrentInstancePool.NO_TIMEOUT, TimeUnit.MILLISECONDS);
+        
+        List<Object> instances = new ArrayList<Object>();
+        for (int i = 0; i < 5; i++) {
+            instances.add(pool.fetch());
+        }
+        for (Object instance : instances) {
+            pool.release(instance);
+        }
+        
+        assertEquals(2, pool.size());
+        assertEquals(3, pool.getDestructionCount());
+        assertEquals(2, factory.alive.get());
+        
+        pool.clear();
+        assertEquals(0, pool.size());
+        assertEquals(0, factory.alive.get());
+    }
+
+    /**
+     * Test method for the idle timeout of {@link ConcurrentInstancePool}.
+     */
+    @Test
+    public void testIdleEviction() throws InterruptedException {
+        CountingFactory factory = new CountingFactory();
+        ConcurrentInstancePool<Object> pool = new ConcurrentInstancePool<Object>(factory, InstancePool.INFINITE,
+                1, TimeUnit.MILLISECONDS);
+        
+        Object first = pool.fetch();
+        pool.release(first);
+        Thread.sleep(20);
+        
+        assertNotSame(first, pool.fetch());
+        assertEquals(0, pool.getHitCount());
+        assertEquals(1, pool.getDestructionCount());
+    }
+
+    /**
+     * Test method for concurrent use of {@link ConcurrentInstancePool}.
+     */
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        final CountingFactory factory = new CountingFactory();
+        final ConcurrentInstancePool<Object> pool = new ConcurrentInstancePool<Object>(factory);
+        final int threadCount = 8;
+        final int rounds = 1000;
+        
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    pool.release(pool.fetch());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(threadCount * rounds, pool.getHitCount() + pool.getMissCount());
+        assertTrue(pool.getCreationCount() <= threadCount);
+        assertEquals(pool.getCreationCount(), pool.size());
+        assertEquals(pool.size(), factory.alive.get());
+    }
+    
+}
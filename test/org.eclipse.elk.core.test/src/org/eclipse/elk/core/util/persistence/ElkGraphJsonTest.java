@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.core.util.persistence;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.eclipse.elk.core.math.ElkPadding;
+import org.eclipse.elk.core.options.CoreOptions;
+import org.eclipse.elk.core.options.Direction;
+import org.eclipse.elk.graph.ElkEdge;
+import org.eclipse.elk.graph.ElkEdgeSection;
+import org.eclipse.elk.graph.ElkNode;
+import org.eclipse.elk.graph.ElkPort;
+import org.eclipse.elk.graph.properties.Property;
+import org.eclipse.elk.graph.util.ElkGraphUtil;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ElkGraphJsonReader} and {@link ElkGraphJsonWriter}.
+ */
+public class ElkGraphJsonTest {
+
+    /**
+     * Test that a graph survives being written and read again, including its layout.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        ElkNode graph = createGraph();
+        String json = write(graph);
+        ElkNode copy = read(json);
+        assertEquals(json, write(copy));
+
+        assertEquals("layered", copy.getProperty(CoreOptions.ALGORITHM));
+        assertEquals(Direction.DOWN, copy.getProperty(CoreOptions.DIRECTION));
+        assertEquals(new ElkPadding(1, 2, 3, 4), copy.getProperty(CoreOptions.PADDING));
+
+        ElkNode n1 = copy.getChildren().get(0);
+        assertEquals("n1", n1.getIdentifier());
+        assertEquals("label \"with\" quotes\nand lines", n1.getLabels().get(0).getText());
+        assertEquals(10, n1.getX(), 0);
+        assertEquals(30, n1.getWidth(), 0);
+
+        ElkEdge edge = copy.getContainedEdges().get(0);
+        assertSame(n1.getPorts().get(0), edge.getSources().get(0));
+        assertSame(copy.getChildren().get(1).getChildren().get(0), edge.getTargets().get(0));
+        ElkEdgeSection section = edge.getSections().get(0);
+        assertEquals(2, section.getBendPoints().size());
+        assertEquals(45.5, section.getBendPoints().get(1).getY(), 0);
+        assertSame(edge.getSources().get(0), section.getIncomingShape());
+    }
+
+    /**
+     * Test that elements without identifiers or with duplicate identifiers are given unique ones.
+     */
+    @Test
+    public void testGeneratedIdentifiers() throws IOException {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        ElkNode n1 = ElkGraphUtil.createNode(graph);
+        ElkNode n2 = ElkGraphUtil.createNode(graph);
+        ElkNode n3 = ElkGraphUtil.createNode(graph);
+        n2.setIdentifier("x");
+        n3.setIdentifier("x");
+        ElkGraphUtil.createSimpleEdge(n1, n2);
+        ElkGraphUtil.createSimpleEdge(n2, n3);
+
+        ElkNode copy = read(write(graph));
+        ElkNode c1 = copy.getChildren().get(0);
+        ElkNode c2 = copy.getChildren().get(1);
+        ElkNode c3 = copy.getChildren().get(2);
+        assertEquals("x", c2.getIdentifier());
+        assertNotEquals("x", c3.getIdentifier());
+        assertSame(c1, copy.getContainedEdges().get(0).getSources().get(0));
+        assertSame(c3, copy.getContainedEdges().get(1).getTargets().get(0));
+    }
+
+    /**
+     * Test reading hand-written input with numeric identifiers, option suffixes, and unknown members.
+     */
+    @Test
+    public void testHandWrittenInput() throws IOException {
+        ElkNode graph = read("{ \"id\": \"root\", \"layoutOptions\": { \"direction\": \"RIGHT\", "
+                + "\"spacing.nodeNode\": 25, \"my.option\": \"value\" }, \"comment\": [ { \"a\": null } ],\n"
+                + "  \"children\": [ { \"id\": 1, \"width\": 10 }, { \"id\": 2 } ],\n"
+                + "  \"edges\": [ { \"sources\": [ 2 ], \"targets\": [ \"1\" ] } ] }");
+
+        assertEquals(Direction.RIGHT, graph.getProperty(CoreOptions.DIRECTION));
+        assertEquals(25, graph.getProperty(CoreOptions.SPACING_NODE_NODE), 0);
+        assertTrue(graph.hasProperty(new Property<Object>("my.option")));
+        assertEquals(10, graph.getChildren().get(0).getWidth(), 0);
+
+        ElkEdge edge = graph.getContainedEdges().get(0);
+        assertSame(graph.getChildren().get(1), edge.getSources().get(0));
+        assertSame(graph.getChildren().get(0), edge.getTargets().get(0));
+    }
+
+    /**
+     * Test that malformed JSON is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void testMalformedInput() throws IOException {
+        read("{ \"id\": \"root\" \"children\": [] }");
+    }
+
+    /**
+     * Test that references to undeclared identifiers are rejected.
+     */
+    @Test(expected = IOException.class)
+    public void testUnknownReference() throws IOException {
+        read("{ \"children\": [ { \"id\": \"a\" } ], \"edges\": [ { \"sources\": [\"a\"], \"targets\": [\"b\"] } ] }");
+    }
+
+    private static ElkNode createGraph() {
+        ElkNode graph = ElkGraphUtil.createGraph();
+        graph.setIdentifier("root");
+        graph.setProperty(CoreOptions.ALGORITHM, "layered");
+        graph.setProperty(CoreOptions.DIRECTION, Direction.DOWN);
+        graph.setProperty(CoreOptions.PADDING, new ElkPadding(1, 2, 3, 4));
+
+        ElkNode n1 = ElkGraphUtil.createNode(graph);
+        n1.setIdentifier("n1");
+        n1.setLocation(10, 20);
+        n1.setDimensions(30, 40);
+        ElkGraphUtil.createLabel("label \"with\" quotes\nand lines", n1);
+        ElkPort port = ElkGraphUtil.createPort(n1);
+        port.setDimensions(5, 5);
+
+        ElkNode n2 = ElkGraphUtil.createNode(graph);
+        ElkNode n3 = ElkGraphUtil.createNode(n2);
+        n3.setIdentifier("n3");
+
+        ElkEdge edge = ElkGraphUtil.createSimpleEdge(port, n3);
+        ElkGraphUtil.createLabel("edge", edge);
+        ElkEdgeSection section = ElkGraphUtil.createEdgeSection(edge);
+        section.setStartLocation(40, 25);
+        section.setEndLocation(100, 60);
+        ElkGraphUtil.createBendPoint(section, 70, 25);
+        ElkGraphUtil.createBendPoint(section, 70, 45.5);
+        section.setIncomingShape(port);
+        section.setOutgoingShape(n3);
+        return graph;
+    }
+
+    private static String write(final ElkNode graph) throws IOException {
+        StringWriter writer = new StringWriter();
+        ElkGraphJsonWriter.write(graph, writer);
+        return writer.toString();
+    }
+
+    private static ElkNode read(final String json) throws IOException {
+        return ElkGraphJsonReader.read(new StringReader(json));
+    }
+
+}
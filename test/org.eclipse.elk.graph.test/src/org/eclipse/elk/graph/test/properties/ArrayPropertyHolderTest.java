@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Kiel University and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Kiel University - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.elk.graph.test.properties;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.elk.graph.properties.ArrayPropertyHolder;
+import org.eclipse.elk.graph.properties.IProperty;
+import org.eclipse.elk.graph.properties.MapPropertyHolder;
+import org.eclipse.elk.graph.properties.Property;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ArrayPropertyHolder} class.
+ */
+public class ArrayPropertyHolderTest {
+    
+    private static final IProperty<String> NAME = new Property<String>("test.array.name", "none");
+    private static final IProperty<Integer> COUNT = new Property<Integer>("test.array.count", 3);
+    private static final IProperty<Double> WEIGHT = new Property<Double>("test.array.weight", 0.5);
+    private static final IProperty<Boolean> FLAG = new Property<Boolean>("test.array.flag", false);
+    
+    @Test
+    public void testDefaults() {
+        ArrayPropertyHolder holder = new ArrayPropertyHolder();
+        assertEquals("none", holder.getProperty(NAME));
+        assertEquals(3, holder.getIntProperty(COUNT));
+        assertEquals(0.5, holder.getDoubleProperty(WEIGHT), 0);
+        assertFalse(holder.getBooleanProperty(FLAG));
+        assertFalse(holder.hasProperty(NAME));
+        assertTrue(holder.getAllProperties().isEmpty());
+    }
+    
+    @Test
+    public void testSetAndRemove() {
+        ArrayPropertyHolder holder = new ArrayPropertyHolder();
+        holder.setProperty(NAME, "node");
+        assertEquals("node", holder.getProperty(NAME));
+        assertTrue(holder.hasProperty(NAME));
+        
+        holder.setProperty(NAME, null);
+        assertFalse(holder.hasProperty(NAME));
+        assertEquals("none", holder.getProperty(NAME));
+    }
+    
+    @Test
+    public void testEqualIdentifiers() {
+        IProperty<String> sameName = new Property<String>("test.array.name", "other default");
+        
+        ArrayPropertyHolder holder = new ArrayPropertyHolder();
+        holder.setProperty(NAME, "node");
+        assertEquals("node", holder.getProperty(sameName));
+    }
+    
+    @Test
+    public void testPrimitives() {
+        ArrayPropertyHolder holder = new ArrayPropertyHolder();
+        holder.setProperty(COUNT, 42);
+        holder.setProperty(WEIGHT, 2.25);
+        holder.setProperty(FLAG, true);
+        
+        assertEquals(42, holder.getIntProperty(COUNT));
+        assertEquals(2.25, holder.getDoubleProperty(WEIGHT), 0);
+        assertTrue(holder.getBooleanProperty(FLAG));
+        
+        // Primitive values are visible as boxed values as well, and vice versa
+        assertEquals(Integer.valueOf(42), holder.getProperty(COUNT));
+        assertEquals(Double.valueOf(2.25), holder.getProperty(WEIGHT));
+        assertEquals(Boolean.TRUE, holder.getProperty(FLAG));
+        
+        holder.setProperty(COUNT, Integer.valueOf(7));
+        assertEquals(7, holder.getIntProperty(COUNT));
+    }
+    
+    @Test
+    public void testManyProperties() {
+        List<IProperty<Integer>> properties = new ArrayList<IProperty<Integer>>();
+        for (int i = 0; i < 100; i++) {
+            properties.add(new Property<Integer>("test.array.many." + i, -1));
+        }
+        
+        ArrayPropertyHolder holder = new ArrayPropertyHolder();
+        for (int i = 0; i < properties.size(); i++) {
+            holder.setProperty(properties.get(i), i);
+        }
+        
+        // Remove every third property to exercise the removal of entries from probe sequences
+        for (int i = 0; i < properties.size(); i += 3) {
+            holder.setProperty(properties.get(i), null);
+        }
+        
+        for (int i = 0; i < properties.size(); i++) {
+            int expected = i % 3 == 0 ? -1 : i;
+            assertEquals(expected, holder.getIntProperty(properties.get(i)));
+        }
+        assertEquals(66, holder.getAllProperties().size());
+    }
+    
+    @Test
+    public void testCopyProperties() {
+        ArrayPropertyHolder source = new ArrayPropertyHolder();
+        source.setProperty(NAME, "source");
+        source.setProperty(COUNT, 5);
+        
+        ArrayPropertyHolder arrayCopy = new ArrayPropertyHolder().copyProperties(source);
+        assertEquals("source", arrayCopy.getProperty(NAME));
+        assertEquals(5, arrayCopy.getIntProperty(COUNT));
+        
+        MapPropertyHolder mapCopy = new MapPropertyHolder().copyProperties(source);
+        assertEquals("source", mapCopy.getProperty(NAME));
+        assertEquals(Integer.valueOf(5), mapCopy.getProperty(COUNT));
+        
+        Map<IProperty<?>, Object> all = new ArrayPropertyHolder().copyProperties(mapCopy).getAllProperties();
+        assertEquals(2, all.size());
+        assertEquals("source", all.get(NAME));
+    }
+    
+}